@@ -1,5 +1,6 @@
 package pt.ipp.isep.dei.controller.algorithms;
 
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
 import pt.ipp.isep.dei.domain.Graph.Graph;
 import pt.ipp.isep.dei.domain.Graph.Edge;
 import pt.ipp.isep.dei.domain.Graph.WeightProvider;
@@ -8,50 +9,64 @@ import java.util.*;
 
 public class BellmanFordAlgorithm {
 
-    // O(V * E), [O(V) + O(V * E) + O(E) = O(V * E)]
+    // O(V * E), [O(V + E) + O(V * E) + O(E) = O(V * E)]
     public static <V, E> List<Edge<V,E>> bellmanFord(Graph<V, E> g, V vOrig, int[] path, double[] dist) {
 
         int n = g.numVertices();    // O(1)
 
+        // Adjacência por índices, calculada uma única vez. O(V + E)
+        int[][] targets = new int[n][];
+        double[][] weights = new double[n][];
+        for (int u = 0; u < n; u++) {   // O(V)
+            targets[u] = g.outgoingEdgeIds(u);                  // O(deg(u))
+            weights[u] = new double[targets[u].length];
+            for (int i = 0; i < targets[u].length; i++) {       // O(deg(u)), [soma = O(E)]
+                weights[u][i] = ((WeightProvider) g.weight(u, targets[u][i])).getWeightValue();
+            }
+        }
+
         // O(V)
-        for (V v : g.vertices()) {  // O(V), [O(V) + O(1) = O(V)]
-            int key = g.key(v);                     // O(1)
-            dist[key] = Double.POSITIVE_INFINITY;   // O(1), [O(1) + O(1) = O(1)]
+        for (int key = 0; key < n; key++) {
+            dist[key] = Double.POSITIVE_INFINITY;   // O(1)
             path[key] = -1;                         // O(1), [O(1) + O(1) = O(1)]
         }
 
-        dist[g.key(vOrig)] = 0;     // O(1), [O(1) + O(V) = O(V)]
+        dist[g.key(vOrig)] = 0;     // O(1)
 
         // O(V * E)
         for (int i = 1; i < n; i++) {   // O(V), [O(1) + O(V) = O(V)]
             boolean updated = false;    // O(1)
 
-            for (Edge<V, E> edge : g.edges()) { // O(E), [O(E) * O(V) + O(1) = O(V * E)]
-                int u = g.key(edge.getVOrig()); // O(1)
-                int v = g.key(edge.getVDest()); // O(1), [O(1) + O(1) = O(1)]
-                double w = ((WeightProvider) edge.getWeight()).getWeightValue();    // O(1), [O(1) + O(1) = O(1)]
+            for (int u = 0; u < n; u++) {                       // O(V)
+                if (dist[u] == Double.POSITIVE_INFINITY) continue;
 
-                if (dist[u] != Double.POSITIVE_INFINITY && dist[v] > dist[u] + w) { // O(1), [O(1) + O(1) + O(1) + O(1) = O(1)]
-                    dist[v] = dist[u] + w;        // O(1), [O(1) + O(1) = O(1)]
-                    path[v] = u;                  // O(1), [O(1) + O(1) = O(1)]
-                    updated = true;               // O(1), [O(1) + O(1) = O(1)
+                for (int j = 0; j < targets[u].length; j++) {   // O(deg(u)), [soma = O(E)]
+                    int v = targets[u][j];                      // O(1)
+                    double w = weights[u][j];                   // O(1)
+
+                    if (dist[v] > dist[u] + w) {    // O(1)
+                        dist[v] = dist[u] + w;        // O(1), [O(1) + O(1) = O(1)]
+                        path[v] = u;                  // O(1), [O(1) + O(1) = O(1)]
+                        updated = true;               // O(1), [O(1) + O(1) = O(1)
+                    }
                 }
             }
 
             if (!updated) break;    // O(1), [O(1) + O(V * E) = O(V * E)]
         }
 
-        // O(E) OU O(V * E)
-        for (Edge<V, E> edge : g.edges()) { // O(E)
-            int u = g.key(edge.getVOrig());         // O(1)
-            int v = g.key(edge.getVDest());         // O(1), [O(1) + O(1) = O(1)]
-            double w = ((WeightProvider) edge.getWeight()).getWeightValue();    // O(1), [O(1) + O(1) = O(1)]
+        // O(E)
+        for (int u = 0; u < n; u++) {
+            if (dist[u] == Double.POSITIVE_INFINITY) continue;
 
-            if (dist[u] != Double.POSITIVE_INFINITY && dist[v] > dist[u] + w) {     // O(1), [O(1) + O(1) + O(1) + O(1) = O(1)]
-                // Negative cycle found
-                return extractNegativeCycleEdges(g, path, edge.getVDest()); // O(V)
-            }
+            for (int j = 0; j < targets[u].length; j++) {
+                int v = targets[u][j];          // O(1)
 
+                if (dist[v] > dist[u] + weights[u][j]) {     // O(1)
+                    // Negative cycle found
+                    return extractNegativeCycleEdges(g, path, g.vertex(v)); // O(V)
+                }
+            }
         }
 
         return null; // no negative cycle
@@ -91,4 +106,298 @@ public class BellmanFordAlgorithm {
         cycle.add(g.vertex(v));                // O(1), [O(1) + O(V) = O(V)]
         return cycle;                          // O(1), [O(1) + O(V) = O(V)]
     }
+
+    // O(V * E)
+    /**
+     * Bellman-Ford sobre um grafo compacto (CSR).
+     *
+     * @param g grafo compacto
+     * @param profile perfil de peso a utilizar
+     * @param sourceIdx índice do vértice origem
+     * @param path vetor de predecessores (preenchido)
+     * @param dist vetor de distâncias (preenchido)
+     * @return vértices do ciclo negativo (o primeiro repetido no fim) ou null se não existir
+     */
+    public static <V> List<V> bellmanFord(CompactGraph<V> g, int profile, int sourceIdx, int[] path, double[] dist) {
+
+        int n = g.numVertices();            // O(1)
+        int[] offsets = g.offsets();
+        int[] targets = g.targets();
+        double[] weights = g.weights(profile);
+
+        Arrays.fill(dist, 0, n, Double.POSITIVE_INFINITY);  // O(V)
+        Arrays.fill(path, 0, n, -1);                        // O(V)
+
+        dist[sourceIdx] = 0;
+
+        // O(V * E)
+        for (int i = 1; i < n; i++) {       // O(V)
+            boolean updated = false;
+
+            for (int u = 0; u < n; u++) {   // O(V + E)
+                if (dist[u] == Double.POSITIVE_INFINITY) continue;
+
+                for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                    int v = targets[arc];
+                    if (dist[v] > dist[u] + weights[arc]) {
+                        dist[v] = dist[u] + weights[arc];
+                        path[v] = u;
+                        updated = true;
+                    }
+                }
+            }
+
+            if (!updated) break;
+        }
+
+        // O(E)
+        for (int u = 0; u < n; u++) {
+            if (dist[u] == Double.POSITIVE_INFINITY) continue;
+
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                if (dist[targets[arc]] > dist[u] + weights[arc]) {
+                    // Negative cycle found
+                    return extractNegativeCycleVertices(g, path, targets[arc]);    // O(V)
+                }
+            }
+        }
+
+        return null; // no negative cycle
+    }
+
+    // O(V)
+    private static <V> List<V> extractNegativeCycleVertices(CompactGraph<V> g, int[] path, int start) {
+        int v = start;
+
+        for (int i = 0; i < g.numVertices(); i++) {     // O(V)
+            v = path[v];
+        }
+
+        List<V> cycle = new ArrayList<>();
+        int current = v;
+
+        do {                                            // O(V)
+            cycle.add(g.vertex(current));
+            current = path[current];
+        } while (current != v);
+
+        cycle.add(g.vertex(v));
+        return cycle;
+    }
+
+    // O(V * E) no pior caso, tipicamente O(E)
+    /**
+     * Variante SPFA (fila de vértices cuja distância mudou) do Bellman-Ford,
+     * com deteção antecipada de ciclos negativos por desmontagem de subárvores.
+     *
+     * @param g grafo
+     * @param vOrig vértice origem
+     * @param path vetor de predecessores (preenchido)
+     * @param dist vetor de distâncias (preenchido)
+     * @return arestas do ciclo negativo encontrado, pela ordem do ciclo, ou null se não existir
+     */
+    public static <V, E> List<Edge<V,E>> spfa(Graph<V, E> g, V vOrig, int[] path, double[] dist) {
+
+        int n = g.numVertices();
+
+        // Adjacência em formato CSR, calculada uma única vez. O(V + E)
+        int[] offsets = new int[n + 1];
+        int[][] adjacent = new int[n][];
+        for (int u = 0; u < n; u++) {
+            adjacent[u] = g.outgoingEdgeIds(u);
+            offsets[u + 1] = offsets[u] + adjacent[u].length;
+        }
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        for (int u = 0; u < n; u++) {
+            for (int i = 0; i < adjacent[u].length; i++) {
+                targets[offsets[u] + i] = adjacent[u][i];
+                weights[offsets[u] + i] = ((WeightProvider) g.weight(u, adjacent[u][i])).getWeightValue();
+            }
+        }
+
+        int[] cycle = spfa(n, offsets, targets, weights, g.key(vOrig), path, dist);
+        if (cycle == null) return null;
+
+        List<Edge<V,E>> edges = new ArrayList<>();
+        for (int i = 0; i < cycle.length - 1; i++) {    // O(V)
+            edges.add(g.edge(cycle[i], cycle[i + 1]));
+        }
+        return edges;
+    }
+
+    // O(V * E) no pior caso, tipicamente O(E)
+    /**
+     * Variante SPFA do Bellman-Ford sobre um grafo compacto (CSR).
+     *
+     * @param g grafo compacto
+     * @param profile perfil de peso a utilizar
+     * @param sourceIdx índice do vértice origem
+     * @param path vetor de predecessores (preenchido)
+     * @param dist vetor de distâncias (preenchido)
+     * @return vértices do ciclo negativo pela ordem do ciclo (o primeiro repetido no fim) ou null se não existir
+     */
+    public static <V> List<V> spfa(CompactGraph<V> g, int profile, int sourceIdx, int[] path, double[] dist) {
+
+        int[] cycle = spfa(g.numVertices(), g.offsets(), g.targets(), g.weights(profile), sourceIdx, path, dist);
+        if (cycle == null) return null;
+
+        List<V> vertices = new ArrayList<>(cycle.length);
+        for (int v : cycle) {
+            vertices.add(g.vertex(v));
+        }
+        return vertices;
+    }
+
+    // O(V * E) no pior caso, tipicamente O(E)
+    /**
+     * Calcula os potenciais de Johnson: h[v] é a distância mínima até v a
+     * partir de um vértice virtual ligado a todos os vértices com custo 0.
+     * Com estes potenciais, w(u,v) + h[u] - h[v] é não negativo para todas
+     * as arestas, o que permite usar Dijkstra sobre os pesos reajustados.
+     *
+     * @param g grafo compacto
+     * @param profile perfil de peso a utilizar
+     * @param potential vetor de potenciais (preenchido, tamanho V)
+     * @return vértices de um ciclo negativo (os potenciais não são válidos) ou null
+     */
+    public static <V> List<V> johnsonPotentials(CompactGraph<V> g, int profile, double[] potential) {
+
+        int n = g.numVertices();
+        int[] offsets = g.offsets();
+        int[] targets = g.targets();
+        double[] weights = g.weights(profile);
+        int m = targets.length;
+
+        // vértice virtual n com uma aresta de custo 0 para cada vértice. O(V + E)
+        int[] virtualOffsets = Arrays.copyOf(offsets, n + 2);
+        virtualOffsets[n + 1] = m + n;
+        int[] virtualTargets = Arrays.copyOf(targets, m + n);
+        double[] virtualWeights = Arrays.copyOf(weights, m + n);
+        for (int v = 0; v < n; v++) {
+            virtualTargets[m + v] = v;
+        }
+
+        int[] path = new int[n + 1];
+        double[] dist = new double[n + 1];
+        int[] cycle = spfa(n + 1, virtualOffsets, virtualTargets, virtualWeights, n, path, dist);
+
+        System.arraycopy(dist, 0, potential, 0, n);
+        if (cycle == null) return null;
+
+        List<V> vertices = new ArrayList<>(cycle.length);
+        for (int v : cycle) {
+            vertices.add(g.vertex(v));
+        }
+        return vertices;
+    }
+
+    /**
+     * SPFA com desmontagem de subárvores (Tarjan).
+     *
+     * Apenas os vértices cuja distância mudou entram na fila. A árvore de
+     * caminhos mínimos é mantida em pré-ordem numa lista duplamente ligada
+     * (next/prev) com a profundidade de cada vértice, pelo que a subárvore
+     * de v são os vértices que seguem v na lista com profundidade superior.
+     * Quando dist[v] melhora, a sua subárvore é retirada da árvore (os seus
+     * vértices deixam de ser processados até voltarem a melhorar); se o
+     * vértice u que originou a melhoria estiver nessa subárvore, u alcança
+     * v e v alcança u com custo negativo, pelo que existe um ciclo negativo.
+     *
+     * @return vértices do ciclo (o primeiro repetido no fim) ou null
+     */
+    static int[] spfa(int n, int[] offsets, int[] targets, double[] weights, int source, int[] path, double[] dist) {
+
+        Arrays.fill(dist, 0, n, Double.POSITIVE_INFINITY);  // O(V)
+        Arrays.fill(path, 0, n, -1);                        // O(V)
+
+        if (source < 0 || source >= n) return null;
+
+        int[] next = new int[n];
+        int[] prev = new int[n];
+        int[] depth = new int[n];
+        boolean[] inTree = new boolean[n];
+        boolean[] inQueue = new boolean[n];
+        int[] queue = new int[n];           // fila circular, cada vértice no máximo uma vez
+        int head = 0;
+        int size = 0;
+
+        dist[source] = 0;
+        next[source] = -1;
+        prev[source] = -1;
+        inTree[source] = true;
+        queue[0] = source;
+        inQueue[source] = true;
+        size = 1;
+
+        while (size > 0) {
+            int u = queue[head];
+            head = (head + 1) % n;
+            size--;
+            inQueue[u] = false;
+
+            // a distância de u vai melhorar através de um antecessor, não vale a pena processá-lo agora
+            if (!inTree[u]) continue;
+
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int v = targets[arc];
+                double newDist = dist[u] + weights[arc];
+
+                if (!(newDist < dist[v])) continue;
+
+                if (v == u) return new int[]{u, u};
+
+                if (inTree[v]) {
+                    // desmonta a subárvore de v
+                    int x = next[v];
+                    while (x != -1 && depth[x] > depth[v]) {
+                        if (x == u) {
+                            path[v] = u;
+                            return cycleFrom(path, v, u, n);
+                        }
+                        inTree[x] = false;
+                        x = next[x];
+                    }
+                    if (prev[v] != -1) next[prev[v]] = x;
+                    if (x != -1) prev[x] = prev[v];
+                }
+
+                dist[v] = newDist;
+                path[v] = u;
+                depth[v] = depth[u] + 1;
+                inTree[v] = true;
+
+                // v passa a ser o primeiro filho de u na pré-ordem
+                next[v] = next[u];
+                prev[v] = u;
+                if (next[u] != -1) prev[next[u]] = v;
+                next[u] = v;
+
+                if (!inQueue[v]) {
+                    queue[(head + size) % n] = v;
+                    inQueue[v] = true;
+                    size++;
+                }
+            }
+        }
+
+        return null; // no negative cycle
+    }
+
+    // O(V)
+    private static int[] cycleFrom(int[] path, int v, int u, int n) {
+        // u -> v fecha o ciclo; de u sobe-se pelos predecessores até v
+        List<Integer> reversed = new ArrayList<>();
+        reversed.add(v);
+        for (int x = u; x != v && reversed.size() <= n; x = path[x]) {
+            reversed.add(x);
+        }
+        reversed.add(v);
+
+        int[] cycle = new int[reversed.size()];
+        for (int i = 0; i < cycle.length; i++) {
+            cycle[i] = reversed.get(cycle.length - 1 - i);
+        }
+        return cycle;
+    }
 }
@@ -0,0 +1,161 @@
+package pt.ipp.isep.dei.controller.algorithms;
+
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+import pt.ipp.isep.dei.domain.Graph.UnionFind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Árvore geradora mínima (MST) pelo algoritmo de Borůvka, com as rondas
+ * executadas em paralelo.
+ *
+ * Em cada ronda cada componente escolhe a aresta mais leve que sai dela e
+ * todas essas arestas entram na MST. O número de componentes pelo menos
+ * reduz-se a metade, pelo que há no máximo log V rondas.
+ *
+ * As arestas são divididas em blocos fixos, um por tarefa. Em cada ronda
+ * cada tarefa retira do seu bloco as arestas que já ligam a mesma
+ * componente e propõe as restantes como mínimo da componente de cada
+ * extremo (atualização atómica). Os empates são desfeitos pelo índice da
+ * aresta, o que impede a criação de ciclos.
+ */
+public class BoruvkaAlgorithm {
+
+    /**
+     * Número de blocos de arestas por worker, para equilibrar a carga.
+     */
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    /**
+     * Calcula a MST usando o pool comum.
+     *
+     * @param g grafo compacto
+     * @param profile perfil de peso
+     * @param <V> tipo do vértice
+     * @return índices das arestas (posições em targets()) da MST
+     */
+    public static <V> int[] boruvka(CompactGraph<V> g, int profile) {
+        return boruvka(g, profile, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Calcula a MST (ou floresta, se o grafo não for conexo).
+     * Num grafo não direcionado cada ligação só é considerada uma vez (u < v).
+     *
+     * @param g grafo compacto
+     * @param profile perfil de peso
+     * @param executor executor onde as tarefas de cada ronda são submetidas
+     * @param workers número de workers
+     * @param <V> tipo do vértice
+     * @return índices das arestas (posições em targets()) da MST
+     */
+    // Complexity O((E / workers + V) * log V)
+    public static <V> int[] boruvka(CompactGraph<V> g, int profile, ExecutorService executor, int workers) {
+        int n = g.numVertices();
+        int[] offsets = g.offsets();
+        int[] targets = g.targets();
+        double[] weights = g.weights(profile);
+
+        int[] sources = new int[targets.length];
+        int[] edges = new int[targets.length];
+        int m = 0;
+        for (int u = 0; u < n; u++) {
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int v = targets[arc];
+                sources[arc] = u;
+                if (g.isDirected() ? u != v : u < v) edges[m++] = arc;
+            }
+        }
+
+        int chunks = Math.max(1, Math.min(m, Math.max(1, workers) * CHUNKS_PER_WORKER));
+        int[] chunkStart = new int[chunks];
+        int[] chunkLength = new int[chunks];
+        for (int c = 0; c < chunks; c++) {
+            chunkStart[c] = (int) ((long) m * c / chunks);
+            chunkLength[c] = (int) ((long) m * (c + 1) / chunks) - chunkStart[c];
+        }
+
+        UnionFind components = new UnionFind(n);
+        int[] label = new int[n];
+        AtomicIntegerArray best = new AtomicIntegerArray(n);
+
+        int[] mst = new int[Math.max(0, n - 1)];
+        int size = 0;
+
+        List<Callable<Void>> tasks = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            int chunk = c;
+            tasks.add(() -> {
+                proposeLightest(edges, chunkStart[chunk], chunkLength, chunk, sources, targets, weights, label, best);
+                return null;
+            });
+        }
+
+        boolean merged = true;
+        while (merged && size < mst.length) {
+            for (int v = 0; v < n; v++) {                       // O(V) por ronda
+                label[v] = components.find(v);
+                best.set(v, -1);
+            }
+
+            ParallelTasks.invokeAll(executor, tasks);                          // O(E / workers) por ronda
+
+            merged = false;
+            for (int v = 0; v < n; v++) {
+                int arc = best.get(v);
+                if (arc != -1 && components.union(sources[arc], targets[arc])) {
+                    mst[size++] = arc;
+                    merged = true;
+                }
+            }
+        }
+
+        return Arrays.copyOf(mst, size);
+    }
+
+    /**
+     * Retira do bloco as arestas internas a uma componente e propõe as
+     * restantes como aresta mais leve das componentes dos seus extremos.
+     */
+    private static void proposeLightest(int[] edges, int start, int[] chunkLength, int chunk,
+                                        int[] sources, int[] targets, double[] weights,
+                                        int[] label, AtomicIntegerArray best) {
+        int kept = start;
+        int end = start + chunkLength[chunk];
+
+        for (int i = start; i < end; i++) {
+            int arc = edges[i];
+            int cu = label[sources[arc]];
+            int cv = label[targets[arc]];
+            if (cu == cv) continue;
+
+            edges[kept++] = arc;
+            offer(best, cu, arc, weights);
+            offer(best, cv, arc, weights);
+        }
+
+        chunkLength[chunk] = kept - start;
+    }
+
+    /**
+     * Substitui atomicamente a aresta proposta para uma componente se a nova
+     * for mais leve (em caso de empate, a de menor índice).
+     */
+    private static void offer(AtomicIntegerArray best, int component, int arc, double[] weights) {
+        while (true) {
+            int current = best.get(component);
+            if (current != -1 && !lighter(arc, current, weights)) return;
+            if (best.compareAndSet(component, current, arc)) return;
+        }
+    }
+
+    private static boolean lighter(int a, int b, double[] weights) {
+        return weights[a] < weights[b] || (weights[a] == weights[b] && a < b);
+    }
+}
@@ -0,0 +1,203 @@
+package pt.ipp.isep.dei.controller.algorithms;
+
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+import pt.ipp.isep.dei.domain.Graph.IndexedMinHeap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Worker de Brandes sobre um grafo compacto (CSR).
+ *
+ * Cada worker reutiliza os seus vetores de trabalho entre origens e, a partir
+ * de uma única execução de Dijkstra por origem, acumula as dependências
+ * (betweenness) e as distâncias inversas (harmonic closeness).
+ *
+ * @param <V> tipo do vértice
+ */
+final class BrandesWorker<V> {
+
+    private final CompactGraph<V> graph;
+    private final int profile;
+    private final int[] offsets;
+    private final int[] targets;
+    private final double[] weights;
+
+    private final double[] dist;
+    private final double[] sigma;
+    private final double[] delta;
+    private final int[] visitedOrder;
+    private final IndexedMinHeap heap;
+
+    /**
+     * Dependências acumuladas por vértice.
+     */
+    private final double[] betweenness;
+
+    /**
+     * Soma de 1/d(s,v) por vértice destino v, para as origens processadas.
+     */
+    private final double[] inverseDistances;
+
+    /**
+     * Soma de 1/d(s,v) por vértice origem s (partilhado entre workers,
+     * cada origem é escrita por um único worker).
+     */
+    private final double[] sourceInverseDistances;
+
+    BrandesWorker(CompactGraph<V> graph, int profile, double[] sourceInverseDistances) {
+        int n = graph.numVertices();
+        this.graph = graph;
+        this.profile = profile;
+        this.offsets = graph.offsets();
+        this.targets = graph.targets();
+        this.weights = graph.weights(profile);
+        this.dist = new double[n];
+        this.sigma = new double[n];
+        this.delta = new double[n];
+        this.visitedOrder = new int[n];
+        this.heap = new IndexedMinHeap(n);
+        this.betweenness = new double[n];
+        this.inverseDistances = new double[n];
+        this.sourceInverseDistances = sourceInverseDistances;
+    }
+
+    /**
+     * Acumula as dependências e as distâncias inversas da origem s.
+     *
+     * @param s índice da origem
+     */
+    // Complexity = O(E * log V) + O(V + E)
+    void accumulate(int s) {
+
+        int visited = DijkstraBrandesAlgorithm.shortestPathDijkstraBrandes(graph, profile, s, dist, sigma, visitedOrder, heap);
+
+        double sourceSum = 0.0;
+        for (int i = 0; i < visited; i++) {
+            int v = visitedOrder[i];
+            delta[v] = 0.0;
+            if (v != s && dist[v] > 0.0) {
+                double inverse = 1.0 / dist[v];
+                inverseDistances[v] += inverse;
+                sourceSum += inverse;
+            }
+        }
+        sourceInverseDistances[s] = sourceSum;
+
+        // -------- Back-propagation pelos sucessores --------
+        for (int i = visited - 1; i >= 0; i--) {
+            int v = visitedOrder[i];
+            double dv = 0.0;
+
+            for (int arc = offsets[v]; arc < offsets[v + 1]; arc++) {
+                int w = targets[arc];
+                if (sigma[w] != 0 && dist[v] + weights[arc] == dist[w]) {
+                    dv += (sigma[v] / sigma[w]) * (1.0 + delta[w]);
+                }
+            }
+
+            delta[v] = dv;
+            if (v != s) {
+                betweenness[v] += dv;
+            }
+        }
+    }
+
+    /**
+     * Processa sequencialmente as primeiras count origens de sources.
+     *
+     * @param graph grafo compacto
+     * @param profile perfil de peso a utilizar como distância
+     * @param sources índices das origens
+     * @param count número de origens a processar
+     * @param <V> tipo do vértice
+     * @return totais acumulados
+     */
+    // Complexity = O(count * E * log V)
+    static <V> Totals accumulateAll(CompactGraph<V> graph, int profile, int[] sources, int count) {
+        Totals totals = new Totals(graph.numVertices());
+        BrandesWorker<V> worker = new BrandesWorker<>(graph, profile, totals.sourceInverseDistances);
+        for (int i = 0; i < count; i++) {
+            worker.accumulate(sources[i]);
+        }
+        System.arraycopy(worker.betweenness, 0, totals.betweenness, 0, worker.betweenness.length);
+        System.arraycopy(worker.inverseDistances, 0, totals.inverseDistances, 0, worker.inverseDistances.length);
+        return totals;
+    }
+
+    /**
+     * Processa as primeiras count origens de sources, distribuídas por
+     * workers com vetores próprios que retiram origens de um contador
+     * partilhado. Os acumuladores parciais são somados no fim.
+     *
+     * @param graph grafo compacto
+     * @param profile perfil de peso a utilizar como distância
+     * @param sources índices das origens
+     * @param count número de origens a processar
+     * @param executor executor onde os workers são submetidos
+     * @param workers número de workers
+     * @param <V> tipo do vértice
+     * @return totais acumulados
+     */
+    // Complexity = O(count * E * log V / workers) + O(V * workers)
+    static <V> Totals accumulateAll(CompactGraph<V> graph, int profile, int[] sources, int count,
+                                    ExecutorService executor, int workers) {
+
+        int n = graph.numVertices();
+        int threads = Math.max(1, Math.min(workers, count));
+        AtomicInteger nextSource = new AtomicInteger();
+        Totals totals = new Totals(n);
+
+        List<Future<BrandesWorker<V>>> partials = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            partials.add(executor.submit(() -> {
+                BrandesWorker<V> worker = new BrandesWorker<>(graph, profile, totals.sourceInverseDistances);
+                int next;
+                while ((next = nextSource.getAndIncrement()) < count) {
+                    worker.accumulate(sources[next]);
+                }
+                return worker;
+            }));
+        }
+
+        for (Future<BrandesWorker<V>> partial : partials) {    // Complexity = O(V * workers)
+            BrandesWorker<V> worker = ParallelTasks.join(partial);
+            for (int v = 0; v < n; v++) {
+                totals.betweenness[v] += worker.betweenness[v];
+                totals.inverseDistances[v] += worker.inverseDistances[v];
+            }
+        }
+
+        return totals;
+    }
+
+    /**
+     * Totais acumulados por todos os workers.
+     */
+    static final class Totals {
+
+        /**
+         * Dependências acumuladas por vértice (betweenness não normalizado).
+         */
+        final double[] betweenness;
+
+        /**
+         * Soma de 1/d(s,v) por vértice destino, sobre as origens processadas.
+         */
+        final double[] inverseDistances;
+
+        /**
+         * Soma de 1/d(s,v) por vértice origem (0 para origens não processadas).
+         */
+        final double[] sourceInverseDistances;
+
+        Totals(int n) {
+            this.betweenness = new double[n];
+            this.inverseDistances = new double[n];
+            this.sourceInverseDistances = new double[n];
+        }
+    }
+}
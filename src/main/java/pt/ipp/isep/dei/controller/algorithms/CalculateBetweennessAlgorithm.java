@@ -1,9 +1,12 @@
 package pt.ipp.isep.dei.controller.algorithms;
 
 import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
 import pt.ipp.isep.dei.domain.Graph.Graph;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 public class CalculateBetweennessAlgorithm {
 
@@ -14,83 +17,235 @@ public class CalculateBetweennessAlgorithm {
     }
 
 
+    // Complexity = O(V + E) + O(V * E * log V) = O(V * E * log V)
     public Map<StationEsinf, Double> calculateBetweenness() {
+        return calculateBetweenness(graph.freeze(Double::doubleValue), 0);
+    }
 
-        Map<StationEsinf, Double> betweenness = new HashMap<>();
-        List<StationEsinf> vertices = graph.vertices();
-        int n = vertices.size();
-
-        // Complexity = O(V)
-        for (StationEsinf v : vertices) {
-            betweenness.put(v, 0.0);
-        }
+    /**
+     * Calcula o betweenness normalizado de todos os vértices de um grafo compacto.
+     *
+     * @param graph grafo compacto
+     * @param profile perfil de peso a utilizar como distância
+     * @param <V> tipo do vértice
+     * @return mapa de betweenness por vértice
+     */
+    // Complexity = O(V * E * log V)
+    public static <V> Map<V, Double> calculateBetweenness(CompactGraph<V> graph, int profile) {
 
-        // Complexity = O(V) * ( O(E * log V ) + O(V + E) ) = O(V * E * log V)
-        for (StationEsinf s : vertices) {   // Complexity = O(V)
+        int[] sources = allSources(graph.numVertices());
 
-            double[] dist = new double[n];
-            double[] sigma = new double[n];
-            double[] delta = new double[n];
+        double[] betweenness = BrandesWorker.accumulateAll(graph, profile, sources, sources.length).betweenness;   // Complexity = O(V * E * log V)
 
-            Map<Integer, Set<Integer>> predecessors = new HashMap<>();
-            List<Integer> visitedOrder = new ArrayList<>();
+        return normalizeBetweenness(graph, betweenness);   // Complexity = O(V)
+    }
 
-            for (int i = 0; i < n; i++) { // Complexity = O(V)
-                dist[i] = Double.POSITIVE_INFINITY;
-                sigma[i] = 0.0;
-                delta[i] = 0.0;
-                predecessors.put(i, new HashSet<>());
-            }
+    /**
+     * Calcula o betweenness em paralelo, usando a common pool do ForkJoin
+     * com um worker por core disponível.
+     *
+     * @param graph grafo compacto
+     * @param profile perfil de peso a utilizar como distância
+     * @param <V> tipo do vértice
+     * @return mapa de betweenness por vértice
+     */
+    public static <V> Map<V, Double> calculateBetweennessParallel(CompactGraph<V> graph, int profile) {
+        return calculateBetweenness(graph, profile, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
 
-            int sIdx = graph.key(s);
-            dist[sIdx] = 0.0;
-            sigma[sIdx] = 1.0;
+    /**
+     * Calcula o betweenness em paralelo num executor fornecido.
+     *
+     * Cada worker tem os seus próprios vetores de trabalho e acumulador de
+     * dependências, e retira origens de um contador partilhado até não
+     * restarem origens. Os acumuladores são somados no fim.
+     *
+     * @param graph grafo compacto
+     * @param profile perfil de peso a utilizar como distância
+     * @param executor executor onde os workers são submetidos
+     * @param workers número de workers
+     * @param <V> tipo do vértice
+     * @return mapa de betweenness por vértice
+     */
+    // Complexity = O(V * E * log V / workers) + O(V * workers)
+    public static <V> Map<V, Double> calculateBetweenness(CompactGraph<V> graph, int profile, ExecutorService executor, int workers) {
+
+        int[] sources = allSources(graph.numVertices());
+
+        double[] betweenness = BrandesWorker.accumulateAll(graph, profile, sources, sources.length, executor, workers).betweenness;
+
+        return normalizeBetweenness(graph, betweenness);   // Complexity = O(V)
+    }
 
-            DijkstraBrandesAlgorithm.shortestPathDijkstraBrandes(graph, s, dist, sigma, predecessors, visitedOrder);    // Complexity = O(E * log V)
+    /**
+     * Estima o betweenness a partir de k origens amostradas uniformemente
+     * (sem reposição), escalando as dependências acumuladas por V/k.
+     *
+     * O erro absoluto sobre o betweenness normalizado de qualquer vértice
+     * é inferior a {@link ApproximationResult#getEpsilon()} com probabilidade
+     * de pelo menos {@link ApproximationResult#getConfidence()} (desigualdade de
+     * Hoeffding com union bound sobre os V vértices).
+     *
+     * @param graph grafo compacto
+     * @param profile perfil de peso a utilizar como distância
+     * @param samples número de origens a amostrar (limitado a V)
+     * @param delta probabilidade de falha admitida para o erro reportado
+     * @param random gerador aleatório usado na amostragem
+     * @param <V> tipo do vértice
+     * @return betweenness estimado e respetivo erro
+     */
+    // Complexity = O(k * E * log V / workers) + O(V * workers)
+    public static <V> ApproximationResult<V> calculateApproximateBetweenness(CompactGraph<V> graph, int profile, int samples, double delta, Random random) {
+
+        int n = graph.numVertices();
+        int k = Math.max(0, Math.min(samples, n));
+        int[] sources = sampleSources(n, k, random);
+
+        double[] betweenness = BrandesWorker.accumulateAll(graph, profile, sources, k,
+                ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism()).betweenness;
+
+        scaleSample(betweenness, n, k);
+
+        return new ApproximationResult<>(normalizeBetweenness(graph, betweenness), k, errorBound(n, k, delta), 1.0 - delta);
+    }
 
+    /**
+     * Estima o betweenness com o menor número de origens que garante
+     * erro inferior a epsilon com probabilidade 1 - delta.
+     *
+     * @param graph grafo compacto
+     * @param profile perfil de peso a utilizar como distância
+     * @param epsilon erro absoluto máximo sobre o betweenness normalizado
+     * @param delta probabilidade de falha admitida
+     * @param random gerador aleatório usado na amostragem
+     * @param <V> tipo do vértice
+     * @return betweenness estimado e respetivo erro
+     */
+    public static <V> ApproximationResult<V> calculateApproximateBetweenness(CompactGraph<V> graph, int profile, double epsilon, double delta, Random random) {
+        return calculateApproximateBetweenness(graph, profile, sampleSize(graph.numVertices(), epsilon, delta), delta, random);
+    }
 
-            // -------- Back-propagation --------
-            // Complexity = O(V + E)
-            for (int i = visitedOrder.size() - 1; i >= 0; i--) {    // Complexity = O(V)
-                int w = visitedOrder.get(i);
+    /**
+     * Número de origens necessário para um erro inferior a epsilon
+     * com probabilidade 1 - delta.
+     *
+     * @param n número de vértices
+     * @param epsilon erro absoluto máximo sobre o betweenness normalizado
+     * @param delta probabilidade de falha admitida
+     * @return número de origens (no máximo n)
+     */
+    public static int sampleSize(int n, double epsilon, double delta) {
+        if (n < 3) return n;
+        double perSourceEpsilon = epsilon * (n - 1) / n;
+        double k = Math.log(2.0 * n / delta) / (2.0 * perSourceEpsilon * perSourceEpsilon);
+        return (int) Math.min(n, Math.ceil(k));
+    }
 
-                // Complexity = O(E)
-                for (int v : predecessors.get(w)) {
-                    if (sigma[w] != 0) {
-                        delta[v] += (sigma[v] / sigma[w]) * (1.0 + delta[w]);
-                    }
-                }
+    // Hoeffding: cada origem contribui com δ_s(v) / (V-2) ∈ [0,1] para a média amostral
+    static double errorBound(int n, int k, double delta) {
+        if (k >= n || n < 3) return 0.0;
+        if (k == 0) return 1.0;
+        return (double) n / (n - 1) * Math.sqrt(Math.log(2.0 * n / delta) / (2.0 * k));
+    }
 
-                if (w != sIdx) {
-                    StationEsinf wNode = graph.vertex(w);
-                    betweenness.put( wNode, betweenness.get(wNode) + delta[w]);
-                }
-            }
+    /**
+     * Índices de todas as origens, 0..n-1.
+     */
+    static int[] allSources(int n) {
+        int[] sources = new int[n];
+        for (int s = 0; s < n; s++) {
+            sources[s] = s;
         }
+        return sources;
+    }
 
-        // grafo NÃO dirigido → dividir por 2
-        for (StationEsinf v : betweenness.keySet()) {   // Complexity = O(V)
-            betweenness.put(v, betweenness.get(v) / 2.0);
+    /**
+     * Amostra uniforme sem reposição: as primeiras k posições do vetor
+     * devolvido contêm a amostra (Fisher-Yates parcial).
+     */
+    static int[] sampleSources(int n, int k, Random random) {
+        int[] sources = allSources(n);
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(n - i);
+            int tmp = sources[i];
+            sources[i] = sources[j];
+            sources[j] = tmp;
         }
+        return sources;
+    }
 
-        return normalizeBetweenness(betweenness);   // Complexity = O(V)
+    /**
+     * Escala por V/k valores acumulados sobre k origens amostradas.
+     */
+    static void scaleSample(double[] values, int n, int k) {
+        if (k > 0 && k < n) {
+            double scale = (double) n / k;
+            for (int v = 0; v < n; v++) {
+                values[v] *= scale;
+            }
+        }
     }
 
     // Complexity = O(V)
-    private Map<StationEsinf, Double> normalizeBetweenness(Map<StationEsinf, Double> betweenness) {
-
-        Map<StationEsinf, Double> result = new HashMap<>();
+    static <V> Map<V, Double> normalizeBetweenness(CompactGraph<V> graph, double[] betweenness) {
 
-        int n = betweenness.size();
-        if (n < 3) return betweenness;
+        Map<V, Double> result = new HashMap<>();
 
-        double normalizer = (n - 1) * (n - 2) / 2.0;
+        int n = betweenness.length;
+        double scale = graph.isDirected() ? 1.0 : 0.5;   // grafo NÃO dirigido → dividir por 2
+        if (n >= 3) {
+            scale /= graph.isDirected() ? (n - 1) * (n - 2) : (n - 1) * (n - 2) / 2.0;
+        }
 
-        for (Map.Entry<StationEsinf, Double> e : betweenness.entrySet()) { // Complexity = O(V)
-            result.put(e.getKey(), e.getValue() / normalizer);
+        for (int v = 0; v < n; v++) {
+            result.put(graph.vertex(v), betweenness[v] * scale);
         }
 
         return result;
     }
 
+    /**
+     * Resultado de um cálculo aproximado de betweenness.
+     *
+     * @param <V> tipo do vértice
+     */
+    public static class ApproximationResult<V> {
+
+        private final Map<V, Double> betweenness;
+        private final int samples;
+        private final double epsilon;
+        private final double confidence;
+
+        /**
+         * Construtor do resultado aproximado.
+         *
+         * @param betweenness betweenness normalizado estimado por vértice
+         * @param samples número de origens amostradas
+         * @param epsilon erro absoluto máximo garantido
+         * @param confidence probabilidade de o erro ser respeitado
+         */
+        public ApproximationResult(Map<V, Double> betweenness, int samples, double epsilon, double confidence) {
+            this.betweenness = betweenness;
+            this.samples = samples;
+            this.epsilon = epsilon;
+            this.confidence = confidence;
+        }
+
+        public Map<V, Double> getBetweenness() {
+            return betweenness;
+        }
+
+        public int getSamples() {
+            return samples;
+        }
+
+        public double getEpsilon() {
+            return epsilon;
+        }
+
+        public double getConfidence() {
+            return confidence;
+        }
+    }
+
 }
@@ -1,6 +1,8 @@
 package pt.ipp.isep.dei.controller.algorithms;
 
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
 import pt.ipp.isep.dei.domain.Graph.Graph;
+import pt.ipp.isep.dei.domain.Graph.IndexedMinHeap;
 
 import java.util.*;
 
@@ -18,9 +20,9 @@ public class CalculateHarmonicClosenessAlgorithm {
         int n = graph.numVertices();
 
         // Total Complexity = O(V * E * log V)
-        for (V source : graph.vertices()) { // Complexity = O(V)
+        for (int sourceIdx = 0; sourceIdx < n; sourceIdx++) { // Complexity = O(V)
 
-            int sourceIdx = graph.key(source);
+            V source = graph.vertex(sourceIdx);
 
             double[] dist = new double[n];
             double[] sigma = new double[n];
@@ -37,7 +39,7 @@ public class CalculateHarmonicClosenessAlgorithm {
             dist[sourceIdx] = 0.0;
             sigma[sourceIdx] = 1.0;
 
-            DijkstraBrandesAlgorithm.shortestPathDijkstraBrandes(graph, source, dist, sigma, predecessors, visitedOrder); // Complexity = O(E * log V)
+            DijkstraBrandesAlgorithm.shortestPathDijkstraBrandes(graph, sourceIdx, dist, sigma, predecessors, visitedOrder); // Complexity = O(E * log V)
 
             double sum = 0.0;
 
@@ -57,4 +59,45 @@ public class CalculateHarmonicClosenessAlgorithm {
 
         return closenessMap;
     }
+
+    /**
+     * Calcula o harmonic closeness de todos os vértices de um grafo compacto.
+     *
+     * @param graph grafo compacto
+     * @param profile perfil de peso a utilizar como distância
+     * @param <V> tipo do vértice
+     * @return mapa de harmonic closeness por vértice
+     */
+    // Total Complexity = O(V * E * log V)
+    public static <V> Map<V, Double> calculateHarmonicCloseness(CompactGraph<V> graph, int profile) {
+
+        Map<V, Double> closenessMap = new HashMap<>();
+
+        int n = graph.numVertices();
+        double[] dist = new double[n];
+        double[] sigma = new double[n];
+        int[] visitedOrder = new int[n];
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+
+        for (int sourceIdx = 0; sourceIdx < n; sourceIdx++) { // Complexity = O(V)
+
+            int visited = DijkstraBrandesAlgorithm.shortestPathDijkstraBrandes(graph, profile, sourceIdx, dist, sigma, visitedOrder, heap); // Complexity = O(E * log V)
+
+            double sum = 0.0;
+
+            // apenas os vértices alcançados contribuem
+            for (int i = 0; i < visited; i++) {
+                int v = visitedOrder[i];
+                if (v != sourceIdx && dist[v] > 0.0) {
+                    sum += 1.0 / dist[v];
+                }
+            }
+
+            double hc = (n > 1) ? sum / (n - 1) : 0.0;
+
+            closenessMap.put(graph.vertex(sourceIdx), hc);
+        }
+
+        return closenessMap;
+    }
 }
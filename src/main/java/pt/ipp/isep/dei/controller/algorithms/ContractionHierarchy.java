@@ -0,0 +1,523 @@
+package pt.ipp.isep.dei.controller.algorithms;
+
+import pt.ipp.isep.dei.domain.Graph.IndexedMinHeap;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Hierarquia de contração (contraction hierarchies) de um grafo direcionado
+ * com pesos não negativos, para consultas rápidas entre dois vértices.
+ *
+ * No pré-processamento os vértices são contraídos um a um, por ordem de
+ * importância (diferença de arestas mais vizinhos já contraídos). Ao
+ * contrair v, cada par u → v → w sem caminho alternativo (testemunha) de
+ * comprimento não superior dá origem a um atalho u → w.
+ *
+ * Uma consulta é um Dijkstra bidirecional que só sobe na hierarquia:
+ * a partir da origem pelas arestas para vértices de ordem superior e a
+ * partir do destino pelas arestas vindas de vértices de ordem superior.
+ * Os atalhos do caminho encontrado são depois desdobrados nas arestas originais.
+ *
+ * O índice é serializável; o estado das consultas é recriado após a leitura.
+ */
+public class ContractionHierarchy implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Número máximo de vértices fixados em cada pesquisa de testemunhas.
+     * Uma pesquisa interrompida apenas acrescenta atalhos desnecessários.
+     */
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    /**
+     * Arestas (originais e atalhos): origem, destino e peso.
+     */
+    private final int[] tail;
+    private final int[] head;
+    private final double[] weight;
+
+    /**
+     * Arestas que compõem cada atalho (u → v e v → w), ou -1 nas arestas originais.
+     */
+    private final int[] first;
+    private final int[] second;
+
+    /**
+     * Ordem de contração de cada vértice.
+     */
+    private final int[] rank;
+
+    /**
+     * Arestas de cada vértice para vértices de ordem superior (CSR).
+     */
+    private final int[] upOffsets;
+    private final int[] upEdges;
+
+    /**
+     * Arestas que chegam a cada vértice vindas de vértices de ordem superior (CSR).
+     */
+    private final int[] downOffsets;
+    private final int[] downEdges;
+
+    private final int originalEdges;
+
+    private transient double[] distF;
+    private transient double[] distB;
+    private transient int[] predF;
+    private transient int[] predB;
+    private transient int[] touched;
+    private transient IndexedMinHeap heapF;
+    private transient IndexedMinHeap heapB;
+
+    private ContractionHierarchy(Builder builder) {
+        int n = builder.n;
+        int m = builder.edgeCount;
+
+        this.tail = Arrays.copyOf(builder.tail, m);
+        this.head = Arrays.copyOf(builder.head, m);
+        this.weight = Arrays.copyOf(builder.weight, m);
+        this.first = Arrays.copyOf(builder.first, m);
+        this.second = Arrays.copyOf(builder.second, m);
+        this.rank = builder.rank;
+        this.originalEdges = builder.originalEdges;
+
+        this.upOffsets = new int[n + 1];
+        this.downOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            if (rank[head[e]] > rank[tail[e]]) upOffsets[tail[e] + 1]++;
+            else downOffsets[head[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            upOffsets[v + 1] += upOffsets[v];
+            downOffsets[v + 1] += downOffsets[v];
+        }
+
+        this.upEdges = new int[upOffsets[n]];
+        this.downEdges = new int[downOffsets[n]];
+        int[] upFill = Arrays.copyOf(upOffsets, n);
+        int[] downFill = Arrays.copyOf(downOffsets, n);
+        for (int e = 0; e < m; e++) {
+            if (rank[head[e]] > rank[tail[e]]) upEdges[upFill[tail[e]]++] = e;
+            else downEdges[downFill[head[e]]++] = e;
+        }
+    }
+
+    /**
+     * Constrói a hierarquia de um grafo em formato CSR.
+     *
+     * @param n número de vértices
+     * @param offsets início das arestas de cada vértice (n + 1 posições)
+     * @param targets destino de cada aresta
+     * @param weights peso (não negativo) de cada aresta
+     * @return hierarquia construída
+     */
+    // Complexity O(V * (pesquisa de testemunhas limitada)) na prática, O(V^2 * log V) no pior caso
+    public static ContractionHierarchy build(int n, int[] offsets, int[] targets, double[] weights) {
+        for (double w : weights) {
+            if (!(w >= 0)) throw new IllegalArgumentException("Contraction hierarchies require non-negative weights");
+        }
+        return new ContractionHierarchy(new Builder(n, offsets, targets, weights).contractAll());
+    }
+
+    /**
+     * Obtém o número de vértices.
+     *
+     * @return número de vértices
+     */
+    public int numVertices() {
+        return rank.length;
+    }
+
+    /**
+     * Obtém o número de atalhos acrescentados na contração.
+     *
+     * @return número de atalhos
+     */
+    public int numShortcuts() {
+        return tail.length - originalEdges;
+    }
+
+    /**
+     * Calcula o caminho mínimo entre dois vértices.
+     *
+     * @param source índice da origem
+     * @param target índice do destino
+     * @return caminho encontrado, com os vértices originais
+     */
+    // Complexity O(k * log k), com k os vértices acima da origem e do destino na hierarquia
+    public synchronized PointToPointShortestPathAlgorithm.PathResult query(int source, int target) {
+        validate(source);
+        validate(target);
+
+        if (source == target) {
+            return new PointToPointShortestPathAlgorithm.PathResult(new int[]{source}, 0.0, 1);
+        }
+        if (distF == null) initQueryState();
+
+        int touchedCount = 0;
+        distF[source] = 0.0;
+        distB[target] = 0.0;
+        touched[touchedCount++] = source;
+        touched[touchedCount++] = target;
+        heapF.insert(source, 0.0);
+        heapB.insert(target, 0.0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+        int settled = 0;
+
+        while (!heapF.isEmpty() || !heapB.isEmpty()) {
+            double topF = heapF.isEmpty() ? Double.POSITIVE_INFINITY : heapF.priority(heapF.peek());
+            double topB = heapB.isEmpty() ? Double.POSITIVE_INFINITY : heapB.priority(heapB.peek());
+            // cada pesquisa pára quando o seu mínimo atinge o melhor caminho
+            if (Math.min(topF, topB) >= best) break;
+
+            boolean forward = topF <= topB;
+            IndexedMinHeap heap = forward ? heapF : heapB;
+            double[] dist = forward ? distF : distB;
+            double[] other = forward ? distB : distF;
+            int[] pred = forward ? predF : predB;
+            int[] offsets = forward ? upOffsets : downOffsets;
+            int[] edges = forward ? upEdges : downEdges;
+
+            int u = heap.poll();
+            settled++;
+
+            for (int i = offsets[u]; i < offsets[u + 1]; i++) {
+                int e = edges[i];
+                int v = forward ? head[e] : tail[e];
+                double newDist = dist[u] + weight[e];
+
+                if (newDist < dist[v]) {
+                    if (distF[v] == Double.POSITIVE_INFINITY && distB[v] == Double.POSITIVE_INFINITY) {
+                        touched[touchedCount++] = v;
+                    }
+                    dist[v] = newDist;
+                    pred[v] = e;
+                    heap.insertOrDecrease(v, newDist);
+                }
+            }
+
+            if (dist[u] + other[u] < best) {
+                best = dist[u] + other[u];
+                meeting = u;
+            }
+        }
+
+        int[] vertices = meeting == -1 ? new int[0] : unpack(source, target, meeting);
+
+        for (int i = 0; i < touchedCount; i++) {
+            distF[touched[i]] = Double.POSITIVE_INFINITY;
+            distB[touched[i]] = Double.POSITIVE_INFINITY;
+        }
+        heapF.clear();
+        heapB.clear();
+
+        return new PointToPointShortestPathAlgorithm.PathResult(vertices, best, settled);
+    }
+
+    /**
+     * Desdobra os atalhos do caminho origem → encontro → destino.
+     */
+    // Complexity O(número de arestas originais do caminho)
+    private int[] unpack(int source, int target, int meeting) {
+        IntList upward = new IntList();
+        for (int v = meeting; v != source; v = tail[predF[v]]) {
+            upward.add(predF[v]);
+        }
+
+        IntList vertices = new IntList();
+        IntList stack = new IntList();
+        vertices.add(source);
+
+        for (int i = upward.size - 1; i >= 0; i--) {
+            appendOriginal(upward.items[i], vertices, stack);
+        }
+        for (int v = meeting; v != target; v = head[predB[v]]) {
+            appendOriginal(predB[v], vertices, stack);
+        }
+        return vertices.toArray();
+    }
+
+    private void appendOriginal(int edge, IntList vertices, IntList stack) {
+        stack.add(edge);
+        while (stack.size > 0) {
+            int e = stack.items[--stack.size];
+            if (first[e] == -1) {
+                vertices.add(head[e]);
+            } else {
+                stack.add(second[e]);
+                stack.add(first[e]);
+            }
+        }
+    }
+
+    private void initQueryState() {
+        int n = numVertices();
+        distF = new double[n];
+        distB = new double[n];
+        predF = new int[n];
+        predB = new int[n];
+        touched = new int[n];
+        heapF = new IndexedMinHeap(n);
+        heapB = new IndexedMinHeap(n);
+        Arrays.fill(distF, Double.POSITIVE_INFINITY);
+        Arrays.fill(distB, Double.POSITIVE_INFINITY);
+    }
+
+    private void validate(int v) {
+        if (v < 0 || v >= numVertices()) throw new IllegalArgumentException("Invalid vertex: " + v);
+    }
+
+    /**
+     * Estado da contração: arestas ainda entre vértices não contraídos,
+     * atalhos criados e ordem de contração.
+     */
+    private static final class Builder {
+
+        private final int n;
+
+        private int[] tail;
+        private int[] head;
+        private double[] weight;
+        private int[] first;
+        private int[] second;
+        private int edgeCount;
+        private final int originalEdges;
+
+        /**
+         * Arestas de saída e de entrada de cada vértice para vértices não contraídos.
+         */
+        private final IntList[] out;
+        private final IntList[] in;
+
+        private final boolean[] contracted;
+        private final int[] deletedNeighbours;
+        private final int[] rank;
+
+        private final double[] witnessDist;
+        private final int[] witnessTouched;
+        private final IndexedMinHeap witnessHeap;
+
+        private Builder(int n, int[] offsets, int[] targets, double[] weights) {
+            this.n = n;
+            int m = targets.length;
+            this.tail = new int[Math.max(1, m)];
+            this.head = new int[Math.max(1, m)];
+            this.weight = new double[Math.max(1, m)];
+            this.first = new int[Math.max(1, m)];
+            this.second = new int[Math.max(1, m)];
+            this.out = new IntList[n];
+            this.in = new IntList[n];
+            for (int v = 0; v < n; v++) {
+                out[v] = new IntList();
+                in[v] = new IntList();
+            }
+            this.contracted = new boolean[n];
+            this.deletedNeighbours = new int[n];
+            this.rank = new int[n];
+            this.witnessDist = new double[n];
+            this.witnessTouched = new int[n];
+            this.witnessHeap = new IndexedMinHeap(n);
+            Arrays.fill(witnessDist, Double.POSITIVE_INFINITY);
+
+            for (int u = 0; u < n; u++) {
+                for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                    if (targets[arc] != u) addEdge(u, targets[arc], weights[arc], -1, -1);
+                }
+            }
+            this.originalEdges = edgeCount;
+        }
+
+        /**
+         * Acrescenta uma aresta u → w, ou melhora a já existente entre os dois vértices.
+         * A aresta substituída ainda não faz parte de nenhum atalho, pois nenhum
+         * dos extremos foi contraído.
+         */
+        private void addEdge(int u, int w, double wgt, int a, int b) {
+            IntList edges = out[u];
+            for (int i = 0; i < edges.size; i++) {
+                int e = edges.items[i];
+                if (head[e] == w) {
+                    if (wgt < weight[e]) {
+                        weight[e] = wgt;
+                        first[e] = a;
+                        second[e] = b;
+                    }
+                    return;
+                }
+            }
+
+            if (edgeCount == tail.length) {
+                int capacity = tail.length * 2;
+                tail = Arrays.copyOf(tail, capacity);
+                head = Arrays.copyOf(head, capacity);
+                weight = Arrays.copyOf(weight, capacity);
+                first = Arrays.copyOf(first, capacity);
+                second = Arrays.copyOf(second, capacity);
+            }
+
+            int e = edgeCount++;
+            tail[e] = u;
+            head[e] = w;
+            weight[e] = wgt;
+            first[e] = a;
+            second[e] = b;
+            out[u].add(e);
+            in[w].add(e);
+        }
+
+        // Complexity O(V * custo de contração), com reavaliação preguiçosa das prioridades
+        private Builder contractAll() {
+            IndexedMinHeap queue = new IndexedMinHeap(n);
+            for (int v = 0; v < n; v++) {
+                queue.insert(v, priority(v));
+            }
+
+            int order = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.poll();
+                double p = priority(v);
+                if (!queue.isEmpty() && p > queue.priority(queue.peek())) {
+                    queue.insert(v, p);
+                    continue;
+                }
+
+                contract(v, false);
+                contracted[v] = true;
+                rank[v] = order++;
+                detach(v);
+            }
+            return this;
+        }
+
+        /**
+         * Prioridade de contração: diferença de arestas mais vizinhos já contraídos.
+         */
+        private double priority(int v) {
+            int shortcuts = contract(v, true);
+            return shortcuts - in[v].size - out[v].size + deletedNeighbours[v];
+        }
+
+        /**
+         * Contrai (ou simula a contração de) um vértice.
+         *
+         * @return número de atalhos necessários
+         */
+        private int contract(int v, boolean simulate) {
+            IntList inV = in[v];
+            IntList outV = out[v];
+            if (inV.size == 0 || outV.size == 0) return 0;
+
+            double maxOut = 0.0;
+            for (int j = 0; j < outV.size; j++) {
+                maxOut = Math.max(maxOut, weight[outV.items[j]]);
+            }
+
+            int shortcuts = 0;
+            for (int i = 0; i < inV.size; i++) {
+                int e1 = inV.items[i];
+                int u = tail[e1];
+                int touchedCount = witnessSearch(u, v, weight[e1] + maxOut);
+
+                for (int j = 0; j < outV.size; j++) {
+                    int e2 = outV.items[j];
+                    int w = head[e2];
+                    if (w == u) continue;
+
+                    double via = weight[e1] + weight[e2];
+                    if (witnessDist[w] > via) {
+                        shortcuts++;
+                        if (!simulate) addEdge(u, w, via, e1, e2);
+                    }
+                }
+
+                for (int k = 0; k < touchedCount; k++) {
+                    witnessDist[witnessTouched[k]] = Double.POSITIVE_INFINITY;
+                }
+                witnessHeap.clear();
+            }
+            return shortcuts;
+        }
+
+        /**
+         * Dijkstra a partir de u no grafo ainda não contraído, sem passar por v,
+         * limitado a uma distância máxima e a um número de vértices fixados.
+         *
+         * @return número de vértices com distância atribuída (a repor)
+         */
+        private int witnessSearch(int u, int v, double maxDist) {
+            int touchedCount = 0;
+            witnessDist[u] = 0.0;
+            witnessTouched[touchedCount++] = u;
+            witnessHeap.insert(u, 0.0);
+
+            int settled = 0;
+            while (!witnessHeap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                int x = witnessHeap.poll();
+                if (witnessDist[x] > maxDist) break;
+                settled++;
+
+                IntList edges = out[x];
+                for (int i = 0; i < edges.size; i++) {
+                    int e = edges.items[i];
+                    int y = head[e];
+                    if (y == v) continue;
+
+                    double newDist = witnessDist[x] + weight[e];
+                    if (newDist < witnessDist[y]) {
+                        if (witnessDist[y] == Double.POSITIVE_INFINITY) witnessTouched[touchedCount++] = y;
+                        witnessDist[y] = newDist;
+                        witnessHeap.insertOrDecrease(y, newDist);
+                    }
+                }
+            }
+            return touchedCount;
+        }
+
+        /**
+         * Retira as arestas de v das listas dos vizinhos ainda não contraídos.
+         */
+        private void detach(int v) {
+            for (int i = 0; i < in[v].size; i++) {
+                int u = tail[in[v].items[i]];
+                deletedNeighbours[u]++;
+                out[u].removeIf(e -> head[e] == v);
+            }
+            for (int i = 0; i < out[v].size; i++) {
+                int w = head[out[v].items[i]];
+                deletedNeighbours[w]++;
+                in[w].removeIf(e -> tail[e] == v);
+            }
+        }
+    }
+
+    /**
+     * Lista de inteiros sem autoboxing.
+     */
+    private static final class IntList {
+
+        private int[] items = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == items.length) items = Arrays.copyOf(items, size * 2);
+            items[size++] = value;
+        }
+
+        private void removeIf(IntPredicate predicate) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!predicate.test(items[i])) items[kept++] = items[i];
+            }
+            size = kept;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(items, size);
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package pt.ipp.isep.dei.controller.algorithms;
 
-import pt.ipp.isep.dei.domain.Graph.Edge;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
 import pt.ipp.isep.dei.domain.Graph.Graph;
+import pt.ipp.isep.dei.domain.Graph.IndexedMinHeap;
 
 import java.util.*;
 
@@ -24,41 +25,45 @@ public class DijkstraBrandesAlgorithm {
 
     // Complexity O(E * log V) + O(log(V)) = O(E * log V)
     public static <V> void shortestPathDijkstraBrandes(Graph<V, Double> g, V vOrig, double[] dist, double[] sigma, Map<Integer, Set<Integer>> predecessors, List<Integer> visitedOrder) {
+        shortestPathDijkstraBrandes(g, g.key(vOrig), dist, sigma, predecessors, visitedOrder);
+    }
+
+    /**
+     * Executa Dijkstra modificado para Brandes a partir do índice do vértice origem.
+     *
+     * @param g              grafo
+     * @param sourceIdx      índice do vértice origem
+     * @param dist           distâncias mínimas
+     * @param sigma          número de caminhos mínimos
+     * @param predecessors   predecessores em caminhos mínimos
+     * @param visitedOrder   ordem de visita (stack lógica)
+     */
+    public static <V> void shortestPathDijkstraBrandes(Graph<V, Double> g, int sourceIdx, double[] dist, double[] sigma, Map<Integer, Set<Integer>> predecessors, List<Integer> visitedOrder) {
 
-        int n = g.numVertices();
-        int sourceIdx = g.key(vOrig);
-        if (sourceIdx == -1) return;
+        if (sourceIdx < 0 || sourceIdx >= g.numVertices()) return;
 
-        PriorityQueue<Integer> pq = new PriorityQueue<>(Comparator.comparingDouble(i -> dist[i]));
+        IndexedMinHeap heap = new IndexedMinHeap(g.numVertices());
 
-        pq.offer(sourceIdx);    // Complexity O(log(V))
+        heap.insert(sourceIdx, dist[sourceIdx]);    // Complexity O(log(V))
 
         // Complexity O(E * log(V))
-        // Ao longo do algoritmo, cada aresta é processada uma vez no total por isso nao fica O(E^2 * log(V))
-
-        while (!pq.isEmpty()) {          // Complexity O(E)
-            int u = pq.poll();
+        // Cada vértice sai do heap uma única vez e cada aresta é relaxada uma vez
 
-            // ignora entradas obsoletas
-            if (dist[u] == Double.POSITIVE_INFINITY) continue;
+        while (!heap.isEmpty()) {          // Complexity O(V)
+            int u = heap.poll();           // Complexity O(log(V))
 
             visitedOrder.add(u);
-            V uNode = g.vertex(u);
-
-            // Complexity O(E * long(V))
-            for (Edge<V, Double> edge : g.outgoingEdges(uNode)) {   // Complexity O(E)
 
-                V vNode = edge.getDestination().getValue();
-                int v = g.key(vNode);
+            for (int v : g.outgoingEdgeIds(u)) {   // Complexity O(E) no total
 
-                double newDist = dist[u] + edge.getWeight();
+                double newDist = dist[u] + g.weight(u, v);
 
                 if (newDist < dist[v]) {
                     dist[v] = newDist;
                     sigma[v] = sigma[u];
                     predecessors.get(v).clear();
                     predecessors.get(v).add(u);
-                    pq.offer(v);                                    // Complexity O(log(V))
+                    heap.insertOrDecrease(v, newDist);              // Complexity O(log(V))
                 }
                 else if (Double.compare(newDist, dist[v]) == 0) {
                     sigma[v] += sigma[u];
@@ -67,4 +72,80 @@ public class DijkstraBrandesAlgorithm {
             }
         }
     }
+
+    /**
+     * Executa Dijkstra modificado para Brandes sobre um grafo compacto (CSR).
+     *
+     * Os vetores são reinicializados pelo próprio método, podendo ser
+     * reutilizados entre execuções. Os predecessores não são guardados:
+     * u é predecessor de v sse dist[u] + w(u,v) == dist[v].
+     *
+     * @param g              grafo compacto
+     * @param profile        perfil de peso a utilizar
+     * @param sourceIdx      índice do vértice origem
+     * @param dist           distâncias mínimas
+     * @param sigma          número de caminhos mínimos
+     * @param visitedOrder   ordem de visita (stack lógica)
+     * @return número de vértices visitados
+     */
+    // Complexity O(E * log V)
+    public static <V> int shortestPathDijkstraBrandes(CompactGraph<V> g, int profile, int sourceIdx, double[] dist, double[] sigma, int[] visitedOrder) {
+        return shortestPathDijkstraBrandes(g, profile, sourceIdx, dist, sigma, visitedOrder, new IndexedMinHeap(g.numVertices()));
+    }
+
+    /**
+     * Executa Dijkstra modificado para Brandes sobre um grafo compacto (CSR),
+     * reutilizando um heap indexado entre execuções.
+     *
+     * @param g              grafo compacto
+     * @param profile        perfil de peso a utilizar
+     * @param sourceIdx      índice do vértice origem
+     * @param dist           distâncias mínimas
+     * @param sigma          número de caminhos mínimos
+     * @param visitedOrder   ordem de visita (stack lógica)
+     * @param heap           heap indexado com capacidade V (é esvaziado no início)
+     * @return número de vértices visitados
+     */
+    // Complexity O(E * log V)
+    public static <V> int shortestPathDijkstraBrandes(CompactGraph<V> g, int profile, int sourceIdx, double[] dist, double[] sigma, int[] visitedOrder, IndexedMinHeap heap) {
+
+        int[] offsets = g.offsets();
+        int[] targets = g.targets();
+        double[] weights = g.weights(profile);
+
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(sigma, 0.0);
+
+        if (sourceIdx < 0 || sourceIdx >= g.numVertices()) return 0;
+
+        dist[sourceIdx] = 0.0;
+        sigma[sourceIdx] = 1.0;
+
+        heap.clear();
+        heap.insert(sourceIdx, 0.0);
+
+        int visited = 0;
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+
+            visitedOrder[visited++] = u;
+
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int v = targets[arc];
+                double newDist = dist[u] + weights[arc];
+
+                if (newDist < dist[v]) {
+                    dist[v] = newDist;
+                    sigma[v] = sigma[u];
+                    heap.insertOrDecrease(v, newDist);
+                }
+                else if (newDist == dist[v]) {
+                    sigma[v] += sigma[u];
+                }
+            }
+        }
+
+        return visited;
+    }
 }
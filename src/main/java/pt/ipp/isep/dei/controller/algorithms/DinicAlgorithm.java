@@ -0,0 +1,271 @@
+package pt.ipp.isep.dei.controller.algorithms;
+
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+
+import java.util.Arrays;
+
+/**
+ * Fluxo máximo pelo algoritmo de Dinic sobre uma rede residual esparsa.
+ *
+ * A rede é guardada em vetores primitivos (CSR): cada arco k dá origem ao
+ * arco residual 2k (capacidade original) e ao seu reverso 2k+1, pelo que
+ * o reverso de um arco e é e ^ 1. A memória ocupada é O(V + E), em vez
+ * da matriz V×V usada pelo Edmonds-Karp.
+ *
+ * Em cada fase uma BFS constrói o grafo de níveis e uma DFS iterativa
+ * com "arco atual" envia um fluxo bloqueante. Há no máximo V fases.
+ *
+ * A mesma rede pode ser usada em várias consultas: cada chamada a
+ * {@link #maxFlow(int, int)} repõe as capacidades originais.
+ */
+public class DinicAlgorithm {
+
+    private final int n;
+
+    /**
+     * Arcos residuais de cada vértice: adjArcs[adjStart[v] .. adjStart[v + 1]).
+     */
+    private final int[] adjStart;
+    private final int[] adjArcs;
+
+    /**
+     * Destino, capacidade original e capacidade residual de cada arco residual.
+     */
+    private final int[] arcTarget;
+    private final int[] capacity;
+    private final int[] residual;
+
+    /**
+     * Vetores reutilizados entre consultas.
+     */
+    private final int[] level;
+    private final int[] currentArc;
+    private final int[] queue;
+    private final int[] path;
+
+    /**
+     * Cria a rede a partir de uma lista de arcos. Arcos paralelos são mantidos
+     * como arcos distintos (as capacidades somam-se no fluxo).
+     *
+     * @param n número de vértices
+     * @param from origem de cada arco
+     * @param to destino de cada arco
+     * @param capacities capacidade de cada arco
+     * @throws IllegalArgumentException se os vetores tiverem tamanhos diferentes,
+     *                                  um vértice for inválido ou uma capacidade negativa
+     */
+    // Complexity O(V + E)
+    public DinicAlgorithm(int n, int[] from, int[] to, int[] capacities) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Size cannot be negative");
+        }
+        if (from.length != to.length || from.length != capacities.length) {
+            throw new IllegalArgumentException("Arc arrays must have the same length");
+        }
+
+        int m = from.length;
+        this.n = n;
+        this.adjStart = new int[n + 1];
+        this.adjArcs = new int[2 * m];
+        this.arcTarget = new int[2 * m];
+        this.capacity = new int[2 * m];
+        this.residual = new int[2 * m];
+
+        for (int k = 0; k < m; k++) {
+            validateVertex(from[k]);
+            validateVertex(to[k]);
+            if (capacities[k] < 0) {
+                throw new IllegalArgumentException("Capacity cannot be negative");
+            }
+            arcTarget[2 * k] = to[k];
+            arcTarget[2 * k + 1] = from[k];
+            capacity[2 * k] = capacities[k];
+            adjStart[from[k] + 1]++;
+            adjStart[to[k] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            adjStart[v + 1] += adjStart[v];
+        }
+
+        int[] next = Arrays.copyOf(adjStart, n);
+        for (int k = 0; k < m; k++) {
+            adjArcs[next[from[k]]++] = 2 * k;
+            adjArcs[next[to[k]]++] = 2 * k + 1;
+        }
+
+        this.level = new int[n];
+        this.currentArc = new int[n];
+        this.queue = new int[n];
+        this.path = new int[n];
+    }
+
+    /**
+     * Fluxo máximo sobre um grafo compacto (CSR). Num grafo não direcionado
+     * cada ligação tem capacidade nos dois sentidos.
+     *
+     * @param g grafo compacto
+     * @param profile perfil de peso com as capacidades
+     * @param source índice do vértice origem
+     * @param sink índice do vértice destino
+     * @param <V> tipo do vértice
+     * @return fluxo máximo
+     */
+    // Complexity O(V^2 * E)
+    public static <V> int dinic(CompactGraph<V> g, int profile, int source, int sink) {
+        int n = g.numVertices();
+        int[] offsets = g.offsets();
+        int[] targets = g.targets();
+        double[] weights = g.weights(profile);
+
+        int[] from = new int[targets.length];
+        int[] to = new int[targets.length];
+        int[] capacities = new int[targets.length];
+        int m = 0;
+        for (int u = 0; u < n; u++) {
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int c = (int) weights[arc];
+                if (c > 0) {
+                    from[m] = u;
+                    to[m] = targets[arc];
+                    capacities[m++] = c;
+                }
+            }
+        }
+
+        return new DinicAlgorithm(n, Arrays.copyOf(from, m), Arrays.copyOf(to, m), Arrays.copyOf(capacities, m))
+                .maxFlow(source, sink);
+    }
+
+    /**
+     * Obtém o número de vértices da rede.
+     *
+     * @return número de vértices
+     */
+    public int numVertices() {
+        return n;
+    }
+
+    /**
+     * Calcula o fluxo máximo entre dois vértices.
+     *
+     * @param source vértice origem
+     * @param sink vértice destino
+     * @return fluxo máximo (0 se source == sink)
+     * @throws IllegalArgumentException se algum vértice for inválido
+     */
+    // Complexity O(V^2 * E) no pior caso
+    public synchronized int maxFlow(int source, int sink) {
+        validateVertex(source);
+        validateVertex(sink);
+        System.arraycopy(capacity, 0, residual, 0, capacity.length);
+
+        int flow = 0;
+        if (source == sink) {
+            Arrays.fill(level, -1);
+            level[source] = 0;
+            return flow;
+        }
+
+        while (buildLevels(source, sink)) {                 // O(V) fases
+            System.arraycopy(adjStart, 0, currentArc, 0, n);
+            flow += blockingFlow(source, sink);             // O(V * E) por fase
+        }
+        return flow;
+    }
+
+    /**
+     * Indica se um vértice fica do lado da origem no corte mínimo
+     * encontrado pela última chamada a {@link #maxFlow(int, int)}.
+     *
+     * @param v vértice
+     * @return true se v for alcançável a partir da origem na rede residual
+     */
+    public synchronized boolean isOnSourceSide(int v) {
+        validateVertex(v);
+        return level[v] >= 0;
+    }
+
+    /**
+     * BFS na rede residual a partir da origem.
+     *
+     * @return true se o destino for alcançável
+     */
+    // Complexity O(V + E)
+    private boolean buildLevels(int source, int sink) {
+        Arrays.fill(level, -1);
+        int head = 0, tail = 0;
+        queue[tail++] = source;
+        level[source] = 0;
+
+        while (head < tail) {
+            int u = queue[head++];
+            for (int i = adjStart[u]; i < adjStart[u + 1]; i++) {
+                int e = adjArcs[i];
+                int v = arcTarget[e];
+                if (residual[e] > 0 && level[v] < 0) {
+                    level[v] = level[u] + 1;
+                    queue[tail++] = v;
+                }
+            }
+        }
+        return level[sink] >= 0;
+    }
+
+    /**
+     * Envia um fluxo bloqueante no grafo de níveis. O caminho atual é
+     * guardado em path; cada vértice sem saída é retirado do grafo de níveis
+     * e cada arco saturado ou inútil faz avançar o arco atual, pelo que cada
+     * arco é descartado no máximo uma vez por fase.
+     */
+    // Complexity O(V * E)
+    private int blockingFlow(int source, int sink) {
+        int flow = 0;
+        int depth = 0;
+        int u = source;
+
+        while (true) {
+            if (u == sink) {
+                int bottleneck = Integer.MAX_VALUE;
+                for (int i = 0; i < depth; i++) {
+                    bottleneck = Math.min(bottleneck, residual[path[i]]);
+                }
+
+                int firstSaturated = -1;
+                for (int i = 0; i < depth; i++) {
+                    int e = path[i];
+                    residual[e] -= bottleneck;
+                    residual[e ^ 1] += bottleneck;
+                    if (firstSaturated < 0 && residual[e] == 0) firstSaturated = i;
+                }
+                flow += bottleneck;
+
+                // recua até à origem do primeiro arco saturado
+                depth = firstSaturated;
+                u = arcTarget[path[depth] ^ 1];
+                continue;
+            }
+
+            int end = adjStart[u + 1];
+            while (currentArc[u] < end) {
+                int e = adjArcs[currentArc[u]];
+                if (residual[e] > 0 && level[arcTarget[e]] == level[u] + 1) break;
+                currentArc[u]++;
+            }
+
+            if (currentArc[u] < end) {
+                int e = adjArcs[currentArc[u]];
+                path[depth++] = e;
+                u = arcTarget[e];
+            } else {
+                if (u == source) return flow;
+                level[u] = -1;                               // beco sem saída
+                u = arcTarget[path[--depth] ^ 1];
+                currentArc[u]++;
+            }
+        }
+    }
+
+    private void validateVertex(int v) {
+        if (v < 0 || v >= n) throw new IllegalArgumentException("Invalid vertex: " + v);
+    }
+}
@@ -0,0 +1,398 @@
+package pt.ipp.isep.dei.controller.algorithms;
+
+import pt.ipp.isep.dei.domain.Graph.UnionFind;
+
+import java.util.Arrays;
+
+/**
+ * Floresta geradora mínima de um grafo não direcionado que é mantida
+ * à medida que se acrescentam e removem arestas, sem recalcular tudo.
+ *
+ * - Inserção de (u,v,w): se u e v estão em árvores diferentes a aresta
+ *   entra na floresta; senão procura-se a aresta mais pesada do caminho
+ *   u..v na árvore e, se for mais pesada que w, é trocada pela nova
+ *   (propriedade do ciclo).
+ * - Remoção de uma aresta da árvore: a árvore parte-se em duas; percorre-se
+ *   a parte mais pequena e escolhe-se a aresta mais leve que a liga à
+ *   outra parte (propriedade do corte).
+ *
+ * Cada operação custa O(V + grau) no pior caso, em vez de O(E log E).
+ * Vértices e arestas são identificados por inteiros; os empates de peso
+ * são desfeitos pelo identificador da aresta.
+ */
+public class DynamicSpanningForest {
+
+    private int vertexCount;
+
+    /**
+     * Extremos, peso e estado de cada aresta, indexados pelo identificador.
+     */
+    private int[] edgeU = new int[16];
+    private int[] edgeV = new int[16];
+    private double[] edgeWeight = new double[16];
+    private boolean[] alive = new boolean[16];
+    private boolean[] inTree = new boolean[16];
+    private int edgeCount;
+
+    /**
+     * Todas as arestas vivas incidentes a cada vértice.
+     */
+    private IntList[] incident = new IntList[16];
+
+    /**
+     * Arestas da floresta incidentes a cada vértice.
+     */
+    private IntList[] treeIncident = new IntList[16];
+
+    private int treeEdges;
+    private double treeWeight;
+
+    /**
+     * Vetores reutilizados nas pesquisas na floresta; um vértice foi visitado
+     * na pesquisa atual se mark[v] == stamp.
+     */
+    private int[] mark = new int[16];
+    private int[] parentEdge = new int[16];
+    private int[] queue = new int[16];
+    private int[] otherQueue = new int[16];
+    private int stamp;
+
+    /**
+     * Cria uma floresta vazia com n vértices isolados.
+     *
+     * @param n número de vértices
+     */
+    public DynamicSpanningForest(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Size cannot be negative");
+        }
+        for (int v = 0; v < n; v++) growVertex();
+    }
+
+    /**
+     * Constrói a floresta de um conjunto de arestas de uma só vez (Kruskal),
+     * mais rápido do que inserir as arestas uma a uma.
+     * As arestas recebem os identificadores 0..m-1 pela ordem dada.
+     *
+     * @param n número de vértices
+     * @param us primeiro extremo de cada aresta
+     * @param vs segundo extremo de cada aresta
+     * @param weights peso de cada aresta
+     * @return floresta construída
+     */
+    // Complexity O(E log E)
+    public static DynamicSpanningForest build(int n, int[] us, int[] vs, double[] weights) {
+        DynamicSpanningForest forest = new DynamicSpanningForest(n);
+        int m = us.length;
+
+        for (int e = 0; e < m; e++) {
+            forest.validateVertex(us[e]);
+            forest.validateVertex(vs[e]);
+            forest.storeEdge(us[e], vs[e], weights[e]);
+        }
+
+        int[] order = new int[m];
+        for (int e = 0; e < m; e++) order[e] = e;
+        KruskalAlgorithm.sortByWeight(order, m, weights);
+
+        UnionFind components = new UnionFind(n);
+        for (int e : order) {
+            if (components.union(us[e], vs[e])) forest.link(e);
+        }
+        return forest;
+    }
+
+    /**
+     * Acrescenta um vértice isolado.
+     *
+     * @return identificador do vértice
+     */
+    public int addVertex() {
+        return growVertex();
+    }
+
+    /**
+     * Acrescenta um vértice isolado, aumentando os vetores se for preciso.
+     *
+     * @return identificador do vértice
+     */
+    private int growVertex() {
+        if (vertexCount == incident.length) {
+            int capacity = incident.length * 2;
+            incident = Arrays.copyOf(incident, capacity);
+            treeIncident = Arrays.copyOf(treeIncident, capacity);
+            mark = Arrays.copyOf(mark, capacity);
+            parentEdge = Arrays.copyOf(parentEdge, capacity);
+            queue = Arrays.copyOf(queue, capacity);
+            otherQueue = Arrays.copyOf(otherQueue, capacity);
+        }
+        incident[vertexCount] = new IntList();
+        treeIncident[vertexCount] = new IntList();
+        return vertexCount++;
+    }
+
+    /**
+     * Acrescenta uma aresta e atualiza a floresta.
+     *
+     * @param u extremo
+     * @param v extremo
+     * @param weight peso
+     * @return identificador da aresta
+     */
+    // Complexity O(tamanho da árvore de u)
+    public int addEdge(int u, int v, double weight) {
+        validateVertex(u);
+        validateVertex(v);
+        int e = storeEdge(u, v, weight);
+        if (u == v) return e;
+
+        int heaviest = heaviestOnPath(u, v);
+        if (heaviest == -2) {
+            link(e);                                            // árvores diferentes
+        } else if (lighter(e, heaviest)) {
+            cut(heaviest);                                      // troca no ciclo
+            link(e);
+        }
+        return e;
+    }
+
+    /**
+     * Remove uma aresta e, se pertencia à floresta, procura a aresta de substituição.
+     *
+     * @param e identificador da aresta
+     */
+    // Complexity O(V + soma dos graus da parte mais pequena)
+    public void removeEdge(int e) {
+        if (e < 0 || e >= edgeCount || !alive[e]) {
+            throw new IllegalArgumentException("Invalid edge: " + e);
+        }
+
+        alive[e] = false;
+        incident[edgeU[e]].remove(e);
+        if (edgeV[e] != edgeU[e]) incident[edgeV[e]].remove(e);
+
+        if (!inTree[e]) return;
+
+        cut(e);
+        int replacement = replacementEdge(edgeU[e], edgeV[e]);
+        if (replacement != -1) link(replacement);
+    }
+
+    /**
+     * Obtém o número de vértices.
+     *
+     * @return número de vértices
+     */
+    public int numVertices() {
+        return vertexCount;
+    }
+
+    /**
+     * Obtém o número de arestas na floresta.
+     *
+     * @return número de arestas da floresta
+     */
+    public int numTreeEdges() {
+        return treeEdges;
+    }
+
+    /**
+     * Obtém a soma dos pesos das arestas da floresta.
+     *
+     * @return peso total
+     */
+    public double totalWeight() {
+        return treeWeight;
+    }
+
+    /**
+     * Indica se uma aresta pertence à floresta.
+     *
+     * @param e identificador da aresta
+     * @return true se a aresta estiver na floresta
+     */
+    public boolean isTreeEdge(int e) {
+        return e >= 0 && e < edgeCount && inTree[e];
+    }
+
+    /**
+     * Obtém os identificadores das arestas da floresta.
+     *
+     * @return arestas da floresta
+     */
+    // Complexity O(E)
+    public int[] treeEdgeIds() {
+        int[] ids = new int[treeEdges];
+        int k = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            if (inTree[e]) ids[k++] = e;
+        }
+        return ids;
+    }
+
+    private int storeEdge(int u, int v, double weight) {
+        if (edgeCount == edgeU.length) {
+            int capacity = edgeU.length * 2;
+            edgeU = Arrays.copyOf(edgeU, capacity);
+            edgeV = Arrays.copyOf(edgeV, capacity);
+            edgeWeight = Arrays.copyOf(edgeWeight, capacity);
+            alive = Arrays.copyOf(alive, capacity);
+            inTree = Arrays.copyOf(inTree, capacity);
+        }
+        int e = edgeCount++;
+        edgeU[e] = u;
+        edgeV[e] = v;
+        edgeWeight[e] = weight;
+        alive[e] = true;
+        incident[u].add(e);
+        if (v != u) incident[v].add(e);
+        return e;
+    }
+
+    private void link(int e) {
+        inTree[e] = true;
+        treeIncident[edgeU[e]].add(e);
+        treeIncident[edgeV[e]].add(e);
+        treeEdges++;
+        treeWeight += edgeWeight[e];
+    }
+
+    private void cut(int e) {
+        inTree[e] = false;
+        treeIncident[edgeU[e]].remove(e);
+        treeIncident[edgeV[e]].remove(e);
+        treeEdges--;
+        treeWeight -= edgeWeight[e];
+    }
+
+    /**
+     * Procura na floresta o caminho de u a v e devolve a aresta mais pesada.
+     *
+     * @return aresta mais pesada, ou -2 se u e v estiverem em árvores diferentes
+     */
+    // Complexity O(tamanho da árvore de u)
+    private int heaviestOnPath(int u, int v) {
+        stamp++;
+        int head = 0, tail = 0;
+        queue[tail++] = u;
+        mark[u] = stamp;
+        parentEdge[u] = -1;
+
+        while (head < tail && mark[v] != stamp) {
+            int x = queue[head++];
+            IntList edges = treeIncident[x];
+            for (int i = 0; i < edges.size; i++) {
+                int e = edges.items[i];
+                int y = other(e, x);
+                if (mark[y] != stamp) {
+                    mark[y] = stamp;
+                    parentEdge[y] = e;
+                    queue[tail++] = y;
+                }
+            }
+        }
+
+        if (mark[v] != stamp) return -2;
+
+        int heaviest = -1;
+        for (int x = v; x != u; ) {
+            int e = parentEdge[x];
+            if (heaviest == -1 || lighter(heaviest, e)) heaviest = e;
+            x = other(e, x);
+        }
+        return heaviest;
+    }
+
+    /**
+     * Depois de cortada a aresta u-v, percorre as duas partes em simultâneo
+     * até uma se esgotar (a mais pequena) e devolve a aresta mais leve que
+     * sai dessa parte.
+     *
+     * @return aresta de substituição, ou -1 se não existir
+     */
+    // Complexity O(soma dos graus da parte mais pequena)
+    private int replacementEdge(int u, int v) {
+        stamp++;
+        int markU = stamp;
+        stamp++;
+        int markV = stamp;
+
+        int headU = 0, tailU = 0, headV = 0, tailV = 0;
+        queue[tailU++] = u;
+        otherQueue[tailV++] = v;
+        mark[u] = markU;
+        mark[v] = markV;
+
+        // avança uma aresta de cada lado até um dos lados terminar
+        while (headU < tailU && headV < tailV) {
+            tailU = expand(queue, headU++, tailU, markU);
+            tailV = expand(otherQueue, headV++, tailV, markV);
+        }
+
+        boolean smallerIsU = headU >= tailU;
+        int[] side = smallerIsU ? queue : otherQueue;
+        int size = smallerIsU ? tailU : tailV;
+        int sideMark = smallerIsU ? markU : markV;
+
+        int best = -1;
+        for (int i = 0; i < size; i++) {
+            IntList edges = incident[side[i]];
+            for (int j = 0; j < edges.size; j++) {
+                int e = edges.items[j];
+                if (inTree[e]) continue;
+                int y = other(e, side[i]);
+                if (mark[y] == sideMark) continue;
+                if (best == -1 || lighter(e, best)) best = e;
+            }
+        }
+        return best;
+    }
+
+    private int expand(int[] q, int index, int tail, int sideMark) {
+        int x = q[index];
+        IntList edges = treeIncident[x];
+        for (int i = 0; i < edges.size; i++) {
+            int y = other(edges.items[i], x);
+            if (mark[y] != sideMark) {
+                mark[y] = sideMark;
+                q[tail++] = y;
+            }
+        }
+        return tail;
+    }
+
+    private int other(int e, int x) {
+        return edgeU[e] == x ? edgeV[e] : edgeU[e];
+    }
+
+    private boolean lighter(int a, int b) {
+        return edgeWeight[a] < edgeWeight[b] || (edgeWeight[a] == edgeWeight[b] && a < b);
+    }
+
+    private void validateVertex(int v) {
+        if (v < 0 || v >= vertexCount) throw new IllegalArgumentException("Invalid vertex: " + v);
+    }
+
+    /**
+     * Lista de inteiros sem autoboxing.
+     */
+    private static final class IntList {
+
+        private int[] items = new int[2];
+        private int size;
+
+        private void add(int value) {
+            if (size == items.length) items = Arrays.copyOf(items, size * 2);
+            items[size++] = value;
+        }
+
+        private void remove(int value) {
+            for (int i = 0; i < size; i++) {
+                if (items[i] == value) {
+                    items[i] = items[--size];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package pt.ipp.isep.dei.controller.algorithms;
 
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+
 import java.util.List;
 import java.util.ArrayList;
-import java.util.Queue;
-import java.util.LinkedList;
 import java.util.Arrays;
 
 public class EdmondsKarpAlgorithm {
@@ -27,6 +27,45 @@ public class EdmondsKarpAlgorithm {
         }
         // construção do grafo: O(V^2) no pior caso (matriz cheia)
 
+        return maxFlow(graph, source, sink); // O(V*E^2)
+    }
+
+    /**
+     * Edmonds-Karp sobre um grafo compacto (CSR), sem matriz de capacidades V×V.
+     *
+     * @param g grafo compacto
+     * @param profile perfil de peso com as capacidades
+     * @param source índice do vértice origem
+     * @param sink índice do vértice destino
+     * @return fluxo máximo
+     */
+    public static <V> int edmondsKarp(CompactGraph<V> g, int profile, int source, int sink) {
+        int n = g.numVertices(); // O(1)
+        int[] offsets = g.offsets();
+        int[] targets = g.targets();
+        double[] capacities = g.weights(profile);
+        List<List<Edge>> graph = new ArrayList<>(n); // O(1)
+
+        for (int i = 0; i < n; i++) { // O(V)
+            graph.add(new ArrayList<>());
+        }
+
+        // construção do grafo residual: O(V + E)
+        for (int u = 0; u < n; u++) {
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int capacity = (int) capacities[arc];
+                if (capacity > 0) {
+                    addEdge(graph, u, targets[arc], capacity); // O(1)
+                }
+            }
+        }
+
+        return maxFlow(graph, source, sink); // O(V*E^2)
+    }
+
+    // O(V*E^2)
+    private static int maxFlow(List<List<Edge>> graph, int source, int sink) {
+        int n = graph.size(); // O(1)
         int maxFlow = 0; // O(1)
         int[] previousNode = new int[n]; // O(V)
         int[] previousEdge = new int[n]; // O(V)
@@ -93,13 +132,14 @@ public class EdmondsKarpAlgorithm {
         Arrays.fill(previousNode, -1); // O(V)
         Arrays.fill(previousEdge, -1); // O(V)
         boolean[] visitedNodes = new boolean[graph.size()]; // O(1) + O(V) = O(V)
-        Queue<Integer> queue = new LinkedList<>(); // O(1)
+        int[] queue = new int[graph.size()]; // fila sem autoboxing, cada vértice entra no máximo uma vez: O(V)
+        int head = 0, tail = 0; // O(1)
 
-        queue.add(source); // O(1)
+        queue[tail++] = source; // O(1)
         visitedNodes[source] = true; // O(1)
 
-        while (!queue.isEmpty()) { // O(V) iterações de vértices, soma sobre todas as arestas: O(E)
-            int startNode = queue.poll(); // O(1)
+        while (head < tail) { // O(V) iterações de vértices, soma sobre todas as arestas: O(E)
+            int startNode = queue[head++]; // O(1)
             for (int i = 0; i < graph.get(startNode).size(); i++) { // soma sobre todas arestas: O(E)
                 Edge edge = graph.get(startNode).get(i); // O(1) + O(1) = O(1)
                 int endNode = edge.targetNode; // O(1)
@@ -110,7 +150,7 @@ public class EdmondsKarpAlgorithm {
                     if (endNode == sink) { // O(1)
                         return true; // O(1)
                     }
-                    queue.add(endNode); // O(1)
+                    queue[tail++] = endNode; // O(1)
                 }
             }
         }
@@ -0,0 +1,281 @@
+package pt.ipp.isep.dei.controller.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Árvore de Gomory-Hu (árvore de fluxo equivalente) de uma rede não
+ * direcionada com capacidades.
+ *
+ * Construída pelo algoritmo de Gusfield: para cada vértice s (1..V-1)
+ * calcula-se o corte mínimo entre s e o seu pai atual na árvore, e os
+ * vértices seguintes com o mesmo pai que ficaram do lado de s passam a ser
+ * filhos de s. São V-1 fluxos máximos sobre a rede original.
+ *
+ * O fluxo máximo entre quaisquer dois vértices é o mínimo das capacidades
+ * das arestas no caminho entre eles na árvore; com binary lifting cada
+ * consulta custa O(log V).
+ *
+ * Os fluxos são calculados em paralelo por lotes: cada worker tem a sua
+ * própria {@link DinicAlgorithm} e calcula o corte de s com o pai que s tem
+ * no início do lote. Os resultados são aplicados por ordem; se um passo
+ * anterior do lote mudou o pai de s, o corte de s é recalculado.
+ */
+public class GomoryHuTree {
+
+    private final int n;
+
+    /**
+     * Pai de cada vértice na árvore (a raiz, 0, é pai de si própria) e
+     * capacidade da aresta até ao pai.
+     */
+    private final int[] parent;
+    private final int[] parentFlow;
+
+    /**
+     * Binary lifting: ancestor[k][v] é o antepassado 2^k de v e
+     * minFlow[k][v] o mínimo das capacidades nesse troço.
+     */
+    private final int[] depth;
+    private final int[][] ancestor;
+    private final int[][] minFlow;
+
+    private GomoryHuTree(int[] parent, int[] parentFlow) {
+        this.n = parent.length;
+        this.parent = parent;
+        this.parentFlow = parentFlow;
+        this.depth = new int[n];
+
+        int levels = 1;
+        while ((1 << levels) < n) levels++;
+        this.ancestor = new int[levels][n];
+        this.minFlow = new int[levels][n];
+
+        int[] order = treeOrder();
+        for (int v : order) {
+            if (v != 0) depth[v] = depth[parent[v]] + 1;
+            ancestor[0][v] = parent[v];
+            minFlow[0][v] = v == 0 ? Integer.MAX_VALUE : parentFlow[v];
+        }
+        for (int k = 1; k < levels; k++) {
+            for (int v = 0; v < n; v++) {
+                int middle = ancestor[k - 1][v];
+                ancestor[k][v] = ancestor[k - 1][middle];
+                minFlow[k][v] = Math.min(minFlow[k - 1][v], minFlow[k - 1][middle]);
+            }
+        }
+    }
+
+    /**
+     * Constrói a árvore usando o pool comum.
+     *
+     * @param n número de vértices
+     * @param us primeiro extremo de cada ligação
+     * @param vs segundo extremo de cada ligação
+     * @param capacities capacidade de cada ligação (nos dois sentidos)
+     * @return árvore de Gomory-Hu
+     */
+    public static GomoryHuTree build(int n, int[] us, int[] vs, int[] capacities) {
+        return build(n, us, vs, capacities, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Constrói a árvore de uma rede não direcionada.
+     *
+     * @param n número de vértices
+     * @param us primeiro extremo de cada ligação
+     * @param vs segundo extremo de cada ligação
+     * @param capacities capacidade de cada ligação (nos dois sentidos)
+     * @param executor executor onde os fluxos de cada lote são calculados
+     * @param workers número de fluxos calculados em simultâneo
+     * @return árvore de Gomory-Hu
+     * @throws IllegalArgumentException se os vetores tiverem tamanhos diferentes,
+     *                                  um vértice for inválido ou uma capacidade negativa
+     */
+    // Complexity O(V * custo de um fluxo máximo / workers) no melhor caso
+    public static GomoryHuTree build(int n, int[] us, int[] vs, int[] capacities,
+                                     ExecutorService executor, int workers) {
+        if (us.length != vs.length || us.length != capacities.length) {
+            throw new IllegalArgumentException("Edge arrays must have the same length");
+        }
+
+        // cada ligação não direcionada dá um arco em cada sentido
+        int m = us.length;
+        int[] from = new int[2 * m];
+        int[] to = new int[2 * m];
+        int[] arcCapacities = new int[2 * m];
+        for (int k = 0; k < m; k++) {
+            from[2 * k] = us[k];
+            to[2 * k] = vs[k];
+            from[2 * k + 1] = vs[k];
+            to[2 * k + 1] = us[k];
+            arcCapacities[2 * k] = capacities[k];
+            arcCapacities[2 * k + 1] = capacities[k];
+        }
+
+        int batch = Math.max(1, workers);
+        DinicAlgorithm[] networks = new DinicAlgorithm[batch];
+        for (int w = 0; w < batch; w++) {
+            networks[w] = new DinicAlgorithm(n, from, to, arcCapacities);
+        }
+
+        int[] parent = new int[n];
+        int[] parentFlow = new int[n];
+
+        for (int first = 1; first < n; first += batch) {
+            int size = Math.min(batch, n - first);
+            int[] launchParent = new int[size];
+            Cut[] cuts = new Cut[size];
+
+            List<Callable<Void>> tasks = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                int slot = i;
+                int s = first + i;
+                launchParent[i] = parent[s];
+                tasks.add(() -> {
+                    cuts[slot] = minCut(networks[slot], s, launchParent[slot]);
+                    return null;
+                });
+            }
+            ParallelTasks.invokeAll(executor, tasks);
+
+            for (int i = 0; i < size; i++) {
+                int s = first + i;
+                int t = parent[s];
+                Cut cut = t == launchParent[i] ? cuts[i] : minCut(networks[0], s, t);
+
+                parentFlow[s] = cut.flow;
+                for (int j = s + 1; j < n; j++) {
+                    if (parent[j] == t && cut.sourceSide[j]) parent[j] = s;
+                }
+            }
+        }
+
+        return new GomoryHuTree(parent, parentFlow);
+    }
+
+    /**
+     * Obtém o número de vértices.
+     *
+     * @return número de vértices
+     */
+    public int numVertices() {
+        return n;
+    }
+
+    /**
+     * Obtém o pai de um vértice na árvore.
+     *
+     * @param v vértice
+     * @return pai de v (a raiz, 0, é pai de si própria)
+     */
+    public int parent(int v) {
+        validateVertex(v);
+        return parent[v];
+    }
+
+    /**
+     * Obtém a capacidade da aresta entre um vértice e o seu pai, que é o
+     * fluxo máximo entre os dois.
+     *
+     * @param v vértice diferente da raiz
+     * @return capacidade da aresta até ao pai
+     */
+    public int parentFlow(int v) {
+        validateVertex(v);
+        return parentFlow[v];
+    }
+
+    /**
+     * Fluxo máximo (e capacidade do corte mínimo) entre dois vértices.
+     *
+     * @param u vértice
+     * @param v vértice
+     * @return mínimo das capacidades no caminho u..v da árvore
+     *         (Integer.MAX_VALUE se u == v)
+     */
+    // Complexity O(log V)
+    public int maxFlow(int u, int v) {
+        validateVertex(u);
+        validateVertex(v);
+
+        int result = Integer.MAX_VALUE;
+        if (depth[u] < depth[v]) {
+            int swap = u;
+            u = v;
+            v = swap;
+        }
+
+        for (int k = ancestor.length - 1; k >= 0; k--) {
+            if (depth[u] - (1 << k) >= depth[v]) {
+                result = Math.min(result, minFlow[k][u]);
+                u = ancestor[k][u];
+            }
+        }
+        if (u == v) return result;
+
+        for (int k = ancestor.length - 1; k >= 0; k--) {
+            if (ancestor[k][u] != ancestor[k][v]) {
+                result = Math.min(result, Math.min(minFlow[k][u], minFlow[k][v]));
+                u = ancestor[k][u];
+                v = ancestor[k][v];
+            }
+        }
+        return Math.min(result, Math.min(minFlow[0][u], minFlow[0][v]));
+    }
+
+    /**
+     * Ordena os vértices de forma a que cada pai apareça antes dos filhos.
+     */
+    // Complexity O(V)
+    private int[] treeOrder() {
+        int[] childStart = new int[n + 1];
+        for (int v = 1; v < n; v++) childStart[parent[v] + 1]++;
+        for (int v = 0; v < n; v++) childStart[v + 1] += childStart[v];
+
+        int[] children = new int[Math.max(0, n - 1)];
+        int[] next = Arrays.copyOf(childStart, n);
+        for (int v = 1; v < n; v++) children[next[parent[v]]++] = v;
+
+        int[] order = new int[n];
+        if (n == 0) return order;
+        int head = 0, tail = 0;
+        order[tail++] = 0;
+        while (head < tail) {
+            int u = order[head++];
+            for (int i = childStart[u]; i < childStart[u + 1]; i++) order[tail++] = children[i];
+        }
+        return order;
+    }
+
+    private static Cut minCut(DinicAlgorithm network, int s, int t) {
+        int flow = network.maxFlow(s, t);
+        boolean[] sourceSide = new boolean[network.numVertices()];
+        for (int v = 0; v < sourceSide.length; v++) {
+            sourceSide[v] = network.isOnSourceSide(v);
+        }
+        return new Cut(flow, sourceSide);
+    }
+
+    private void validateVertex(int v) {
+        if (v < 0 || v >= n) throw new IllegalArgumentException("Invalid vertex: " + v);
+    }
+
+    /**
+     * Resultado de um corte mínimo: valor e lado de cada vértice.
+     */
+    private static final class Cut {
+
+        private final int flow;
+        private final boolean[] sourceSide;
+
+        private Cut(int flow, boolean[] sourceSide) {
+            this.flow = flow;
+            this.sourceSide = sourceSide;
+        }
+    }
+}
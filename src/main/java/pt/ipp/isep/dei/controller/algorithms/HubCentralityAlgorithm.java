@@ -0,0 +1,200 @@
+package pt.ipp.isep.dei.controller.algorithms;
+
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Motor de centralidade para a análise de hubs.
+ *
+ * Uma única execução de Dijkstra por origem alimenta o betweenness
+ * (back-propagation de Brandes) e o harmonic closeness (soma de 1/d).
+ * O strength é recebido já calculado, e o hub score é a combinação
+ * ponderada das três métricas:
+ *
+ * hub(v) = 0.35 * betweenness(v) + 0.35 * closeness(v) + 0.3 * strength(v) / max(strength)
+ */
+public class HubCentralityAlgorithm {
+
+    public static final double BETWEENNESS_WEIGHT = 0.35;
+    public static final double CLOSENESS_WEIGHT = 0.35;
+    public static final double STRENGTH_WEIGHT = 0.3;
+
+    /**
+     * Calcula todas as métricas de forma exata, em paralelo na common pool.
+     *
+     * @param graph grafo compacto
+     * @param profile perfil de peso a utilizar como distância
+     * @param strength strength bruto por índice de vértice
+     * @param <V> tipo do vértice
+     * @return métricas por vértice
+     */
+    public static <V> CentralityResult<V> calculate(CompactGraph<V> graph, int profile, double[] strength) {
+        return calculate(graph, profile, strength, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Calcula todas as métricas de forma exata num executor fornecido.
+     *
+     * @param graph grafo compacto
+     * @param profile perfil de peso a utilizar como distância
+     * @param strength strength bruto por índice de vértice
+     * @param executor executor onde os workers são submetidos
+     * @param workers número de workers
+     * @param <V> tipo do vértice
+     * @return métricas por vértice
+     */
+    // Complexity = O(V * E * log V / workers) + O(V * workers)
+    public static <V> CentralityResult<V> calculate(CompactGraph<V> graph, int profile, double[] strength,
+                                                    ExecutorService executor, int workers) {
+
+        int n = graph.numVertices();
+        int[] sources = CalculateBetweennessAlgorithm.allSources(n);
+
+        BrandesWorker.Totals totals = BrandesWorker.accumulateAll(graph, profile, sources, n, executor, workers);
+
+        // harmonic closeness de s = soma de 1/d(s,v) sobre os vértices alcançados a partir de s
+        return buildResult(graph, totals.betweenness, totals.sourceInverseDistances, strength, n, 0.0, 1.0);
+    }
+
+    /**
+     * Estima o betweenness e o harmonic closeness a partir de k origens
+     * amostradas, com uma única execução de Dijkstra por origem amostrada.
+     *
+     * O harmonic closeness de v é estimado pela soma de 1/d(s,v) sobre as
+     * origens amostradas, escalada por V/k. Num grafo não direcionado
+     * d(s,v) = d(v,s), pelo que a estimativa não tem enviesamento.
+     *
+     * @param graph grafo compacto não direcionado
+     * @param profile perfil de peso a utilizar como distância
+     * @param strength strength bruto por índice de vértice
+     * @param samples número de origens a amostrar (limitado a V)
+     * @param delta probabilidade de falha admitida para o erro do betweenness
+     * @param random gerador aleatório usado na amostragem
+     * @param <V> tipo do vértice
+     * @return métricas por vértice
+     */
+    // Complexity = O(k * E * log V / workers) + O(V * workers)
+    public static <V> CentralityResult<V> calculateApproximate(CompactGraph<V> graph, int profile, double[] strength,
+                                                               int samples, double delta, Random random) {
+
+        if (graph.isDirected()) {
+            throw new IllegalArgumentException("Approximate closeness requires an undirected graph");
+        }
+
+        int n = graph.numVertices();
+        int k = Math.max(0, Math.min(samples, n));
+        int[] sources = CalculateBetweennessAlgorithm.sampleSources(n, k, random);
+
+        BrandesWorker.Totals totals = BrandesWorker.accumulateAll(graph, profile, sources, k,
+                ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+
+        CalculateBetweennessAlgorithm.scaleSample(totals.betweenness, n, k);
+        CalculateBetweennessAlgorithm.scaleSample(totals.inverseDistances, n, k);
+
+        return buildResult(graph, totals.betweenness, totals.inverseDistances, strength, k,
+                CalculateBetweennessAlgorithm.errorBound(n, k, delta), 1.0 - delta);
+    }
+
+    // Complexity = O(V)
+    private static <V> CentralityResult<V> buildResult(CompactGraph<V> graph, double[] betweenness, double[] inverseDistances,
+                                                       double[] strength, int samples, double epsilon, double confidence) {
+
+        int n = graph.numVertices();
+        if (strength.length != n) {
+            throw new IllegalArgumentException("Strength must have one value per vertex");
+        }
+
+        Map<V, Double> betweennessMap = CalculateBetweennessAlgorithm.normalizeBetweenness(graph, betweenness);
+        Map<V, Double> closenessMap = new HashMap<>();
+        Map<V, Double> strengthMap = new HashMap<>();
+        Map<V, Double> hubScoreMap = new HashMap<>();
+
+        double maxStrength = 0.0;
+        for (double s : strength) {
+            maxStrength = Math.max(maxStrength, s);
+        }
+
+        for (int v = 0; v < n; v++) {
+            V vertex = graph.vertex(v);
+
+            double closeness = (n > 1) ? inverseDistances[v] / (n - 1) : 0.0;
+            double normalizedStrength = maxStrength == 0 ? 0.0 : strength[v] / maxStrength;
+
+            closenessMap.put(vertex, closeness);
+            strengthMap.put(vertex, normalizedStrength);
+            hubScoreMap.put(vertex, betweennessMap.get(vertex) * BETWEENNESS_WEIGHT
+                    + closeness * CLOSENESS_WEIGHT + normalizedStrength * STRENGTH_WEIGHT);
+        }
+
+        return new CentralityResult<>(betweennessMap, closenessMap, strengthMap, hubScoreMap, samples, epsilon, confidence);
+    }
+
+    /**
+     * Métricas de centralidade calculadas pelo motor.
+     *
+     * @param <V> tipo do vértice
+     */
+    public static class CentralityResult<V> {
+
+        private final Map<V, Double> betweenness;
+        private final Map<V, Double> harmonicCloseness;
+        private final Map<V, Double> strength;
+        private final Map<V, Double> hubScore;
+        private final int samples;
+        private final double epsilon;
+        private final double confidence;
+
+        /**
+         * Construtor do resultado.
+         *
+         * @param betweenness betweenness normalizado por vértice
+         * @param harmonicCloseness harmonic closeness por vértice
+         * @param strength strength normalizado (dividido pelo máximo) por vértice
+         * @param hubScore hub score por vértice
+         * @param samples número de origens processadas
+         * @param epsilon erro absoluto máximo do betweenness (0 se exato)
+         * @param confidence probabilidade de o erro ser respeitado
+         */
+        public CentralityResult(Map<V, Double> betweenness, Map<V, Double> harmonicCloseness, Map<V, Double> strength,
+                                Map<V, Double> hubScore, int samples, double epsilon, double confidence) {
+            this.betweenness = betweenness;
+            this.harmonicCloseness = harmonicCloseness;
+            this.strength = strength;
+            this.hubScore = hubScore;
+            this.samples = samples;
+            this.epsilon = epsilon;
+            this.confidence = confidence;
+        }
+
+        public Map<V, Double> getBetweenness() {
+            return betweenness;
+        }
+
+        public Map<V, Double> getHarmonicCloseness() {
+            return harmonicCloseness;
+        }
+
+        public Map<V, Double> getStrength() {
+            return strength;
+        }
+
+        public Map<V, Double> getHubScore() {
+            return hubScore;
+        }
+
+        public int getSamples() {
+            return samples;
+        }
+
+        public double getEpsilon() {
+            return epsilon;
+        }
+
+        public double getConfidence() {
+            return confidence;
+        }
+    }
+}
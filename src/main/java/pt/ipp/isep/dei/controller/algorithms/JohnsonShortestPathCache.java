@@ -0,0 +1,316 @@
+package pt.ipp.isep.dei.controller.algorithms;
+
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+import pt.ipp.isep.dei.domain.Graph.IndexedMinHeap;
+
+import java.util.*;
+
+/**
+ * Caminhos mínimos entre todos os pares pelo algoritmo de Johnson,
+ * calculados a pedido.
+ *
+ * Na construção é executado um único Bellman-Ford (SPFA) para obter os
+ * potenciais h, com os quais os pesos w(u,v) + h[u] - h[v] ficam não
+ * negativos. A árvore de caminhos mínimos de cada origem é calculada com
+ * Dijkstra apenas na primeira consulta dessa origem e guardada numa cache
+ * LRU com um número máximo de origens.
+ *
+ * As consultas de um único caminho ({@link #pathVertices}) de uma origem
+ * ainda sem árvore usam Dijkstra bidirecional, que pára quando as duas
+ * pesquisas se encontram; a árvore só é calculada se a mesma origem
+ * voltar a ser consultada.
+ *
+ * Se o grafo tiver um ciclo negativo não há potenciais válidos:
+ * {@link #hasNegativeCycle()} devolve true e as consultas não são permitidas.
+ *
+ * @param <V> tipo do vértice
+ */
+public class JohnsonShortestPathCache<V> {
+
+    private final CompactGraph<V> graph;
+
+    /**
+     * Potenciais de Johnson por vértice.
+     */
+    private final double[] potential;
+
+    /**
+     * Pesos reajustados (não negativos) por aresta.
+     */
+    private final double[] reducedWeights;
+
+    /**
+     * Ciclo negativo encontrado no reajuste, ou null.
+     */
+    private final List<V> negativeCycle;
+
+    /**
+     * Árvores de caminhos mínimos por origem, da menos para a mais recente.
+     */
+    private final LinkedHashMap<Integer, ShortestPathTree> trees;
+
+    private final IndexedMinHeap heap;
+
+    /**
+     * Origens já consultadas com pesquisa bidirecional, da menos para a mais recente.
+     */
+    private final LinkedHashMap<Integer, Boolean> queriedSources;
+
+    /**
+     * Rede com os pesos reajustados, criada na primeira pesquisa bidirecional.
+     */
+    private PointToPointShortestPathAlgorithm.Network network;
+
+    /**
+     * Constrói a cache e calcula os potenciais de Johnson.
+     *
+     * @param graph grafo compacto
+     * @param profile perfil de peso a utilizar
+     * @param maxSources número máximo de origens guardadas em simultâneo
+     */
+    // Complexity O(V * E) no pior caso, tipicamente O(E)
+    public JohnsonShortestPathCache(CompactGraph<V> graph, int profile, int maxSources) {
+        if (maxSources < 1) {
+            throw new IllegalArgumentException("The cache must keep at least one source");
+        }
+
+        int n = graph.numVertices();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+        double[] weights = graph.weights(profile);
+
+        this.graph = graph;
+        this.potential = new double[n];
+        this.negativeCycle = BellmanFordAlgorithm.johnsonPotentials(graph, profile, potential);
+        this.reducedWeights = new double[targets.length];
+        this.heap = new IndexedMinHeap(n);
+        this.trees = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ShortestPathTree> eldest) {
+                return size() > maxSources;
+            }
+        };
+
+        this.queriedSources = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Boolean> eldest) {
+                return size() > 4 * maxSources;
+            }
+        };
+
+        if (negativeCycle == null) {
+            for (int u = 0; u < n; u++) {
+                for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                    // erros de arredondamento podem dar valores ligeiramente negativos
+                    reducedWeights[arc] = Math.max(0.0, weights[arc] + potential[u] - potential[targets[arc]]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Indica se o grafo tem um ciclo negativo (e por isso não há caminhos mínimos).
+     *
+     * @return true se existir ciclo negativo
+     */
+    public boolean hasNegativeCycle() {
+        return negativeCycle != null;
+    }
+
+    /**
+     * Obtém o ciclo negativo encontrado no reajuste.
+     *
+     * @return vértices do ciclo (o primeiro repetido no fim) ou null
+     */
+    public List<V> getNegativeCycle() {
+        return negativeCycle;
+    }
+
+    /**
+     * Obtém o número de origens atualmente em cache.
+     *
+     * @return número de árvores guardadas
+     */
+    public synchronized int cachedSources() {
+        return trees.size();
+    }
+
+    /**
+     * Obtém a distância mínima entre dois vértices.
+     *
+     * @param source índice da origem
+     * @param target índice do destino
+     * @return distância ou infinito se o destino não for alcançável
+     */
+    public double distance(int source, int target) {
+        return tree(source).dist[target];
+    }
+
+    /**
+     * Preenche os vetores de predecessores e distâncias de uma origem,
+     * no mesmo formato que {@link BellmanFordAlgorithm#spfa}.
+     *
+     * @param source índice da origem
+     * @param path vetor de predecessores (preenchido)
+     * @param dist vetor de distâncias (preenchido)
+     */
+    public void shortestPaths(int source, int[] path, double[] dist) {
+        ShortestPathTree tree = tree(source);
+        System.arraycopy(tree.path, 0, path, 0, tree.path.length);
+        System.arraycopy(tree.dist, 0, dist, 0, tree.dist.length);
+    }
+
+    /**
+     * Obtém o caminho mínimo entre dois vértices.
+     *
+     * @param source índice da origem
+     * @param target índice do destino
+     * @return vértices do caminho, da origem ao destino, ou lista vazia se não existir
+     */
+    public List<V> path(int source, int target) {
+        List<V> path = new ArrayList<>();
+        for (int v : pathVertices(source, target)) {
+            path.add(graph.vertex(v));
+        }
+        return path;
+    }
+
+    /**
+     * Obtém os índices dos vértices do caminho mínimo entre dois vértices.
+     *
+     * @param source índice da origem
+     * @param target índice do destino
+     * @return índices do caminho, da origem ao destino, ou vetor vazio se não existir
+     */
+    // Complexity O(comprimento do caminho) se a origem estiver em cache, senão O(E * log V)
+    public synchronized int[] pathVertices(int source, int target) {
+        ShortestPathTree tree = trees.get(source);
+
+        if (tree == null && queriedSources.get(source) == null) {
+            validate(source);
+            validate(target);
+            queriedSources.put(source, Boolean.TRUE);
+            if (network == null) {
+                network = PointToPointShortestPathAlgorithm.Network.of(graph, reducedWeights);
+            }
+            return PointToPointShortestPathAlgorithm.bidirectionalDijkstra(network, source, target).getVertices();
+        }
+
+        tree = tree(source);
+        if (tree.dist[target] == Double.POSITIVE_INFINITY) return new int[0];
+
+        int length = 0;
+        for (int v = target; v != -1; v = tree.path[v]) length++;
+
+        int[] path = new int[length];
+        for (int v = target, i = length - 1; v != -1; v = tree.path[v], i--) {
+            path[i] = v;
+        }
+        return path;
+    }
+
+    /**
+     * Obtém até k caminhos sem ciclos entre dois vértices, por ordem crescente
+     * de comprimento, sobre a rede com os pesos reajustados.
+     *
+     * @param source índice da origem
+     * @param target índice do destino
+     * @param k número máximo de caminhos
+     * @return caminhos, com os comprimentos nos pesos originais
+     */
+    // Complexity ver KShortestPathsAlgorithm#yen
+    public KShortestPathsAlgorithm.Alternatives alternativePaths(int source, int target, int k) {
+        validate(source);
+        validate(target);
+        PointToPointShortestPathAlgorithm.Network reduced;
+        synchronized (this) {
+            if (network == null) {
+                network = PointToPointShortestPathAlgorithm.Network.of(graph, reducedWeights);
+            }
+            reduced = network;
+        }
+
+        KShortestPathsAlgorithm.Alternatives alternatives = KShortestPathsAlgorithm.yen(reduced, source, target, k);
+        List<PointToPointShortestPathAlgorithm.PathResult> paths = new ArrayList<>();
+        for (PointToPointShortestPathAlgorithm.PathResult p : alternatives.getPaths()) {
+            paths.add(new PointToPointShortestPathAlgorithm.PathResult(p.getVertices(),
+                    p.getDistance() + potential[target] - potential[source], p.getSettled()));
+        }
+        return new KShortestPathsAlgorithm.Alternatives(paths, alternatives.isBudgetExceeded(), alternatives.getSettled());
+    }
+
+    private void validate(int v) {
+        if (negativeCycle != null) {
+            throw new IllegalStateException("The graph has a negative cycle");
+        }
+        if (v < 0 || v >= graph.numVertices()) {
+            throw new IllegalArgumentException("Invalid vertex: " + v);
+        }
+    }
+
+    // Complexity O(1) se a origem estiver em cache, senão O(E * log V)
+    private synchronized ShortestPathTree tree(int source) {
+        validate(source);
+
+        ShortestPathTree tree = trees.get(source);
+        if (tree == null) {
+            tree = dijkstra(source);
+            trees.put(source, tree);
+        }
+        return tree;
+    }
+
+    // Complexity O(E * log V)
+    private ShortestPathTree dijkstra(int source) {
+        int n = graph.numVertices();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+
+        double[] dist = new double[n];
+        int[] path = new int[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(path, -1);
+
+        dist[source] = 0.0;
+        heap.clear();
+        heap.insert(source, 0.0);
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int v = targets[arc];
+                double newDist = dist[u] + reducedWeights[arc];
+
+                if (newDist < dist[v]) {
+                    dist[v] = newDist;
+                    path[v] = u;
+                    heap.insertOrDecrease(v, newDist);
+                }
+            }
+        }
+
+        // d(s,v) = d'(s,v) - h[s] + h[v]
+        for (int v = 0; v < n; v++) {
+            if (dist[v] != Double.POSITIVE_INFINITY) {
+                dist[v] = dist[v] - potential[source] + potential[v];
+            }
+        }
+
+        return new ShortestPathTree(dist, path);
+    }
+
+    /**
+     * Árvore de caminhos mínimos de uma origem.
+     */
+    private static final class ShortestPathTree {
+
+        private final double[] dist;
+        private final int[] path;
+
+        private ShortestPathTree(double[] dist, int[] path) {
+            this.dist = dist;
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,499 @@
+package pt.ipp.isep.dei.controller.algorithms;
+
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+import pt.ipp.isep.dei.domain.Graph.IndexedMinHeap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Os k caminhos mais curtos sem ciclos entre dois vértices (algoritmo de Yen,
+ * com a partição de Lawler e avaliação preguiçosa dos desvios).
+ *
+ * - Uma única Dijkstra inversa a partir do destino dá a árvore de caminhos
+ *   mínimos até ao destino; o primeiro caminho é lido dessa árvore e as
+ *   suas distâncias servem de limite inferior (A*) para os desvios.
+ * - Cada caminho aceite parte o espaço restante em subespaços disjuntos
+ *   (prefixo fixo, próximos vértices excluídos), pelo que não há caminhos
+ *   repetidos. Cada subespaço entra na fila com um limite inferior barato
+ *   e só é pesquisado quando chega ao topo.
+ * - Se o melhor desvio segue a árvore sem tocar no prefixo, o caminho é
+ *   lido da árvore sem pesquisa.
+ * - O trabalho das pesquisas de desvio é limitado por um orçamento de
+ *   vértices fixados; se esgotar, são devolvidos os caminhos já encontrados,
+ *   que continuam a ser os melhores por ordem.
+ */
+public class KShortestPathsAlgorithm {
+
+    /**
+     * Orçamento por omissão: múltiplo dos vértices fixados pela Dijkstra inversa.
+     */
+    private static final int BUDGET_FACTOR = 4;
+
+    /**
+     * Orçamento mínimo por omissão, para origens muito perto do destino.
+     */
+    private static final int MIN_BUDGET = 1_000;
+
+    /**
+     * Calcula até k caminhos com o orçamento por omissão.
+     *
+     * @param network rede com os pesos (não negativos)
+     * @param source índice da origem
+     * @param target índice do destino
+     * @param k número de caminhos pretendido
+     * @return caminhos por ordem crescente de comprimento
+     */
+    public static Alternatives yen(PointToPointShortestPathAlgorithm.Network network, int source, int target, int k) {
+        return yen(network, source, target, k, -1);
+    }
+
+    /**
+     * Calcula até k caminhos sem ciclos, por ordem crescente de comprimento.
+     * Caminhos que diferem só em arestas paralelas contam como um, com a
+     * aresta mais barata.
+     *
+     * @param network rede com os pesos (não negativos)
+     * @param source índice da origem
+     * @param target índice do destino
+     * @param k número de caminhos pretendido
+     * @param maxSettled máximo de vértices fixados pelas pesquisas de desvio
+     *                   (negativo para usar o orçamento por omissão)
+     * @return caminhos por ordem crescente de comprimento
+     */
+    // Complexity O(E log V) para a árvore mais O(k * L * grau) para os limites, com L o comprimento dos caminhos
+    public static Alternatives yen(PointToPointShortestPathAlgorithm.Network network, int source, int target,
+                                   int k, int maxSettled) {
+        network.validate(source);
+        network.validate(target);
+        if (k < 1) throw new IllegalArgumentException("k must be positive");
+
+        if (source == target) {
+            List<PointToPointShortestPathAlgorithm.PathResult> paths = new ArrayList<>();
+            paths.add(new PointToPointShortestPathAlgorithm.PathResult(new int[]{source}, 0.0, 1));
+            return new Alternatives(paths, false, 1);
+        }
+
+        Search search = new Search(network, source, target);
+        int budget = maxSettled >= 0 ? maxSettled : Math.max(BUDGET_FACTOR * search.reverseSettled, MIN_BUDGET);
+        return search.run(k, budget);
+    }
+
+    /**
+     * Calcula até k caminhos de um grafo compacto. Se o perfil tiver pesos
+     * negativos, a pesquisa é feita sobre os pesos reajustados pelos
+     * potenciais de Johnson e os comprimentos são corrigidos no fim.
+     *
+     * @param g grafo compacto
+     * @param profile perfil de peso
+     * @param source índice da origem
+     * @param target índice do destino
+     * @param k número de caminhos pretendido
+     * @param <V> tipo do vértice
+     * @return caminhos por ordem crescente de comprimento
+     * @throws IllegalStateException se o perfil tiver um ciclo negativo
+     */
+    // Complexity O(V * E) para os potenciais, se necessários, mais a pesquisa
+    public static <V> Alternatives yen(CompactGraph<V> g, int profile, int source, int target, int k) {
+        double[] weights = g.weights(profile);
+        boolean negative = false;
+        for (double w : weights) {
+            if (w < 0) {
+                negative = true;
+                break;
+            }
+        }
+        if (!negative) {
+            return yen(PointToPointShortestPathAlgorithm.Network.of(g, profile), source, target, k);
+        }
+
+        int n = g.numVertices();
+        int[] offsets = g.offsets();
+        int[] arcTargets = g.targets();
+        double[] potential = new double[n];
+        if (BellmanFordAlgorithm.johnsonPotentials(g, profile, potential) != null) {
+            throw new IllegalStateException("Weight profile has a negative cycle.");
+        }
+
+        double[] reduced = new double[weights.length];
+        for (int u = 0; u < n; u++) {
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                // erros de arredondamento podem dar valores ligeiramente negativos
+                reduced[arc] = Math.max(0.0, weights[arc] + potential[u] - potential[arcTargets[arc]]);
+            }
+        }
+
+        // o reajuste soma a mesma constante a todos os caminhos, pelo que a ordem mantém-se
+        Alternatives reducedPaths = yen(PointToPointShortestPathAlgorithm.Network.of(g, reduced), source, target, k);
+        List<PointToPointShortestPathAlgorithm.PathResult> paths = new ArrayList<>();
+        for (PointToPointShortestPathAlgorithm.PathResult p : reducedPaths.getPaths()) {
+            paths.add(new PointToPointShortestPathAlgorithm.PathResult(p.getVertices(),
+                    p.getDistance() + potential[target] - potential[source], p.getSettled()));
+        }
+        return new Alternatives(paths, reducedPaths.isBudgetExceeded(), reducedPaths.getSettled());
+    }
+
+    /**
+     * Estado de uma consulta: árvore inversa, fila de subespaços e os
+     * vetores da pesquisa de desvio, reutilizados entre desvios.
+     */
+    private static final class Search {
+
+        private final int[] offsets;
+        private final int[] targets;
+        private final double[] weights;
+        private final int source;
+        private final int target;
+
+        /**
+         * Distância ao destino dos vértices fixados pela Dijkstra inversa,
+         * e o vértice seguinte no caminho mínimo até ao destino.
+         */
+        private final double[] treeDist;
+        private final int[] succ;
+        private final boolean[] inTree;
+
+        /**
+         * Limite inferior dos vértices fora da árvore: a maior distância fixada,
+         * ou infinito se a Dijkstra inversa esgotou os vértices que chegam ao destino.
+         */
+        private double radius;
+        private int reverseSettled;
+
+        private final double[] dist;
+        private final int[] pred;
+        private final int[] seen;
+        private final int[] blocked;
+        private final int[] excluded;
+        private final IndexedMinHeap heap;
+        private int stamp;
+
+        // Complexity O(E log V) no pior caso, limitado aos vértices mais próximos do destino que a origem
+        private Search(PointToPointShortestPathAlgorithm.Network network, int source, int target) {
+            int n = network.numVertices();
+            this.offsets = network.offsets();
+            this.targets = network.targets();
+            this.weights = network.weights();
+            this.source = source;
+            this.target = target;
+
+            this.treeDist = new double[n];
+            this.succ = new int[n];
+            this.inTree = new boolean[n];
+            this.dist = new double[n];
+            this.pred = new int[n];
+            this.seen = new int[n];
+            this.blocked = new int[n];
+            this.excluded = new int[n];
+            this.heap = new IndexedMinHeap(n);
+
+            int[] reverseOffsets = network.reverseOffsets();
+            int[] reverseTargets = network.reverseTargets();
+            double[] reverseWeights = network.reverseWeights();
+
+            Arrays.fill(treeDist, Double.POSITIVE_INFINITY);
+            Arrays.fill(succ, -1);
+            treeDist[target] = 0.0;
+            heap.insert(target, 0.0);
+            radius = Double.POSITIVE_INFINITY;
+
+            while (!heap.isEmpty()) {
+                int u = heap.poll();
+                inTree[u] = true;
+                reverseSettled++;
+
+                if (u == source) {
+                    radius = treeDist[u];
+                    break;
+                }
+
+                for (int arc = reverseOffsets[u]; arc < reverseOffsets[u + 1]; arc++) {
+                    int v = reverseTargets[arc];
+                    double newDist = treeDist[u] + reverseWeights[arc];
+                    if (newDist < treeDist[v]) {
+                        treeDist[v] = newDist;
+                        succ[v] = u;
+                        heap.insertOrDecrease(v, newDist);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Limite inferior (consistente) da distância de um vértice ao destino.
+         */
+        private double bound(int v) {
+            return inTree[v] ? treeDist[v] : radius;
+        }
+
+        private Alternatives run(int k, int budget) {
+            List<PointToPointShortestPathAlgorithm.PathResult> paths = new ArrayList<>();
+            if (!inTree[source]) {
+                return new Alternatives(paths, false, reverseSettled);
+            }
+
+            PriorityQueue<Candidate> queue = new PriorityQueue<>(Comparator.comparingDouble(c -> c.key));
+            queue.add(treeCandidate());
+
+            int settled = 0;
+            boolean exceeded = false;
+
+            while (!queue.isEmpty() && paths.size() < k) {
+                Candidate c = queue.poll();
+
+                if (!c.evaluated) {
+                    int before = settled;
+                    settled += evaluate(c, budget - settled);
+                    if (settled > budget) {
+                        exceeded = true;
+                        break;
+                    }
+                    c.settled = settled - before;
+                    if (c.vertices != null) queue.add(c);
+                    continue;
+                }
+
+                paths.add(new PointToPointShortestPathAlgorithm.PathResult(c.vertices, c.key,
+                        paths.isEmpty() ? reverseSettled : c.settled));
+                if (paths.size() < k) split(c, queue);
+            }
+
+            return new Alternatives(paths, exceeded, reverseSettled + settled);
+        }
+
+        /**
+         * O primeiro caminho, lido da árvore inversa.
+         */
+        // Complexity O(L)
+        private Candidate treeCandidate() {
+            int length = 1;
+            for (int v = source; v != target; v = succ[v]) length++;
+
+            Candidate c = new Candidate(null, null, 0, new int[0], treeDist[source]);
+            c.vertices = new int[length];
+            c.prefix = new double[length];
+            int i = 0;
+            for (int v = source; v != -1; v = succ[v], i++) {
+                c.vertices[i] = v;
+                c.prefix[i] = treeDist[source] - treeDist[v];
+            }
+            c.evaluated = true;
+            return c;
+        }
+
+        /**
+         * Parte o espaço restante de um caminho aceite: no vértice de desvio
+         * acumula a exclusão do próximo vértice; depois dele, fixa cada prefixo
+         * e exclui o próximo vértice do caminho.
+         */
+        // Complexity O(L * grau)
+        private void split(Candidate accepted, PriorityQueue<Candidate> queue) {
+            int[] path = accepted.vertices;
+            for (int j = accepted.deviation; j < path.length - 1; j++) {
+                int[] exclusions;
+                if (j == accepted.deviation) {
+                    exclusions = Arrays.copyOf(accepted.excluded, accepted.excluded.length + 1);
+                    exclusions[exclusions.length - 1] = path[j + 1];
+                } else {
+                    exclusions = new int[]{path[j + 1]};
+                }
+
+                double best = Double.POSITIVE_INFINITY;
+                int u = path[j];
+                for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                    if (!contains(exclusions, targets[arc])) {
+                        best = Math.min(best, weights[arc] + bound(targets[arc]));
+                    }
+                }
+                if (best != Double.POSITIVE_INFINITY) {
+                    queue.add(new Candidate(path, accepted.prefix, j, exclusions, accepted.prefix[j] + best));
+                }
+            }
+        }
+
+        /**
+         * Calcula o melhor caminho de um subespaço: pela árvore, se o melhor
+         * desvio a seguir sem tocar no prefixo, senão por A* a partir do
+         * vértice de desvio, sem passar pelo prefixo.
+         *
+         * @return vértices fixados (mais do que o disponível se o orçamento esgotou)
+         */
+        // Complexity O(E log V) no pior caso
+        private int evaluate(Candidate c, int available) {
+            int u = c.base[c.deviation];
+            double rootCost = c.prefix[c.deviation];
+
+            stamp++;
+            for (int i = 0; i <= c.deviation; i++) blocked[c.base[i]] = stamp;
+            for (int v : c.excluded) excluded[v] = stamp;
+
+            int bestArc = -1;
+            double best = Double.POSITIVE_INFINITY;
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int v = targets[arc];
+                if (blocked[v] == stamp || excluded[v] == stamp) continue;
+                double bound = weights[arc] + bound(v);
+                if (bound < best) {
+                    best = bound;
+                    bestArc = arc;
+                }
+            }
+            if (bestArc == -1) return 0;
+
+            int next = targets[bestArc];
+            if (inTree[next]) {
+                int walked = 0;
+                boolean clean = true;
+                for (int v = next; v != -1 && clean; v = succ[v]) {
+                    clean = blocked[v] != stamp;
+                    walked++;
+                }
+                if (clean) {
+                    if (walked > available) return walked;
+                    int[] vertices = Arrays.copyOf(c.base, c.deviation + 1 + walked);
+                    double[] prefix = Arrays.copyOf(c.prefix, vertices.length);
+                    double spurCost = weights[bestArc] + treeDist[next];
+                    int i = c.deviation + 1;
+                    for (int v = next; v != -1; v = succ[v], i++) {
+                        vertices[i] = v;
+                        prefix[i] = rootCost + spurCost - treeDist[v];
+                    }
+                    c.accept(vertices, prefix, rootCost + spurCost);
+                    return walked;
+                }
+            }
+
+            return spur(c, u, rootCost, available);
+        }
+
+        // Complexity O(E log V) no pior caso
+        private int spur(Candidate c, int u, double rootCost, int available) {
+            heap.clear();
+            dist[u] = 0.0;
+            pred[u] = -1;
+            seen[u] = stamp;
+            heap.insert(u, bound(u));
+
+            int settled = 0;
+            while (!heap.isEmpty()) {
+                int x = heap.poll();
+                if (++settled > available) return settled;
+
+                if (x == target) {
+                    int length = 0;
+                    for (int v = x; v != u; v = pred[v]) length++;
+
+                    int[] vertices = Arrays.copyOf(c.base, c.deviation + 1 + length);
+                    double[] prefix = Arrays.copyOf(c.prefix, vertices.length);
+                    for (int v = x, i = vertices.length - 1; v != u; v = pred[v], i--) {
+                        vertices[i] = v;
+                        prefix[i] = rootCost + dist[v];
+                    }
+                    c.accept(vertices, prefix, rootCost + dist[x]);
+                    return settled;
+                }
+
+                for (int arc = offsets[x]; arc < offsets[x + 1]; arc++) {
+                    int y = targets[arc];
+                    if (blocked[y] == stamp || (x == u && excluded[y] == stamp)) continue;
+                    double h = bound(y);
+                    if (h == Double.POSITIVE_INFINITY) continue;
+
+                    double newDist = dist[x] + weights[arc];
+                    if (seen[y] != stamp || newDist < dist[y]) {
+                        seen[y] = stamp;
+                        dist[y] = newDist;
+                        pred[y] = x;
+                        heap.insertOrDecrease(y, newDist + h);
+                    }
+                }
+            }
+            return settled;
+        }
+
+        private static boolean contains(int[] values, int v) {
+            for (int x : values) {
+                if (x == v) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Subespaço de caminhos: prefixo base[0..deviation] fixo e os próximos
+     * vértices em excluded proibidos a seguir ao vértice de desvio. Enquanto
+     * não avaliado, key é um limite inferior; depois é o comprimento do
+     * melhor caminho do subespaço.
+     */
+    private static final class Candidate {
+
+        private final int[] base;
+        private final int deviation;
+        private final int[] excluded;
+        private double key;
+        private boolean evaluated;
+        private int settled;
+
+        private int[] vertices;
+        private double[] prefix;
+
+        /**
+         * @param base caminho de onde o subespaço foi partido
+         * @param prefix comprimentos acumulados ao longo de base
+         * @param deviation índice do vértice de desvio em base
+         * @param excluded vértices proibidos a seguir ao vértice de desvio
+         * @param key limite inferior do comprimento dos caminhos do subespaço
+         */
+        private Candidate(int[] base, double[] prefix, int deviation, int[] excluded, double key) {
+            this.base = base;
+            this.prefix = prefix;
+            this.deviation = deviation;
+            this.excluded = excluded;
+            this.key = key;
+        }
+
+        private void accept(int[] vertices, double[] prefix, double length) {
+            this.vertices = vertices;
+            this.prefix = prefix;
+            this.key = length;
+            this.evaluated = true;
+        }
+    }
+
+    /**
+     * Resultado: caminhos por ordem crescente de comprimento e o trabalho gasto.
+     */
+    public static class Alternatives {
+
+        private final List<PointToPointShortestPathAlgorithm.PathResult> paths;
+        private final boolean budgetExceeded;
+        private final int settled;
+
+        /**
+         * @param paths caminhos, do mais curto ao mais longo
+         * @param budgetExceeded true se a pesquisa parou por esgotar o orçamento
+         * @param settled total de vértices fixados
+         */
+        public Alternatives(List<PointToPointShortestPathAlgorithm.PathResult> paths, boolean budgetExceeded, int settled) {
+            this.paths = Collections.unmodifiableList(paths);
+            this.budgetExceeded = budgetExceeded;
+            this.settled = settled;
+        }
+
+        public List<PointToPointShortestPathAlgorithm.PathResult> getPaths() {
+            return paths;
+        }
+
+        public boolean isBudgetExceeded() {
+            return budgetExceeded;
+        }
+
+        public int getSettled() {
+            return settled;
+        }
+    }
+}
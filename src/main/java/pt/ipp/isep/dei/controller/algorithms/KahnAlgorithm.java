@@ -10,15 +10,22 @@ public class KahnAlgorithm {
     // Complexity O(V + E) + O(V) = O(V + E)
     public static <V, E> boolean kahn(Graph<V, E> g, List<V> topSort) {
 
-        Map<V, Integer> degreeIn = new HashMap<>();
-        Queue<V> queueAux = new LinkedList<>();
+        int n = g.numVertices();
+        int[][] adjIds = new int[n][];
+        int[] degreeIn = new int[n];
+        Queue<Integer> queueAux = new ArrayDeque<>();
 
-        // Complexity O(V)
-        for (V v : g.vertices()) {
-            int indeg = g.inDegree(v);
-            degreeIn.put(v, indeg);
+        // Complexity O(V + E)
+        for (int u = 0; u < n; u++) {
+            adjIds[u] = g.outgoingEdgeIds(u);
+            for (int v : adjIds[u]) {
+                degreeIn[v]++;
+            }
+        }
 
-            if (indeg == 0) {
+        // Complexity O(V)
+        for (int v = 0; v < n; v++) {
+            if (degreeIn[v] == 0) {
                 queueAux.add(v);
             }
         }
@@ -27,20 +34,19 @@ public class KahnAlgorithm {
 
         // Complexity O(V + E)
         while (!queueAux.isEmpty()) {   // Complexity O(V)
-            V vOrig = queueAux.poll();
-            topSort.add(vOrig);
+            int vOrig = queueAux.poll();
+            topSort.add(g.vertex(vOrig));
             numVerts++;
 
-            for (V vAdj : g.adjVertices(vOrig)) {   // Complexity O(E)
-                int newDeg = degreeIn.get(vAdj) - 1;
-                degreeIn.put(vAdj, newDeg);
+            for (int vAdj : adjIds[vOrig]) {   // Complexity O(E)
+                degreeIn[vAdj]--;
 
-                if (newDeg == 0) {
+                if (degreeIn[vAdj] == 0) {
                     queueAux.add(vAdj);
                 }
             }
         }
 
-        return numVerts == g.numVertices();
+        return numVerts == n;
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,12 @@
 package pt.ipp.isep.dei.controller.algorithms;
 
 import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
-import pt.ipp.isep.dei.domain.Graph.Edge;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
 import pt.ipp.isep.dei.domain.Graph.Graph;
 import pt.ipp.isep.dei.domain.Graph.MetricsStationEdge;
+import pt.ipp.isep.dei.domain.Graph.UnionFind;
 
-import java.util.*;
+import java.util.Arrays;
 
 /*
     A partir de um grafo nao direcionado, esta classe constroi uma
@@ -14,13 +15,15 @@ import java.util.*;
     a distancia (distance).
 
     Complexidade temporal:
-    O(V) + O(E) + O(E log E) + O(E * V)
-    Final (simplificado): O(E * V).
+    O(V + E) + O(E log E) + O(E * α(V))
+    Final (simplificado): O(E log E).
 
     Obs.:
-    - O algoritmo considera apenas ligacoes nao direcionadas unicas,
-      evitando duplicacoes logicas como (a,b) e (b,a).
+    - Os ciclos sao detetados com union-find sobre os ids inteiros dos vertices.
+    - Num grafo nao direcionado cada ligacao so e considerada uma vez (u < v);
+      ligacoes repetidas sao descartadas pelo union-find por criarem ciclo.
     - Self-loops (a,a) sao ignorados, pois nao fazem sentido numa MST.
+    - As arestas sao ordenadas num vetor de inteiros, sem objetos por aresta.
 */
 
 public class KruskalAlgorithm {
@@ -28,114 +31,229 @@ public class KruskalAlgorithm {
     /*
       Retorna a Minimum Spanning Tree (MST) de um grafo (g) ponderado e nao direcionado.
 
-      Complexidade : .
+      Complexidade: O(E log E).
      */
     public static Graph<StationEsinf, MetricsStationEdge> kruskal(
                   Graph<StationEsinf, MetricsStationEdge> g) {
 
-        Graph<StationEsinf, MetricsStationEdge> mst = new Graph<>(false);       // Cria um novo Grafo MST nao direcionado. O(1)
-
-        for (StationEsinf v : g.vertices()) {                                           // Adiciona todos os vertices do grafo original dentro do MST. O(V)
-            mst.addVertex(v);                                                           // adiciona cada Vertice isolado. O(1)
-        }
+        CompactGraph<StationEsinf> compact = MetricsStationEdge.freeze(g);             // Instantaneo CSR com os mesmos ids do grafo. O(V + E)
+        return spanningTree(g, compact, kruskal(compact, MetricsStationEdge.DISTANCE)); // O(E log E)
+    }
 
-        // Cria a lista de arestas nao direcionadas unicas, eliminando duplicacoes logicas (a,b) == (b,a).
 
-        List<Edge<StationEsinf, MetricsStationEdge>> edges =  new ArrayList<>();        // Cria uma lista de arestas candidatas. O(1)
+    /*
+      Constroi o grafo da MST a partir dos indices das arestas escolhidas
+      num instantaneo CSR (com os mesmos ids) do grafo original.
 
-        Set<String> visitedEdges =  new HashSet<>();                                    // Cria um conjunto Set para controlar ligacoes ja consideradas. O(1)
+      Complexidade: O(V + V log V).
+     */
+    public static Graph<StationEsinf, MetricsStationEdge> spanningTree(
+                  Graph<StationEsinf, MetricsStationEdge> g, CompactGraph<StationEsinf> compact, int[] arcs) {
 
-        for (Edge<StationEsinf, MetricsStationEdge> edge : g.edges()) {                 // Percorre todas as arestas do grafo original.  O(E)
+        Graph<StationEsinf, MetricsStationEdge> mst = new Graph<>(false);       // O(1)
 
-            StationEsinf vOrig = edge.getVOrig();                                       // Guarda a estacao de origem.  O(1)
-            StationEsinf vDest = edge.getVDest();                                       // Guarda a estacao destino.  O(1)
+        for (StationEsinf v : g.vertices()) {                                           // O(V)
+            mst.addVertex(v);
+        }
 
-            if (shouldAddUndirectedEdge(vOrig, vDest, visitedEdges)) {
-                edges.add(edge);                                                        // Adiciona apenas ligacoes validas e unicas. O(1)
-            }
+        int[] targets = compact.targets();
+        for (int arc : arcs) {                                                          // O(V) arestas
+            int u = compact.source(arc);                                                // O(log V)
+            int v = targets[arc];
+            mst.addEdge(g.vertex(u), g.vertex(v), g.weight(u, v));                      // Adiciona a aresta ao MST. O(1)
         }
 
-         // Ordena as arestas por distancia (peso), em ordem crescente. O(E log E).
-        Collections.sort(edges, new Comparator<Edge<StationEsinf, MetricsStationEdge>>() {
-            @Override
-            public int compare( Edge<StationEsinf, MetricsStationEdge> e1,
-                                Edge<StationEsinf, MetricsStationEdge> e2) {
+        return mst;
+    }
+
 
-                return Double.compare(e1.getWeight().getDistance(),
-                                      e2.getWeight().getDistance()
-                );
+    /*
+      Versao sobre um grafo compacto (CSR): retorna os indices das arestas
+      (posicoes em targets()) que formam a MST, usando union-find em vez de DFS.
+      Num grafo nao direcionado cada ligacao so e considerada uma vez (u < v).
+
+      Complexidade: O(E log E).
+     */
+    public static <V> int[] kruskal(CompactGraph<V> g, int profile) {
+
+        int n = g.numVertices();                                                // O(1)
+        int[] offsets = g.offsets();
+        int[] targets = g.targets();
+        double[] weights = g.weights(profile);
+
+        int[] sources = new int[targets.length];                               // Origem de cada aresta. O(E)
+        int[] candidates = new int[targets.length];                            // Arestas candidatas. O(E)
+        int count = 0;
+
+        for (int u = 0; u < n; u++) {                                          // O(V + E)
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int v = targets[arc];
+                sources[arc] = u;
+                if (g.isDirected() ? u != v : u < v) {                          // Ignora self-loops e duplicacoes (a,b) == (b,a).
+                    candidates[count++] = arc;
+                }
             }
         }
-        );
 
+        sortByWeight(candidates, count, weights);                              // O(E log E)
 
-        // O(E * V) - Itera sobre as arestas ordenadas e constroi a MST.
-        for (Edge<StationEsinf, MetricsStationEdge> edge : edges) {               // Itera sobre as arestas já ordenadas e constroi a MST, evitando ciclos atraves de DFS. O(E)
+        UnionFind components = new UnionFind(n);                               // O(V)
 
-            StationEsinf vOrig = edge.getVOrig();                                 // Obtem o vertice de origem da aresta atual O(1)
-            StationEsinf vDest = edge.getVDest();                                 // Obtem o vertice de destino da aresta atual. O(1)
+        int[] mst = new int[Math.max(0, n - 1)];
+        int size = 0;
 
-            Set<StationEsinf> connectedVerts =
-                    new HashSet<>();                                              // cria um conjunto para guardar todos os vertices alcancaveis no MST. O(1)
+        for (int i = 0; i < count && size < mst.length; i++) {                 // O(E * α(V))
+            int arc = candidates[i];
+            if (components.union(sources[arc], targets[arc])) {                // Falso se criar ciclo, descarta.
+                mst[size++] = arc;
+            }
+        }
 
-            depthFirstSearch(mst, vOrig, connectedVerts);                         // DFS no MST atual. O(V)
+        return Arrays.copyOf(mst, size);
+    }
+
+    /*
+      Filter-Kruskal sobre um grafo compacto: as arestas sao divididas em leves
+      e pesadas em torno de um pivo; as leves sao tratadas primeiro e, antes de
+      tratar as pesadas, sao descartadas as que ja ligam a mesma componente.
+      Em redes densas a maior parte das arestas pesadas nunca chega a ser ordenada.
 
-            if (!connectedVerts.contains(vDest)) {                                // Se nao cria ciclo. O(1)
-                mst.addEdge(vOrig, vDest, edge.getWeight());                      // Adiciona a aresta ao MST. O(1)
+      Complexidade: O(E + V log V log(E/V)) esperado, O(E log E) no pior caso.
+     */
+    public static <V> int[] filterKruskal(CompactGraph<V> g, int profile) {
+
+        int n = g.numVertices();
+        int[] offsets = g.offsets();
+        int[] targets = g.targets();
+        double[] weights = g.weights(profile);
+
+        int[] sources = new int[targets.length];
+        int[] candidates = new int[targets.length];
+        int count = 0;
+
+        for (int u = 0; u < n; u++) {                                          // O(V + E)
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int v = targets[arc];
+                sources[arc] = u;
+                if (g.isDirected() ? u != v : u < v) {
+                    candidates[count++] = arc;
+                }
             }
-                                                                                  // Caso contrario, a aresta e descartada por criar ciclo
         }
 
-        return mst;
+        FilterState state = new FilterState(n, sources, targets, weights);
+        state.process(candidates, 0, count, 2 * (32 - Integer.numberOfLeadingZeros(count)));
+
+        return Arrays.copyOf(state.mst, state.size);
     }
 
 
     /*
-      Este bloco cria uma identificação única para uma ligação entre dois vértices,
-      evita contar a mesma ligação duas vezes em grafos não direcionados
-      Garante que (a,b) == (b,a) e ignora self-loops.
+      Estado partilhado pelas chamadas recursivas do Filter-Kruskal.
      */
-    private static boolean shouldAddUndirectedEdge( StationEsinf vOrig, StationEsinf vDest,
-                                                    Set<String> visitedEdges) {
-        if (vOrig.equals(vDest)) {                           // Ignora self-loops. O(1)
-            return false;
+    private static final class FilterState {
+
+        private final int[] sources;
+        private final int[] targets;
+        private final double[] weights;
+        private final UnionFind components;
+        private final int[] mst;
+        private final int threshold;
+        private int size;
+
+        private FilterState(int n, int[] sources, int[] targets, double[] weights) {
+            this.sources = sources;
+            this.targets = targets;
+            this.weights = weights;
+            this.components = new UnionFind(n);
+            this.mst = new int[Math.max(0, n - 1)];
+            this.threshold = Math.max(64, n);                                  // Abaixo disto ordena diretamente.
         }
 
-        String origId = vOrig.getId();                       // Guarda o id da estacao de origem. O(1)
-        String destId = vDest.getId();                       // Guarda o id da estacao destino. O(1)
+        /*
+          Trata as arestas arcs[from..to) por ordem crescente de peso.
+          Esgotada a profundidade (pivos maus), ordena diretamente, como no introsort.
+         */
+        private void process(int[] arcs, int from, int to, int depth) {
+            if (size == mst.length || from >= to) return;
+
+            if (to - from <= threshold || depth == 0) {
+                sortAndJoin(arcs, from, to);                                   // O(k log k)
+                return;
+            }
+
+            double pivot = medianOfThree(weights[arcs[from]], weights[arcs[(from + to) >>> 1]], weights[arcs[to - 1]]);
 
-        String key;                                          // Cria uma variável que irá guardar a representação textual da ligação entre dois vértices. O(1)
+            int split = from;                                                  // Leves (<= pivo) em [from, split). O(k)
+            for (int i = from; i < to; i++) {
+                if (weights[arcs[i]] <= pivot) {
+                    int t = arcs[i]; arcs[i] = arcs[split]; arcs[split] = t;
+                    split++;
+                }
+            }
+
+            if (split == to) {                                                 // Todas iguais ou abaixo do pivo: ordena.
+                sortAndJoin(arcs, from, to);
+                return;
+            }
 
-        if (origId.compareTo(destId) <= 0) {                 // Compara se o id da estacao de origem é menor ou igual ao id da estacao destino. O(1)
-            key = origId + "-" + destId;                     // Guarda em Key a ligacao textual dos vértices em ordem (crescente) dos ids. O(1)
-        } else {
-            key = destId + "-" + origId;
+            process(arcs, from, split, depth - 1);
+
+            int kept = split;                                                  // Filtra as pesadas. O(k * α(V))
+            for (int i = split; i < to; i++) {
+                if (components.find(sources[arcs[i]]) != components.find(targets[arcs[i]])) {
+                    arcs[kept++] = arcs[i];
+                }
+            }
+
+            process(arcs, split, kept, depth - 1);
         }
 
-        if (visitedEdges.contains(key)) {
-            return false;                                    // Se esta ligacao entre os dois vertices ja foi considerada, ignora duplicacoes. hashSet.contains == O(1).
+        /*
+          Kruskal classico sobre arcs[from..to): ordena e junta componentes.
+         */
+        private void sortAndJoin(int[] arcs, int from, int to) {
+            int[] block = Arrays.copyOfRange(arcs, from, to);
+            sortByWeight(block, block.length, weights);
+            for (int arc : block) {
+                if (components.union(sources[arc], targets[arc])) {
+                    mst[size++] = arc;
+                    if (size == mst.length) return;
+                }
+            }
         }
 
-        visitedEdges.add(key);                               // Se nao foi considerada, registra a ligacao como visitada.
-        return true;
+        private static double medianOfThree(double a, double b, double c) {
+            return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+        }
     }
 
 
     /*
-      Percorre recursivamente o MST para identificar todos os
-      vertices alcancaveis a partir de um vertice de origem.
-      Complexidade: O(V + E) == O(V + (V-1)) == O(2V - 1) == O(V).
-     */
-    private static void depthFirstSearch(Graph<StationEsinf, MetricsStationEdge> g,
-                                         StationEsinf current, Set<StationEsinf> visited) {
-
-        visited.add(current);                               // Marca vertice como visitado. O(1)
+      Ordena as primeiras count arestas por peso crescente (merge sort estavel,
+      de baixo para cima), sem autoboxing.
 
-        for (StationEsinf adj : g.adjVertices(current)) {  // Percorre adjacentes. O(E)
-            if (!visited.contains(adj)) {                  // O(1)
-                depthFirstSearch(g, adj, visited);         // Chamada recursiva.
+      Complexidade: O(E log E).
+     */
+    static void sortByWeight(int[] arcs, int count, double[] weights) {
+        int[] src = arcs;
+        int[] dst = new int[count];
+
+        for (int width = 1; width < count; width *= 2) {                       // O(log E) passagens
+            for (int lo = 0; lo < count; lo += 2 * width) {                    // O(E) por passagem
+                int mid = Math.min(lo + width, count);
+                int hi = Math.min(lo + 2 * width, count);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi) {
+                    dst[k++] = weights[src[j]] < weights[src[i]] ? src[j++] : src[i++];
+                }
+                while (i < mid) dst[k++] = src[i++];
+                while (j < hi) dst[k++] = src[j++];
             }
+            int[] t = src; src = dst; dst = t;
         }
+
+        if (src != arcs) System.arraycopy(src, 0, arcs, 0, count);
     }
 }
 
@@ -151,21 +269,15 @@ StationEsinf → Vertice do grafo (estacao ferroviaria), identificado unicamente
 g → grafo original nao direcionado (rede ferroviaria completa)
 mst → grafo da Minimum Spanning Tree (resultado final)
 
-edges → lista de arestas nao direcionadas unicas, sem duplicacoes logicas
-
-visitedEdges → conjunto auxiliar que garante que (a,b) e (b,a)
-               sejam tratadas como a mesma ligacao
-
-shouldAddUndirectedEdge(...) →
-    - ignora self-loops
-    - normaliza ligacoes nao direcionadas
-    - controla duplicacoes de arestas
+candidates → indices (CSR) das ligacoes nao direcionadas, so com u < v
+              e sem self-loops
 
 Ordenacao →
-    - arestas ordenadas por distancia crescente (peso)
+    - arestas ordenadas por distancia crescente (peso), num vetor de int
 
-DFS →
+Union-find →
     - usado para verificar se uma nova aresta criaria ciclo no MST
+    - ligacoes repetidas ficam no mesmo conjunto e sao descartadas
 
 Resultado →
     - MST conexa
@@ -1,18 +1,29 @@
 package pt.ipp.isep.dei.controller.algorithms.LAPR;
 
+import pt.ipp.isep.dei.controller.algorithms.KShortestPathsAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.ManyToManyShortestPathAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.PointToPointShortestPathAlgorithm;
 import pt.ipp.isep.dei.domain.Facility;
 import pt.ipp.isep.dei.domain.trackRelated.RailwayLine;
-import pt.ipp.isep.dei.domain.trackRelated.RailwayLineSegment;
 import pt.ipp.isep.dei.domain.transportationRelated.Freight;
 import pt.ipp.isep.dei.domain.transportationRelated.Route;
 
 import java.util.*;
 
 public class LAPRShortestPathAlgorithm {
-    private static final double BOOST_DOUBLE_TRACK = 0.8;
-    private static final double BOOST_HAS_SIDING = 0.9;
 
 
+    /**
+     * Calcula o caminho de uma rota, ligando por caminhos mínimos as
+     * instalações de destino das suas mercadorias. A rede de instalações
+     * é construída uma única vez e partilhada por todos os troços.
+     *
+     * @param route rota
+     * @param facilities todas as instalações
+     * @param railwayLines linhas disponíveis
+     * @return instalações do caminho, ou lista vazia se algum troço não tiver caminho
+     */
+    // Complexity O(L + V) para a rede mais O(E log V) por troço
     public List<Facility> findGeneralShortestPath(Route route, List<Facility> facilities, List<RailwayLine> railwayLines) {
 
         if (route.getFreights().isEmpty()) return List.of();
@@ -22,9 +33,14 @@ public class LAPRShortestPathAlgorithm {
         Facility current = route.getFreights().get(0).getOriginFacility();
         path.add(current);
 
+        Map<Integer, Integer> indexById = new HashMap<>();
+        List<Facility> byIndex = new ArrayList<>();
+        PointToPointShortestPathAlgorithm.Network network =
+                facilityNetwork(List.of(facilities, List.of(current)), railwayLines, indexById, byIndex);
+
         for (Freight freight : route.getFreights()) {
 
-            List<Facility> partial = shortestPath(current, freight.getDestinationFacility(), facilities, railwayLines);
+            List<Facility> partial = shortestPath(network, indexById, byIndex, current, freight.getDestinationFacility());
 
             if (partial.isEmpty()) return List.of();
 
@@ -41,143 +57,184 @@ public class LAPRShortestPathAlgorithm {
            Dijkstra principal
            ========================= */
 
+    /**
+     * Calcula o caminho de menor custo entre duas instalações.
+     *
+     * @param origin instalação de origem
+     * @param destination instalação de destino
+     * @param allFacilities todas as instalações
+     * @param allLines linhas disponíveis
+     * @return instalações do caminho, ou lista vazia se não existir
+     */
+    // Complexity O(L + V) para a rede mais O(E log V) para a pesquisa
     public List<Facility> shortestPath(Facility origin, Facility destination, List<Facility> allFacilities, List<RailwayLine> allLines) {
 
-        Map<Facility, Integer> dist = new HashMap<>();
-        Map<Facility, Facility> prev = new HashMap<>();
-
-        PriorityQueue<Facility> pq = new PriorityQueue<>(Comparator.comparingInt(dist::get));
-
-        for (Facility f : allFacilities) {
-            dist.put(f, Integer.MAX_VALUE);
-        }
-
-        dist.put(origin, 0);
-        pq.add(origin);
-
-        while (!pq.isEmpty()) {
+        Map<Integer, Integer> indexById = new HashMap<>();
+        List<Facility> byIndex = new ArrayList<>();
+        PointToPointShortestPathAlgorithm.Network network =
+                facilityNetwork(List.of(allFacilities, List.of(origin)), allLines, indexById, byIndex);
 
-            Facility u = pq.poll();
-
-            if (u.equals(destination)) {
-                break;
-            }
-
-            for (RailwayLine line : allLines) {
+        return shortestPath(network, indexById, byIndex, origin, destination);
+    }
 
-                Facility v = getOtherEnd(u, line, allFacilities);
-                if (v == null) continue;
+    // Complexity O(E log V)
+    private List<Facility> shortestPath(PointToPointShortestPathAlgorithm.Network network, Map<Integer, Integer> indexById,
+                                        List<Facility> byIndex, Facility origin, Facility destination) {
 
-                int cost = lineCost(line, u, v);
-                if (cost == Integer.MAX_VALUE) continue;
+        Integer source = indexById.get(origin.getId());
+        Integer target = indexById.get(destination.getId());
+        if (source == null || target == null) return List.of();
 
-                int alt = dist.get(u) + cost;
+        int[] vertices = PointToPointShortestPathAlgorithm.bidirectionalDijkstra(network, source, target).getVertices();
 
-                if (alt < dist.get(v)) {
-                    dist.put(v, alt);
-                    prev.put(v, u);
-                    pq.remove(v);
-                    pq.add(v);
-                }
-            }
-        }
-
-        return reconstructPath(prev, origin, destination);
+        List<Facility> path = new ArrayList<>(vertices.length);
+        for (int v : vertices) path.add(byIndex.get(v));
+        return path;
     }
 
         /* =========================
-           Custo de uma RailwayLine
+           Tabela de distâncias
            ========================= */
 
-    private int lineCost(RailwayLine line, Facility from, Facility to) {
-
-        List<RailwayLineSegment> segments =
-                line.getSegmentsInOrder(from, to);
-
-        if (segments == null || segments.isEmpty()) {
-            return Integer.MAX_VALUE;
-        }
-
-        int cost = 0;
-        for (RailwayLineSegment s : segments) {
-            cost += segmentCost(s);
-        }
-
-        return cost;
-    }
-
-    private int segmentCost(RailwayLineSegment segment) {
-        int cost = segment.getLength();
-
-        // Atribuir Boost's
-        if (segment.getNumberTracks() >= 2) {
-            cost *= BOOST_DOUBLE_TRACK;
-        } else if (segment.hasSiding()) {
-            cost *= BOOST_HAS_SIDING;
-        }
-
-        return cost;
+    /**
+     * Calcula numa só chamada o custo mínimo entre cada origem e cada destino,
+     * com o mesmo custo por linha de {@link #shortestPath}. As pesquisas são
+     * agrupadas por origem e executadas em paralelo.
+     *
+     * @param origins instalações de origem
+     * @param destinations instalações de destino
+     * @param allFacilities todas as instalações
+     * @param allLines todas as linhas
+     * @return custo[i][j] de origins[i] a destinations[j] (infinito se não houver caminho)
+     */
+    // Complexity O(L + V) para a rede mais O(origens * E log V / workers)
+    public double[][] distanceTable(List<Facility> origins, List<Facility> destinations,
+                                    List<Facility> allFacilities, List<RailwayLine> allLines) {
+
+        Map<Integer, Integer> indexById = new HashMap<>();
+        List<Facility> byIndex = new ArrayList<>();
+        PointToPointShortestPathAlgorithm.Network network =
+                facilityNetwork(List.of(allFacilities, origins, destinations), allLines, indexById, byIndex);
+
+        int[] sources = new int[origins.size()];
+        for (int i = 0; i < sources.length; i++) sources[i] = indexById.get(origins.get(i).getId());
+        int[] targets = new int[destinations.size()];
+        for (int j = 0; j < targets.length; j++) targets[j] = indexById.get(destinations.get(j).getId());
+
+        return ManyToManyShortestPathAlgorithm.distances(network, sources, targets);
     }
 
-
         /* =========================
-           Descobrir o outro extremo
+           Caminhos alternativos
            ========================= */
 
-    private Facility getOtherEnd(Facility current, RailwayLine line, List<Facility> allFacilities) {
-
-        if (line.getStartFacilityId() == current.getId()) {
-            return findFacilityById(line.getEndFacilityId(), allFacilities);
-        }
-
-        if (line.getEndFacilityId() == current.getId()) {
-            return findFacilityById(line.getStartFacilityId(), allFacilities);
+    /**
+     * Calcula até k caminhos sem ciclos entre duas instalações, por ordem
+     * crescente de custo (o mesmo custo por linha de {@link #shortestPath}).
+     * O primeiro é o caminho mais curto e os seguintes as melhores alternativas.
+     *
+     * @param origin instalação de origem
+     * @param destination instalação de destino
+     * @param k número máximo de caminhos
+     * @param allFacilities todas as instalações
+     * @param allLines todas as linhas
+     * @return instalações de cada caminho, da origem ao destino
+     */
+    // Complexity O(L + V) para a rede mais a pesquisa de KShortestPathsAlgorithm#yen
+    public List<List<Facility>> kShortestPaths(Facility origin, Facility destination, int k,
+                                               List<Facility> allFacilities, List<RailwayLine> allLines) {
+
+        Map<Integer, Integer> indexById = new HashMap<>();
+        List<Facility> byIndex = new ArrayList<>();
+        PointToPointShortestPathAlgorithm.Network network =
+                facilityNetwork(List.of(allFacilities, List.of(origin, destination)), allLines, indexById, byIndex);
+
+        KShortestPathsAlgorithm.Alternatives alternatives = KShortestPathsAlgorithm.yen(network,
+                indexById.get(origin.getId()), indexById.get(destination.getId()), k);
+
+        List<List<Facility>> paths = new ArrayList<>();
+        for (PointToPointShortestPathAlgorithm.PathResult result : alternatives.getPaths()) {
+            List<Facility> path = new ArrayList<>(result.getVertices().length);
+            for (int v : result.getVertices()) path.add(byIndex.get(v));
+            paths.add(path);
         }
-
-        return null;
-    }
-
-    private Facility findFacilityById(int id, List<Facility> facilities) {
-        for (Facility f : facilities) {
-            if (f.getId() == id) return f;
-        }
-        return null;
+        return paths;
     }
 
-        /* =========================
-           Reconstrução do caminho
-           ========================= */
-
-    private List<Facility> reconstructPath(Map<Facility, Facility> prev, Facility origin, Facility destination) {
-
-        List<Facility> path = new LinkedList<>();
-
-        if (!destination.equals(origin) && !prev.containsKey(destination)) {
-            return List.of();
+    /**
+     * Constrói a rede de instalações, indexadas pelo id: cada linha dá um
+     * arco em cada sentido com o custo desse sentido.
+     *
+     * @param facilities listas de instalações a indexar
+     * @param allLines todas as linhas
+     * @param indexById índice de cada id de instalação (preenchido)
+     * @param byIndex instalação de cada índice (preenchido)
+     * @return rede de instalações
+     */
+    // Complexity O(L + V)
+    private PointToPointShortestPathAlgorithm.Network facilityNetwork(List<List<Facility>> facilities, List<RailwayLine> allLines,
+                                                                      Map<Integer, Integer> indexById, List<Facility> byIndex) {
+        for (List<Facility> list : facilities) {
+            for (Facility f : list) {
+                if (indexById.putIfAbsent(f.getId(), byIndex.size()) == null) byIndex.add(f);
+            }
         }
 
-        Facility step = destination;
-        while (step != null) {
-            path.add(0, step);
-            step = prev.get(step);
+        int[] from = new int[2 * allLines.size()];
+        int[] to = new int[2 * allLines.size()];
+        double[] weights = new double[2 * allLines.size()];
+        int m = 0;
+        for (RailwayLine line : allLines) {
+            Integer a = indexById.get(line.getStartFacilityId());
+            Integer b = indexById.get(line.getEndFacilityId());
+            if (a == null || b == null) continue;
+
+            int forward = line.getRoutingCost(line.getStartFacilityId(), line.getEndFacilityId());
+            if (forward != Integer.MAX_VALUE) {
+                from[m] = a;
+                to[m] = b;
+                weights[m++] = forward;
+            }
+            int backward = line.getRoutingCost(line.getEndFacilityId(), line.getStartFacilityId());
+            if (backward != Integer.MAX_VALUE) {
+                from[m] = b;
+                to[m] = a;
+                weights[m++] = backward;
+            }
         }
 
-        return path;
+        return PointToPointShortestPathAlgorithm.Network.of(
+                byIndex.size(), Arrays.copyOf(from, m), Arrays.copyOf(to, m), Arrays.copyOf(weights, m));
     }
 
+    /**
+     * Calcula o custo de um caminho, somando em cada troço o custo (em cache)
+     * da primeira linha que liga as duas instalações.
+     *
+     * @param path instalações do caminho
+     * @param allLines linhas disponíveis
+     * @return custo total, ou {@code Integer.MAX_VALUE} se algum troço não tiver linha
+     */
+    // Complexity O(L + comprimento do caminho)
     public int totalPathCost(List<Facility> path, List<RailwayLine> allLines){
         if(path == null || path.size() < 2) return 0;
 
+        // primeira linha de cada par de instalações, tal como a pesquisa linear
+        Map<Long, RailwayLine> lineByEnds = new HashMap<>();
+        for (RailwayLine line : allLines) {
+            lineByEnds.putIfAbsent(ends(line.getStartFacilityId(), line.getEndFacilityId()), line);
+        }
+
         int totalCost = 0;
 
         for(int i = 0; i < path.size() - 1; i++){
-            Facility from = path.get(i);
-            Facility to = path.get(i + 1);
+            int from = path.get(i).getId();
+            int to = path.get(i + 1).getId();
 
-            RailwayLine line = findLineBetween(from, to, allLines);
+            RailwayLine line = lineByEnds.get(ends(from, to));
             if(line == null) return Integer.MAX_VALUE;
 
-            int cost = lineCost(line, from, to);
+            int cost = line.getRoutingCost(from, to);
             if(cost == Integer.MAX_VALUE) return Integer.MAX_VALUE;
 
             totalCost += cost;
@@ -186,14 +243,11 @@ public class LAPRShortestPathAlgorithm {
         return totalCost;
     }
 
-    private RailwayLine findLineBetween(Facility a, Facility b, List<RailwayLine> allLines){
-        for(RailwayLine line : allLines){
-            if((line.getStartFacilityId() == a.getId() && line.getEndFacilityId() == b.getId()) ||
-                    (line.getStartFacilityId() == b.getId() && line.getEndFacilityId() == a.getId())){
-                return line;
-            }
-        }
-        return null;
+    /**
+     * Chave de um par não ordenado de identificadores de instalações.
+     */
+    private static long ends(int a, int b) {
+        return ((long) Math.min(a, b) << 32) | (Math.max(a, b) & 0xFFFFFFFFL);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,224 @@
+package pt.ipp.isep.dei.controller.algorithms;
+
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+import pt.ipp.isep.dei.domain.Graph.IndexedMinHeap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Tabelas de distâncias entre muitas origens e muitos destinos numa só chamada.
+ *
+ * As consultas são agrupadas por origem: cada origem distinta faz uma única
+ * Dijkstra, partilhada por todos os destinos, que termina assim que todos os
+ * destinos ficam fixados. As origens são divididas em blocos executados em
+ * paralelo; cada bloco reutiliza o seu heap e os seus vetores entre origens.
+ *
+ * Uma tabela 500×500 custa assim 500 pesquisas (em paralelo) em vez de
+ * 250 000 pesquisas entre pares.
+ */
+public class ManyToManyShortestPathAlgorithm {
+
+    /**
+     * Número de blocos de origens por worker, para equilibrar a carga.
+     */
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    /**
+     * Calcula a tabela de distâncias usando o pool comum.
+     *
+     * @param network rede com os pesos (não negativos)
+     * @param sources índices das origens (podem repetir-se)
+     * @param targets índices dos destinos (podem repetir-se)
+     * @return dist[i][j] = distância de sources[i] a targets[j] (infinito se não houver caminho)
+     */
+    public static double[][] distances(PointToPointShortestPathAlgorithm.Network network, int[] sources, int[] targets) {
+        double[][] table = new double[sources.length][];
+        distances(network, sources, targets, (row, i) -> table[i] = row,
+                ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+        return table;
+    }
+
+    /**
+     * Calcula a tabela de distâncias de um grafo compacto. Se o perfil tiver
+     * pesos negativos, as pesquisas são feitas sobre os pesos reajustados
+     * pelos potenciais de Johnson e as distâncias são corrigidas no fim.
+     *
+     * @param g grafo compacto
+     * @param profile perfil de peso
+     * @param sources índices das origens
+     * @param targets índices dos destinos
+     * @param <V> tipo do vértice
+     * @return dist[i][j] = distância de sources[i] a targets[j]
+     * @throws IllegalStateException se o perfil tiver um ciclo negativo
+     */
+    // Complexity O(V * E) para os potenciais, se necessários, mais as pesquisas
+    public static <V> double[][] distances(CompactGraph<V> g, int profile, int[] sources, int[] targets) {
+        double[] weights = g.weights(profile);
+        boolean negative = false;
+        for (double w : weights) {
+            if (w < 0) {
+                negative = true;
+                break;
+            }
+        }
+        if (!negative) {
+            return distances(PointToPointShortestPathAlgorithm.Network.of(g, profile), sources, targets);
+        }
+
+        int n = g.numVertices();
+        int[] offsets = g.offsets();
+        int[] arcTargets = g.targets();
+        double[] potential = new double[n];
+        if (BellmanFordAlgorithm.johnsonPotentials(g, profile, potential) != null) {
+            throw new IllegalStateException("Weight profile has a negative cycle.");
+        }
+
+        double[] reduced = new double[weights.length];
+        for (int u = 0; u < n; u++) {
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                // erros de arredondamento podem dar valores ligeiramente negativos
+                reduced[arc] = Math.max(0.0, weights[arc] + potential[u] - potential[arcTargets[arc]]);
+            }
+        }
+
+        double[][] table = distances(PointToPointShortestPathAlgorithm.Network.of(g, reduced), sources, targets);
+        for (int i = 0; i < sources.length; i++) {
+            for (int j = 0; j < targets.length; j++) {
+                table[i][j] += potential[targets[j]] - potential[sources[i]];
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Calcula as distâncias e entrega cada linha da tabela assim que a
+     * pesquisa da sua origem termina, sem guardar a tabela completa.
+     *
+     * As linhas chegam por ordem arbitrária; o consumidor é chamado por um
+     * worker de cada vez, pelo que não precisa de ser thread-safe.
+     *
+     * @param network rede com os pesos (não negativos)
+     * @param sources índices das origens (podem repetir-se)
+     * @param targets índices dos destinos (podem repetir-se)
+     * @param rows recebe (linha, i), com linha[j] = distância de sources[i] a targets[j]
+     * @param executor executor onde os blocos de origens são executados
+     * @param workers número de workers
+     */
+    // Complexity O(S * E log V / workers) no pior caso, para S origens distintas
+    public static void distances(PointToPointShortestPathAlgorithm.Network network, int[] sources, int[] targets,
+                                 ObjIntConsumer<double[]> rows, ExecutorService executor, int workers) {
+        int n = network.numVertices();
+        for (int s : sources) network.validate(s);
+        for (int t : targets) network.validate(t);
+
+        // colunas de cada destino, como listas ligadas: targetHead[v] -> nextColumn[...]
+        int[] targetHead = new int[n];
+        int[] nextColumn = new int[targets.length];
+        Arrays.fill(targetHead, -1);
+        int distinctTargets = 0;
+        for (int j = targets.length - 1; j >= 0; j--) {
+            if (targetHead[targets[j]] == -1) distinctTargets++;
+            nextColumn[j] = targetHead[targets[j]];
+            targetHead[targets[j]] = j;
+        }
+
+        // posições de cada origem distinta
+        int[] sourceHead = new int[n];
+        int[] nextPosition = new int[sources.length];
+        Arrays.fill(sourceHead, -1);
+        int[] distinctSources = new int[sources.length];
+        int count = 0;
+        for (int i = sources.length - 1; i >= 0; i--) {
+            if (sourceHead[sources[i]] == -1) distinctSources[count++] = sources[i];
+            nextPosition[i] = sourceHead[sources[i]];
+            sourceHead[sources[i]] = i;
+        }
+
+        int uniqueSources = count;
+        int remainingTargets = distinctTargets;
+        Object lock = new Object();
+        int chunks = Math.max(1, Math.min(uniqueSources, Math.max(1, workers) * CHUNKS_PER_WORKER));
+
+        List<Callable<Void>> tasks = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            int from = (int) ((long) uniqueSources * c / chunks);
+            int to = (int) ((long) uniqueSources * (c + 1) / chunks);
+            tasks.add(() -> {
+                SearchSpace space = new SearchSpace(n);
+                for (int k = from; k < to; k++) {
+                    int source = distinctSources[k];
+                    double[] row = space.search(network, source, targets.length, targetHead, nextColumn, remainingTargets);
+                    synchronized (lock) {
+                        for (int i = sourceHead[source]; i != -1; i = nextPosition[i]) {
+                            rows.accept(nextPosition[i] == -1 ? row : Arrays.copyOf(row, row.length), i);
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+
+        ParallelTasks.invokeAll(executor, tasks);
+    }
+
+    /**
+     * Vetores de uma Dijkstra, reutilizados entre as origens de um bloco.
+     * Um vértice tem distância válida se seen[v] == stamp.
+     */
+    private static final class SearchSpace {
+
+        private final double[] dist;
+        private final int[] seen;
+        private final IndexedMinHeap heap;
+        private int stamp;
+
+        private SearchSpace(int n) {
+            this.dist = new double[n];
+            this.seen = new int[n];
+            this.heap = new IndexedMinHeap(n);
+        }
+
+        // Complexity O(E log V) no pior caso, limitado aos vértices mais próximos que o último destino
+        private double[] search(PointToPointShortestPathAlgorithm.Network network, int source, int columns,
+                                int[] targetHead, int[] nextColumn, int remaining) {
+            int[] offsets = network.offsets();
+            int[] targets = network.targets();
+            double[] weights = network.weights();
+
+            double[] row = new double[columns];
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+
+            stamp++;
+            heap.clear();
+            dist[source] = 0.0;
+            seen[source] = stamp;
+            heap.insert(source, 0.0);
+
+            while (!heap.isEmpty() && remaining > 0) {
+                int u = heap.poll();
+
+                if (targetHead[u] != -1) {
+                    for (int j = targetHead[u]; j != -1; j = nextColumn[j]) row[j] = dist[u];
+                    remaining--;
+                }
+
+                for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                    int v = targets[arc];
+                    double newDist = dist[u] + weights[arc];
+                    if (seen[v] != stamp || newDist < dist[v]) {
+                        seen[v] = stamp;
+                        dist[v] = newDist;
+                        heap.insertOrDecrease(v, newDist);
+                    }
+                }
+            }
+            return row;
+        }
+    }
+}
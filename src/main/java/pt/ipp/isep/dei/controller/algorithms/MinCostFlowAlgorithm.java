@@ -0,0 +1,425 @@
+package pt.ipp.isep.dei.controller.algorithms;
+
+import pt.ipp.isep.dei.domain.Graph.IndexedMinHeap;
+
+import java.util.Arrays;
+
+/**
+ * Fluxo de custo mínimo por caminhos mínimos sucessivos com potenciais.
+ *
+ * A rede é guardada em vetores primitivos, com a mesma organização da
+ * {@link DinicAlgorithm}: o arco k dá origem ao arco residual 2k (custo c)
+ * e ao reverso 2k+1 (custo -c). Em cada aumento uma Dijkstra sobre os
+ * custos reduzidos c(u,v) + pi[u] - pi[v] (não negativos) encontra o
+ * caminho de menor custo na rede residual.
+ *
+ * As procuras são encaminhadas uma a uma ({@link #route(int, int, int)}):
+ * cada procura usa a capacidade que as anteriores deixaram livre e, no fim,
+ * o seu fluxo fica fixo (outra procura não o pode desviar, porque a
+ * mercadoria de cada procura tem origem e destino próprios). O resultado
+ * depende por isso da ordem das procuras.
+ *
+ * Se houver arcos de custo negativo, os potenciais iniciais de cada
+ * procura são calculados com SPFA; um ciclo de custo negativo com
+ * capacidade livre torna o problema ilimitado e é rejeitado.
+ */
+public class MinCostFlowAlgorithm {
+
+    private final int n;
+    private final int m;
+
+    /**
+     * Arcos residuais de cada vértice: adjArcs[adjStart[v] .. adjStart[v + 1]).
+     */
+    private final int[] adjStart;
+    private final int[] adjArcs;
+
+    private final int[] arcTarget;
+    private final double[] arcCost;
+    private final int[] capacity;
+
+    /**
+     * Capacidade residual de cada arco residual. Entre procuras,
+     * residual[2k] é a capacidade livre do arco k e residual[2k+1] é 0.
+     */
+    private final int[] residual;
+
+    /**
+     * Fluxo acumulado de todas as procuras em cada arco.
+     */
+    private final int[] load;
+
+    private final boolean negativeCosts;
+
+    /**
+     * Vetores reutilizados entre procuras.
+     */
+    private final double[] potential;
+    private final double[] dist;
+    private final int[] parentArc;
+    private final IndexedMinHeap heap;
+    private final boolean[] touched;
+    private final int[] touchedArcs;
+    private int touchedCount;
+
+    private long totalRouted;
+    private double totalCost;
+
+    /**
+     * Cria a rede a partir de uma lista de arcos.
+     *
+     * @param n número de vértices
+     * @param from origem de cada arco
+     * @param to destino de cada arco
+     * @param capacities capacidade de cada arco
+     * @param costs custo por unidade de fluxo de cada arco
+     * @throws IllegalArgumentException se os vetores tiverem tamanhos diferentes,
+     *                                  um vértice for inválido ou uma capacidade negativa
+     */
+    // Complexity O(V + E)
+    public MinCostFlowAlgorithm(int n, int[] from, int[] to, int[] capacities, double[] costs) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Size cannot be negative");
+        }
+        if (from.length != to.length || from.length != capacities.length || from.length != costs.length) {
+            throw new IllegalArgumentException("Arc arrays must have the same length");
+        }
+
+        this.n = n;
+        this.m = from.length;
+        this.adjStart = new int[n + 1];
+        this.adjArcs = new int[2 * m];
+        this.arcTarget = new int[2 * m];
+        this.arcCost = new double[2 * m];
+        this.capacity = new int[m];
+        this.residual = new int[2 * m];
+        this.load = new int[m];
+
+        boolean negative = false;
+        for (int k = 0; k < m; k++) {
+            validateVertex(from[k]);
+            validateVertex(to[k]);
+            if (capacities[k] < 0) {
+                throw new IllegalArgumentException("Capacity cannot be negative");
+            }
+            arcTarget[2 * k] = to[k];
+            arcTarget[2 * k + 1] = from[k];
+            arcCost[2 * k] = costs[k];
+            arcCost[2 * k + 1] = -costs[k];
+            capacity[k] = capacities[k];
+            residual[2 * k] = capacities[k];
+            if (costs[k] < 0 && capacities[k] > 0) negative = true;
+            adjStart[from[k] + 1]++;
+            adjStart[to[k] + 1]++;
+        }
+        this.negativeCosts = negative;
+
+        for (int v = 0; v < n; v++) {
+            adjStart[v + 1] += adjStart[v];
+        }
+        int[] next = Arrays.copyOf(adjStart, n);
+        for (int k = 0; k < m; k++) {
+            adjArcs[next[from[k]]++] = 2 * k;
+            adjArcs[next[to[k]]++] = 2 * k + 1;
+        }
+
+        this.potential = new double[n];
+        this.dist = new double[n];
+        this.parentArc = new int[n];
+        this.heap = new IndexedMinHeap(n);
+        this.touched = new boolean[m];
+        this.touchedArcs = new int[m];
+    }
+
+    /**
+     * Encaminha uma procura pelo caminho (ou caminhos) de menor custo,
+     * usando apenas a capacidade ainda livre.
+     *
+     * @param source vértice origem
+     * @param sink vértice destino
+     * @param amount quantidade pedida
+     * @return resultado da procura (a quantidade encaminhada pode ser inferior à pedida)
+     * @throws IllegalArgumentException se algum vértice for inválido ou a quantidade negativa
+     * @throws IllegalStateException se existir um ciclo de custo negativo com capacidade livre
+     */
+    // Complexity O(aumentos * E log V), mais O(V * E) se houver custos negativos
+    public synchronized Routing route(int source, int sink, int amount) {
+        validateVertex(source);
+        validateVertex(sink);
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount cannot be negative");
+        }
+
+        int routed = 0;
+        double cost = 0;
+        touchedCount = 0;
+
+        if (source != sink && amount > 0) {
+            initialPotentials(source);
+
+            while (routed < amount && shortestPath(source, sink)) {
+                int bottleneck = amount - routed;
+                for (int v = sink; v != source; v = arcTarget[parentArc[v] ^ 1]) {
+                    bottleneck = Math.min(bottleneck, residual[parentArc[v]]);
+                }
+
+                for (int v = sink; v != source; v = arcTarget[parentArc[v] ^ 1]) {
+                    int e = parentArc[v];
+                    residual[e] -= bottleneck;
+                    residual[e ^ 1] += bottleneck;
+                    cost += bottleneck * arcCost[e];
+                    int k = e >> 1;
+                    if (!touched[k]) {
+                        touched[k] = true;
+                        touchedArcs[touchedCount++] = k;
+                    }
+                }
+                routed += bottleneck;
+            }
+        }
+
+        // fixa o fluxo desta procura: deixa de poder ser desviado por outras
+        int[] arcs = new int[touchedCount];
+        int[] flows = new int[touchedCount];
+        int used = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int k = touchedArcs[i];
+            touched[k] = false;
+            int flow = residual[2 * k + 1];
+            residual[2 * k + 1] = 0;
+            if (flow > 0) {
+                load[k] += flow;
+                arcs[used] = k;
+                flows[used++] = flow;
+            }
+        }
+
+        totalRouted += routed;
+        totalCost += cost;
+        return new Routing(source, sink, amount, routed, cost,
+                Arrays.copyOf(arcs, used), Arrays.copyOf(flows, used));
+    }
+
+    /**
+     * Encaminha uma matriz de procuras, por ordem de linha e coluna.
+     *
+     * @param demand demand[s][t] é a quantidade a enviar de s para t
+     * @return resultado de cada procura não nula, pela ordem em que foi encaminhada
+     */
+    // Complexity O(V^2) mais o custo de cada procura
+    public Routing[] routeAll(int[][] demand) {
+        if (demand.length != n) {
+            throw new IllegalArgumentException("Demand matrix must be " + n + " x " + n);
+        }
+
+        Routing[] results = new Routing[16];
+        int count = 0;
+        for (int s = 0; s < n; s++) {
+            if (demand[s].length != n) {
+                throw new IllegalArgumentException("Demand matrix must be " + n + " x " + n);
+            }
+            for (int t = 0; t < n; t++) {
+                if (s == t || demand[s][t] == 0) continue;
+                if (count == results.length) results = Arrays.copyOf(results, count * 2);
+                results[count++] = route(s, t, demand[s][t]);
+            }
+        }
+        return Arrays.copyOf(results, count);
+    }
+
+    /**
+     * Liberta toda a capacidade e esquece as procuras já encaminhadas.
+     */
+    // Complexity O(E)
+    public synchronized void reset() {
+        for (int k = 0; k < m; k++) {
+            residual[2 * k] = capacity[k];
+            residual[2 * k + 1] = 0;
+            load[k] = 0;
+        }
+        totalRouted = 0;
+        totalCost = 0;
+    }
+
+    /**
+     * Obtém o fluxo acumulado num arco.
+     *
+     * @param arc índice do arco (posição na lista dada ao construtor)
+     * @return fluxo de todas as procuras no arco
+     */
+    public synchronized int load(int arc) {
+        if (arc < 0 || arc >= m) throw new IllegalArgumentException("Invalid arc: " + arc);
+        return load[arc];
+    }
+
+    /**
+     * Obtém a capacidade ainda livre num arco.
+     *
+     * @param arc índice do arco (posição na lista dada ao construtor)
+     * @return capacidade livre
+     */
+    public synchronized int remainingCapacity(int arc) {
+        if (arc < 0 || arc >= m) throw new IllegalArgumentException("Invalid arc: " + arc);
+        return residual[2 * arc];
+    }
+
+    public synchronized long totalRouted() {
+        return totalRouted;
+    }
+
+    public synchronized double totalCost() {
+        return totalCost;
+    }
+
+    public int numVertices() {
+        return n;
+    }
+
+    public int numArcs() {
+        return m;
+    }
+
+    /**
+     * Potenciais iniciais de uma procura: 0 se não houver custos negativos,
+     * senão as distâncias mínimas a partir da origem na rede livre (SPFA).
+     */
+    // Complexity O(V) ou O(V * E) com custos negativos
+    private void initialPotentials(int source) {
+        if (!negativeCosts) {
+            Arrays.fill(potential, 0);
+            return;
+        }
+
+        // rede dos arcos com capacidade livre, em CSR
+        int[] offsets = new int[n + 1];
+        for (int k = 0; k < m; k++) {
+            if (residual[2 * k] > 0) offsets[arcTarget[2 * k + 1] + 1]++;
+        }
+        for (int v = 0; v < n; v++) offsets[v + 1] += offsets[v];
+        int[] targets = new int[offsets[n]];
+        double[] weights = new double[offsets[n]];
+        int[] next = Arrays.copyOf(offsets, n);
+        for (int k = 0; k < m; k++) {
+            if (residual[2 * k] > 0) {
+                int i = next[arcTarget[2 * k + 1]]++;
+                targets[i] = arcTarget[2 * k];
+                weights[i] = arcCost[2 * k];
+            }
+        }
+
+        int[] path = new int[n];
+        if (BellmanFordAlgorithm.spfa(n, offsets, targets, weights, source, path, potential) != null) {
+            throw new IllegalStateException("Network has a negative cost cycle with free capacity.");
+        }
+        for (int v = 0; v < n; v++) {
+            if (Double.isInfinite(potential[v])) potential[v] = 0;
+        }
+    }
+
+    /**
+     * Dijkstra sobre os custos reduzidos, parando quando o destino sai do
+     * heap. Os potenciais são depois atualizados com min(dist[v], dist[sink]),
+     * o que mantém os custos reduzidos não negativos.
+     *
+     * @return true se o destino for alcançável na rede residual
+     */
+    // Complexity O(E log V)
+    private boolean shortestPath(int source, int sink) {
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        heap.clear();
+        dist[source] = 0;
+        heap.insert(source, 0);
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            if (u == sink) break;
+
+            for (int i = adjStart[u]; i < adjStart[u + 1]; i++) {
+                int e = adjArcs[i];
+                if (residual[e] == 0) continue;
+                int v = arcTarget[e];
+                // erros de arredondamento podem dar custos reduzidos ligeiramente negativos
+                double reduced = Math.max(0, arcCost[e] + potential[u] - potential[v]);
+                double candidate = dist[u] + reduced;
+                if (candidate < dist[v]) {
+                    dist[v] = candidate;
+                    parentArc[v] = e;
+                    heap.insertOrDecrease(v, candidate);
+                }
+            }
+        }
+
+        if (Double.isInfinite(dist[sink])) return false;
+
+        double limit = dist[sink];
+        for (int v = 0; v < n; v++) {
+            potential[v] += Math.min(dist[v], limit);
+        }
+        return true;
+    }
+
+    private void validateVertex(int v) {
+        if (v < 0 || v >= n) throw new IllegalArgumentException("Invalid vertex: " + v);
+    }
+
+    /**
+     * Resultado do encaminhamento de uma procura.
+     */
+    public static class Routing {
+
+        private final int source;
+        private final int sink;
+        private final int requested;
+        private final int routed;
+        private final double cost;
+        private final int[] arcs;
+        private final int[] flows;
+
+        public Routing(int source, int sink, int requested, int routed, double cost, int[] arcs, int[] flows) {
+            this.source = source;
+            this.sink = sink;
+            this.requested = requested;
+            this.routed = routed;
+            this.cost = cost;
+            this.arcs = arcs;
+            this.flows = flows;
+        }
+
+        public int getSource() {
+            return source;
+        }
+
+        public int getSink() {
+            return sink;
+        }
+
+        public int getRequested() {
+            return requested;
+        }
+
+        public int getRouted() {
+            return routed;
+        }
+
+        public double getCost() {
+            return cost;
+        }
+
+        /**
+         * Arcos usados pela procura; getFlows()[i] é o fluxo no arco getArcs()[i].
+         *
+         * @return índices dos arcos
+         */
+        public int[] getArcs() {
+            return arcs;
+        }
+
+        public int[] getFlows() {
+            return flows;
+        }
+
+        public boolean isFullyRouted() {
+            return routed == requested;
+        }
+    }
+}
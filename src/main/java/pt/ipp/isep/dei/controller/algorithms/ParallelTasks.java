@@ -0,0 +1,66 @@
+package pt.ipp.isep.dei.controller.algorithms;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Execução de tarefas paralelas com o mesmo tratamento de erros em todos
+ * os algoritmos.
+ *
+ * Uma exceção não verificada ou um erro lançado por uma tarefa é relançado
+ * tal como está; uma exceção verificada é embrulhada numa
+ * IllegalStateException. Se a espera for interrompida, a interrupção é
+ * reposta e é lançada uma IllegalStateException.
+ */
+final class ParallelTasks {
+
+    private ParallelTasks() {
+    }
+
+    /**
+     * Executa todas as tarefas e espera que terminem.
+     *
+     * @param executor executor das tarefas
+     * @param tasks tarefas a executar
+     * @param <T> tipo do resultado das tarefas
+     */
+    static <T> void invokeAll(ExecutorService executor, List<? extends Callable<T>> tasks) {
+        List<Future<T>> futures;
+        try {
+            futures = executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            throw interrupted(e);
+        }
+        for (Future<T> future : futures) {
+            join(future);
+        }
+    }
+
+    /**
+     * Espera pelo resultado de uma tarefa.
+     *
+     * @param future tarefa submetida
+     * @param <T> tipo do resultado
+     * @return resultado da tarefa
+     */
+    static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            throw interrupted(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            throw new IllegalStateException("Parallel task failed", cause);
+        }
+    }
+
+    private static IllegalStateException interrupted(InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return new IllegalStateException("Interrupted while waiting for parallel tasks", e);
+    }
+}
@@ -0,0 +1,454 @@
+package pt.ipp.isep.dei.controller.algorithms;
+
+import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+import pt.ipp.isep.dei.domain.Graph.IndexedMinHeap;
+import pt.ipp.isep.dei.domain.Tree.KDTree.KD2TreeStation;
+
+import java.util.*;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Pesquisas de caminho mínimo entre dois vértices (pesos não negativos)
+ * que terminam assim que o destino fica fixado, em vez de calcularem a
+ * árvore de caminhos mínimos completa da origem.
+ *
+ * - A*: Dijkstra guiado por um limite inferior da distância até ao destino
+ *   (ex.: a distância em linha reta entre estações, {@link GreatCircleBound}).
+ * - Dijkstra bidirecional: pesquisas a partir da origem e do destino
+ *   (sobre as arestas invertidas) até as duas fronteiras se encontrarem.
+ */
+public class PointToPointShortestPathAlgorithm {
+
+    /**
+     * Executa A* entre dois vértices.
+     *
+     * O limite inferior tem de ser consistente (h(u) <= w(u,v) + h(v) e h(destino) = 0),
+     * caso contrário o caminho devolvido pode não ser mínimo.
+     *
+     * @param network rede com os pesos a utilizar
+     * @param source índice da origem
+     * @param target índice do destino
+     * @param lowerBound limite inferior da distância de cada vértice ao destino
+     * @return caminho encontrado
+     */
+    // Complexity O(E * log V) no pior caso, limitado aos vértices mais próximos que o destino
+    public static PathResult aStar(Network network, int source, int target, IntToDoubleFunction lowerBound) {
+        int n = network.numVertices();
+        network.validate(source);
+        network.validate(target);
+
+        double[] dist = new double[n];
+        int[] pred = new int[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        Arrays.fill(pred, -1);
+
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        dist[source] = 0.0;
+        heap.insert(source, lowerBound.applyAsDouble(source));
+
+        int settled = 0;
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settled++;
+
+            if (u == target) {
+                return new PathResult(buildPath(pred, source, target), dist[target], settled);
+            }
+
+            for (int arc = network.offsets[u]; arc < network.offsets[u + 1]; arc++) {
+                int v = network.targets[arc];
+                double newDist = dist[u] + network.weights[arc];
+
+                if (newDist < dist[v]) {
+                    dist[v] = newDist;
+                    pred[v] = u;
+                    heap.insertOrDecrease(v, newDist + lowerBound.applyAsDouble(v));
+                }
+            }
+        }
+
+        return new PathResult(new int[0], Double.POSITIVE_INFINITY, settled);
+    }
+
+    /**
+     * Executa Dijkstra bidirecional entre dois vértices.
+     *
+     * Em cada passo avança a pesquisa cuja fronteira está mais perto.
+     * A pesquisa termina quando a soma dos mínimos das duas fronteiras
+     * atinge o melhor caminho já encontrado.
+     *
+     * @param network rede com os pesos a utilizar
+     * @param source índice da origem
+     * @param target índice do destino
+     * @return caminho encontrado
+     */
+    // Complexity O(E * log V) no pior caso
+    public static PathResult bidirectionalDijkstra(Network network, int source, int target) {
+        int n = network.numVertices();
+        network.validate(source);
+        network.validate(target);
+
+        if (source == target) {
+            return new PathResult(new int[]{source}, 0.0, 1);
+        }
+
+        double[] distF = new double[n];
+        double[] distB = new double[n];
+        int[] predF = new int[n];
+        int[] succB = new int[n];
+        Arrays.fill(distF, Double.POSITIVE_INFINITY);
+        Arrays.fill(distB, Double.POSITIVE_INFINITY);
+        Arrays.fill(predF, -1);
+        Arrays.fill(succB, -1);
+
+        IndexedMinHeap heapF = new IndexedMinHeap(n);
+        IndexedMinHeap heapB = new IndexedMinHeap(n);
+        distF[source] = 0.0;
+        distB[target] = 0.0;
+        heapF.insert(source, 0.0);
+        heapB.insert(target, 0.0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meeting = -1;
+        int settled = 0;
+
+        while (!heapF.isEmpty() && !heapB.isEmpty()) {
+            double topF = heapF.priority(heapF.peek());
+            double topB = heapB.priority(heapB.peek());
+            if (topF + topB >= best) break;
+
+            boolean forward = topF <= topB;
+            IndexedMinHeap heap = forward ? heapF : heapB;
+            double[] dist = forward ? distF : distB;
+            double[] other = forward ? distB : distF;
+            int[] pred = forward ? predF : succB;
+            int[] offsets = forward ? network.offsets : network.reverseOffsets;
+            int[] targets = forward ? network.targets : network.reverseTargets;
+            double[] weights = forward ? network.weights : network.reverseWeights;
+
+            int u = heap.poll();
+            settled++;
+
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                int v = targets[arc];
+                double newDist = dist[u] + weights[arc];
+
+                if (newDist < dist[v]) {
+                    dist[v] = newDist;
+                    pred[v] = u;
+                    heap.insertOrDecrease(v, newDist);
+                }
+                if (dist[v] + other[v] < best) {
+                    best = dist[v] + other[v];
+                    meeting = v;
+                }
+            }
+        }
+
+        if (meeting == -1) {
+            return new PathResult(new int[0], Double.POSITIVE_INFINITY, settled);
+        }
+
+        int[] head = buildPath(predF, source, meeting);
+        List<Integer> path = new ArrayList<>(head.length);
+        for (int v : head) path.add(v);
+        for (int v = succB[meeting]; v != -1; v = succB[v]) path.add(v);
+
+        int[] vertices = new int[path.size()];
+        for (int i = 0; i < vertices.length; i++) vertices[i] = path.get(i);
+
+        return new PathResult(vertices, best, settled);
+    }
+
+    // Complexity O(comprimento do caminho)
+    private static int[] buildPath(int[] pred, int source, int target) {
+        int length = 1;
+        for (int v = target; v != source; v = pred[v]) length++;
+
+        int[] path = new int[length];
+        for (int v = target, i = length - 1; i >= 0; v = pred[v], i--) {
+            path[i] = v;
+        }
+        return path;
+    }
+
+    /**
+     * Rede em formato CSR com as arestas diretas e invertidas e um vetor
+     * de pesos (não negativos) por aresta.
+     */
+    public static class Network {
+
+        private final int[] offsets;
+        private final int[] targets;
+        private final double[] weights;
+
+        private final int[] reverseOffsets;
+        private final int[] reverseTargets;
+        private final double[] reverseWeights;
+
+        private Network(int[] offsets, int[] targets, double[] weights,
+                        int[] reverseOffsets, int[] reverseTargets, double[] reverseWeights) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.weights = weights;
+            this.reverseOffsets = reverseOffsets;
+            this.reverseTargets = reverseTargets;
+            this.reverseWeights = reverseWeights;
+        }
+
+        /**
+         * Cria a rede de um grafo compacto com um perfil de peso.
+         *
+         * @param graph grafo compacto
+         * @param profile perfil de peso
+         * @return rede
+         */
+        public static Network of(CompactGraph<?> graph, int profile) {
+            return of(graph, graph.weights(profile));
+        }
+
+        // Complexity O(V + E)
+        /**
+         * Cria a rede de um grafo compacto com pesos dados por aresta
+         * (ex.: pesos reajustados pelos potenciais de Johnson).
+         *
+         * @param graph grafo compacto
+         * @param weights peso de cada aresta, pela ordem de {@link CompactGraph#targets()}
+         * @return rede
+         */
+        public static Network of(CompactGraph<?> graph, double[] weights) {
+            int n = graph.numVertices();
+            int[] offsets = graph.offsets();
+            int[] targets = graph.targets();
+
+            for (double w : weights) {
+                if (w < 0) throw new IllegalArgumentException("Point-to-point search requires non-negative weights");
+            }
+
+            // num grafo não direcionado cada aresta já existe nos dois sentidos
+            if (!graph.isDirected()) {
+                return new Network(offsets, targets, weights, offsets, targets, weights);
+            }
+
+            int m = targets.length;
+            int[] reverseOffsets = new int[n + 1];
+            for (int arc = 0; arc < m; arc++) {
+                reverseOffsets[targets[arc] + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                reverseOffsets[v + 1] += reverseOffsets[v];
+            }
+
+            int[] fill = Arrays.copyOf(reverseOffsets, n);
+            int[] reverseTargets = new int[m];
+            double[] reverseWeights = new double[m];
+            for (int u = 0; u < n; u++) {
+                for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                    int slot = fill[targets[arc]]++;
+                    reverseTargets[slot] = u;
+                    reverseWeights[slot] = weights[arc];
+                }
+            }
+
+            return new Network(offsets, targets, weights, reverseOffsets, reverseTargets, reverseWeights);
+        }
+
+        // Complexity O(V + E)
+        /**
+         * Cria a rede a partir de uma lista de arcos dirigidos
+         * (ex.: a rede de instalações, que não é um {@link CompactGraph}).
+         *
+         * @param n número de vértices
+         * @param from origem de cada arco
+         * @param to destino de cada arco
+         * @param weights peso (não negativo) de cada arco
+         * @return rede
+         */
+        public static Network of(int n, int[] from, int[] to, double[] weights) {
+            if (from.length != to.length || from.length != weights.length) {
+                throw new IllegalArgumentException("Arc arrays must have the same length");
+            }
+            int m = from.length;
+            int[] offsets = new int[n + 1];
+            int[] reverseOffsets = new int[n + 1];
+            for (int arc = 0; arc < m; arc++) {
+                if (from[arc] < 0 || from[arc] >= n || to[arc] < 0 || to[arc] >= n) {
+                    throw new IllegalArgumentException("Invalid arc: " + from[arc] + " -> " + to[arc]);
+                }
+                if (weights[arc] < 0) {
+                    throw new IllegalArgumentException("Point-to-point search requires non-negative weights");
+                }
+                offsets[from[arc] + 1]++;
+                reverseOffsets[to[arc] + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] += offsets[v];
+                reverseOffsets[v + 1] += reverseOffsets[v];
+            }
+
+            int[] targets = new int[m];
+            double[] arcWeights = new double[m];
+            int[] reverseTargets = new int[m];
+            double[] reverseWeights = new double[m];
+            int[] fill = Arrays.copyOf(offsets, n);
+            int[] reverseFill = Arrays.copyOf(reverseOffsets, n);
+            for (int arc = 0; arc < m; arc++) {
+                int slot = fill[from[arc]]++;
+                targets[slot] = to[arc];
+                arcWeights[slot] = weights[arc];
+                int reverseSlot = reverseFill[to[arc]]++;
+                reverseTargets[reverseSlot] = from[arc];
+                reverseWeights[reverseSlot] = weights[arc];
+            }
+
+            return new Network(offsets, targets, arcWeights, reverseOffsets, reverseTargets, reverseWeights);
+        }
+
+        /**
+         * Obtém o número de vértices.
+         *
+         * @return número de vértices
+         */
+        public int numVertices() {
+            return offsets.length - 1;
+        }
+
+        int[] offsets() {
+            return offsets;
+        }
+
+        int[] targets() {
+            return targets;
+        }
+
+        double[] weights() {
+            return weights;
+        }
+
+        int[] reverseOffsets() {
+            return reverseOffsets;
+        }
+
+        int[] reverseTargets() {
+            return reverseTargets;
+        }
+
+        double[] reverseWeights() {
+            return reverseWeights;
+        }
+
+        void validate(int v) {
+            if (v < 0 || v >= numVertices()) throw new IllegalArgumentException("Invalid vertex: " + v);
+        }
+    }
+
+    /**
+     * Limite inferior da distância entre estações dado pela distância em
+     * linha reta (haversine), escalado para nunca exceder o peso de uma aresta.
+     *
+     * O fator de escala é o mínimo de w(u,v) / haversine(u,v) sobre todas as
+     * arestas (no máximo 1), o que torna o limite consistente mesmo que
+     * alguma linha tenha comprimento inferior à distância em linha reta.
+     */
+    public static class GreatCircleBound {
+
+        private final double[] latitude;
+        private final double[] longitude;
+        private final double scale;
+        private final KD2TreeStation.HaversineDistanceComparator haversine = new KD2TreeStation.HaversineDistanceComparator(0, 0);
+
+        // Complexity O(V + E)
+        /**
+         * Cria o limite para um grafo de estações cujo perfil mede distâncias em km.
+         *
+         * @param graph grafo compacto de estações
+         * @param profile perfil de distância (km)
+         */
+        public GreatCircleBound(CompactGraph<StationEsinf> graph, int profile) {
+            int n = graph.numVertices();
+            int[] offsets = graph.offsets();
+            int[] targets = graph.targets();
+            double[] weights = graph.weights(profile);
+
+            latitude = new double[n];
+            longitude = new double[n];
+            for (int v = 0; v < n; v++) {
+                latitude[v] = graph.vertex(v).getLatitude();
+                longitude[v] = graph.vertex(v).getLongitude();
+            }
+
+            double k = 1.0;
+            for (int u = 0; u < n; u++) {
+                for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                    double straight = distance(u, targets[arc]);
+                    if (straight > 0) {
+                        k = Math.min(k, Math.max(0.0, weights[arc]) / straight);
+                    }
+                }
+            }
+            scale = k;
+        }
+
+        /**
+         * Obtém o fator aplicado à distância em linha reta.
+         *
+         * @return fator de escala, entre 0 e 1
+         */
+        public double getScale() {
+            return scale;
+        }
+
+        /**
+         * Obtém o limite inferior da distância de cada vértice até um destino.
+         *
+         * @param target índice do destino
+         * @return função vértice → limite inferior
+         */
+        public IntToDoubleFunction towards(int target) {
+            return v -> scale * distance(v, target);
+        }
+
+        private double distance(int u, int v) {
+            return haversine.haversine(latitude[u], longitude[u], latitude[v], longitude[v]);
+        }
+    }
+
+    /**
+     * Resultado de uma pesquisa entre dois vértices.
+     */
+    public static class PathResult {
+
+        private final int[] vertices;
+        private final double distance;
+        private final int settled;
+
+        /**
+         * @param vertices índices dos vértices do caminho, da origem ao destino
+         * @param distance comprimento do caminho (infinito se não existir)
+         * @param settled número de vértices fixados durante a pesquisa
+         */
+        public PathResult(int[] vertices, double distance, int settled) {
+            this.vertices = vertices;
+            this.distance = distance;
+            this.settled = settled;
+        }
+
+        public int[] getVertices() {
+            return vertices;
+        }
+
+        public double getDistance() {
+            return distance;
+        }
+
+        public int getSettled() {
+            return settled;
+        }
+
+        public boolean isFound() {
+            return vertices.length > 0;
+        }
+    }
+}
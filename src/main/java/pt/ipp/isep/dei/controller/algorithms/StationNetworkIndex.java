@@ -0,0 +1,245 @@
+package pt.ipp.isep.dei.controller.algorithms;
+
+import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+import pt.ipp.isep.dei.domain.Graph.MetricsStationEdge;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Índice de caminhos mínimos da rede de estações, com uma hierarquia de
+ * contração ({@link ContractionHierarchy}) para a distância e outra para o custo.
+ *
+ * Como o custo pode ser negativo, cada perfil é primeiro reajustado com os
+ * potenciais de Johnson (w(u,v) + h[u] - h[v] >= 0) e as distâncias das
+ * consultas são corrigidas no fim: d(s,t) = d'(s,t) - h[s] + h[t].
+ * Um perfil com ciclo negativo não tem hierarquia.
+ *
+ * Os índices dos vértices são os do grafo compacto a partir do qual o
+ * índice foi construído. A impressão digital da rede (estações, ligações e
+ * pesos) permite saber se um índice lido do disco ainda corresponde à rede atual.
+ */
+public class StationNetworkIndex implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Perfis de peso com hierarquia.
+     */
+    private static final int[] PROFILES = {MetricsStationEdge.DISTANCE, MetricsStationEdge.COST};
+
+    /**
+     * Identificador da estação de cada vértice.
+     */
+    private final String[] stationIds;
+
+    private final long fingerprint;
+
+    /**
+     * Hierarquia por perfil de peso (null se o perfil não estiver disponível).
+     */
+    private final ContractionHierarchy[] hierarchies;
+
+    /**
+     * Potenciais de Johnson por perfil de peso.
+     */
+    private final double[][] potentials;
+
+    private transient Map<String, Integer> indexById;
+
+    /**
+     * Filtro da leitura do disco: só aceita as classes do índice, texto e vetores
+     * de tipos primitivos ou dessas classes.
+     */
+    private static final ObjectInputFilter CLASS_FILTER = info -> {
+        Class<?> type = info.serialClass();
+        if (type == null) return ObjectInputFilter.Status.UNDECIDED;
+        while (type.isArray()) type = type.getComponentType();
+        return type.isPrimitive() || type == StationNetworkIndex.class || type == ContractionHierarchy.class
+                || type == String.class ? ObjectInputFilter.Status.ALLOWED : ObjectInputFilter.Status.REJECTED;
+    };
+
+    private StationNetworkIndex(String[] stationIds, long fingerprint,
+                                ContractionHierarchy[] hierarchies, double[][] potentials) {
+        this.stationIds = stationIds;
+        this.fingerprint = fingerprint;
+        this.hierarchies = hierarchies;
+        this.potentials = potentials;
+    }
+
+    /**
+     * Constrói o índice de uma rede de estações.
+     *
+     * @param graph grafo compacto da rede
+     * @return índice construído
+     */
+    // Complexity O(V * E) no reajuste (pior caso) mais a contração de cada perfil
+    public static StationNetworkIndex build(CompactGraph<StationEsinf> graph) {
+        int n = graph.numVertices();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+
+        String[] stationIds = new String[n];
+        for (int v = 0; v < n; v++) {
+            stationIds[v] = graph.vertex(v).getId();
+        }
+
+        ContractionHierarchy[] hierarchies = new ContractionHierarchy[graph.numWeightProfiles()];
+        double[][] potentials = new double[graph.numWeightProfiles()][];
+
+        for (int profile : PROFILES) {
+            double[] potential = new double[n];
+            if (BellmanFordAlgorithm.johnsonPotentials(graph, profile, potential) != null) continue;
+
+            double[] weights = graph.weights(profile);
+            double[] reduced = new double[targets.length];
+            for (int u = 0; u < n; u++) {
+                for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                    // erros de arredondamento podem dar valores ligeiramente negativos
+                    reduced[arc] = Math.max(0.0, weights[arc] + potential[u] - potential[targets[arc]]);
+                }
+            }
+
+            hierarchies[profile] = ContractionHierarchy.build(n, offsets, targets, reduced);
+            potentials[profile] = potential;
+        }
+
+        return new StationNetworkIndex(stationIds, fingerprint(graph), hierarchies, potentials);
+    }
+
+    /**
+     * Calcula a impressão digital de uma rede: estações pela ordem dos
+     * índices e, para cada ligação, os extremos e os pesos dos perfis indexados.
+     *
+     * @param graph grafo compacto da rede
+     * @return impressão digital
+     */
+    // Complexity O(V + E)
+    public static long fingerprint(CompactGraph<StationEsinf> graph) {
+        int n = graph.numVertices();
+        int[] offsets = graph.offsets();
+        int[] targets = graph.targets();
+
+        long hash = 1125899906842597L;
+        hash = 31 * hash + n;
+        hash = 31 * hash + (graph.isDirected() ? 1 : 0);
+        for (int v = 0; v < n; v++) {
+            hash = 31 * hash + graph.vertex(v).getId().hashCode();
+        }
+        for (int u = 0; u < n; u++) {
+            for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                hash = 31 * hash + u;
+                hash = 31 * hash + targets[arc];
+                for (int profile : PROFILES) {
+                    hash = 31 * hash + Double.doubleToLongBits(graph.weights(profile)[arc]);
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Indica se o índice foi construído a partir de uma rede igual à dada.
+     *
+     * @param graph grafo compacto da rede
+     * @return true se a rede não mudou
+     */
+    public boolean matches(CompactGraph<StationEsinf> graph) {
+        return graph.numVertices() == stationIds.length && fingerprint(graph) == fingerprint;
+    }
+
+    /**
+     * Indica se há hierarquia para um perfil de peso.
+     *
+     * @param profile perfil de peso
+     * @return false se o perfil não foi indexado ou tem um ciclo negativo
+     */
+    public boolean hasProfile(int profile) {
+        return profile >= 0 && profile < hierarchies.length && hierarchies[profile] != null;
+    }
+
+    /**
+     * Obtém o índice do vértice de uma estação.
+     *
+     * @param stationId identificador da estação
+     * @return índice ou -1 se a estação não existir
+     */
+    public int indexOf(String stationId) {
+        if (indexById == null) {
+            Map<String, Integer> map = new HashMap<>();
+            for (int v = 0; v < stationIds.length; v++) {
+                map.put(stationIds[v], v);
+            }
+            indexById = map;
+        }
+        return indexById.getOrDefault(stationId, -1);
+    }
+
+    /**
+     * Obtém o identificador da estação de um vértice.
+     *
+     * @param index índice do vértice
+     * @return identificador da estação
+     */
+    public String stationId(int index) {
+        return stationIds[index];
+    }
+
+    /**
+     * Calcula o caminho mínimo entre duas estações num perfil de peso.
+     *
+     * @param source índice da origem
+     * @param target índice do destino
+     * @param profile perfil de peso
+     * @return caminho encontrado, com o comprimento no perfil pedido
+     */
+    // Complexity O(k * log k), com k os vértices visitados nas duas pesquisas ascendentes
+    public PointToPointShortestPathAlgorithm.PathResult route(int source, int target, int profile) {
+        if (!hasProfile(profile)) {
+            throw new IllegalStateException("Weight profile " + profile + " is not indexed");
+        }
+
+        PointToPointShortestPathAlgorithm.PathResult result = hierarchies[profile].query(source, target);
+        if (!result.isFound()) return result;
+
+        double[] h = potentials[profile];
+        return new PointToPointShortestPathAlgorithm.PathResult(result.getVertices(),
+                result.getDistance() - h[source] + h[target], result.getSettled());
+    }
+
+    /**
+     * Grava o índice num ficheiro, criando as pastas em falta.
+     *
+     * @param file ficheiro de destino
+     * @throws IOException caso ocorra erro de escrita
+     */
+    public void save(Path file) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeObject(this);
+        }
+    }
+
+    /**
+     * Lê um índice gravado com {@link #save(Path)}.
+     *
+     * @param file ficheiro de origem
+     * @return índice lido
+     * @throws IOException caso o ficheiro não exista ou não contenha um índice
+     *                     (incluindo classes fora do índice)
+     */
+    public static StationNetworkIndex load(Path file) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            in.setObjectInputFilter(CLASS_FILTER);
+            return (StationNetworkIndex) in.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Invalid station network index: " + file, e);
+        }
+    }
+}
@@ -4,6 +4,11 @@ import pt.ipp.isep.dei.data.repository.Repositories;
 import pt.ipp.isep.dei.data.repository.sprint3.RailwayLineEsinfRepository;
 import pt.ipp.isep.dei.domain.ESINF.RailwayLineEsinf;
 import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 
 public class StrengthCalculatorAlgorithm {
 
@@ -26,4 +31,52 @@ public class StrengthCalculatorAlgorithm {
 
         return strengthLevel;
     }
+
+    // Complexity O(V + E)
+    /**
+     * Calcula o strength de todas as estações de um grafo compacto
+     * percorrendo as linhas do repositório uma única vez.
+     *
+     * @param graph grafo compacto das estações
+     * @return strength por índice de vértice
+     */
+    public double[] calculateStrengths(CompactGraph<StationEsinf> graph) {
+        return calculateStrengths(graph, railwayLineEsinfRepository.findAll());
+    }
+
+    // Complexity O(V + E)
+    /**
+     * Calcula o strength de todas as estações de um grafo compacto
+     * numa única passagem pelas linhas.
+     *
+     * Cada linha soma a sua capacidade às duas estações que liga (uma só vez
+     * se partir e chegar à mesma estação). Linhas com estações fora do grafo
+     * são ignoradas.
+     *
+     * @param graph grafo compacto das estações
+     * @param lines linhas ferroviárias
+     * @return strength por índice de vértice
+     */
+    public static double[] calculateStrengths(CompactGraph<StationEsinf> graph, Collection<RailwayLineEsinf> lines) {
+        int n = graph.numVertices();
+        double[] strength = new double[n];
+
+        Map<String, Integer> idsByStation = new HashMap<>();
+        for (int v = 0; v < n; v++) {          // Complexity O(V)
+            idsByStation.putIfAbsent(graph.vertex(v).getId(), v);
+        }
+
+        for (RailwayLineEsinf line : lines) {  // Complexity O(E)
+            Integer u = idsByStation.get(line.getDepartureStation().getId());
+            Integer v = idsByStation.get(line.getArrivalStation().getId());
+            if (u != null) {
+                strength[u] += line.getCapacity();
+            }
+            if (v != null && !v.equals(u)) {
+                strength[v] += line.getCapacity();
+            }
+        }
+
+        return strength;
+    }
 }
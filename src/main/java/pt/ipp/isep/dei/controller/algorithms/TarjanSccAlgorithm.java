@@ -0,0 +1,190 @@
+package pt.ipp.isep.dei.controller.algorithms;
+
+import pt.ipp.isep.dei.domain.Graph.Graph;
+
+import java.util.Arrays;
+
+/**
+ * Componentes fortemente conexas pelo algoritmo de Tarjan (versão iterativa,
+ * sem recursão, para não esgotar a pilha em redes grandes).
+ *
+ * O Tarjan fecha cada componente depois de todas as componentes que ela
+ * alcança, pelo que os identificadores 0..C-1 ficam em ordem topológica
+ * inversa do grafo condensado (DAG das componentes). Uma componente é
+ * cíclica se tiver mais de um vértice ou um lacete.
+ */
+public class TarjanSccAlgorithm {
+
+    /**
+     * Calcula as componentes fortemente conexas de um grafo direcionado,
+     * identificando os vértices pelo seu índice no grafo.
+     *
+     * @param g grafo
+     * @return componentes e ordem do grafo condensado
+     */
+    // Complexity O(V + E)
+    public static <V, E> Components tarjan(Graph<V, E> g) {
+        int n = g.numVertices();
+        int[][] adjIds = new int[n][];
+        for (int u = 0; u < n; u++) {
+            adjIds[u] = g.outgoingEdgeIds(u);
+        }
+        return tarjan(adjIds);
+    }
+
+    /**
+     * Calcula as componentes fortemente conexas.
+     *
+     * @param adjIds adjIds[u] são os destinos dos arcos que saem de u
+     * @return componentes e ordem do grafo condensado
+     */
+    // Complexity O(V + E)
+    public static Components tarjan(int[][] adjIds) {
+        int n = adjIds.length;
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] component = new int[n];
+        int[] nextArc = new int[n];
+        boolean[] onStack = new boolean[n];
+        boolean[] selfLoop = new boolean[n];
+        Arrays.fill(index, -1);
+
+        int[] stack = new int[n];       // vértices ainda sem componente
+        int[] calls = new int[n];       // pilha de chamadas da DFS
+        int stackSize = 0;
+        int callSize = 0;
+        int counter = 0;
+        int components = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) continue;
+
+            index[root] = low[root] = counter++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            calls[callSize++] = root;
+
+            while (callSize > 0) {
+                int v = calls[callSize - 1];
+
+                if (nextArc[v] < adjIds[v].length) {
+                    int w = adjIds[v][nextArc[v]++];
+                    if (w == v) {
+                        selfLoop[v] = true;
+                    } else if (index[w] < 0) {
+                        index[w] = low[w] = counter++;
+                        stack[stackSize++] = w;
+                        onStack[w] = true;
+                        calls[callSize++] = w;
+                    } else if (onStack[w]) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                    continue;
+                }
+
+                callSize--;
+                if (low[v] == index[v]) {            // v é a raiz de uma componente
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        onStack[w] = false;
+                        component[w] = components;
+                    } while (w != v);
+                    components++;
+                }
+                if (callSize > 0) {
+                    int parent = calls[callSize - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+            }
+        }
+
+        int[] size = new int[components];
+        boolean[] cyclic = new boolean[components];
+        for (int v = 0; v < n; v++) {
+            size[component[v]]++;
+            if (selfLoop[v]) cyclic[component[v]] = true;
+        }
+        for (int c = 0; c < components; c++) {
+            if (size[c] > 1) cyclic[c] = true;
+        }
+
+        return new Components(component, size, cyclic);
+    }
+
+    /**
+     * Resultado: componente de cada vértice e informação de cada componente.
+     */
+    public static class Components {
+
+        private final int[] component;
+        private final int[] size;
+        private final boolean[] cyclic;
+
+        public Components(int[] component, int[] size, boolean[] cyclic) {
+            this.component = component;
+            this.size = size;
+            this.cyclic = cyclic;
+        }
+
+        public int count() {
+            return size.length;
+        }
+
+        public int componentOf(int v) {
+            return component[v];
+        }
+
+        public int size(int c) {
+            return size[c];
+        }
+
+        public boolean isCyclic(int c) {
+            return cyclic[c];
+        }
+
+        public boolean hasCycle() {
+            for (boolean c : cyclic) {
+                if (c) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Obtém as componentes numa ordem topológica do grafo condensado:
+         * se existe um arco de uma componente para outra, a primeira vem antes.
+         *
+         * @return identificadores das componentes
+         */
+        // Complexity O(C)
+        public int[] topologicalOrder() {
+            int c = size.length;
+            int[] order = new int[c];
+            for (int i = 0; i < c; i++) {
+                order[i] = c - 1 - i;
+            }
+            return order;
+        }
+
+        /**
+         * Obtém os vértices agrupados por componente, com as componentes em
+         * ordem topológica do grafo condensado.
+         *
+         * @return vértices por componente; members[i] é a i-ésima componente da ordem
+         */
+        // Complexity O(V)
+        public int[][] membersInTopologicalOrder() {
+            int c = size.length;
+            int[][] members = new int[c][];
+            int[] filled = new int[c];
+            for (int i = 0; i < c; i++) {
+                members[i] = new int[size[c - 1 - i]];
+            }
+            for (int v = 0; v < component.length; v++) {
+                int position = c - 1 - component[v];
+                members[position][filled[position]++] = v;
+            }
+            return members;
+        }
+    }
+}
@@ -1,19 +1,26 @@
 package pt.ipp.isep.dei.controller.global;
 
+import pt.ipp.isep.dei.controller.algorithms.StationNetworkIndex;
 import pt.ipp.isep.dei.data.repository.Repositories;
 import pt.ipp.isep.dei.data.repository.sprint3.EdgeEsinfRepository;
 import pt.ipp.isep.dei.data.repository.sprint3.NodeEsinfRepository;
 import pt.ipp.isep.dei.data.repository.sprint3.RailwayLineEsinfRepository;
 import pt.ipp.isep.dei.data.repository.sprint3.StationEsinf3Repository;
+import pt.ipp.isep.dei.data.repository.sprint3.StationNetworkIndexRepository;
 import pt.ipp.isep.dei.domain.ESINF.RailwayLineEsinf;
 import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
 import pt.ipp.isep.dei.domain.Graph.Edge;
+import pt.ipp.isep.dei.domain.Graph.Graph;
 import pt.ipp.isep.dei.domain.Graph.MetricsStationEdge;
 import pt.ipp.isep.dei.domain.Graph.Node;
 import pt.ipp.isep.dei.domain.LogType;
 import pt.ipp.isep.dei.domain.RoleType;
 import pt.ipp.isep.dei.ui.console.UIUtils;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 /**
@@ -29,6 +36,11 @@ public class LoadSprint3DataSetController implements Runnable{
      */
     private String DATA_SET_DIRECTORY_CSV_ESINF_PATH = "dataset/sprint3";
 
+    /**
+     * Ficheiro onde é guardado o índice de caminhos mínimos da rede.
+     */
+    private static final String STATION_NETWORK_INDEX_PATH = "output/ESINF/index/station-network.ch";
+
     /**
      * Repositório de estações.
      */
@@ -49,6 +61,11 @@ public class LoadSprint3DataSetController implements Runnable{
      */
     private EdgeEsinfRepository edgeEsinfRepository;
 
+    /**
+     * Repositório do índice de caminhos mínimos da rede.
+     */
+    private StationNetworkIndexRepository stationNetworkIndexRepository;
+
     /**
      * Executa o carregamento completo do dataset do Sprint 3.
      *
@@ -63,11 +80,13 @@ public class LoadSprint3DataSetController implements Runnable{
         this.railwayLineRepository = repositories.getRailwayLineEsinfRepository();
         this.nodeEsinfRepository = repositories.getNodeEsinfRepository();
         this.edgeEsinfRepository = repositories.getEdgeEsinfRepository();
+        this.stationNetworkIndexRepository = repositories.getStationNetworkIndexRepository();
 
         UIUtils.addLog("------------------------------ Starting CSV data sprint 3 loading... ------------------------------", LogType.INFO, RoleType.GLOBAL);
         loadDataSet();
         loadSprint3Lines();
         loadRailwayNetworkGraph();
+        loadStationNetworkIndex();
     }
 
     /**
@@ -229,4 +248,47 @@ public class LoadSprint3DataSetController implements Runnable{
             }
         }
     }
+
+    /**
+     * Obtém o índice de caminhos mínimos da rede (hierarquias de contração).
+     *
+     * Reutiliza o índice gravado em disco se tiver sido construído a partir
+     * da mesma rede; caso contrário constrói-o e grava-o para a próxima execução.
+     */
+    private void loadStationNetworkIndex() {
+        Graph<StationEsinf, MetricsStationEdge> graph = new Graph<>(true);
+        for (Node<StationEsinf> node : nodeEsinfRepository.getAllNodes()) {
+            graph.addVertex(node.getValue(), node.getKey());
+        }
+        for (Edge<StationEsinf, MetricsStationEdge> edge : edgeEsinfRepository.getAllEdges()) {
+            graph.addEdge(edge.getVOrig(), edge.getVDest(), edge.getWeight());
+        }
+        CompactGraph<StationEsinf> network = MetricsStationEdge.freeze(graph);
+
+        Path file = Path.of(STATION_NETWORK_INDEX_PATH);
+        StationNetworkIndex index = null;
+
+        if (Files.exists(file)) {
+            try {
+                index = StationNetworkIndex.load(file);
+                if (!index.matches(network)) index = null;
+            } catch (IOException e) {
+                UIUtils.addLog("Could not read station network index: " + e.getMessage(), LogType.ERROR, RoleType.GLOBAL);
+            }
+        }
+
+        if (index == null) {
+            index = StationNetworkIndex.build(network);
+            try {
+                index.save(file);
+            } catch (IOException e) {
+                UIUtils.addLog("Could not save station network index: " + e.getMessage(), LogType.ERROR, RoleType.GLOBAL);
+            }
+            UIUtils.addLog("Station network index built", LogType.INFO, RoleType.GLOBAL);
+        } else {
+            UIUtils.addLog("Station network index loaded from " + STATION_NETWORK_INDEX_PATH, LogType.INFO, RoleType.GLOBAL);
+        }
+
+        stationNetworkIndexRepository.setIndex(index);
+    }
 }
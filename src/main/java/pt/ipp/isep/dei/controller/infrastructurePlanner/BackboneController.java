@@ -1,9 +1,12 @@
 package pt.ipp.isep.dei.controller.infrastructurePlanner;
 
+import pt.ipp.isep.dei.controller.algorithms.BoruvkaAlgorithm;
 import pt.ipp.isep.dei.controller.algorithms.KruskalAlgorithm;
 import pt.ipp.isep.dei.controller.graphviz.GraphvizMSTExporter;
 import pt.ipp.isep.dei.controller.graphviz.GraphvizNative;
+import pt.ipp.isep.dei.data.repository.Repositories;
 import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
 import pt.ipp.isep.dei.domain.Graph.Edge;
 import pt.ipp.isep.dei.domain.Graph.Graph;
 import pt.ipp.isep.dei.domain.Graph.MetricsStationEdge;
@@ -37,6 +40,72 @@ public class BackboneController {
     private static final String OUTPUT_DIR_ADAPTED =
             "output/ESINF/Specific Graphs/Adapted/";
 
+    /**
+     * Algoritmos disponíveis para o cálculo da MST.
+     */
+    public enum MstAlgorithm {
+        /** Kruskal sequencial com union-find. */
+        KRUSKAL,
+        /** Filter-Kruskal: descarta cedo as arestas pesadas. */
+        FILTER_KRUSKAL,
+        /** Borůvka com as rondas executadas em paralelo. */
+        PARALLEL_BORUVKA
+    }
+
+    /**
+     * Algoritmo usado no cálculo da MST.
+     */
+    private MstAlgorithm mstAlgorithm = MstAlgorithm.KRUSKAL;
+
+    /**
+     * Indica se o backbone é obtido do {@link DynamicBackbone} partilhado
+     * (atualizado a cada linha acrescentada ou removida) em vez de ser recalculado.
+     */
+    private boolean incremental = true;
+
+    /**
+     * Backbone incremental partilhado, associado aos repositórios atuais.
+     */
+    private static DynamicBackbone sharedBackbone;
+
+    public MstAlgorithm getMstAlgorithm() {
+        return mstAlgorithm;
+    }
+
+    public void setMstAlgorithm(MstAlgorithm mstAlgorithm) {
+        this.mstAlgorithm = mstAlgorithm;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Escolhe entre o backbone incremental e o recálculo completo com
+     * o algoritmo de {@link #setMstAlgorithm(MstAlgorithm)}.
+     *
+     * @param incremental true para usar o backbone incremental
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    /**
+     * Obtém o backbone incremental dos repositórios atuais, criando-o
+     * na primeira utilização.
+     *
+     * @return backbone incremental
+     */
+    public static synchronized DynamicBackbone getDynamicBackbone() {
+        Repositories repos = Repositories.getInstance();
+        if (sharedBackbone == null
+                || !sharedBackbone.isAttachedTo(repos.getNodeEsinfRepository(), repos.getEdgeEsinfRepository())) {
+            if (sharedBackbone != null) sharedBackbone.detach();
+            sharedBackbone = DynamicBackbone.attach(repos.getNodeEsinfRepository(), repos.getEdgeEsinfRepository());
+        }
+        return sharedBackbone;
+    }
+
     /**
      * Gera os gráficos do backbone global a partir do grafo completo.
      *
@@ -48,14 +117,10 @@ public class BackboneController {
      */
     public void generateGlobalBackbone(String baseFilename) throws IOException {
 
-        // 1) Construir o grafo global
-        GenerateGlobalGraph generator = new GenerateGlobalGraph();
-        Graph<StationEsinf, MetricsStationEdge> globalGraph =
-                generator.buildGlobalGraph();
-
-        // 2) Calcular a MST
-        Graph<StationEsinf, MetricsStationEdge> mst =
-                KruskalAlgorithm.kruskal(globalGraph);
+        // 1) e 2) Obter a MST: mantida incrementalmente ou recalculada do grafo global
+        Graph<StationEsinf, MetricsStationEdge> mst = incremental
+                ? getDynamicBackbone().getBackbone()
+                : calculateMst(new GenerateGlobalGraph().buildGlobalGraph());
 
         Collection<StationEsinf> vertices = mst.vertices();
         Collection<Edge<StationEsinf, MetricsStationEdge>> edges = mst.edges();
@@ -85,6 +150,25 @@ public class BackboneController {
         GraphvizNative.generateSvgAdapted(dotAdapted);
     }
 
+    /**
+     * Calcula a MST do grafo com o algoritmo escolhido, sobre a distância.
+     *
+     * @param graph grafo não direcionado
+     * @return grafo da MST
+     */
+    // Complexity O(E log E) (Kruskal), O((E / workers + V) * log V) (Borůvka paralelo)
+    public Graph<StationEsinf, MetricsStationEdge> calculateMst(Graph<StationEsinf, MetricsStationEdge> graph) {
+        CompactGraph<StationEsinf> compact = MetricsStationEdge.freeze(graph);
+
+        int[] arcs = switch (mstAlgorithm) {
+            case KRUSKAL -> KruskalAlgorithm.kruskal(compact, MetricsStationEdge.DISTANCE);
+            case FILTER_KRUSKAL -> KruskalAlgorithm.filterKruskal(compact, MetricsStationEdge.DISTANCE);
+            case PARALLEL_BORUVKA -> BoruvkaAlgorithm.boruvka(compact, MetricsStationEdge.DISTANCE);
+        };
+
+        return KruskalAlgorithm.spanningTree(graph, compact, arcs);
+    }
+
     /**
      * Cria um diretório caso este ainda não exista.
      *
@@ -104,12 +188,7 @@ public class BackboneController {
      */
     //Metodo para a UI popular a tabela das estacoes Belga.
     public Collection<StationEsinf> getGlobalStations() {
-
-        GenerateGlobalGraph generator = new GenerateGlobalGraph();
-        Graph<StationEsinf, MetricsStationEdge> graph =
-                generator.buildGlobalGraph();
-
-        return graph.vertices();
+        return getDynamicBackbone().getStations();
     }
 
 }
@@ -0,0 +1,215 @@
+package pt.ipp.isep.dei.controller.infrastructurePlanner;
+
+import pt.ipp.isep.dei.controller.algorithms.DynamicSpanningForest;
+import pt.ipp.isep.dei.data.repository.sprint3.EdgeEsinfRepository;
+import pt.ipp.isep.dei.data.repository.sprint3.NodeEsinfRepository;
+import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.Edge;
+import pt.ipp.isep.dei.domain.Graph.Graph;
+import pt.ipp.isep.dei.domain.Graph.MetricsStationEdge;
+import pt.ipp.isep.dei.domain.Graph.Node;
+
+import java.util.*;
+
+/**
+ * Backbone (MST sobre a distância) da rede global mantido de forma incremental.
+ *
+ * Regista-se como observador do repositório de arestas: cada linha
+ * acrescentada ou removida atualiza a {@link DynamicSpanningForest} sem
+ * recalcular a MST. Cada linha do repositório é uma aresta própria, pelo
+ * que fechar uma de duas linhas paralelas mantém a outra disponível.
+ *
+ * A floresta só é reconstruída de raiz quando o repositório de arestas é
+ * limpo ou o conjunto de estações muda.
+ */
+public class DynamicBackbone implements EdgeEsinfRepository.Listener {
+
+    private final NodeEsinfRepository nodeRepository;
+    private final EdgeEsinfRepository edgeRepository;
+
+    /**
+     * Versão do repositório de nós usada na última reconstrução.
+     */
+    private long nodeVersion;
+
+    /**
+     * Indica se a floresta tem de ser reconstruída antes da próxima consulta.
+     */
+    private boolean stale = true;
+
+    private List<StationEsinf> stations;
+    private Map<StationEsinf, Integer> stationIds;
+
+    /**
+     * Linha do repositório de cada aresta da floresta e identificador de cada linha.
+     */
+    private List<Edge<StationEsinf, MetricsStationEdge>> lines;
+    private IdentityHashMap<Edge<StationEsinf, MetricsStationEdge>, Integer> lineIds;
+
+    private DynamicSpanningForest forest;
+
+    private DynamicBackbone(NodeEsinfRepository nodeRepository, EdgeEsinfRepository edgeRepository) {
+        this.nodeRepository = nodeRepository;
+        this.edgeRepository = edgeRepository;
+    }
+
+    /**
+     * Cria o backbone e regista-o no repositório de arestas.
+     *
+     * @param nodeRepository repositório de nós
+     * @param edgeRepository repositório de arestas
+     * @return backbone registado
+     */
+    public static DynamicBackbone attach(NodeEsinfRepository nodeRepository, EdgeEsinfRepository edgeRepository) {
+        DynamicBackbone backbone = new DynamicBackbone(nodeRepository, edgeRepository);
+        edgeRepository.addListener(backbone);
+        return backbone;
+    }
+
+    /**
+     * Indica se o backbone observa os repositórios dados.
+     *
+     * @param nodeRepository repositório de nós
+     * @param edgeRepository repositório de arestas
+     * @return true se forem os repositórios deste backbone
+     */
+    public boolean isAttachedTo(NodeEsinfRepository nodeRepository, EdgeEsinfRepository edgeRepository) {
+        return this.nodeRepository == nodeRepository && this.edgeRepository == edgeRepository;
+    }
+
+    /**
+     * Deixa de observar o repositório de arestas.
+     */
+    public void detach() {
+        edgeRepository.removeListener(this);
+    }
+
+    /**
+     * Obtém as estações da rede global.
+     *
+     * @return estações
+     */
+    public synchronized Collection<StationEsinf> getStations() {
+        refresh();
+        return Collections.unmodifiableList(stations);
+    }
+
+    /**
+     * Obtém o grafo do backbone atual.
+     *
+     * @return grafo não direcionado com todas as estações e as linhas da MST
+     */
+    // Complexity O(V + E) para copiar as arestas da floresta
+    public synchronized Graph<StationEsinf, MetricsStationEdge> getBackbone() {
+        refresh();
+
+        Graph<StationEsinf, MetricsStationEdge> mst = new Graph<>(false);
+        for (StationEsinf station : stations) {
+            mst.addVertex(station);
+        }
+        for (int id : forest.treeEdgeIds()) {
+            Edge<StationEsinf, MetricsStationEdge> line = lines.get(id);
+            mst.addEdge(line.getVOrig(), line.getVDest(), line.getWeight());
+        }
+        return mst;
+    }
+
+    /**
+     * Obtém a distância total do backbone.
+     *
+     * @return soma das distâncias das linhas da MST
+     */
+    public synchronized double getTotalDistance() {
+        refresh();
+        return forest.totalWeight();
+    }
+
+    /**
+     * Indica se uma linha do repositório faz parte do backbone.
+     *
+     * @param line linha do repositório
+     * @return true se a linha estiver na MST
+     */
+    public synchronized boolean isBackboneLine(Edge<StationEsinf, MetricsStationEdge> line) {
+        refresh();
+        Integer id = lineIds.get(line);
+        return id != null && forest.isTreeEdge(id);
+    }
+
+    // Complexity O(V) no pior caso
+    @Override
+    public synchronized void edgeAdded(Edge<StationEsinf, MetricsStationEdge> edge) {
+        if (stale) return;
+
+        Integer u = stationIds.get(edge.getVOrig());
+        Integer v = stationIds.get(edge.getVDest());
+        if (u == null || v == null) {
+            stale = true;
+            return;
+        }
+
+        lineIds.put(edge, forest.addEdge(u, v, edge.getWeight().getDistance()));
+        lines.add(edge);
+    }
+
+    // Complexity O(V + soma dos graus da parte mais pequena) no pior caso
+    @Override
+    public synchronized void edgeRemoved(Edge<StationEsinf, MetricsStationEdge> edge) {
+        if (stale) return;
+
+        Integer id = lineIds.remove(edge);
+        if (id != null) forest.removeEdge(id);
+    }
+
+    @Override
+    public synchronized void cleared() {
+        stale = true;
+    }
+
+    private void refresh() {
+        if (stale || nodeVersion != nodeRepository.getVersion()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reconstrói a floresta a partir dos repositórios (Kruskal).
+     */
+    // Complexity O(E log E)
+    private void rebuild() {
+        stations = new ArrayList<>();
+        stationIds = new HashMap<>();
+        for (Node<StationEsinf> node : nodeRepository.getAllNodes()) {
+            if (stationIds.putIfAbsent(node.getValue(), stations.size()) == null) {
+                stations.add(node.getValue());
+            }
+        }
+
+        lines = new ArrayList<>();
+        lineIds = new IdentityHashMap<>();
+        List<Edge<StationEsinf, MetricsStationEdge>> all = edgeRepository.getAllEdges();
+        int[] us = new int[all.size()];
+        int[] vs = new int[all.size()];
+        double[] weights = new double[all.size()];
+
+        for (Edge<StationEsinf, MetricsStationEdge> edge : all) {
+            Integer u = stationIds.get(edge.getVOrig());
+            Integer v = stationIds.get(edge.getVDest());
+            if (u == null || v == null) continue;
+
+            int id = lines.size();
+            us[id] = u;
+            vs[id] = v;
+            weights[id] = edge.getWeight().getDistance();
+            lines.add(edge);
+            lineIds.put(edge, id);
+        }
+
+        int m = lines.size();
+        forest = DynamicSpanningForest.build(stations.size(),
+                Arrays.copyOf(us, m), Arrays.copyOf(vs, m), Arrays.copyOf(weights, m));
+
+        nodeVersion = nodeRepository.getVersion();
+        stale = false;
+    }
+}
@@ -1,6 +1,6 @@
 package pt.ipp.isep.dei.controller.infrastructurePlanner;
 
-import pt.ipp.isep.dei.controller.algorithms.KahnAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.TarjanSccAlgorithm;
 import pt.ipp.isep.dei.data.repository.Repositories;
 import pt.ipp.isep.dei.data.repository.sprint3.EdgeEsinfRepository;
 import pt.ipp.isep.dei.data.repository.sprint3.NodeEsinfRepository;
@@ -17,6 +17,10 @@ import java.util.*;
  *
  * Permite analisar dependências entre estações utilizando ordenação topológica,
  * identificar ciclos e determinar uma ordem válida de execução dos upgrades.
+ *
+ * Os ciclos são as componentes fortemente conexas (Tarjan) com mais de uma
+ * estação; cada uma tem de ser tratada como um bloco, e o grafo condensado
+ * (DAG dos blocos) dá a ordem de upgrade mesmo quando há ciclos.
  */
 public class RailwayUpgradePlanningController {
 
@@ -50,6 +54,8 @@ public class RailwayUpgradePlanningController {
 
     /**
      * Obtém a ordem de upgrade calculada.
+     * Se existirem ciclos, as estações de cada ciclo aparecem seguidas, na
+     * posição do seu bloco no grafo condensado.
      *
      * @return lista ordenada de estações
      */
@@ -66,6 +72,16 @@ public class RailwayUpgradePlanningController {
         return result.getCycleStations();
     }
 
+    /**
+     * Obtém os blocos de upgrade pela ordem do grafo condensado: cada bloco é
+     * uma estação isolada ou as estações de um ciclo, que dependem umas das outras.
+     *
+     * @return blocos de estações em ordem topológica
+     */
+    public List<List<StationEsinf>> getComponentOrder() {
+        return result.getComponents();
+    }
+
     /**
      * Obtém o conjunto de arestas que fazem parte dos ciclos.
      *
@@ -86,6 +102,7 @@ public class RailwayUpgradePlanningController {
         private final List<V> order;
         private final Set<V> cycleStations;
         private final Set<String> cycleEdges;
+        private final List<List<V>> components;
 
         /**
          * Construtor do resultado topológico.
@@ -96,10 +113,25 @@ public class RailwayUpgradePlanningController {
          * @param cycleEdges conjunto de arestas em ciclo
          */
         public TopologicalResult(boolean hasCycle, List<V> order, Set<V> cycleStations, Set<String> cycleEdges) {
+            this(hasCycle, order, cycleStations, cycleEdges, new ArrayList<>());
+        }
+
+        /**
+         * Construtor do resultado topológico com os blocos do grafo condensado.
+         *
+         * @param hasCycle indica se existe ciclo
+         * @param order ordem topológica calculada
+         * @param cycleStations conjunto de vértices em ciclo
+         * @param cycleEdges conjunto de arestas em ciclo
+         * @param components blocos (componentes fortemente conexas) em ordem topológica
+         */
+        public TopologicalResult(boolean hasCycle, List<V> order, Set<V> cycleStations, Set<String> cycleEdges,
+                                 List<List<V>> components) {
             this.hasCycle = hasCycle;
             this.order = order;
             this.cycleStations = cycleStations;
             this.cycleEdges = cycleEdges;
+            this.components = components;
         }
 
         public boolean hasCycle() {
@@ -117,6 +149,10 @@ public class RailwayUpgradePlanningController {
         public Set<String> getCycleEdges() {
             return cycleEdges;
         }
+
+        public List<List<V>> getComponents() {
+            return components;
+        }
     }
 
     /**
@@ -149,7 +185,7 @@ public class RailwayUpgradePlanningController {
      * @param toId ID final (modo intervalo)
      * @param singleId ID da estação (modo estação única)
      */
-    // Complexity O(V+E) + O(V^2) + O(E) = O(V^2 + E)
+    // Complexity O(V+E)
     public void computeUpgradePlan(String mode, String fromId, String toId, String singleId) {
 
         Graph<StationEsinf, MetricsStationEdge> target;
@@ -162,34 +198,43 @@ public class RailwayUpgradePlanningController {
             target = graph;
         }
 
-        List<StationEsinf> order = new ArrayList<>();
-        boolean acyclic = KahnAlgorithm.kahn(target, order); // Complexity O(V+E)
+        int n = target.numVertices();
+        int[][] adjIds = new int[n][];
+        for (int u = 0; u < n; u++) {                       // Complexity O(V+E)
+            adjIds[u] = target.outgoingEdgeIds(u);
+        }
+        TarjanSccAlgorithm.Components sccs = TarjanSccAlgorithm.tarjan(adjIds); // Complexity O(V+E)
 
+        // blocos em ordem topológica do grafo condensado; as estações de um
+        // ciclo ficam juntas na posição do seu bloco. Complexity O(V)
+        List<StationEsinf> order = new ArrayList<>(n);
+        List<List<StationEsinf>> components = new ArrayList<>(sccs.count());
         Set<StationEsinf> cycleStations = new HashSet<>();
-        Set<String> cycleEdges = new HashSet<>();
-
-        if (!acyclic) {
-
-            // Complexity O(V^2)
-            for (StationEsinf v : target.vertices()) {  // Complexity O(V)
-                if (!order.contains(v)) {               // Complexity O(V)
-                    cycleStations.add(v);
-                }
+        for (int[] members : sccs.membersInTopologicalOrder()) {
+            List<StationEsinf> block = new ArrayList<>(members.length);
+            boolean cyclic = sccs.isCyclic(sccs.componentOf(members[0]));
+            for (int v : members) {
+                StationEsinf station = target.vertex(v);
+                block.add(station);
+                order.add(station);
+                if (cyclic) cycleStations.add(station);
             }
+            components.add(block);
+        }
 
-            // Outer loop: O(V)
-            // Inner loop over adjacencies (total over all u): O(E)
-            // Total: O(V + E)
-            for (StationEsinf u : cycleStations) {
-                for (StationEsinf v : target.adjVertices(u)) {
-                    if (cycleStations.contains(v)) {
-                        cycleEdges.add(u.getStationName() + " -> " + v.getStationName());
-                    }
+        // apenas as arestas dentro de uma componente cíclica. Complexity O(E)
+        Set<String> cycleEdges = new HashSet<>();
+        for (int u = 0; u < n; u++) {
+            int c = sccs.componentOf(u);
+            if (!sccs.isCyclic(c)) continue;
+            for (int v : adjIds[u]) {
+                if (sccs.componentOf(v) == c) {
+                    cycleEdges.add(target.vertex(u).getStationName() + " -> " + target.vertex(v).getStationName());
                 }
             }
         }
 
-        result = new TopologicalResult<>(!acyclic, order, cycleStations, cycleEdges);
+        result = new TopologicalResult<>(sccs.hasCycle(), order, cycleStations, cycleEdges, components);
     }
 
     /**
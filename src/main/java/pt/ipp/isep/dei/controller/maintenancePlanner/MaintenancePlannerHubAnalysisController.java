@@ -1,13 +1,14 @@
 package pt.ipp.isep.dei.controller.maintenancePlanner;
 
 import pt.ipp.isep.dei.controller.algorithms.CalculateBetweennessAlgorithm;
-import pt.ipp.isep.dei.controller.algorithms.CalculateHarmonicClosenessAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.HubCentralityAlgorithm;
 import pt.ipp.isep.dei.controller.algorithms.StrengthCalculatorAlgorithm;
 import pt.ipp.isep.dei.data.repository.Repositories;
 import pt.ipp.isep.dei.data.repository.sprint3.RailwayLineEsinfRepository;
 import pt.ipp.isep.dei.data.repository.sprint3.StationEsinf3Repository;
 import pt.ipp.isep.dei.domain.ESINF.RailwayLineEsinf;
 import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
 import pt.ipp.isep.dei.domain.Graph.Graph;
 
 import java.util.*;
@@ -20,6 +21,31 @@ import java.util.*;
  */
 public class MaintenancePlannerHubAnalysisController {
 
+    /**
+     * Erro absoluto máximo do betweenness normalizado usado por omissão.
+     */
+    public static final double DEFAULT_BETWEENNESS_EPSILON = 0.02;
+
+    /**
+     * Confiança do erro do betweenness usada por omissão.
+     */
+    public static final double DEFAULT_BETWEENNESS_CONFIDENCE = 0.95;
+
+    /**
+     * Semente da amostragem, para que o ranking seja reprodutível.
+     */
+    private static final long BETWEENNESS_SEED = 42L;
+
+    /**
+     * Erro absoluto máximo pretendido para o betweenness normalizado.
+     */
+    private final double betweennessEpsilon;
+
+    /**
+     * Probabilidade com que o erro do betweenness fica abaixo de betweennessEpsilon.
+     */
+    private final double betweennessConfidence;
+
     /**
      * Repositório de estações.
      */
@@ -35,11 +61,21 @@ public class MaintenancePlannerHubAnalysisController {
      */
     private Graph<StationEsinf, Double> graph;
 
+    /**
+     * Instantâneo compacto (CSR) do grafo, usado pelos algoritmos de centralidade.
+     */
+    private CompactGraph<StationEsinf> compactGraph;
+
     /**
      * Mapa de betweenness por estação.
      */
     private Map<StationEsinf, Double> betweennessMap;
 
+    /**
+     * Erro absoluto máximo do betweenness (0 quando o cálculo é exato).
+     */
+    private double betweennessErrorBound;
+
     /**
      * Mapa de strength por estação.
      */
@@ -56,21 +92,42 @@ public class MaintenancePlannerHubAnalysisController {
     private Map<StationEsinf, Double> hubScoreMap;
 
     /**
-     * Construtor do controller.
+     * Construtor do controller, com o erro e a confiança do betweenness por omissão.
      *
      * Inicializa os repositórios, constrói o grafo
      * e calcula todas as métricas necessárias.
      */
     public MaintenancePlannerHubAnalysisController() {
+        this(DEFAULT_BETWEENNESS_EPSILON, DEFAULT_BETWEENNESS_CONFIDENCE);
+    }
+
+    /**
+     * Construtor do controller que permite trocar precisão por tempo no betweenness.
+     *
+     * O número de estações de origem é o menor que garante erro absoluto inferior
+     * a epsilon com a confiança dada; se for pelo menos o número de estações,
+     * o betweenness é calculado de forma exata.
+     *
+     * @param betweennessEpsilon erro absoluto máximo do betweenness normalizado, em ]0, 1]
+     * @param betweennessConfidence confiança do erro, em ]0, 1[
+     * @throws IllegalArgumentException se algum dos valores estiver fora do intervalo
+     */
+    public MaintenancePlannerHubAnalysisController(double betweennessEpsilon, double betweennessConfidence) {
+        if (!(betweennessEpsilon > 0 && betweennessEpsilon <= 1)) {
+            throw new IllegalArgumentException("Betweenness error must be in ]0, 1].");
+        }
+        if (!(betweennessConfidence > 0 && betweennessConfidence < 1)) {
+            throw new IllegalArgumentException("Betweenness confidence must be in ]0, 1[.");
+        }
+        this.betweennessEpsilon = betweennessEpsilon;
+        this.betweennessConfidence = betweennessConfidence;
+
         stationRepository = Repositories.getInstance().getStationEsinf3Repository();
         lineRepository = Repositories.getInstance().getRailwayLineEsinfRepository();
 
         createGraph();
 
-        generateStrengthMap();
-        generateBetweennessMap();
-        generateHarmonicClosenessMap();
-        generateHubScoreMap();
+        generateCentralityMaps();
     }
 
     // ===================== GRAPH =====================
@@ -82,6 +139,7 @@ public class MaintenancePlannerHubAnalysisController {
         graph = new Graph<>(false);
         addVertices();
         addEdges();
+        compactGraph = graph.freeze(Double::doubleValue);
     }
 
     /**
@@ -102,85 +160,36 @@ public class MaintenancePlannerHubAnalysisController {
         }
     }
 
-    // ===================== Hub Score ==================
+    // ===================== CENTRALITY =====================
 
     /**
-     * Calcula o hub score de cada estação com base numa combinação ponderada
-     * de betweenness, harmonic closeness e strength.
-     */
-    private void generateHubScoreMap() {
-        hubScoreMap = new HashMap<>();
-        for (StationEsinf station : stationRepository.findAll()) {
-
-            double hubscoreVal = findBetweenness(station) * 0.35 + findHarmonicCloseness(station) * 0.35 + findStrength(station) * 0.3;
-
-            hubScoreMap.put(station, hubscoreVal);
-        }
-    }
-
-    // ===================== BETWENNESS =====================
-
-    /**
-     * Calcula o betweenness de todas as estações do grafo.
-     */
-    private void generateBetweennessMap() {
-        CalculateBetweennessAlgorithm algorithm = new CalculateBetweennessAlgorithm(graph);
-
-        betweennessMap = algorithm.calculateBetweenness();
-    }
-
-    // ===================== STRENGTH =====================
-
-    /**
-     * Calcula e normaliza o strength de todas as estações.
-     */
-    private void generateStrengthMap() {
-        StrengthCalculatorAlgorithm strengthAlgorithm = new StrengthCalculatorAlgorithm();
-
-        Map<StationEsinf, Double> rawStrength = new HashMap<>();
-
-        for (StationEsinf s : stationRepository.findAll()) {
-            rawStrength.put(s, (double) strengthAlgorithm.calculateStrength(s));
-        }
-
-        strengthMap = normalizeStrength(rawStrength);
-    }
-
-    /**
-     * Normaliza os valores de strength para o intervalo [0,1].
+     * Calcula betweenness, harmonic closeness, strength e hub score de todas
+     * as estações com uma única pesquisa de caminhos mínimos por origem.
      *
-     * @param values mapa de valores brutos
-     * @return mapa normalizado
+     * Quando o erro e a confiança pedidos o permitem com menos origens do
+     * que estações, o betweenness e o closeness são estimados a partir de
+     * uma amostra de estações de origem.
      */
-    private Map<StationEsinf, Double> normalizeStrength(Map<StationEsinf, Double> values) {
-
-        Map<StationEsinf, Double> result = new HashMap<>();
-
-        if (values.isEmpty()) return result;
-
-        double max = Collections.max(values.values());
-
-        if (max == 0) {
-            for (StationEsinf s : values.keySet()) {
-                result.put(s, 0.0);
-            }
-            return result;
-        }
-
-        for (Map.Entry<StationEsinf, Double> e : values.entrySet()) {
-            result.put(e.getKey(), e.getValue() / max);
+    private void generateCentralityMaps() {
+        double[] strength = new StrengthCalculatorAlgorithm().calculateStrengths(compactGraph);   // Complexity O(V + E)
+
+        int n = compactGraph.numVertices();
+        double delta = 1.0 - betweennessConfidence;
+        int samples = CalculateBetweennessAlgorithm.sampleSize(n, betweennessEpsilon, delta);
+
+        HubCentralityAlgorithm.CentralityResult<StationEsinf> centrality;
+        if (samples < n) {
+            centrality = HubCentralityAlgorithm.calculateApproximate(compactGraph, 0, strength,
+                    samples, delta, new Random(BETWEENNESS_SEED));
+        } else {
+            centrality = HubCentralityAlgorithm.calculate(compactGraph, 0, strength);
         }
 
-        return result;
-    }
-
-    // ===================== HARMONIC CLOSENESS =====================
-
-    /**
-     * Calcula o harmonic closeness de todas as estações.
-     */
-    private void generateHarmonicClosenessMap() {
-        harmonicClosenessMap = CalculateHarmonicClosenessAlgorithm.calculateHarmonicCloseness(graph);
+        betweennessMap = centrality.getBetweenness();
+        betweennessErrorBound = centrality.getEpsilon();
+        harmonicClosenessMap = centrality.getHarmonicCloseness();
+        strengthMap = centrality.getStrength();
+        hubScoreMap = centrality.getHubScore();
     }
 
     // ===================== GETTERS =====================
@@ -204,6 +213,26 @@ public class MaintenancePlannerHubAnalysisController {
         return betweennessMap.get(station);
     }
 
+    /**
+     * Obtém o erro absoluto máximo dos valores de betweenness (com a
+     * confiança de {@link #getBetweennessConfidence()}), ou 0 se foram
+     * calculados de forma exata.
+     *
+     * @return erro máximo do betweenness
+     */
+    public double getBetweennessErrorBound() {
+        return betweennessErrorBound;
+    }
+
+    /**
+     * Obtém a confiança do erro do betweenness.
+     *
+     * @return confiança, em ]0, 1[
+     */
+    public double getBetweennessConfidence() {
+        return betweennessConfidence;
+    }
+
     /**
      * Obtém o strength de uma estação.
      *
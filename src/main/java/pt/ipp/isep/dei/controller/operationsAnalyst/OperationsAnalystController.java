@@ -1,6 +1,8 @@
 package pt.ipp.isep.dei.controller.operationsAnalyst;
 
-import pt.ipp.isep.dei.controller.algorithms.EdmondsKarpAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.DinicAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.GomoryHuTree;
+import pt.ipp.isep.dei.controller.algorithms.MinCostFlowAlgorithm;
 import pt.ipp.isep.dei.data.repository.Repositories;
 import pt.ipp.isep.dei.data.repository.sprint3.EdgeEsinfRepository;
 import pt.ipp.isep.dei.data.repository.sprint3.NodeEsinfRepository;
@@ -13,7 +15,9 @@ import pt.ipp.isep.dei.domain.RoleType;
 import pt.ipp.isep.dei.ui.console.UIUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -21,8 +25,18 @@ import java.util.Map;
  * Controller used by the Operations Analyst UI to calculate network metrics such as max-flow.
  * <p>
  * This class mediates between the UI and the data repositories. It resolves station inputs
- * (either typed IDs or table selections), builds the capacity matrix from repository edges
- * and delegates the max-flow computation to the Edmonds-Karp implementation.
+ * (either typed IDs or table selections), builds a sparse flow network from the repository
+ * edges and delegates the max-flow computation to the Dinic implementation.
+ * <p>
+ * The flow network is kept between queries and only rebuilt when the node or edge
+ * repository changes.
+ * <p>
+ * Max-flow queries follow the direction in which each line was loaded. When every line has a
+ * matching line with the same capacity in the opposite direction, the directed max-flow equals
+ * the undirected one, so a Gomory-Hu tree shared by all controllers answers every station pair
+ * with a path-minimum lookup. Otherwise each query runs Dinic on the directed network.
+ * {@link #calculateUndirectedMaxFlow} is a separate query on the undirected capacity view
+ * (each line can carry its capacity in either direction).
  */
 public class OperationsAnalystController {
 
@@ -31,6 +45,19 @@ public class OperationsAnalystController {
     /** Repository providing graph edges (with metrics) for the ESINF graph representation. */
     private final EdgeEsinfRepository edgeRepository;
 
+    /** Sparse flow network built from the repositories, reused while they do not change. */
+    private DinicAlgorithm network;
+    /** Index of each station in the flow network. */
+    private Map<StationEsinf, Integer> nodeIndexMap;
+    /** Repository versions used to build the current flow network. */
+    private long nodeVersion = -1;
+    private long edgeVersion = -1;
+
+    /** Gomory-Hu tree of the directed network, present only when it is symmetric, shared by all controllers. */
+    private static CapacityTree sharedDirectedTree;
+    /** Gomory-Hu tree of the undirected capacity view, shared by all controllers. */
+    private static CapacityTree sharedUndirectedTree;
+
     /** Currently selected source station. */
     private StationEsinf source;
     /** Currently selected target station. */
@@ -45,7 +72,10 @@ public class OperationsAnalystController {
     }
 
     /**
-     * Calculates the maximum flow between two stations using the Edmonds-Karp algorithm.
+     * Calculates the maximum flow between two stations, following the direction of each line.
+     * <p>
+     * If the network is symmetric (see {@link OperationsAnalystController}) the answer comes
+     * from the shared Gomory-Hu tree; otherwise it is computed with Dinic's algorithm.
      *
      * @param source the source station (must not be null)
      * @param target the target station (must not be null and must be different from source)
@@ -53,6 +83,7 @@ public class OperationsAnalystController {
      * @throws IllegalArgumentException if either parameter is null, if they are equal, or
      *                                  if either station cannot be mapped to a node index
      */
+    // Complexity O(log V) com a rede simétrica, senão O(V^2 * E) no pior caso
     public int calculateMaxFlow(StationEsinf source, StationEsinf target) {
         if (source == null || target == null) {
             throw new IllegalArgumentException("Source and target must not be null.");
@@ -61,34 +92,176 @@ public class OperationsAnalystController {
             throw new IllegalArgumentException("Source and target must be different.");
         }
 
-        List<Node<StationEsinf>> nodes = nodeRepository.getAllNodes();
-        int n = nodes.size();
+        CapacityTree capacityTree = getCapacityTree(nodeRepository, edgeRepository, true);
+        if (capacityTree.tree != null) {
+            return capacityTree.maxFlow(source, target);
+        }
+
+        refreshNetwork();
+
+        Integer sourceIndex = nodeIndexMap.get(source);
+        Integer targetIndex = nodeIndexMap.get(target);
+        if (sourceIndex == null || targetIndex == null) {
+            throw new IllegalArgumentException("Invalid source or target station.");
+        }
+
+        return network.maxFlow(sourceIndex, targetIndex);
+    }
+
+    /**
+     * Rebuilds the flow network if the node or edge repository changed since it was built.
+     * Each repository edge becomes one arc with its capacity, so memory is O(V + E).
+     */
+    // Complexity O(V + E)
+    private void refreshNetwork() {
+        if (network != null && nodeVersion == nodeRepository.getVersion()
+                && edgeVersion == edgeRepository.getVersion()) {
+            return;
+        }
 
-        Map<StationEsinf, Integer> nodeIndexMap = new HashMap<>();
+        List<Node<StationEsinf>> nodes = nodeRepository.getAllNodes();
+        Map<StationEsinf, Integer> indexes = new HashMap<>();
         for (int i = 0; i < nodes.size(); i++) {
-            nodeIndexMap.put(nodes.get(i).getValue(), i);
+            indexes.put(nodes.get(i).getValue(), i);
+        }
+
+        List<Edge<StationEsinf, MetricsStationEdge>> edges = edgeRepository.getAllEdges();
+        int[] from = new int[edges.size()];
+        int[] to = new int[edges.size()];
+        int[] capacities = new int[edges.size()];
+        int m = 0;
+        for (Edge<StationEsinf, MetricsStationEdge> edge : edges) {
+            Integer startNode = indexes.get(edge.getVOrig());
+            Integer endNode = indexes.get(edge.getVDest());
+            int capacity = edge.getWeight().getCapacity();
+            if (startNode != null && endNode != null && capacity > 0) {
+                from[m] = startNode;
+                to[m] = endNode;
+                capacities[m++] = capacity;
+            }
+        }
+
+        network = new DinicAlgorithm(nodes.size(),
+                Arrays.copyOf(from, m), Arrays.copyOf(to, m), Arrays.copyOf(capacities, m));
+        nodeIndexMap = indexes;
+        nodeVersion = nodeRepository.getVersion();
+        edgeVersion = edgeRepository.getVersion();
+    }
+
+    /**
+     * Calculates the maximum flow between two stations on the undirected capacity view of the
+     * network, where each line can carry its capacity in either direction. On a network with
+     * one-way lines this can be larger than {@link #calculateMaxFlow}.
+     * <p>
+     * The answer comes from a shared Gomory-Hu tree, which is rebuilt only when the node or
+     * edge repository changed since it was built.
+     *
+     * @param source the source station (must not be null)
+     * @param target the target station (must not be null and must be different from source)
+     * @return the computed maximum flow value as an int
+     * @throws IllegalArgumentException if either parameter is null, if they are equal, or
+     *                                  if either station cannot be mapped to a node index
+     */
+    // Complexity O(log V), mais V-1 fluxos máximos quando a árvore tem de ser reconstruída
+    public int calculateUndirectedMaxFlow(StationEsinf source, StationEsinf target) {
+        if (source == null || target == null) {
+            throw new IllegalArgumentException("Source and target must not be null.");
+        }
+        if (source.equals(target)) {
+            throw new IllegalArgumentException("Source and target must be different.");
+        }
+
+        return getCapacityTree(nodeRepository, edgeRepository, false).maxFlow(source, target);
+    }
+
+    /**
+     * Returns the shared capacity tree of the directed network or of the undirected capacity
+     * view for the given repositories, rebuilding it if either repository changed since it was built.
+     */
+    private static synchronized CapacityTree getCapacityTree(NodeEsinfRepository nodeRepository,
+                                                             EdgeEsinfRepository edgeRepository, boolean directed) {
+        CapacityTree shared = directed ? sharedDirectedTree : sharedUndirectedTree;
+        if (shared == null || !shared.isCurrent(nodeRepository, edgeRepository)) {
+            shared = new CapacityTree(nodeRepository, edgeRepository, directed);
+            if (directed) {
+                sharedDirectedTree = shared;
+            } else {
+                sharedUndirectedTree = shared;
+            }
         }
+        return shared;
+    }
 
-        int[][] capacity = new int[n][n];
+    /**
+     * Routes a list of freight demands over the station network at minimum total cost,
+     * respecting the capacity of every line (min-cost flow with successive shortest paths).
+     * <p>
+     * Demands are routed one after another in the given order; each one uses the capacity the
+     * previous ones left free and its flow is then fixed. A demand that cannot be fully routed
+     * is routed as far as the free capacity allows.
+     *
+     * @param demands the freight demands, in routing order
+     * @return the plan with the routed amount and cost of each demand and the load of each line
+     * @throws IllegalArgumentException if a demand is null or refers to an unknown station
+     * @throws IllegalStateException if the network has a negative cost cycle with free capacity
+     */
+    // Complexity O(V + E) mais o custo de cada procura
+    public FreightPlan planFreight(List<FreightDemand> demands) {
+        List<Node<StationEsinf>> nodes = nodeRepository.getAllNodes();
+        Map<StationEsinf, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            indexes.put(nodes.get(i).getValue(), i);
+        }
 
         List<Edge<StationEsinf, MetricsStationEdge>> edges = edgeRepository.getAllEdges();
+        List<Edge<StationEsinf, MetricsStationEdge>> lines = new ArrayList<>(edges.size());
+        int[] from = new int[edges.size()];
+        int[] to = new int[edges.size()];
+        int[] capacities = new int[edges.size()];
+        double[] costs = new double[edges.size()];
         for (Edge<StationEsinf, MetricsStationEdge> edge : edges) {
-            StationEsinf uNode = edge.getVOrig();
-            StationEsinf vNode = edge.getVDest();
-            Integer startNode = nodeIndexMap.get(uNode);
-            Integer endNode = nodeIndexMap.get(vNode);
-            if (startNode != null && endNode != null) {
-                capacity[startNode][endNode] += edge.getWeight().getCapacity();
+            Integer startNode = indexes.get(edge.getVOrig());
+            Integer endNode = indexes.get(edge.getVDest());
+            int capacity = edge.getWeight().getCapacity();
+            if (startNode != null && endNode != null && capacity > 0) {
+                int k = lines.size();
+                from[k] = startNode;
+                to[k] = endNode;
+                capacities[k] = capacity;
+                costs[k] = edge.getWeight().getCost();
+                lines.add(edge);
             }
         }
 
-        Integer sourceIndex = nodeIndexMap.get(source);
-        Integer targetIndex = nodeIndexMap.get(target);
-        if (sourceIndex == null || targetIndex == null) {
-            throw new IllegalArgumentException("Invalid source or target station.");
+        int m = lines.size();
+        MinCostFlowAlgorithm network = new MinCostFlowAlgorithm(nodes.size(), Arrays.copyOf(from, m),
+                Arrays.copyOf(to, m), Arrays.copyOf(capacities, m), Arrays.copyOf(costs, m));
+
+        List<FreightPlan.Entry> entries = new ArrayList<>(demands.size());
+        for (FreightDemand demand : demands) {
+            if (demand == null) {
+                throw new IllegalArgumentException("Freight demand must not be null.");
+            }
+            Integer sourceIndex = indexes.get(demand.getOrigin());
+            Integer targetIndex = indexes.get(demand.getDestination());
+            if (sourceIndex == null || targetIndex == null) {
+                throw new IllegalArgumentException("Invalid origin or destination station.");
+            }
+
+            MinCostFlowAlgorithm.Routing routing = network.route(sourceIndex, targetIndex, demand.getAmount());
+            entries.add(new FreightPlan.Entry(demand, routing.getRouted(), routing.getCost()));
         }
 
-        return EdmondsKarpAlgorithm.edmondsKarp(capacity, sourceIndex, targetIndex);
+        Map<Edge<StationEsinf, MetricsStationEdge>, Integer> lineLoads = new IdentityHashMap<>();
+        for (int k = 0; k < m; k++) {
+            if (network.load(k) > 0) lineLoads.put(lines.get(k), network.load(k));
+        }
+
+        UIUtils.addLog(String.format("Planned %d freight demands: %d units routed, total cost %.2f",
+                        entries.size(), network.totalRouted(), network.totalCost()),
+                LogType.INFO, RoleType.OPERATIONS_ANALYST);
+
+        return new FreightPlan(entries, lineLoads, network.totalCost());
     }
 
     /**
@@ -122,7 +295,8 @@ public class OperationsAnalystController {
 
     /**
      * Convenience method that accepts a mix of textual IDs and table-selected stations,
-     * resolves them to concrete StationEsinf instances, performs validation and computes the max flow.
+     * resolves them to concrete StationEsinf instances, performs validation and computes the max flow
+     * (see {@link #calculateMaxFlow}).
      *
      * The resolution rules are:
      * - if a non-empty ID string is provided it is used (and must resolve to an existing station)
@@ -227,4 +401,203 @@ public class OperationsAnalystController {
     public boolean hasSelectedSourceAndTarget() {
         return this.source != null && this.target != null;
     }
+
+    /**
+     * Gomory-Hu tree together with the station indexes and the repository versions it was built from.
+     * <p>
+     * For the undirected capacity view every line is an undirected edge. For the directed network
+     * the capacities of parallel lines are added per ordered pair of stations; the network is
+     * symmetric when every pair has the same capacity in both directions, and then every directed
+     * cut equals the undirected cut with one edge per pair. A non-symmetric directed network has
+     * no tree.
+     */
+    private static final class CapacityTree {
+
+        private final NodeEsinfRepository nodeRepository;
+        private final EdgeEsinfRepository edgeRepository;
+        private final long nodeVersion;
+        private final long edgeVersion;
+        private final Map<StationEsinf, Integer> nodeIndexMap = new HashMap<>();
+        /** Tree of the network, or null if the directed network is not symmetric. */
+        private final GomoryHuTree tree;
+
+        // Complexity O(V + E), mais V-1 fluxos máximos calculados em paralelo quando há árvore
+        private CapacityTree(NodeEsinfRepository nodeRepository, EdgeEsinfRepository edgeRepository,
+                             boolean directed) {
+            this.nodeRepository = nodeRepository;
+            this.edgeRepository = edgeRepository;
+            this.nodeVersion = nodeRepository.getVersion();
+            this.edgeVersion = edgeRepository.getVersion();
+
+            List<Node<StationEsinf>> nodes = nodeRepository.getAllNodes();
+            int n = nodes.size();
+            for (int i = 0; i < n; i++) {
+                nodeIndexMap.put(nodes.get(i).getValue(), i);
+            }
+
+            List<Edge<StationEsinf, MetricsStationEdge>> edges = edgeRepository.getAllEdges();
+            int[] us = new int[edges.size()];
+            int[] vs = new int[edges.size()];
+            int[] capacities = new int[edges.size()];
+            int m = 0;
+            Map<Long, Integer> pairCapacity = new HashMap<>();
+            for (Edge<StationEsinf, MetricsStationEdge> edge : edges) {
+                Integer u = nodeIndexMap.get(edge.getVOrig());
+                Integer v = nodeIndexMap.get(edge.getVDest());
+                int capacity = edge.getWeight().getCapacity();
+                if (u == null || v == null || capacity <= 0) continue;
+
+                if (!directed) {
+                    us[m] = u;
+                    vs[m] = v;
+                    capacities[m++] = capacity;
+                } else if (!u.equals(v)) {
+                    pairCapacity.merge((long) u * n + v, capacity, Integer::sum);
+                }
+            }
+
+            boolean symmetric = true;
+            for (Map.Entry<Long, Integer> pair : pairCapacity.entrySet()) {
+                int u = (int) (pair.getKey() / n);
+                int v = (int) (pair.getKey() % n);
+                if (!pair.getValue().equals(pairCapacity.get((long) v * n + u))) {
+                    symmetric = false;
+                    break;
+                }
+                if (u < v) {
+                    us[m] = u;
+                    vs[m] = v;
+                    capacities[m++] = pair.getValue();
+                }
+            }
+
+            this.tree = !symmetric ? null : GomoryHuTree.build(n,
+                    Arrays.copyOf(us, m), Arrays.copyOf(vs, m), Arrays.copyOf(capacities, m));
+        }
+
+        private boolean isCurrent(NodeEsinfRepository nodeRepository, EdgeEsinfRepository edgeRepository) {
+            return this.nodeRepository == nodeRepository && this.edgeRepository == edgeRepository
+                    && nodeVersion == nodeRepository.getVersion() && edgeVersion == edgeRepository.getVersion();
+        }
+
+        private int maxFlow(StationEsinf source, StationEsinf target) {
+            Integer sourceIndex = nodeIndexMap.get(source);
+            Integer targetIndex = nodeIndexMap.get(target);
+            if (sourceIndex == null || targetIndex == null) {
+                throw new IllegalArgumentException("Invalid source or target station.");
+            }
+            return tree.maxFlow(sourceIndex, targetIndex);
+        }
+    }
+
+    /**
+     * A quantity of freight to move from an origin station to a destination station.
+     */
+    public static class FreightDemand {
+
+        private final StationEsinf origin;
+        private final StationEsinf destination;
+        private final int amount;
+
+        /**
+         * @param origin      the origin station
+         * @param destination the destination station
+         * @param amount      the quantity to move (must not be negative)
+         * @throws IllegalArgumentException if a station is null or the amount is negative
+         */
+        public FreightDemand(StationEsinf origin, StationEsinf destination, int amount) {
+            if (origin == null || destination == null) {
+                throw new IllegalArgumentException("Origin and destination must not be null.");
+            }
+            if (amount < 0) {
+                throw new IllegalArgumentException("Amount cannot be negative.");
+            }
+            this.origin = origin;
+            this.destination = destination;
+            this.amount = amount;
+        }
+
+        public StationEsinf getOrigin() {
+            return origin;
+        }
+
+        public StationEsinf getDestination() {
+            return destination;
+        }
+
+        public int getAmount() {
+            return amount;
+        }
+    }
+
+    /**
+     * Result of routing a list of freight demands.
+     */
+    public static class FreightPlan {
+
+        private final List<Entry> entries;
+        private final Map<Edge<StationEsinf, MetricsStationEdge>, Integer> lineLoads;
+        private final double totalCost;
+
+        public FreightPlan(List<Entry> entries, Map<Edge<StationEsinf, MetricsStationEdge>, Integer> lineLoads,
+                           double totalCost) {
+            this.entries = entries;
+            this.lineLoads = lineLoads;
+            this.totalCost = totalCost;
+        }
+
+        /**
+         * Returns the result of each demand, in routing order.
+         *
+         * @return the routed demands
+         */
+        public List<Entry> getEntries() {
+            return entries;
+        }
+
+        /**
+         * Returns the freight carried by each repository line that is used by the plan.
+         *
+         * @return load per line (lines compared by identity)
+         */
+        public Map<Edge<StationEsinf, MetricsStationEdge>, Integer> getLineLoads() {
+            return lineLoads;
+        }
+
+        public double getTotalCost() {
+            return totalCost;
+        }
+
+        /**
+         * Routed amount and cost of a single demand.
+         */
+        public static class Entry {
+
+            private final FreightDemand demand;
+            private final int routed;
+            private final double cost;
+
+            public Entry(FreightDemand demand, int routed, double cost) {
+                this.demand = demand;
+                this.routed = routed;
+                this.cost = cost;
+            }
+
+            public FreightDemand getDemand() {
+                return demand;
+            }
+
+            public int getRouted() {
+                return routed;
+            }
+
+            public double getCost() {
+                return cost;
+            }
+
+            public boolean isFullyRouted() {
+                return routed == demand.getAmount();
+            }
+        }
+    }
 }
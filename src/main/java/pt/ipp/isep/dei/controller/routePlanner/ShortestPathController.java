@@ -4,11 +4,16 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import org.graphstream.graph.implementations.SingleGraph;
 import pt.ipp.isep.dei.controller.algorithms.BellmanFordAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.JohnsonShortestPathCache;
+import pt.ipp.isep.dei.controller.algorithms.KShortestPathsAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.PointToPointShortestPathAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.StationNetworkIndex;
 import pt.ipp.isep.dei.controller.graphviz.GraphvizCreateFiles;
 import pt.ipp.isep.dei.data.repository.Repositories;
 import pt.ipp.isep.dei.data.repository.sprint3.EdgeEsinfRepository;
 import pt.ipp.isep.dei.data.repository.sprint3.NodeEsinfRepository;
 import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
 import pt.ipp.isep.dei.domain.Graph.Edge;
 import pt.ipp.isep.dei.domain.Graph.Graph;
 import pt.ipp.isep.dei.domain.Graph.MetricsStationEdge;
@@ -21,11 +26,18 @@ import java.util.*;
  * Controller responsável pelo cálculo do caminho mais curto
  * entre duas estações da rede ferroviária.
  *
- * Utiliza o algoritmo de Bellman-Ford, permitindo detetar ciclos
- * negativos e gerar representações gráficas dos resultados.
+ * Utiliza o algoritmo de Bellman-Ford (variante SPFA), permitindo detetar
+ * ciclos negativos e gerar representações gráficas dos resultados.
+ * Se a rede corresponder ao índice construído no carregamento do dataset
+ * ({@link StationNetworkIndex}), as consultas usam as hierarquias de contração.
  */
 public class ShortestPathController {
 
+    /**
+     * Número máximo de estações de origem com caminhos mínimos em cache.
+     */
+    private static final int MAX_CACHED_SOURCES = 64;
+
     /**
      * Repositório de arestas ESINF.
      */
@@ -41,6 +53,32 @@ public class ShortestPathController {
      */
     private Graph<StationEsinf, MetricsStationEdge> graph;
 
+    /**
+     * Instantâneo compacto (CSR) do grafo, usado no cálculo dos caminhos.
+     */
+    private CompactGraph<StationEsinf> compactGraph;
+
+    /**
+     * Cache de caminhos mínimos (Johnson) sobre o custo, criada na primeira consulta.
+     */
+    private JohnsonShortestPathCache<StationEsinf> pathCache;
+
+    /**
+     * Índice de caminhos mínimos da rede, ou null se não corresponder ao grafo atual.
+     */
+    private StationNetworkIndex networkIndex;
+
+    /**
+     * Indica se as consultas usam a cache de caminhos mínimos.
+     */
+    private boolean useAllPairsCache = true;
+
+    /**
+     * Versões dos repositórios a partir das quais o grafo foi construído.
+     */
+    private long edgeVersion;
+    private long nodeVersion;
+
     /**
      * Subgrafo resultante do caminho mais curto.
      */
@@ -98,6 +136,16 @@ public class ShortestPathController {
         return graph.existVertexByKey(stationKey);
     }
 
+    /**
+     * Ativa ou desativa a cache de caminhos mínimos entre consultas.
+     * Sem cache, cada consulta executa um Bellman-Ford (SPFA) completo.
+     *
+     * @param useAllPairsCache true para usar a cache
+     */
+    public void setUseAllPairsCache(boolean useAllPairsCache) {
+        this.useAllPairsCache = useAllPairsCache;
+    }
+
     public Graph<StationEsinf, MetricsStationEdge> getGraph() {
         return graph;
     }
@@ -109,6 +157,22 @@ public class ShortestPathController {
         graph = new Graph<>(true);
         addVertices();
         addEdges();
+        compactGraph = MetricsStationEdge.freeze(graph);
+        pathCache = null;
+        StationNetworkIndex index = Repositories.getInstance().getStationNetworkIndexRepository().getIndex();
+        networkIndex = index != null && index.matches(compactGraph) ? index : null;
+        edgeVersion = edgeEsinfRepository.getVersion();
+        nodeVersion = nodeEsinfRepository.getVersion();
+    }
+
+    /**
+     * Reconstrói o grafo (e descarta a cache) se os repositórios mudaram
+     * desde a última construção.
+     */
+    private void refreshGraph() {
+        if (edgeVersion != edgeEsinfRepository.getVersion() || nodeVersion != nodeEsinfRepository.getVersion()) {
+            createGraph();
+        }
     }
 
     private void addVertices() {
@@ -135,11 +199,46 @@ public class ShortestPathController {
     }
 
     /**
-     * Executa o algoritmo de Bellman-Ford e constrói o subgrafo do caminho mais curto.
+     * Calcula até k caminhos alternativos sem ciclos entre as estações
+     * selecionadas, por ordem crescente de custo. O primeiro é o caminho
+     * mais curto e os seguintes as melhores alternativas (ex.: para evitar
+     * um troço de via única congestionado).
+     *
+     * @param k número máximo de caminhos
+     * @return subgrafo de cada caminho; vazio se não houver caminho ou se a rede tiver um ciclo negativo
+     */
+    public List<Graph<StationEsinf, MetricsStationEdge>> computeAlternativePaths(int k) {
+        refreshGraph();
+
+        StationEsinf origin = graph.vertexByKey(vOrigKey);
+        StationEsinf dest   = graph.vertexByKey(vDestKey);
+
+        if (origin == null || dest == null || getPathCache().hasNegativeCycle()) {
+            return new ArrayList<>();
+        }
+
+        // os potenciais e a rede reajustada da cache são partilhados com as consultas de caminho mínimo
+        KShortestPathsAlgorithm.Alternatives alternatives =
+                pathCache.alternativePaths(compactGraph.key(origin), compactGraph.key(dest), k);
+
+        List<Graph<StationEsinf, MetricsStationEdge>> subgraphs = new ArrayList<>();
+        int[] path = new int[graph.numVertices()];
+        for (PointToPointShortestPathAlgorithm.PathResult result : alternatives.getPaths()) {
+            fillPredecessors(result.getVertices(), path);
+            subgraphs.add(createSubgraphFromPath(path, origin, dest));
+        }
+        return subgraphs;
+    }
+
+    /**
+     * Executa o algoritmo de Bellman-Ford (SPFA) sobre o custo e constrói
+     * o subgrafo do caminho mais curto.
      *
      * @return subgrafo resultante
      */
     private Graph<StationEsinf, MetricsStationEdge> computeShortestPath() {
+        refreshGraph();
+
         StationEsinf origin = graph.vertexByKey(vOrigKey);
         StationEsinf dest   = graph.vertexByKey(vDestKey);
 
@@ -150,13 +249,69 @@ public class ShortestPathController {
         int[] path = new int[graph.numVertices()];
         double[] dist = new double[graph.numVertices()];
 
-        negativeCycleEdges = BellmanFordAlgorithm.bellmanFord(graph, origin, path, dist);
+        int source = compactGraph.key(origin);
+
+        if (networkIndex != null && networkIndex.hasProfile(MetricsStationEdge.COST)) {
+            // o índice usa os mesmos índices de vértice que o grafo compacto
+            fillPredecessors(networkIndex.route(source, compactGraph.key(dest), MetricsStationEdge.COST).getVertices(), path);
+            negativeCycleEdges = null;
+        } else if (useAllPairsCache && !getPathCache().hasNegativeCycle()) {
+            // pesquisa bidirecional na primeira consulta da origem, árvore em cache nas seguintes
+            fillPredecessors(pathCache.pathVertices(source, compactGraph.key(dest)), path);
+            negativeCycleEdges = null;
+        } else {
+            // com ciclos negativos é reportado o ciclo alcançável a partir da origem
+            List<StationEsinf> cycle = BellmanFordAlgorithm.spfa(compactGraph, MetricsStationEdge.COST, source, path, dist);
+            negativeCycleEdges = cycleEdges(cycle);
+        }
 
         negativeCycleEdges = orderEdgesList(negativeCycleEdges);
 
         return createSubgraphFromPath(path, origin, dest);
     }
 
+    /**
+     * Converte a sequência de vértices de um caminho em vetor de predecessores.
+     *
+     * @param vertices índices do caminho, da origem ao destino
+     * @param path vetor de predecessores (preenchido)
+     */
+    private void fillPredecessors(int[] vertices, int[] path) {
+        Arrays.fill(path, -1);
+        for (int i = 1; i < vertices.length; i++) {
+            path[vertices[i]] = vertices[i - 1];
+        }
+    }
+
+    /**
+     * Obtém a cache de caminhos mínimos, criando-a (um Bellman-Ford de
+     * reajuste) na primeira utilização após cada construção do grafo.
+     *
+     * @return cache de caminhos mínimos
+     */
+    private JohnsonShortestPathCache<StationEsinf> getPathCache() {
+        if (pathCache == null) {
+            pathCache = new JohnsonShortestPathCache<>(compactGraph, MetricsStationEdge.COST, MAX_CACHED_SOURCES);
+        }
+        return pathCache;
+    }
+
+    /**
+     * Obtém as arestas do grafo que ligam os vértices consecutivos de um ciclo.
+     *
+     * @param cycle vértices do ciclo (o primeiro repetido no fim) ou null
+     * @return arestas do ciclo ou null se não houver ciclo
+     */
+    private List<Edge<StationEsinf, MetricsStationEdge>> cycleEdges(List<StationEsinf> cycle) {
+        if (cycle == null) return null;
+
+        List<Edge<StationEsinf, MetricsStationEdge>> edges = new ArrayList<>();
+        for (int i = 0; i < cycle.size() - 1; i++) {
+            edges.add(graph.edge(cycle.get(i), cycle.get(i + 1)));
+        }
+        return edges;
+    }
+
     /**
      * Cria um subgrafo a partir do vetor de predecessores.
      *
@@ -2,12 +2,12 @@ package pt.ipp.isep.dei.controller.trafficDispatcher;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import pt.ipp.isep.dei.comparator.FacilityDistanceComparator;
 import pt.ipp.isep.dei.data.memory.FacilityStoreInMemory;
 import pt.ipp.isep.dei.data.memory.LocomotiveStoreInMemory;
-import pt.ipp.isep.dei.data.memory.RailwayLineSegmentStoreInMemory;
 import pt.ipp.isep.dei.data.memory.RailwayLineStoreInMemory;
 import pt.ipp.isep.dei.domain.*;
+import pt.ipp.isep.dei.domain.Graph.IndexedMinHeap;
+import pt.ipp.isep.dei.domain.trackRelated.FacilityNetwork;
 import pt.ipp.isep.dei.domain.trackRelated.RailwayLine;
 import pt.ipp.isep.dei.domain.trackRelated.RailwayLineSegment;
 
@@ -23,9 +23,6 @@ public class EstimatedTravelController {
     /** Repository for managing railway line data. */
     private RailwayLineStoreInMemory railwayLineStoreInMemory;
 
-    /** Repository for managing railway line segments. */
-    private RailwayLineSegmentStoreInMemory railwayLineSegmentStoreInMemory;
-
     /** Repository for managing locomotive data. */
     private LocomotiveStoreInMemory locomotiveStoreInMemory;
 
@@ -35,8 +32,8 @@ public class EstimatedTravelController {
     /** Stores the traversed path composed of lines. */
     private List<TraversedLine> path = new ArrayList<>();
 
-    /** Graph representation where facilities are nodes and connections are edges. */
-    private final Map<String, List<Edge>> graph = new HashMap<>();
+    /** Shared facility network: facilities as nodes, railway lines as edges, with the segments of each line. */
+    private FacilityNetwork network;
 
     /** The locomotive used for the estimation. */
     private Locomotive locomotive;
@@ -70,11 +67,10 @@ public class EstimatedTravelController {
 
     /**
      * Constructor.
-     * Initializes repositories and builds the railway graph.
+     * Initializes repositories and obtains the shared railway network.
      */
     public EstimatedTravelController() {
         railwayLineStoreInMemory = new RailwayLineStoreInMemory();
-        railwayLineSegmentStoreInMemory = new RailwayLineSegmentStoreInMemory();
         locomotiveStoreInMemory = new LocomotiveStoreInMemory();
         facilityStoreInMemory = new FacilityStoreInMemory();
         buildGraph();
@@ -168,30 +164,9 @@ public class EstimatedTravelController {
         return FXCollections.observableArrayList(locomotiveStoreInMemory.findAll());
     }
 
-    /** Builds the internal railway graph from repository data. */
+    /** Obtains the shared railway network, rebuilt by the network only when the stores change. */
     private void buildGraph() {
-        graph.clear();
-        for (RailwayLine railwayLine : railwayLineStoreInMemory.findAll()) {
-            Facility startStation = facilityStoreInMemory.findById(null, String.valueOf(railwayLine.getStartFacilityId()));
-            Facility endStation = facilityStoreInMemory.findById(null, String.valueOf(railwayLine.getEndFacilityId()));
-            double distanceMeters = 0.0;
-
-            for (RailwayLineSegment segment : railwayLineSegmentStoreInMemory.findAll()) {
-                if (!segment.getRailwayLines().isEmpty() && segment.getRailwayLines().getFirst().getId() == railwayLine.getId()) {
-                    distanceMeters += segment.getLength();
-                }
-            }
-
-            if (!graph.containsKey(startStation.getId() + "")) {
-                graph.put(startStation.getId() + "", new ArrayList<>());
-            }
-            graph.get(startStation.getId() + "").add(new Edge(endStation, distanceMeters));
-
-            if (!graph.containsKey(endStation.getId() + "")) {
-                graph.put(endStation.getId() + "", new ArrayList<>());
-            }
-            graph.get(endStation.getId() + "").add(new Edge(startStation, distanceMeters));
-        }
+        network = FacilityNetwork.getInstance();
     }
 
     /**
@@ -216,44 +191,46 @@ public class EstimatedTravelController {
      * @return list of traversed lines or null if no path exists
      */
     private List<TraversedLine> dijkstraWithDirection(Facility origin, Facility destination) {
-        Map<String, Double> distances = new HashMap<>();
-        Map<String, TraversedLine> previous = new HashMap<>();
-        Set<String> visited = new HashSet<>();
-        PriorityQueue<String> queue = new PriorityQueue<>(new FacilityDistanceComparator(distances));
+        buildGraph();
+
+        int n = network.numFacilities();
+        int source = network.indexOfFacility(origin.getId());
+        int target = network.indexOfFacility(destination.getId());
+        if (source == -1 || target == -1) return null;
 
-        for (Facility f : facilityStoreInMemory.findAll()) distances.put(f.getId() + "", Double.POSITIVE_INFINITY);
-        distances.put(origin.getId() + "", 0.0);
-        queue.add(origin.getId() + "");
+        double[] distances = new double[n];
+        int[] previousArc = new int[n];
+        int[] previous = new int[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(previous, -1);
+        IndexedMinHeap queue = new IndexedMinHeap(n);
+
+        distances[source] = 0.0;
+        queue.insert(source, 0.0);
 
         while (!queue.isEmpty()) {
-            String currentId = queue.poll();
-            if (!visited.add(currentId)) continue;
-
-            List<Edge> edges = graph.get(currentId);
-            if (edges != null) {
-                for (Edge edge : edges) {
-                    String destId = edge.getDestination().getId() + "";
-                    double newDist = distances.get(currentId) + edge.getDistanceMeters();
-                    if (newDist < distances.get(destId)) {
-                        distances.put(destId, newDist);
-                        RailwayLine line = findRailwayLine(currentId, destId);
-                        Facility start = facilityStoreInMemory.findById(null, currentId);
-                        Facility end = facilityStoreInMemory.findById(null, destId);
-                        previous.put(destId, new TraversedLine(line, start, end));
-                        queue.add(destId);
-                    }
+            int current = queue.poll();
+            // the destination is settled, its distance can no longer improve
+            if (current == target) break;
+
+            for (int arc = network.firstArc(current); arc < network.endArc(current); arc++) {
+                int dest = network.arcTarget(arc);
+                double newDist = distances[current] + network.arcLength(arc);
+                if (newDist < distances[dest]) {
+                    distances[dest] = newDist;
+                    previous[dest] = current;
+                    previousArc[dest] = arc;
+                    queue.insertOrDecrease(dest, newDist);
                 }
             }
         }
 
-        if (!previous.containsKey(destination.getId() + "")) return null;
+        if (previous[target] == -1) return null;
 
         List<TraversedLine> result = new LinkedList<>();
-        String nodeId = destination.getId() + "";
-        while (!nodeId.equals(origin.getId() + "")) {
-            TraversedLine traversed = previous.get(nodeId);
-            result.addFirst(traversed);
-            nodeId = String.valueOf(traversed.getStart().getId());
+        for (int node = target; node != source; node = previous[node]) {
+            RailwayLine line = network.arcLine(previousArc[node]);
+            result.addFirst(new TraversedLine(line, network.facility(previous[node]), network.facility(node)));
         }
         return result;
     }
@@ -272,12 +249,10 @@ public class EstimatedTravelController {
     private double calculateTravelTime() {
         double totalTime = 0.0;
         for (TraversedLine tLine : path) {
-            for (RailwayLineSegment segment : railwayLineSegmentStoreInMemory.findAll()) {
-                if (!segment.getRailwayLines().isEmpty() && segment.getRailwayLines().getFirst().getId() == (tLine.getLine().getId())) {
-                    double allowedSpeed = Math.min(segment.getSpeedLimit(), locomotive.getLocomotiveModel().getOperationalSpeed());
-                    double distanceKm = segment.getLength() / 1000.0;
-                    totalTime += distanceKm / allowedSpeed;
-                }
+            for (RailwayLineSegment segment : network.segmentsOfLine(tLine.getLine().getId())) {
+                double allowedSpeed = Math.min(segment.getSpeedLimit(), locomotive.getLocomotiveModel().getOperationalSpeed());
+                double distanceKm = segment.getLength() / 1000.0;
+                totalTime += distanceKm / allowedSpeed;
             }
         }
         return totalTime;
@@ -291,9 +266,7 @@ public class EstimatedTravelController {
     private double getDistancePath(List<TraversedLine> path) {
         double totalDistance = 0.0;
         for (TraversedLine tLine : path) {
-            for (RailwayLineSegment segment : railwayLineSegmentStoreInMemory.findAll()) {
-                if (!segment.getRailwayLines().isEmpty() && segment.getRailwayLines().getFirst().getId() == (tLine.getLine().getId())) totalDistance += segment.getLength();
-            }
+            totalDistance += network.lineLength(tLine.getLine().getId());
         }
         return totalDistance;
     }
@@ -311,36 +284,17 @@ public class EstimatedTravelController {
         return new Time(hours, minutes, seconds);
     }
 
-    /**
-     * Finds the railway line connecting two facilities.
-     * @param startId start facility ID
-     * @param endId end facility ID
-     * @return matching railway line or null
-     */
-    private RailwayLine findRailwayLine(String startId, String endId) {
-        for (RailwayLine line : railwayLineStoreInMemory.findAll()) {
-            if ((line.getStartFacilityId() + "").equals(startId) && (line.getEndFacilityId() + "").equals(endId) ||
-                    (line.getStartFacilityId() + "").equals(endId) && (line.getEndFacilityId() + "").equals(startId)) {
-                return line;
-            }
-
-        }
-        return null;
-    }
-
     /** Fills the list of detailed results for each traversed line. */
     public void setLineResults() {
         lineResults.clear();
         for (TraversedLine tLine : path) {
             double distanceKm = 0.0;
             double totalTimeH = 0.0;
-            for (RailwayLineSegment segment : railwayLineSegmentStoreInMemory.findAll()) {
-                if (!segment.getRailwayLines().isEmpty() && segment.getRailwayLines().getFirst().getId() == tLine.getLine().getId()) {
-                    double allowedSpeed = Math.min(segment.getSpeedLimit(), locomotive.getLocomotiveModel().getOperationalSpeed());
-                    double distance = segment.getLength() / 1000.0;
-                    distanceKm += distance;
-                    totalTimeH += distance / allowedSpeed;
-                }
+            for (RailwayLineSegment segment : network.segmentsOfLine(tLine.getLine().getId())) {
+                double allowedSpeed = Math.min(segment.getSpeedLimit(), locomotive.getLocomotiveModel().getOperationalSpeed());
+                double distance = segment.getLength() / 1000.0;
+                distanceKm += distance;
+                totalTimeH += distance / allowedSpeed;
             }
             lineResults.add(new LineResult(tLine, distanceKm, totalTimeH));
         }
@@ -366,24 +320,8 @@ public class EstimatedTravelController {
      * @return list of traversed segments
      */
     public List<TraversedSegment> getTraversedSegmentsByLine(String lineId) {
-        List<RailwayLineSegment> lineSegments = new ArrayList<>();
-
-        for (RailwayLineSegment segment : railwayLineSegmentStoreInMemory.findAll()) {
-            if (!segment.getRailwayLines().isEmpty() && (segment.getRailwayLines().getFirst().getId() + "").equals(lineId)) {
-                lineSegments.add(segment);
-            }
-        }
-
-        RailwayLine line = lineSegments.getFirst().getRailwayLines().getFirst();
-        for (int i = 0; i < lineSegments.size() - 1; i++) {
-            for (int j = i + 1; j < lineSegments.size(); j++) {
-                if (line.getSegmentOrder(lineSegments.get(i)) > line.getSegmentOrder(lineSegments.get(j))) {
-                    RailwayLineSegment temp = lineSegments.get(i);
-                    lineSegments.set(i, lineSegments.get(j));
-                    lineSegments.set(j, temp);
-                }
-            }
-        }
+        // the network keeps the segments of each line already in line order
+        List<RailwayLineSegment> lineSegments = network.segmentsOfLine(Integer.parseInt(lineId));
 
         List<TraversedSegment> segments = new ArrayList<>();
         for (RailwayLineSegment seg : lineSegments) {
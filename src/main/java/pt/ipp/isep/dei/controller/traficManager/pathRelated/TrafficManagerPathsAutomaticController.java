@@ -5,7 +5,6 @@ import pt.ipp.isep.dei.controller.algorithms.LAPR.LAPRShortestPathAlgorithm;
 import pt.ipp.isep.dei.data.memory.*;
 import pt.ipp.isep.dei.domain.Facility;
 import pt.ipp.isep.dei.domain.trackRelated.RailwayLine;
-import pt.ipp.isep.dei.domain.trackRelated.RailwayLineSegment;
 import pt.ipp.isep.dei.domain.trackRelated.RailwaySegmentType;
 import pt.ipp.isep.dei.domain.trackRelated.TrackGauge;
 import pt.ipp.isep.dei.domain.transportationRelated.Path;
@@ -98,25 +97,14 @@ public class TrafficManagerPathsAutomaticController {
     /**
      * Atualiza a lista de linhas ferroviárias disponíveis
      * de acordo com o tipo de segmento e a bitola selecionados.
+     * Usa as vistas da store, que só são recalculadas quando as linhas,
+     * os segmentos ou as bitolas mudam.
      *
      * @param railwaySegmentType tipo de segmento ferroviário
      * @param trackGauge bitola pretendida
      */
     private void updateAvailableRailwayLines(RailwaySegmentType railwaySegmentType, TrackGauge trackGauge){
-        loadRailwayLists();
-        Iterator<RailwayLine> it = railwayLineList.iterator();
-
-        while(it.hasNext()){
-            RailwayLine line = it.next();
-            for(RailwayLineSegment segment : line.getSegments()){
-
-                TrackGauge segmentGauge = trackGaugeStoreInMemory.findById(null, segment.getTrackGaugeId() + "");
-                if(trackGauge != segmentGauge || (railwaySegmentType == RailwaySegmentType.NOT_ELECTRIC && segment.getElectrifiedLine() == RailwaySegmentType.ELECTRIC)){
-                    it.remove();
-                    break;
-                }
-            }
-        }
+        railwayLineList = railwayLineStoreInMemory.findCompatible(trackGaugeStoreInMemory, trackGauge, railwaySegmentType);
     }
 
     /**
@@ -5,16 +5,23 @@ import pt.ipp.isep.dei.data.store.Persistable;
 import pt.ipp.isep.dei.domain.Facility;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class FacilityStoreInMemory implements Persistable {
 
     private static final Map<Integer, Facility> facilities = new HashMap<>();
 
+    /**
+     * Contador de alterações da store.
+     */
+    private static final AtomicLong version = new AtomicLong();
+
     @Override
     public boolean save(DatabaseConnection databaseConnection, Object object) {
         Facility facility = (Facility) object;
 
         facilities.put(facility.getId(), facility);
+        version.incrementAndGet();
         return true;
     }
 
@@ -27,6 +34,7 @@ public class FacilityStoreInMemory implements Persistable {
         }
 
         facilities.remove(facility.getId());
+        version.incrementAndGet();
         return true;
     }
 
@@ -69,5 +77,15 @@ public class FacilityStoreInMemory implements Persistable {
 
     public void clear() {
         facilities.clear();
+        version.incrementAndGet();
+    }
+
+    /**
+     * Obtém o contador de alterações da store.
+     *
+     * @return versão atual
+     */
+    public long getVersion() {
+        return version.get();
     }
 }
@@ -5,11 +5,17 @@ import pt.ipp.isep.dei.data.store.Persistable;
 import pt.ipp.isep.dei.domain.trackRelated.RailwayLineSegment;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class RailwayLineSegmentStoreInMemory implements Persistable {
 
     private static final Map<Integer, RailwayLineSegment> segments = new TreeMap<>();
 
+    /**
+     * Contador de alterações da store.
+     */
+    private static final AtomicLong version = new AtomicLong();
+
     @Override
     public boolean save(DatabaseConnection databaseConnection, Object object) {
         RailwayLineSegment seg = (RailwayLineSegment) object;
@@ -19,6 +25,7 @@ public class RailwayLineSegmentStoreInMemory implements Persistable {
         }
 
         segments.put(seg.getId(), seg);
+        version.incrementAndGet();
         return true;
     }
 
@@ -35,6 +42,7 @@ public class RailwayLineSegmentStoreInMemory implements Persistable {
         }
 
         segments.remove(seg.getId());
+        version.incrementAndGet();
         return true;
     }
 
@@ -63,5 +71,15 @@ public class RailwayLineSegmentStoreInMemory implements Persistable {
 
     public void clear() {
         segments.clear();
+        version.incrementAndGet();
+    }
+
+    /**
+     * Obtém o contador de alterações da store.
+     *
+     * @return versão atual
+     */
+    public long getVersion() {
+        return version.get();
     }
 }
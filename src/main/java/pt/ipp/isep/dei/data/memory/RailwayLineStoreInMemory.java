@@ -3,17 +3,33 @@ package pt.ipp.isep.dei.data.memory;
 import pt.ipp.isep.dei.data.config.DatabaseConnection;
 import pt.ipp.isep.dei.data.store.Persistable;
 import pt.ipp.isep.dei.domain.trackRelated.RailwayLine;
+import pt.ipp.isep.dei.domain.trackRelated.RailwayLineSegment;
+import pt.ipp.isep.dei.domain.trackRelated.RailwaySegmentType;
+import pt.ipp.isep.dei.domain.trackRelated.TrackGauge;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class RailwayLineStoreInMemory implements Persistable {
 
     private static final Map<Integer, RailwayLine> map = new HashMap<>();
 
+    /**
+     * Contador de alterações da store.
+     */
+    private static final AtomicLong version = new AtomicLong();
+
+    /**
+     * Vistas das linhas compatíveis com cada bitola e tipo de segmento,
+     * ou null se ainda não foram calculadas.
+     */
+    private static CompatibilityViews views;
+
     @Override
     public boolean save(DatabaseConnection db, Object obj) {
         RailwayLine line = (RailwayLine) obj;
         map.put(line.getId(), line);
+        version.incrementAndGet();
         return true;
     }
 
@@ -21,6 +37,7 @@ public class RailwayLineStoreInMemory implements Persistable {
     public boolean delete(DatabaseConnection db, Object obj) {
         RailwayLine line = (RailwayLine) obj;
         map.remove(line.getId());
+        version.incrementAndGet();
         return true;
     }
 
@@ -35,5 +52,125 @@ public class RailwayLineStoreInMemory implements Persistable {
 
     public void clear() {
         map.clear();
+        version.incrementAndGet();
+    }
+
+    /**
+     * Obtém o contador de alterações da store.
+     *
+     * @return versão atual
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Obtém as linhas em que todos os segmentos têm a bitola pretendida e,
+     * para linhas não elétricas, nenhum segmento é eletrificado.
+     *
+     * @param gaugeStore store das bitolas dos segmentos
+     * @param trackGauge bitola pretendida
+     * @param segmentType tipo de segmento pretendido
+     * @return linhas compatíveis, por ordem de identificador
+     */
+    // Complexity O(linhas compatíveis) com as vistas válidas, senão O(L + segmentos)
+    public List<RailwayLine> findCompatible(TrackGaugeStoreInMemory gaugeStore, TrackGauge trackGauge,
+                                            RailwaySegmentType segmentType) {
+        BitSet ids = findCompatibleIds(gaugeStore, trackGauge, segmentType);
+
+        List<RailwayLine> lines = new ArrayList<>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            lines.add(map.get(id));
+        }
+        return lines;
+    }
+
+    /**
+     * Obtém os identificadores das linhas compatíveis (ver {@link #findCompatible}).
+     * As vistas de todas as combinações são calculadas numa só passagem e
+     * mantidas até mudarem as linhas, os segmentos ou as bitolas.
+     *
+     * @param gaugeStore store das bitolas dos segmentos
+     * @param trackGauge bitola pretendida
+     * @param segmentType tipo de segmento pretendido
+     * @return conjunto de identificadores (cópia)
+     */
+    public BitSet findCompatibleIds(TrackGaugeStoreInMemory gaugeStore, TrackGauge trackGauge,
+                                    RailwaySegmentType segmentType) {
+        long segmentVersion = new RailwayLineSegmentStoreInMemory().getVersion();
+
+        synchronized (RailwayLineStoreInMemory.class) {
+            long revision = RailwayLineSegment.getRoutingRevision();
+            if (views == null || views.lineVersion != version.get() || views.segmentVersion != segmentVersion
+                    || views.gaugeVersion != gaugeStore.getVersion() || views.routingRevision != revision) {
+                views = new CompatibilityViews(gaugeStore, version.get(), segmentVersion, revision);
+            }
+            return views.view(trackGauge, segmentType);
+        }
+    }
+
+    /**
+     * Vistas materializadas, como conjuntos de identificadores de linhas.
+     * Uma linha sem segmentos é compatível com todas as combinações; uma
+     * linha com bitolas mistas ou desconhecidas não é compatível com nenhuma.
+     */
+    private static final class CompatibilityViews {
+
+        private final long lineVersion;
+        private final long segmentVersion;
+        private final long gaugeVersion;
+        private final long routingRevision;
+
+        /**
+         * Por bitola: [0] linhas com essa bitola, [1] as mesmas sem segmentos elétricos.
+         */
+        private final Map<TrackGauge, BitSet[]> byGauge = new IdentityHashMap<>();
+        private final BitSet withoutSegments = new BitSet();
+
+        // Complexity O(L + segmentos)
+        private CompatibilityViews(TrackGaugeStoreInMemory gaugeStore, long lineVersion, long segmentVersion,
+                                   long routingRevision) {
+            this.lineVersion = lineVersion;
+            this.segmentVersion = segmentVersion;
+            this.gaugeVersion = gaugeStore.getVersion();
+            this.routingRevision = routingRevision;
+
+            Map<Integer, TrackGauge> gaugeById = new HashMap<>();
+            for (TrackGauge gauge : gaugeStore.findAll()) {
+                gaugeById.put(gauge.getId(), gauge);
+            }
+
+            for (RailwayLine line : map.values()) {
+                List<RailwayLineSegment> segments = line.getSegments();
+                if (segments.isEmpty()) {
+                    withoutSegments.set(line.getId());
+                    continue;
+                }
+
+                TrackGauge gauge = gaugeById.get(segments.get(0).getTrackGaugeId());
+                boolean electric = false;
+                for (RailwayLineSegment segment : segments) {
+                    if (gaugeById.get(segment.getTrackGaugeId()) != gauge) {
+                        gauge = null;
+                        break;
+                    }
+                    electric |= segment.getElectrifiedLine() == RailwaySegmentType.ELECTRIC;
+                }
+                if (gauge == null) continue;
+
+                BitSet[] sets = byGauge.computeIfAbsent(gauge, g -> new BitSet[]{new BitSet(), new BitSet()});
+                sets[0].set(line.getId());
+                if (!electric) sets[1].set(line.getId());
+            }
+        }
+
+        private BitSet view(TrackGauge trackGauge, RailwaySegmentType segmentType) {
+            BitSet ids = (BitSet) withoutSegments.clone();
+            BitSet[] sets = trackGauge == null ? null : byGauge.get(trackGauge);
+            if (sets != null) {
+                ids.or(sets[segmentType == RailwaySegmentType.NOT_ELECTRIC ? 1 : 0]);
+            }
+            return ids;
+        }
     }
 }
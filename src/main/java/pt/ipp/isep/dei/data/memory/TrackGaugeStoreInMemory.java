@@ -5,11 +5,17 @@ import pt.ipp.isep.dei.data.store.Persistable;
 import pt.ipp.isep.dei.domain.trackRelated.TrackGauge;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class TrackGaugeStoreInMemory implements Persistable {
 
     private static final Map<String, TrackGauge> gauges = new HashMap<>();
 
+    /**
+     * Contador de alterações da store.
+     */
+    private static final AtomicLong version = new AtomicLong();
+
     @Override
     public boolean save(DatabaseConnection databaseConnection, Object object) {
         TrackGauge gauge = (TrackGauge) object;
@@ -19,6 +25,7 @@ public class TrackGaugeStoreInMemory implements Persistable {
         }
 
         gauges.put(String.valueOf(gauge.getId()), gauge);
+        version.incrementAndGet();
         return true;
     }
 
@@ -37,6 +44,7 @@ public class TrackGaugeStoreInMemory implements Persistable {
         }
 
         gauges.remove(key);
+        version.incrementAndGet();
         return true;
     }
 
@@ -72,5 +80,15 @@ public class TrackGaugeStoreInMemory implements Persistable {
 
     public void clear() {
         gauges.clear();
+        version.incrementAndGet();
+    }
+
+    /**
+     * Obtém o contador de alterações da store.
+     *
+     * @return versão atual
+     */
+    public long getVersion() {
+        return version.get();
     }
 }
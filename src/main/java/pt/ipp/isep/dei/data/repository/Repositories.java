@@ -48,6 +48,7 @@ public class Repositories {
     private final NodeEsinfRepository nodeEsinfRepository;
     private final RailwayLineEsinfRepository railwayLineEsinfRepository;
     private final StationEsinf3Repository stationEsinf3Repository;
+    private final StationNetworkIndexRepository stationNetworkIndexRepository;
 
     public Repositories() {
         userRepository = new UserRepository();
@@ -77,6 +78,7 @@ public class Repositories {
         nodeEsinfRepository = new NodeEsinfRepository();
         railwayLineEsinfRepository = new RailwayLineEsinfRepository();
         stationEsinf3Repository = new StationEsinf3Repository();
+        stationNetworkIndexRepository = new StationNetworkIndexRepository();
     }
 
     /**
@@ -202,6 +204,10 @@ public class Repositories {
         return stationEsinf3Repository;
     }
 
+    public StationNetworkIndexRepository getStationNetworkIndexRepository() {
+        return stationNetworkIndexRepository;
+    }
+
     public static void setInstance(Repositories newInstance) {
         instance = newInstance;
     }
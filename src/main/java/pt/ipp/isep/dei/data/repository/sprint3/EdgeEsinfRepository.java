@@ -10,12 +10,27 @@ import java.util.List;
 public class EdgeEsinfRepository {
     private List<Edge<StationEsinf, MetricsStationEdge>> edgeList = new ArrayList<>();
 
+    /**
+     * Contador de alterações, incrementado sempre que o repositório muda.
+     */
+    private long version;
+
+    /**
+     * Observadores notificados de cada alteração.
+     */
+    private final List<Listener> listeners = new ArrayList<>();
+
     public void addEdge(Edge<StationEsinf, MetricsStationEdge> edge) {
+        version++;
         edgeList.add(edge);
+        for (Listener listener : listeners) listener.edgeAdded(edge);
     }
 
     public void removeEdge(Edge<StationEsinf, MetricsStationEdge> edge) {
-        edgeList.remove(edge);
+        version++;
+        if (edgeList.remove(edge)) {
+            for (Listener listener : listeners) listener.edgeRemoved(edge);
+        }
     }
 
     public List<Edge<StationEsinf, MetricsStationEdge>> getAllEdges() {
@@ -27,6 +42,44 @@ public class EdgeEsinfRepository {
     }
 
     public void clear() {
+        version++;
         edgeList.clear();
+        for (Listener listener : listeners) listener.cleared();
+    }
+
+    /**
+     * Regista um observador das alterações ao repositório.
+     *
+     * @param listener observador
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Obtém o contador de alterações do repositório, que permite a quem
+     * guarda resultados derivados saber se estes ainda são válidos.
+     *
+     * @return versão atual
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Observador das alterações ao repositório, para quem mantém resultados
+     * derivados de forma incremental.
+     */
+    public interface Listener {
+
+        void edgeAdded(Edge<StationEsinf, MetricsStationEdge> edge);
+
+        void edgeRemoved(Edge<StationEsinf, MetricsStationEdge> edge);
+
+        void cleared();
     }
 }
@@ -9,11 +9,18 @@ import java.util.List;
 public class NodeEsinfRepository {
     private List<Node<StationEsinf>> nodeList = new ArrayList<>();
 
+    /**
+     * Contador de alterações, incrementado sempre que o repositório muda.
+     */
+    private long version;
+
     public void addNode(Node<StationEsinf> node) {
+        version++;
         nodeList.add(node);
     }
 
     public void removeNode(Node<StationEsinf> node) {
+        version++;
         nodeList.remove(node);
     }
 
@@ -35,6 +42,17 @@ public class NodeEsinfRepository {
     }
 
     public void clear() {
+        version++;
         nodeList.clear();
     }
+
+    /**
+     * Obtém o contador de alterações do repositório, que permite a quem
+     * guarda resultados derivados saber se estes ainda são válidos.
+     *
+     * @return versão atual
+     */
+    public long getVersion() {
+        return version;
+    }
 }
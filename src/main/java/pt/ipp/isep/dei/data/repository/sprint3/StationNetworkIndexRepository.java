@@ -0,0 +1,24 @@
+package pt.ipp.isep.dei.data.repository.sprint3;
+
+import pt.ipp.isep.dei.controller.algorithms.StationNetworkIndex;
+
+public class StationNetworkIndexRepository {
+    private StationNetworkIndex index;
+
+    /**
+     * Obtém o índice de caminhos mínimos da rede carregada.
+     *
+     * @return índice ou null se ainda não foi construído
+     */
+    public StationNetworkIndex getIndex() {
+        return index;
+    }
+
+    public void setIndex(StationNetworkIndex index) {
+        this.index = index;
+    }
+
+    public void clear() {
+        index = null;
+    }
+}
@@ -145,7 +145,7 @@ public class FreightStore implements Persistable {
         for (Route r : new RouteStoreInMemory().findAll()) {
             for (Freight f : new ArrayList<>(r.getFreights())) {
                 if (f.getDate() == null) {
-                    r.getFreights().remove(f);
+                    r.removeFreight(f);
                 }
             }
         }
@@ -157,8 +157,8 @@ public class FreightStore implements Persistable {
         for (Route r : new RouteStoreInMemory().findAll()) {
             for (Freight fr : r.getFreights()) {
                 if (fr.getId() == f.getId()) {
-                    r.getFreights().remove(fr);
-                    r.getFreights().add(f);
+                    r.removeFreight(fr);
+                    r.addFreight(f);
                     return;
                 }
             }
@@ -0,0 +1,199 @@
+package pt.ipp.isep.dei.domain.Graph;
+
+import java.util.*;
+
+/**
+ * Representação imutável e compacta de um grafo no formato CSR
+ * (compressed sparse row).
+ *
+ * As arestas de saída do vértice {@code u} ocupam as posições
+ * {@code offsets[u]..offsets[u+1]-1} dos vetores {@code targets} e
+ * {@code weights[p]}, onde {@code p} identifica o perfil de peso
+ * (ex.: distância, capacidade, custo). Os índices dos vértices
+ * coincidem com os do {@link Graph} de origem.
+ *
+ * Instâncias são obtidas através de {@link Graph#freeze}.
+ *
+ * @param <V> tipo do valor armazenado nos vértices
+ */
+public class CompactGraph<V> {
+
+    /**
+     * Indica se o grafo é direcionado.
+     */
+    private final boolean directed;
+
+    /**
+     * Valores dos vértices, indexados pelo seu identificador.
+     */
+    private final List<V> vertices;
+
+    /**
+     * Identificador de cada valor de vértice.
+     */
+    private final Map<V, Integer> ids;
+
+    /**
+     * Posição inicial das arestas de cada vértice (tamanho V+1).
+     */
+    private final int[] offsets;
+
+    /**
+     * Vértice de destino de cada aresta (tamanho E).
+     */
+    private final int[] targets;
+
+    /**
+     * Pesos de cada aresta, um vetor por perfil de peso.
+     */
+    private final double[][] weights;
+
+    /**
+     * Construtor do grafo compacto.
+     *
+     * @param directed indica se o grafo é direcionado
+     * @param vertices valores dos vértices por índice
+     * @param offsets posições iniciais das arestas
+     * @param targets destinos das arestas
+     * @param weights pesos das arestas por perfil
+     */
+    CompactGraph(boolean directed, List<V> vertices, int[] offsets, int[] targets, double[][] weights) {
+        this.directed = directed;
+        this.vertices = Collections.unmodifiableList(vertices);
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.ids = new HashMap<>();
+        for (int i = 0; i < vertices.size(); i++) {
+            ids.putIfAbsent(vertices.get(i), i);
+        }
+    }
+
+    /**
+     * Indica se o grafo é direcionado.
+     *
+     * @return true se for direcionado
+     */
+    public boolean isDirected() {
+        return directed;
+    }
+
+    /**
+     * Obtém o número de vértices.
+     *
+     * @return número de vértices
+     */
+    public int numVertices() {
+        return vertices.size();
+    }
+
+    /**
+     * Obtém o número de arestas armazenadas.
+     *
+     * Num grafo não direcionado cada ligação aparece nos dois sentidos.
+     *
+     * @return número de arestas
+     */
+    public int numEdges() {
+        return targets.length;
+    }
+
+    /**
+     * Obtém o número de perfis de peso disponíveis.
+     *
+     * @return número de perfis
+     */
+    public int numWeightProfiles() {
+        return weights.length;
+    }
+
+    /**
+     * Obtém o valor de um vértice pelo seu índice.
+     *
+     * @param key índice
+     * @return valor do vértice ou null
+     */
+    public V vertex(int key) {
+        if (key < 0 || key >= vertices.size()) return null;
+        return vertices.get(key);
+    }
+
+    /**
+     * Obtém a lista (imutável) de valores dos vértices, ordenada por índice.
+     *
+     * @return lista de vértices
+     */
+    public List<V> vertices() {
+        return vertices;
+    }
+
+    /**
+     * Obtém o índice de um vértice.
+     *
+     * @param vert vértice
+     * @return índice do vértice ou -1
+     */
+    public int key(V vert) {
+        Integer id = ids.get(vert);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Obtém o grau de saída de um vértice.
+     *
+     * @param key índice do vértice
+     * @return grau de saída
+     */
+    public int outDegree(int key) {
+        return offsets[key + 1] - offsets[key];
+    }
+
+    // Complexity O(log V)
+    /**
+     * Obtém o vértice de origem de uma aresta.
+     *
+     * @param arc índice da aresta (posição em {@link #targets()})
+     * @return índice do vértice de origem
+     */
+    public int source(int arc) {
+        int lo = 0;
+        int hi = vertices.size() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (offsets[mid] <= arc) lo = mid;
+            else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /**
+     * Obtém o vetor de posições iniciais das arestas (tamanho V+1).
+     * O vetor não deve ser alterado.
+     *
+     * @return vetor de offsets
+     */
+    public int[] offsets() {
+        return offsets;
+    }
+
+    /**
+     * Obtém o vetor de destinos das arestas (tamanho E).
+     * O vetor não deve ser alterado.
+     *
+     * @return vetor de destinos
+     */
+    public int[] targets() {
+        return targets;
+    }
+
+    /**
+     * Obtém o vetor de pesos de um perfil (tamanho E).
+     * O vetor não deve ser alterado.
+     *
+     * @param profile índice do perfil de peso
+     * @return vetor de pesos
+     */
+    public double[] weights(int profile) {
+        return weights[profile];
+    }
+}
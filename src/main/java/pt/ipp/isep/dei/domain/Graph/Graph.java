@@ -1,6 +1,7 @@
 package pt.ipp.isep.dei.domain.Graph;
 
 import java.util.*;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Implementação genérica de um grafo.
@@ -25,11 +26,36 @@ public class Graph<V, E> {
      */
     private final Map<Node<V>, Map<Node<V>, Edge<V, E>>> adj;
 
+    /**
+     * Estrutura de adjacência inversa que associa cada nó
+     * às suas arestas de entrada (apenas em grafos direcionados;
+     * nos não direcionados coincide com {@code adj}).
+     */
+    private final Map<Node<V>, Map<Node<V>, Edge<V, E>>> incoming;
+
     /**
      * Lista de nós (vértices) do grafo.
      */
     private final List<Node<V>> vertices;
 
+    /**
+     * Índice que associa cada valor ao respetivo nó,
+     * evitando percorrer a lista de vértices.
+     */
+    private final Map<V, Node<V>> nodesByValue;
+
+    /**
+     * Índice que associa cada chave textual ao respetivo nó.
+     */
+    private final Map<String, Node<V>> nodesByKey;
+
+    /**
+     * Identificador inteiro (posição na lista de vértices) de cada nó.
+     * Os identificadores são densos (0..V-1) e só mudam quando
+     * um vértice anterior é removido.
+     */
+    private final Map<Node<V>, Integer> nodeIds;
+
     /**
      * Construtor do grafo.
      *
@@ -38,7 +64,11 @@ public class Graph<V, E> {
     public Graph(boolean directed) {
         this.directed = directed;
         this.adj = new HashMap<>();
+        this.incoming = directed ? new HashMap<>() : adj;
         this.vertices = new ArrayList<>();
+        this.nodesByValue = new HashMap<>();
+        this.nodesByKey = new HashMap<>();
+        this.nodeIds = new HashMap<>();
     }
 
     /**
@@ -61,7 +91,11 @@ public class Graph<V, E> {
         Node<V> n = new Node<>(value, key);
         if (adj.containsKey(n)) return false;
         adj.put(n, new HashMap<>());
+        if (directed) incoming.put(n, new HashMap<>());
+        nodeIds.put(n, vertices.size());
         vertices.add(n);
+        nodesByValue.putIfAbsent(value, n);
+        nodesByKey.put(key, n);
         return true;
     }
 
@@ -92,7 +126,9 @@ public class Graph<V, E> {
         Edge<V, E> e = new Edge<>(u, v, weight, directed);
         adj.get(u).put(v, e);
 
-        if (!directed) {
+        if (directed) {
+            incoming.get(v).put(u, e);
+        } else {
             Edge<V, E> rev = new Edge<>(v, u, weight, false);
             adj.get(v).put(u, rev);
         }
@@ -100,9 +136,13 @@ public class Graph<V, E> {
         return true;
     }
 
+    // Complexity O(deg(v))
     /**
      * Remove um vértice do grafo.
      *
+     * Para manter a numeração densa, o último vértice passa a
+     * ocupar o identificador do vértice removido.
+     *
      * @param value valor do vértice
      * @return true se o vértice foi removido
      */
@@ -110,13 +150,25 @@ public class Graph<V, E> {
         Node<V> n = getNode(value);
         if (n == null) return false;
 
+        for (Node<V> dest : adj.get(n).keySet()) { // Complexity O(outDeg(v))
+            if (!dest.equals(n)) incoming.get(dest).remove(n);
+        }
+        if (directed) {
+            for (Node<V> orig : incoming.get(n).keySet()) { // Complexity O(inDeg(v))
+                if (!orig.equals(n)) adj.get(orig).remove(n);
+            }
+            incoming.remove(n);
+        }
         adj.remove(n);
 
-        for (Map<Node<V>, Edge<V, E>> m : adj.values()) {
-            m.remove(n);
+        int id = nodeIds.remove(n);
+        Node<V> last = vertices.remove(vertices.size() - 1);
+        if (last != n) {
+            vertices.set(id, last);
+            nodeIds.put(last, id);
         }
-
-        vertices.remove(n);
+        nodesByValue.remove(value);
+        nodesByKey.remove(n.getKey());
         return true;
     }
 
@@ -135,7 +187,7 @@ public class Graph<V, E> {
 
         boolean removed = adj.get(u).remove(v) != null;
 
-        if (!directed) adj.get(v).remove(u);
+        incoming.get(v).remove(u);
 
         return removed;
     }
@@ -191,6 +243,7 @@ public class Graph<V, E> {
         return getNode(vert) != null;
     }
 
+    // Complexity O(1)
     /**
      * Obtém a chave (índice) de um vértice.
      *
@@ -200,7 +253,7 @@ public class Graph<V, E> {
     public int key(V vert) {
         Node<V> n = getNode(vert);
         if (n == null) return -1;
-        return vertices.indexOf(n);
+        return nodeIds.get(n);
     }
 
     /**
@@ -221,12 +274,7 @@ public class Graph<V, E> {
      * @return true se existir
      */
     public boolean existVertexByKey(String key) {
-        for (Node<V> n : vertices) {
-            if (n.getKey().equals(key)) {
-                return true;
-            }
-        }
-        return false;
+        return nodesByKey.containsKey(key);
     }
 
     /**
@@ -236,12 +284,9 @@ public class Graph<V, E> {
      * @return valor do vértice
      */
     public V vertexByKey(String key) {
-        for (Node<V> n : vertices) {
-            if (n.getKey().equals(key)) {
-                return n.getValue();
-            }
-        }
-        return null;
+        Node<V> n = nodesByKey.get(key);
+        if (n == null) return null;
+        return n.getValue();
     }
 
     /**
@@ -328,9 +373,39 @@ public class Graph<V, E> {
      * @return aresta correspondente
      */
     public Edge<V, E> edge(int origKey, int destKey) {
-        V vo = vertex(origKey);
-        V vd = vertex(destKey);
-        return edge(vo, vd);
+        if (!validId(origKey) || !validId(destKey)) return null;
+        return adj.get(vertices.get(origKey)).get(vertices.get(destKey));
+    }
+
+    // Complexity O(1)
+    /**
+     * Obtém o peso da aresta entre dois vértices identificados por índice.
+     *
+     * @param origKey índice de origem
+     * @param destKey índice de destino
+     * @return peso da aresta ou null se não existir
+     */
+    public E weight(int origKey, int destKey) {
+        Edge<V, E> e = edge(origKey, destKey);
+        if (e == null) return null;
+        return e.getWeight();
+    }
+
+    // Complexity O(deg(v))
+    /**
+     * Obtém os índices dos vértices de destino das arestas
+     * de saída de um vértice identificado por índice.
+     *
+     * @param key índice do vértice
+     * @return índices dos vértices adjacentes
+     */
+    public int[] outgoingEdgeIds(int key) {
+        if (!validId(key)) return new int[0];
+        Map<Node<V>, Edge<V, E>> out = adj.get(vertices.get(key));
+        int[] ids = new int[out.size()];
+        int i = 0;
+        for (Node<V> dest : out.keySet()) ids[i++] = nodeIds.get(dest);
+        return ids;
     }
 
     /**
@@ -345,7 +420,7 @@ public class Graph<V, E> {
         return adj.get(n).size();
     }
 
-    // Complexity O(V)
+    // Complexity O(1)
     /**
      * Obtém o grau de entrada de um vértice.
      *
@@ -353,10 +428,9 @@ public class Graph<V, E> {
      * @return grau de entrada
      */
     public int inDegree(V vert) {
-        Node<V> v = getNode(vert);
-        int count = 0;
-        for (var m : adj.values()) if (m.containsKey(v)) count++; // Complexity O(V)
-        return count;
+        Node<V> n = getNode(vert);
+        if (n == null) return -1;
+        return incoming.get(n).size();
     }
 
     /**
@@ -371,6 +445,7 @@ public class Graph<V, E> {
         return adj.get(n).values();
     }
 
+    // Complexity O(deg(v))
     /**
      * Obtém as arestas de entrada de um vértice.
      *
@@ -378,12 +453,13 @@ public class Graph<V, E> {
      * @return coleção de arestas
      */
     public Collection<Edge<V, E>> incomingEdges(V vert) {
-        Node<V> v = getNode(vert);
+        Node<V> n = getNode(vert);
+        if (n == null) return List.of();
+        if (directed) return incoming.get(n).values();
+
         ArrayList<Edge<V, E>> list = new ArrayList<>();
-        for (var m : adj.values()) {
-            for (var e : m.values()) {
-                if (e.getDestination().equals(v)) list.add(e);
-            }
+        for (Node<V> orig : adj.get(n).keySet()) { // Complexity O(deg(v))
+            list.add(adj.get(orig).get(n));
         }
         return list;
     }
@@ -404,6 +480,53 @@ public class Graph<V, E> {
         return g2;
     }
 
+    // Complexity O(V + E)
+    /**
+     * Cria um instantâneo imutável do grafo no formato CSR.
+     *
+     * Cada extrator dá origem a um perfil de peso, pela ordem indicada,
+     * permitindo guardar várias métricas da mesma aresta em vetores paralelos.
+     * Os índices dos vértices são preservados.
+     *
+     * @param weightExtractors funções que convertem o peso de uma aresta num valor numérico
+     * @return grafo compacto
+     */
+    @SafeVarargs
+    public final CompactGraph<V> freeze(ToDoubleFunction<? super E>... weightExtractors) {
+        int n = vertices.size();
+        int[] offsets = new int[n + 1];
+        for (int u = 0; u < n; u++) { // Complexity O(V)
+            offsets[u + 1] = offsets[u] + adj.get(vertices.get(u)).size();
+        }
+
+        int[] targets = new int[offsets[n]];
+        double[][] weights = new double[weightExtractors.length][offsets[n]];
+
+        int arc = 0;
+        for (Node<V> u : vertices) { // Complexity O(V + E)
+            for (Edge<V, E> e : adj.get(u).values()) {
+                targets[arc] = nodeIds.get(e.getDestination());
+                for (int p = 0; p < weightExtractors.length; p++) {
+                    weights[p][arc] = weightExtractors[p].applyAsDouble(e.getWeight());
+                }
+                arc++;
+            }
+        }
+
+        return new CompactGraph<>(directed, vertices(), offsets, targets, weights);
+    }
+
+    /**
+     * Verifica se um índice corresponde a um vértice do grafo.
+     *
+     * @param key índice
+     * @return true se for válido
+     */
+    private boolean validId(int key) {
+        return key >= 0 && key < vertices.size();
+    }
+
+    // Complexity O(1)
     /**
      * Obtém o nó correspondente a um valor.
      *
@@ -411,9 +534,6 @@ public class Graph<V, E> {
      * @return nó correspondente
      */
     private Node<V> getNode(V value) {
-        for (Node<V> n : vertices) {
-            if (n.getValue().equals(value)) return n;
-        }
-        return null;
+        return nodesByValue.get(value);
     }
 }
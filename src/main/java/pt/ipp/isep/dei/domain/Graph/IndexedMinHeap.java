@@ -0,0 +1,225 @@
+package pt.ipp.isep.dei.domain.Graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Min-heap binário indexado sobre os vértices 0..n-1, com prioridades
+ * {@code double}.
+ *
+ * Cada vértice ocupa no máximo uma posição no heap, pelo que uma melhoria
+ * de distância é feita com {@link #decreaseKey} em vez de inserir uma nova
+ * entrada. Não há entradas obsoletas nem autoboxing. Em caso de empate na
+ * prioridade sai primeiro o vértice de menor índice.
+ *
+ * Pode ser reutilizado entre execuções: {@link #clear()} apenas percorre
+ * os vértices que ficaram no heap.
+ */
+public class IndexedMinHeap {
+
+    /**
+     * Vértices, organizados como heap binário nas posições 0..size-1.
+     */
+    private final int[] heap;
+
+    /**
+     * Posição de cada vértice no heap, ou -1 se não estiver no heap.
+     */
+    private final int[] position;
+
+    /**
+     * Prioridade de cada vértice presente no heap.
+     */
+    private final double[] priority;
+
+    /**
+     * Número de vértices no heap.
+     */
+    private int size;
+
+    /**
+     * Cria um heap vazio para os vértices 0..capacity-1.
+     *
+     * @param capacity número de vértices
+     */
+    public IndexedMinHeap(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.priority = new double[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Obtém o número de vértices suportados.
+     *
+     * @return capacidade do heap
+     */
+    public int capacity() {
+        return position.length;
+    }
+
+    /**
+     * Indica se o heap está vazio.
+     *
+     * @return true se estiver vazio
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Obtém o número de vértices no heap.
+     *
+     * @return número de vértices
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Indica se um vértice está no heap.
+     *
+     * @param v vértice
+     * @return true se estiver no heap
+     */
+    public boolean contains(int v) {
+        return position[v] >= 0;
+    }
+
+    /**
+     * Obtém a prioridade atual de um vértice presente no heap.
+     *
+     * @param v vértice
+     * @return prioridade
+     */
+    public double priority(int v) {
+        if (position[v] < 0) throw new NoSuchElementException("Vertex " + v + " is not in the heap");
+        return priority[v];
+    }
+
+    // Complexity O(log V)
+    /**
+     * Insere um vértice que ainda não está no heap.
+     *
+     * @param v vértice
+     * @param p prioridade
+     */
+    public void insert(int v, double p) {
+        if (position[v] >= 0) throw new IllegalArgumentException("Vertex " + v + " is already in the heap");
+        heap[size] = v;
+        position[v] = size;
+        priority[v] = p;
+        siftUp(size++);
+    }
+
+    // Complexity O(log V)
+    /**
+     * Diminui a prioridade de um vértice presente no heap.
+     *
+     * @param v vértice
+     * @param p nova prioridade (não superior à atual)
+     */
+    public void decreaseKey(int v, double p) {
+        int i = position[v];
+        if (i < 0) throw new NoSuchElementException("Vertex " + v + " is not in the heap");
+        if (p > priority[v]) throw new IllegalArgumentException("New priority is greater than the current one");
+        priority[v] = p;
+        siftUp(i);
+    }
+
+    // Complexity O(log V)
+    /**
+     * Insere o vértice ou, se já estiver no heap, diminui a sua prioridade.
+     *
+     * @param v vértice
+     * @param p prioridade
+     */
+    public void insertOrDecrease(int v, double p) {
+        if (position[v] >= 0) decreaseKey(v, p);
+        else insert(v, p);
+    }
+
+    /**
+     * Obtém o vértice de menor prioridade sem o remover.
+     *
+     * @return vértice de menor prioridade
+     */
+    public int peek() {
+        if (size == 0) throw new NoSuchElementException("Heap is empty");
+        return heap[0];
+    }
+
+    // Complexity O(log V)
+    /**
+     * Remove e devolve o vértice de menor prioridade.
+     *
+     * @return vértice de menor prioridade
+     */
+    public int poll() {
+        if (size == 0) throw new NoSuchElementException("Heap is empty");
+        int min = heap[0];
+        position[min] = -1;
+        size--;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    // Complexity O(size)
+    /**
+     * Esvazia o heap.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private boolean less(int a, int b) {
+        double pa = priority[a];
+        double pb = priority[b];
+        return pa < pb || (pa == pb && a < b);
+    }
+
+    private void siftUp(int i) {
+        int v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int p = heap[parent];
+            if (!less(v, p)) break;
+            heap[i] = p;
+            position[p] = i;
+            i = parent;
+        }
+        heap[i] = v;
+        position[v] = i;
+    }
+
+    private void siftDown(int i) {
+        int v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int c = heap[child];
+            int right = child + 1;
+            if (right < size && less(heap[right], c)) {
+                child = right;
+                c = heap[child];
+            }
+            if (!less(c, v)) break;
+            heap[i] = c;
+            position[c] = i;
+            i = child;
+        }
+        heap[i] = v;
+        position[v] = i;
+    }
+}
@@ -8,6 +8,21 @@ package pt.ipp.isep.dei.domain.Graph;
  */
 public class MetricsStationEdge implements WeightProvider {
 
+    /**
+     * Perfil de peso da distância num {@link CompactGraph} criado por {@link #freeze(Graph)}.
+     */
+    public static final int DISTANCE = 0;
+
+    /**
+     * Perfil de peso da capacidade num {@link CompactGraph} criado por {@link #freeze(Graph)}.
+     */
+    public static final int CAPACITY = 1;
+
+    /**
+     * Perfil de peso do custo num {@link CompactGraph} criado por {@link #freeze(Graph)}.
+     */
+    public static final int COST = 2;
+
     /**
      * Distância entre estações.
      */
@@ -69,4 +84,16 @@ public class MetricsStationEdge implements WeightProvider {
     public double getWeightValue() {
         return cost;
     }
+
+    /**
+     * Cria um grafo compacto com três perfis de peso paralelos:
+     * {@link #DISTANCE}, {@link #CAPACITY} e {@link #COST}.
+     *
+     * @param graph grafo de estações
+     * @param <V> tipo do vértice
+     * @return grafo compacto
+     */
+    public static <V> CompactGraph<V> freeze(Graph<V, MetricsStationEdge> graph) {
+        return graph.freeze(MetricsStationEdge::getDistance, MetricsStationEdge::getCapacity, MetricsStationEdge::getCost);
+    }
 }
@@ -0,0 +1,98 @@
+package pt.ipp.isep.dei.domain.Graph;
+
+/**
+ * Estrutura union-find (conjuntos disjuntos) sobre os vértices 0..n-1.
+ *
+ * Usa união por ordem (rank) e compressão de caminho (path halving), pelo
+ * que cada operação custa O(α(V)), praticamente constante.
+ */
+public class UnionFind {
+
+    private final int[] parent;
+    private final byte[] rank;
+    private int components;
+
+    /**
+     * Cria n conjuntos, cada um com um único vértice.
+     *
+     * @param n número de vértices
+     */
+    public UnionFind(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Size cannot be negative");
+        }
+        this.parent = new int[n];
+        this.rank = new byte[n];
+        this.components = n;
+        for (int i = 0; i < n; i++) parent[i] = i;
+    }
+
+    /**
+     * Obtém o número de vértices.
+     *
+     * @return número de vértices
+     */
+    public int size() {
+        return parent.length;
+    }
+
+    /**
+     * Obtém o número de conjuntos distintos.
+     *
+     * @return número de componentes
+     */
+    public int components() {
+        return components;
+    }
+
+    /**
+     * Encontra o representante do conjunto de um vértice.
+     *
+     * @param x vértice
+     * @return representante do conjunto
+     */
+    // Complexity O(α(V)) amortizado
+    public int find(int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /**
+     * Junta os conjuntos de dois vértices.
+     *
+     * @param x vértice
+     * @param y vértice
+     * @return true se estavam em conjuntos diferentes
+     */
+    // Complexity O(α(V)) amortizado
+    public boolean union(int x, int y) {
+        int rx = find(x);
+        int ry = find(y);
+        if (rx == ry) return false;
+
+        if (rank[rx] < rank[ry]) {
+            int t = rx;
+            rx = ry;
+            ry = t;
+        }
+        parent[ry] = rx;
+        if (rank[rx] == rank[ry]) rank[rx]++;
+
+        components--;
+        return true;
+    }
+
+    /**
+     * Indica se dois vértices estão no mesmo conjunto.
+     *
+     * @param x vértice
+     * @param y vértice
+     * @return true se estiverem ligados
+     */
+    public boolean connected(int x, int y) {
+        return find(x) == find(y);
+    }
+}
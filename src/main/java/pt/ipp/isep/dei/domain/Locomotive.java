@@ -1,5 +1,6 @@
 package pt.ipp.isep.dei.domain;
 
+import pt.ipp.isep.dei.domain.trainRelated.ConsistProfile;
 import pt.ipp.isep.dei.domain.trainRelated.Train;
 
 import java.util.ArrayList;
@@ -199,6 +200,7 @@ public class Locomotive {
      */
     public void setLocomotiveModel(LocomotiveModel locomotiveModel) {
         this.locomotiveModel = locomotiveModel;
+        ConsistProfile.compositionChanged();
     }
 
     /**
@@ -0,0 +1,226 @@
+package pt.ipp.isep.dei.domain.trackRelated;
+
+import pt.ipp.isep.dei.data.memory.FacilityStoreInMemory;
+import pt.ipp.isep.dei.data.memory.RailwayLineSegmentStoreInMemory;
+import pt.ipp.isep.dei.data.memory.RailwayLineStoreInMemory;
+import pt.ipp.isep.dei.domain.Facility;
+
+import java.util.*;
+
+/**
+ * Rede de instalações construída a partir das stores em memória e
+ * partilhada pelos controllers.
+ * <p>
+ * As instalações e as linhas têm índices densos; cada linha guarda os seus
+ * segmentos (os segmentos da store cuja primeira linha associada é ela),
+ * ordenados pela ordem na linha, e o seu comprimento. A adjacência está em
+ * formato CSR: cada linha dá um arco em cada sentido.
+ * </p>
+ * <p>
+ * A instância partilhada só é reconstruída quando as stores ou os dados
+ * de encaminhamento dos segmentos mudam.
+ * </p>
+ */
+public class FacilityNetwork {
+
+    /**
+     * Instância partilhada, ou null se ainda não foi construída.
+     */
+    private static FacilityNetwork shared;
+
+    private final long facilityVersion;
+    private final long lineVersion;
+    private final long segmentVersion;
+    private final long routingRevision;
+
+    private final List<Facility> facilities = new ArrayList<>();
+    private final Map<Integer, Integer> facilityIndex = new HashMap<>();
+
+    private final List<RailwayLine> lines = new ArrayList<>();
+    private final Map<Integer, Integer> lineIndex = new HashMap<>();
+    private final List<List<RailwayLineSegment>> segmentsByLine = new ArrayList<>();
+    private final double[] lineLength;
+
+    private final int[] offsets;
+    private final int[] arcTargets;
+    private final int[] arcLines;
+
+    /**
+     * Obtém a rede partilhada, reconstruindo-a se as stores mudaram.
+     *
+     * @return rede de instalações
+     */
+    // Complexity O(1) com a rede válida, senão O(F + L + S log S)
+    public static synchronized FacilityNetwork getInstance() {
+        FacilityStoreInMemory facilityStore = new FacilityStoreInMemory();
+        RailwayLineStoreInMemory lineStore = new RailwayLineStoreInMemory();
+        RailwayLineSegmentStoreInMemory segmentStore = new RailwayLineSegmentStoreInMemory();
+        long revision = RailwayLineSegment.getRoutingRevision();
+
+        if (shared == null || shared.facilityVersion != facilityStore.getVersion()
+                || shared.lineVersion != lineStore.getVersion()
+                || shared.segmentVersion != segmentStore.getVersion()
+                || shared.routingRevision != revision) {
+            shared = new FacilityNetwork(facilityStore, lineStore, segmentStore, revision);
+        }
+        return shared;
+    }
+
+    // Complexity O(F + L + S log S)
+    private FacilityNetwork(FacilityStoreInMemory facilityStore, RailwayLineStoreInMemory lineStore,
+                            RailwayLineSegmentStoreInMemory segmentStore, long routingRevision) {
+        this.facilityVersion = facilityStore.getVersion();
+        this.lineVersion = lineStore.getVersion();
+        this.segmentVersion = segmentStore.getVersion();
+        this.routingRevision = routingRevision;
+
+        for (Facility facility : facilityStore.findAll()) {
+            if (facilityIndex.putIfAbsent(facility.getId(), facilities.size()) == null) facilities.add(facility);
+        }
+
+        for (RailwayLine line : lineStore.findAll()) {
+            lineIndex.put(line.getId(), lines.size());
+            lines.add(line);
+            segmentsByLine.add(new ArrayList<>());
+        }
+
+        // cada segmento pertence à primeira linha a que está associado
+        Map<RailwayLineSegment, Integer> order = new IdentityHashMap<>();
+        for (RailwayLineSegment segment : segmentStore.findAll()) {
+            List<RailwayLine> owners = segment.getRailwayLines();
+            if (owners == null || owners.isEmpty()) continue;
+            Integer index = lineIndex.get(owners.getFirst().getId());
+            if (index == null) continue;
+            segmentsByLine.get(index).add(segment);
+            order.put(segment, owners.getFirst().getSegmentOrder(segment));
+        }
+
+        lineLength = new double[lines.size()];
+        for (int l = 0; l < lines.size(); l++) {
+            List<RailwayLineSegment> segments = segmentsByLine.get(l);
+            segments.sort(Comparator.comparingInt(order::get));
+            for (RailwayLineSegment segment : segments) {
+                lineLength[l] += segment.getLength();
+            }
+        }
+
+        int n = facilities.size();
+        offsets = new int[n + 1];
+        int[] ends = new int[2 * lines.size()];
+        for (int l = 0; l < lines.size(); l++) {
+            Integer a = facilityIndex.get(lines.get(l).getStartFacilityId());
+            Integer b = facilityIndex.get(lines.get(l).getEndFacilityId());
+            ends[2 * l] = a == null || b == null ? -1 : a;
+            ends[2 * l + 1] = a == null || b == null ? -1 : b;
+            if (a != null && b != null) {
+                offsets[a + 1]++;
+                offsets[b + 1]++;
+            }
+        }
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        arcTargets = new int[offsets[n]];
+        arcLines = new int[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int l = 0; l < lines.size(); l++) {
+            int a = ends[2 * l];
+            int b = ends[2 * l + 1];
+            if (a == -1) continue;
+
+            int arc = fill[a]++;
+            arcTargets[arc] = b;
+            arcLines[arc] = l;
+            arc = fill[b]++;
+            arcTargets[arc] = a;
+            arcLines[arc] = l;
+        }
+    }
+
+    /**
+     * @return número de instalações
+     */
+    public int numFacilities() {
+        return facilities.size();
+    }
+
+    /**
+     * @param index índice da instalação
+     * @return instalação
+     */
+    public Facility facility(int index) {
+        return facilities.get(index);
+    }
+
+    /**
+     * @param facilityId identificador da instalação
+     * @return índice da instalação ou -1 se não existir
+     */
+    public int indexOfFacility(int facilityId) {
+        Integer index = facilityIndex.get(facilityId);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @param facility índice da instalação
+     * @return primeiro arco que sai da instalação
+     */
+    public int firstArc(int facility) {
+        return offsets[facility];
+    }
+
+    /**
+     * @param facility índice da instalação
+     * @return arco seguinte ao último que sai da instalação
+     */
+    public int endArc(int facility) {
+        return offsets[facility + 1];
+    }
+
+    /**
+     * @param arc arco
+     * @return índice da instalação de chegada do arco
+     */
+    public int arcTarget(int arc) {
+        return arcTargets[arc];
+    }
+
+    /**
+     * @param arc arco
+     * @return linha do arco
+     */
+    public RailwayLine arcLine(int arc) {
+        return lines.get(arcLines[arc]);
+    }
+
+    /**
+     * @param arc arco
+     * @return comprimento do arco (o da sua linha), em metros
+     */
+    public double arcLength(int arc) {
+        return lineLength[arcLines[arc]];
+    }
+
+    /**
+     * Obtém os segmentos de uma linha, pela ordem na linha.
+     *
+     * @param lineId identificador da linha
+     * @return segmentos (lista vazia se a linha não existir)
+     */
+    public List<RailwayLineSegment> segmentsOfLine(int lineId) {
+        Integer index = lineIndex.get(lineId);
+        return index == null ? List.of() : Collections.unmodifiableList(segmentsByLine.get(index));
+    }
+
+    /**
+     * Obtém o comprimento de uma linha (soma dos seus segmentos).
+     *
+     * @param lineId identificador da linha
+     * @return comprimento em metros (0 se a linha não existir)
+     */
+    public double lineLength(int lineId) {
+        Integer index = lineIndex.get(lineId);
+        return index == null ? 0.0 : lineLength[index];
+    }
+}
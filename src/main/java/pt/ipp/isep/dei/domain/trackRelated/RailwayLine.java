@@ -44,6 +44,11 @@ public class RailwayLine {
      */
     private Map<Integer, RailwayLineSegment> segments;
 
+    /**
+     * Custo de encaminhamento da linha em cada sentido, ou null se tiver de ser recalculado.
+     */
+    private volatile RoutingCost routingCost;
+
     /**
      * Cria uma nova linha ferroviária.
      *
@@ -76,6 +81,8 @@ public class RailwayLine {
             order = segments.size() + 1;
         }
         segments.put(order, segment);
+        routingCost = null;
+        RailwayLineSegment.routingChanged();
     }
 
     /**
@@ -184,6 +191,8 @@ public class RailwayLine {
      */
     public void setSegments(Map<Integer, RailwayLineSegment> segments) {
         this.segments = segments;
+        routingCost = null;
+        RailwayLineSegment.routingChanged();
     }
 
     /**
@@ -238,6 +247,48 @@ public class RailwayLine {
         return null;
     }
 
+    /**
+     * Devolve o custo de encaminhamento da linha num sentido: a soma de
+     * {@link RailwayLineSegment#getRoutingCost()} dos seus segmentos.
+     * <p>
+     * O custo de cada sentido fica em cache e só é recalculado depois de
+     * mudarem os segmentos da linha ou o comprimento, as vias ou o desvio
+     * de algum segmento.
+     * </p>
+     *
+     * @param fromFacilityId identificador da facility de partida
+     * @param toFacilityId identificador da facility de chegada
+     * @return custo, ou {@code Integer.MAX_VALUE} se a linha não ligar as facilities ou não tiver segmentos
+     */
+    // Complexity O(1) com a cache válida, senão O(segmentos)
+    public int getRoutingCost(int fromFacilityId, int toFacilityId) {
+        boolean forward = startFacilityId == fromFacilityId && endFacilityId == toFacilityId;
+        if (!forward && !(startFacilityId == toFacilityId && endFacilityId == fromFacilityId)) {
+            return Integer.MAX_VALUE;
+        }
+
+        long revision = RailwayLineSegment.getRoutingRevision();
+        RoutingCost cached = routingCost;
+        if (cached == null || cached.revision != revision) {
+            cached = computeRoutingCost(revision);
+            routingCost = cached;
+        }
+        return forward ? cached.forward : cached.backward;
+    }
+
+    private RoutingCost computeRoutingCost(long revision) {
+        if (segments.isEmpty()) {
+            return new RoutingCost(revision, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        }
+
+        // os descontos não dependem do sentido, pelo que a mesma soma serve os dois
+        int cost = 0;
+        for (RailwayLineSegment segment : segments.values()) {
+            cost += segment.getRoutingCost();
+        }
+        return new RoutingCost(revision, cost, cost);
+    }
+
     /**
      * Determina a direção do percurso entre duas facilities.
      *
@@ -281,4 +332,20 @@ public class RailwayLine {
                 ", ownerVat='" + ownerVat + '\'' +
                 '}';
     }
+
+    /**
+     * Custos de encaminhamento calculados numa revisão dos segmentos.
+     */
+    private static final class RoutingCost {
+
+        private final long revision;
+        private final int forward;
+        private final int backward;
+
+        private RoutingCost(long revision, int forward, int backward) {
+            this.revision = revision;
+            this.forward = forward;
+            this.backward = backward;
+        }
+    }
 }
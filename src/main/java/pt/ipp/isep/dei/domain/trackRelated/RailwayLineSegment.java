@@ -2,6 +2,7 @@ package pt.ipp.isep.dei.domain.trackRelated;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a railway line segment.
@@ -10,6 +11,18 @@ import java.util.List;
  */
 public class RailwayLineSegment implements SegmentRelated{
 
+    /** Routing cost multiplier of a segment with two or more tracks */
+    public static final double ROUTING_BOOST_DOUBLE_TRACK = 0.8;
+    /** Routing cost multiplier of a single-track segment with a siding */
+    public static final double ROUTING_BOOST_HAS_SIDING = 0.9;
+
+    /**
+     * Revision of the routing data (length, tracks, siding, gauge, electrification,
+     * owning lines) of all segments and of the segments of each line, incremented on every change
+     * so that cached line costs and filtered line views can be validated.
+     */
+    private static final AtomicLong ROUTING_REVISION = new AtomicLong();
+
     /** Unique identifier of the railway line segment */
     private int id;
     /** Type of electrification of the segment */
@@ -123,6 +136,7 @@ public class RailwayLineSegment implements SegmentRelated{
      */
     public void addRailwayLine(RailwayLine railwayLine) {
         this.railwayLines.add(railwayLine);
+        ROUTING_REVISION.incrementAndGet();
     }
 
     /**
@@ -163,11 +177,10 @@ public class RailwayLineSegment implements SegmentRelated{
     public void setElectrifiedLine(boolean electrifiedLine) {
         if (electrifiedLine){
             this.electrifiedLine = RailwaySegmentType.ELECTRIC;
-            return;
+        } else {
+            this.electrifiedLine = RailwaySegmentType.NOT_ELECTRIC;
         }
-
-        this.electrifiedLine = RailwaySegmentType.NOT_ELECTRIC;
-
+        ROUTING_REVISION.incrementAndGet();
     }
 
     /**
@@ -186,6 +199,7 @@ public class RailwayLineSegment implements SegmentRelated{
      */
     public void setElectrifiedLine(RailwaySegmentType electrifiedLine) {
         this.electrifiedLine = electrifiedLine;
+        ROUTING_REVISION.incrementAndGet();
     }
 
     /**
@@ -223,6 +237,7 @@ public class RailwayLineSegment implements SegmentRelated{
      */
     public void setLength(int length) {
         this.length = length;
+        ROUTING_REVISION.incrementAndGet();
     }
 
     /**
@@ -242,6 +257,7 @@ public class RailwayLineSegment implements SegmentRelated{
      */
     public void setNumberTracks(int numberTracks) {
         this.numberTracks = numberTracks;
+        ROUTING_REVISION.incrementAndGet();
     }
 
     /**
@@ -279,6 +295,7 @@ public class RailwayLineSegment implements SegmentRelated{
      */
     public void setTrackGaugeId(int trackGaugeId) {
         this.trackGaugeId = trackGaugeId;
+        ROUTING_REVISION.incrementAndGet();
     }
 
     /**
@@ -297,6 +314,7 @@ public class RailwayLineSegment implements SegmentRelated{
      */
     public void setRailwayLines(List<RailwayLine> railwayLines) {
         this.railwayLines = railwayLines;
+        ROUTING_REVISION.incrementAndGet();
     }
 
     /**
@@ -315,6 +333,7 @@ public class RailwayLineSegment implements SegmentRelated{
      */
     public void setSiding(Siding siding) {
         this.siding = siding;
+        ROUTING_REVISION.incrementAndGet();
     }
 
     /**
@@ -326,6 +345,41 @@ public class RailwayLineSegment implements SegmentRelated{
         return siding != null;
     }
 
+    /**
+     * Returns the routing cost of the segment: its length, reduced for
+     * double track or, on single track, for a siding (truncated to int).
+     *
+     * @return routing cost
+     */
+    public int getRoutingCost() {
+        int cost = length;
+
+        if (numberTracks >= 2) {
+            cost *= ROUTING_BOOST_DOUBLE_TRACK;
+        } else if (hasSiding()) {
+            cost *= ROUTING_BOOST_HAS_SIDING;
+        }
+
+        return cost;
+    }
+
+    /**
+     * Returns the current routing revision of all segments.
+     *
+     * @return routing revision
+     */
+    public static long getRoutingRevision() {
+        return ROUTING_REVISION.get();
+    }
+
+    /**
+     * Records a change to routing data outside the segment setters
+     * (e.g. segments added to a line).
+     */
+    static void routingChanged() {
+        ROUTING_REVISION.incrementAndGet();
+    }
+
     /**
      * Returns the distance to the siding depending on direction.
      *
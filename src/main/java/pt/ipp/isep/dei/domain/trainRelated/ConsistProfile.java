@@ -0,0 +1,133 @@
+package pt.ipp.isep.dei.domain.trainRelated;
+
+import pt.ipp.isep.dei.domain.Locomotive;
+import pt.ipp.isep.dei.domain.LocomotiveModel;
+import pt.ipp.isep.dei.domain.transportationRelated.Freight;
+import pt.ipp.isep.dei.domain.transportationRelated.Route;
+import pt.ipp.isep.dei.domain.wagonRelated.Wagon;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Physical profile of a train consist: total weight, total power,
+ * maximum allowed speed, mass-limited speed and maximum acceleration.
+ * <p>
+ * A train caches its profile and drops it when its locomotives or route
+ * are replaced. Changes inside the consist (freights of a route, wagons of
+ * a freight, the model of a wagon or locomotive) bump a global composition
+ * revision, so a cached profile is checked in O(1). Changes to the fields
+ * of a locomotive or wagon model are not tracked.
+ * </p>
+ */
+public final class ConsistProfile {
+
+    /** Global revision of the consist compositions */
+    private static final AtomicLong COMPOSITION_REVISION = new AtomicLong();
+
+    /** Composition revision this profile was computed at */
+    private final long revision;
+    /** Total weight of locomotives and wagons */
+    private final double totalWeight;
+    /** Sum of the locomotive powers */
+    private final double totalPower;
+    /** Highest locomotive maximum speed, in km/h */
+    private final double maxAllowedSpeed;
+    /** Speed limit given by power and weight, in km/h */
+    private final double massSpeedLimit;
+    /** Highest locomotive acceleration, in m/s² */
+    private final double maxAcceleration;
+
+    /**
+     * Computes the profile of the current composition of a train.
+     *
+     * @param train train to evaluate
+     */
+    // Complexity O(L + W)
+    ConsistProfile(Train train) {
+        this.revision = COMPOSITION_REVISION.get();
+
+        double weight = 0;
+        double power = 0;
+        double maxSpeed = 0;
+        double acceleration = 0;
+        if (train.getLocomotives() != null) {
+            for (Locomotive locomotive : train.getLocomotives()) {
+                LocomotiveModel model = locomotive.getLocomotiveModel();
+                weight += model.getMaximumWeight();
+                power += model.getPower();
+                maxSpeed = Math.max(maxSpeed, model.getMaxSpeed());
+                acceleration = Math.max(acceleration, model.getAcceleration());
+            }
+        }
+
+        Route route = train.getRoute();
+        if (route != null && route.getFreights() != null) {
+            for (Freight freight : route.getFreights()) {
+                if (freight.getWagons() == null) continue;
+                for (Wagon wagon : freight.getWagons()) {
+                    weight += wagon.getWagonModel().getDimensions().getWeightTare();
+                }
+            }
+        }
+
+        totalWeight = weight;
+        totalPower = power;
+        maxAllowedSpeed = maxSpeed;
+        maxAcceleration = acceleration;
+        massSpeedLimit = TrainPhysics.computeMassSpeedLimit(weight, power, maxSpeed);
+    }
+
+    /**
+     * Records a change inside a consist (freights of a route, wagons of a
+     * freight or the model of a wagon or locomotive), invalidating every
+     * cached profile.
+     */
+    public static void compositionChanged() {
+        COMPOSITION_REVISION.incrementAndGet();
+    }
+
+    /**
+     * Checks whether no consist changed since this profile was computed.
+     *
+     * @return true if the profile is still valid
+     */
+    // Complexity O(1)
+    boolean isCurrent() {
+        return revision == COMPOSITION_REVISION.get();
+    }
+
+    /**
+     * @return total weight of the train
+     */
+    public double getTotalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * @return total power of the train
+     */
+    public double getTotalPower() {
+        return totalPower;
+    }
+
+    /**
+     * @return maximum allowed speed based on the locomotives, in km/h
+     */
+    public double getMaxAllowedSpeed() {
+        return maxAllowedSpeed;
+    }
+
+    /**
+     * @return physics-based speed limit, in km/h
+     */
+    public double getMassSpeedLimit() {
+        return massSpeedLimit;
+    }
+
+    /**
+     * @return maximum acceleration among the locomotives, in m/s²
+     */
+    public double getMaxAcceleration() {
+        return maxAcceleration;
+    }
+}
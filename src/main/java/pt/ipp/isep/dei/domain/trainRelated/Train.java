@@ -2,10 +2,10 @@ package pt.ipp.isep.dei.domain.trainRelated;
 
 import pt.ipp.isep.dei.data.memory.TrainStoreInMemory;
 import pt.ipp.isep.dei.domain.*;
-import pt.ipp.isep.dei.domain.transportationRelated.Freight;
 import pt.ipp.isep.dei.domain.transportationRelated.Route;
-import pt.ipp.isep.dei.domain.wagonRelated.Wagon;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -30,6 +30,8 @@ public class Train implements Comparable<Train> {
     private List<Locomotive> locomotives;
     /** Indicates if the train has been dispatched */
     private boolean dispatched;
+    /** Cached physical profile of the consist, or null if not computed yet */
+    private ConsistProfile consistProfile;
 
     /**
      * Constructs a train with a specific identifier.
@@ -53,7 +55,7 @@ public class Train implements Comparable<Train> {
         this.operator = operator;
         this.dateTime = dateTime;
         this.route = route;
-        this.locomotives = locomotives;
+        this.locomotives = copy(locomotives);
         this.dispatched = dispatched;
     }
 
@@ -70,7 +72,7 @@ public class Train implements Comparable<Train> {
         this.operator = operator;
         this.dateTime = dateTime;
         this.route = route;
-        this.locomotives = locomotives;
+        this.locomotives = copy(locomotives);
     }
 
     /**
@@ -83,7 +85,7 @@ public class Train implements Comparable<Train> {
         this.operator = train.getOperator();
         this.dateTime = train.getDateTime();
         this.route = train.getRoute();
-        this.locomotives = train.getLocomotives();
+        this.locomotives = copy(train.getLocomotives());
     }
 
     /**
@@ -158,15 +160,16 @@ public class Train implements Comparable<Train> {
      */
     public void setRoute(Route route) {
         this.route = route;
+        this.consistProfile = null;
     }
 
     /**
      * Returns the list of locomotives.
      *
-     * @return locomotives list
+     * @return locomotives list (read-only)
      */
     public List<Locomotive> getLocomotives() {
-        return locomotives;
+        return locomotives == null ? null : Collections.unmodifiableList(locomotives);
     }
 
     /**
@@ -175,7 +178,18 @@ public class Train implements Comparable<Train> {
      * @param locomotives locomotives list
      */
     public void setLocomotives(List<Locomotive> locomotives) {
-        this.locomotives = locomotives;
+        this.locomotives = copy(locomotives);
+        this.consistProfile = null;
+    }
+
+    /**
+     * Copies a list of locomotives, so it can only change through this train.
+     *
+     * @param locomotives locomotives list (may be null)
+     * @return copy of the list, or null
+     */
+    private static List<Locomotive> copy(List<Locomotive> locomotives) {
+        return locomotives == null ? null : new ArrayList<>(locomotives);
     }
 
     /**
@@ -205,26 +219,30 @@ public class Train implements Comparable<Train> {
         this.id = id;
     }
 
+    /**
+     * Returns the physical profile of the consist.
+     * The profile is cached until the locomotives or the route are replaced
+     * or a consist changes (see {@link ConsistProfile}).
+     *
+     * @return consist profile
+     */
+    // Complexity O(1) with a valid cache, otherwise O(L + W)
+    public ConsistProfile getConsistProfile() {
+        ConsistProfile profile = consistProfile;
+        if (profile == null || !profile.isCurrent()) {
+            profile = new ConsistProfile(this);
+            consistProfile = profile;
+        }
+        return profile;
+    }
+
     /**
      * Calculates the total weight of the train.
      *
      * @return total weight
      */
     public double getTotalWeigh(){
-        double totalWeight = 0;
-
-        for(Locomotive locomotive : locomotives){
-            totalWeight += locomotive.getLocomotiveModel().getMaximumWeight();
-        }
-
-        for(Freight freight : route.getFreights()){
-            for (Wagon wagon : freight.getWagons()){
-                totalWeight += wagon.getWagonModel().getDimensions().getWeightTare();
-                //totalWeight += wagon.getCargoWeight();
-            }
-        }
-
-        return totalWeight;
+        return getConsistProfile().getTotalWeight();
     }
 
     /**
@@ -233,13 +251,7 @@ public class Train implements Comparable<Train> {
      * @return total power
      */
     public double getTotalPower() {
-        double power = 0;
-
-        for (Locomotive locomotive : locomotives) {
-            power += locomotive.getLocomotiveModel().getPower();
-        }
-
-        return power;
+        return getConsistProfile().getTotalPower();
     }
 
     /**
@@ -248,13 +260,7 @@ public class Train implements Comparable<Train> {
      * @return maximum allowed speed
      */
     public double getMaxAllowedSpeed() {
-        double maxAllowedSpeed = 0;
-
-        for (Locomotive locomotive : locomotives) {
-            maxAllowedSpeed = Math.max(maxAllowedSpeed, locomotive.getLocomotiveModel().getMaxSpeed());
-        }
-
-        return maxAllowedSpeed;
+        return getConsistProfile().getMaxAllowedSpeed();
     }
 
     /**
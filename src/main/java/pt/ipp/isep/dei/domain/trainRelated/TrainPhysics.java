@@ -40,35 +40,35 @@ public class TrainPhysics {
      * @return allowed speed in km/h
      */
     public static double computeAllowedSpeed(Train train, SegmentRelated segment) {
-        double viaLimit   = segment.getSpeedLimit();         // km/h
-        double trainLimit = train.getMaxAllowedSpeed();      // km/h
-        double physics    = computeMassSpeedLimit(train);    // km/h
-        return Math.min(viaLimit, Math.min(trainLimit, physics));
+        ConsistProfile profile = train.getConsistProfile();
+        return computeAllowedSpeed(profile, segment);
     }
 
     /**
-     * Computes the maximum speed based on train power and total weight.
+     * Computes the allowed speed on a segment from a consist profile.
      *
-     * @param train train to evaluate
-     * @return physics-based speed limit in km/h
+     * @param profile consist profile of the train
+     * @param segment railway segment
+     * @return allowed speed in km/h
      */
-    private static double computeMassSpeedLimit(Train train) {
-        double totalWeight = train.getTotalWeigh();
-        if (totalWeight <= 0) return train.getMaxAllowedSpeed(); // fallback
-        return train.getTotalPower() / (totalWeight * MASS_SPEED_COEFFICIENT);
+    private static double computeAllowedSpeed(ConsistProfile profile, SegmentRelated segment) {
+        double viaLimit   = segment.getSpeedLimit();           // km/h
+        double trainLimit = profile.getMaxAllowedSpeed();      // km/h
+        double physics    = profile.getMassSpeedLimit();       // km/h
+        return Math.min(viaLimit, Math.min(trainLimit, physics));
     }
 
     /**
-     * Returns the maximum acceleration among all locomotives of the train.
+     * Computes the maximum speed based on train power and total weight.
      *
-     * @param train train to evaluate
-     * @return maximum acceleration in m/s²
+     * @param totalWeight total weight of the train
+     * @param totalPower total power of the train
+     * @param maxAllowedSpeed train speed limit, used when the weight is not positive
+     * @return physics-based speed limit in km/h
      */
-    private static double getMaxAcceleration(Train train) {
-        return train.getLocomotives().stream()
-                .mapToDouble(l -> l.getLocomotiveModel().getAcceleration())
-                .max()
-                .orElse(0);
+    static double computeMassSpeedLimit(double totalWeight, double totalPower, double maxAllowedSpeed) {
+        if (totalWeight <= 0) return maxAllowedSpeed; // fallback
+        return totalPower / (totalWeight * MASS_SPEED_COEFFICIENT);
     }
 
     // ------------------------
@@ -84,9 +84,10 @@ public class TrainPhysics {
      * @return travel time as a Duration
      */
     public static Duration computeTravelTime(Train train, SegmentRelated segment) {
-        double vMax = computeAllowedSpeed(train, segment); // km/h
-        double distance = segment.getLength();             // metros
-        double accel = getMaxAcceleration(train);         // m/s²
+        ConsistProfile profile = train.getConsistProfile();
+        double vMax = computeAllowedSpeed(profile, segment); // km/h
+        double distance = segment.getLength();               // metros
+        double accel = profile.getMaxAcceleration();         // m/s²
 
         if (accel <= 0) {
             // Sem aceleração conhecida → velocidade constante
@@ -2,8 +2,11 @@ package pt.ipp.isep.dei.domain.transportationRelated;
 
 import pt.ipp.isep.dei.domain.Date;
 import pt.ipp.isep.dei.domain.Facility;
+import pt.ipp.isep.dei.domain.trainRelated.ConsistProfile;
 import pt.ipp.isep.dei.domain.wagonRelated.Wagon;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -38,7 +41,7 @@ public class Freight {
      */
     public Freight(int id, List<Wagon> wagons, Facility originStation, Facility destinationStation, Date data) {
         this.id = id;
-        this.wagons = wagons;
+        this.wagons = wagons == null ? null : new ArrayList<>(wagons);
         this.originFacility = originStation;
         this.destinationFacility = destinationStation;
         this.date = data;
@@ -75,10 +78,10 @@ public class Freight {
     /**
      * Returns the list of wagons.
      *
-     * @return wagons list
+     * @return wagons list (read-only)
      */
     public List<Wagon> getWagons() {
-        return wagons;
+        return wagons == null ? null : Collections.unmodifiableList(wagons);
     }
 
     /**
@@ -87,7 +90,44 @@ public class Freight {
      * @param wagons wagons list
      */
     public void setWagons(List<Wagon> wagons) {
-        this.wagons = wagons;
+        this.wagons = wagons == null ? null : new ArrayList<>(wagons);
+        ConsistProfile.compositionChanged();
+    }
+
+    /**
+     * Adds a wagon to the freight.
+     *
+     * @param wagon wagon to add
+     */
+    public void addWagon(Wagon wagon) {
+        if (wagons == null) wagons = new ArrayList<>();
+        wagons.add(wagon);
+        ConsistProfile.compositionChanged();
+    }
+
+    /**
+     * Replaces the wagon at a position of the freight.
+     *
+     * @param index position of the wagon
+     * @param wagon new wagon
+     * @return wagon previously at that position
+     */
+    public Wagon setWagon(int index, Wagon wagon) {
+        Wagon previous = wagons.set(index, wagon);
+        ConsistProfile.compositionChanged();
+        return previous;
+    }
+
+    /**
+     * Removes a wagon from the freight.
+     *
+     * @param wagon wagon to remove
+     * @return true if the freight had the wagon
+     */
+    public boolean removeWagon(Wagon wagon) {
+        boolean removed = wagons != null && wagons.remove(wagon);
+        if (removed) ConsistProfile.compositionChanged();
+        return removed;
     }
 
     /**
@@ -1,8 +1,10 @@
 package pt.ipp.isep.dei.domain.transportationRelated;
 
 import pt.ipp.isep.dei.data.memory.RouteStoreInMemory;
+import pt.ipp.isep.dei.domain.trainRelated.ConsistProfile;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Route {
@@ -90,11 +92,31 @@ public class Route {
     }
 
     public List<Freight> getFreights() {
-        return freights;
+        return freights == null ? null : Collections.unmodifiableList(freights);
     }
 
     public void setFreights(List<Freight> freights) {
-        this.freights = freights;
+        this.freights = freights == null ? null : new ArrayList<>(freights);
+        ConsistProfile.compositionChanged();
+    }
+
+    /**
+     * Adds a freight to the route.
+     */
+    public void addFreight(Freight freight) {
+        freights.add(freight);
+        ConsistProfile.compositionChanged();
+    }
+
+    /**
+     * Removes a freight from the route.
+     *
+     * @return true if the route had the freight
+     */
+    public boolean removeFreight(Freight freight) {
+        boolean removed = freights.remove(freight);
+        if (removed) ConsistProfile.compositionChanged();
+        return removed;
     }
 
     public Path getPath() {
@@ -2,6 +2,7 @@ package pt.ipp.isep.dei.domain.wagonRelated;
 
 import pt.ipp.isep.dei.domain.Date;
 import pt.ipp.isep.dei.domain.Facility;
+import pt.ipp.isep.dei.domain.trainRelated.ConsistProfile;
 
 import java.util.HashSet;
 import java.util.Objects;
@@ -53,6 +54,7 @@ public class Wagon {
 
     public void setWagonModel(WagonModel wagonModel) {
         this.wagonModel = wagonModel;
+        ConsistProfile.compositionChanged();
     }
 
     public String getOperator() {
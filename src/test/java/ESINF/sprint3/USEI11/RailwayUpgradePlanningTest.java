@@ -2,6 +2,7 @@ package ESINF.sprint3.USEI11;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import pt.ipp.isep.dei.controller.algorithms.TarjanSccAlgorithm;
 import pt.ipp.isep.dei.controller.infrastructurePlanner.RailwayUpgradePlanningController;
 import pt.ipp.isep.dei.data.repository.Repositories;
 import pt.ipp.isep.dei.data.repository.sprint3.EdgeEsinfRepository;
@@ -232,4 +233,69 @@ class RailwayUpgradePlanningTest {
                         cycleEdges.contains("C -> A")
         );
     }
+
+    /**
+     * Test 5 – Stations downstream of a cycle are not reported as cyclic
+     *
+     * A -> B -> A (ciclo)
+     * B -> C -> D
+     *
+     * Esperado:
+     * - só A e B estão em ciclo
+     * - a ordem dos blocos é {A,B}, C, D
+     */
+    @Test
+    void test5_DownstreamOfCycleIsNotCyclic() {
+
+        edgeRepo.addEdge(new Edge<>(nodeRepo.getNodeByKey("1"), nodeRepo.getNodeByKey("2"), w(), true)); // A -> B
+        edgeRepo.addEdge(new Edge<>(nodeRepo.getNodeByKey("2"), nodeRepo.getNodeByKey("1"), w(), true)); // B -> A
+        edgeRepo.addEdge(new Edge<>(nodeRepo.getNodeByKey("2"), nodeRepo.getNodeByKey("3"), w(), true)); // B -> C
+        edgeRepo.addEdge(new Edge<>(nodeRepo.getNodeByKey("3"), nodeRepo.getNodeByKey("4"), w(), true)); // C -> D
+
+        RailwayUpgradePlanningController controller = new RailwayUpgradePlanningController();
+        controller.computeUpgradePlan("DEFAULT", null, null, null);
+
+        assertTrue(controller.hasCycle());
+        assertEquals(Set.of(A, B), controller.getCycleStations());
+        assertEquals(Set.of("A -> B", "B -> A"), controller.getCycleEdges());
+
+        List<List<StationEsinf>> blocks = controller.getComponentOrder();
+        assertEquals(3, blocks.size());
+        assertEquals(Set.of(A, B), Set.copyOf(blocks.get(0)));
+        assertEquals(List.of(C), blocks.get(1));
+        assertEquals(List.of(D), blocks.get(2));
+
+        List<StationEsinf> order = controller.getUpgradeOrder();
+        assertEquals(4, order.size());
+        assertTrue(order.indexOf(C) < order.indexOf(D));
+        assertTrue(order.indexOf(B) < order.indexOf(C));
+    }
+
+    /**
+     * Test 6 – Tarjan on a long chain closed into one cycle, plus a tail (no recursion limit)
+     */
+    @Test
+    void test6_LargeNetworkComponents() {
+        int n = 200_000;
+        int[][] adj = new int[n][];
+        int cycleLength = n / 2;
+        for (int v = 0; v < n; v++) {
+            if (v == cycleLength - 1) adj[v] = new int[]{0, cycleLength};   // fecha o ciclo e liga à cauda
+            else if (v == n - 1) adj[v] = new int[0];
+            else adj[v] = new int[]{v + 1};
+        }
+
+        TarjanSccAlgorithm.Components sccs = TarjanSccAlgorithm.tarjan(adj);
+
+        assertEquals(1 + (n - cycleLength), sccs.count());
+        assertTrue(sccs.isCyclic(sccs.componentOf(0)));
+        assertEquals(cycleLength, sccs.size(sccs.componentOf(0)));
+        assertFalse(sccs.isCyclic(sccs.componentOf(cycleLength)));
+
+        int[][] members = sccs.membersInTopologicalOrder();
+        assertEquals(cycleLength, members[0].length);
+        for (int i = 1; i < members.length; i++) {
+            assertArrayEquals(new int[]{cycleLength + i - 1}, members[i]);
+        }
+    }
 }
@@ -0,0 +1,149 @@
+package ESINF.sprint3.USEI12;
+
+import org.junit.jupiter.api.Test;
+import pt.ipp.isep.dei.controller.algorithms.DynamicSpanningForest;
+import pt.ipp.isep.dei.controller.algorithms.KruskalAlgorithm;
+import pt.ipp.isep.dei.controller.infrastructurePlanner.BackboneController;
+import pt.ipp.isep.dei.controller.infrastructurePlanner.DynamicBackbone;
+import pt.ipp.isep.dei.controller.infrastructurePlanner.GenerateGlobalGraph;
+import pt.ipp.isep.dei.data.repository.Repositories;
+import pt.ipp.isep.dei.data.repository.sprint3.EdgeEsinfRepository;
+import pt.ipp.isep.dei.data.repository.sprint3.NodeEsinfRepository;
+import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.Edge;
+import pt.ipp.isep.dei.domain.Graph.Graph;
+import pt.ipp.isep.dei.domain.Graph.MetricsStationEdge;
+import pt.ipp.isep.dei.domain.Graph.Node;
+import pt.ipp.isep.dei.domain.Graph.UnionFind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the incrementally maintained spanning forest and backbone.
+ */
+class DynamicSpanningForestTest {
+
+    private static final double DELTA = 1e-6;
+
+    /**
+     * Minimum spanning forest weight of the live edges, computed from scratch.
+     */
+    private double expectedWeight(int n, List<int[]> edges, List<Double> weights, boolean[] alive) {
+        Integer[] order = new Integer[edges.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(weights.get(a), weights.get(b)));
+
+        UnionFind sets = new UnionFind(n);
+        double total = 0;
+        for (int e : order) {
+            if (alive[e] && sets.union(edges.get(e)[0], edges.get(e)[1])) total += weights.get(e);
+        }
+        return total;
+    }
+
+    /**
+     * Test 1 – Random insertions and deletions keep a minimum spanning forest
+     */
+    @Test
+    void test1_RandomUpdatesMatchRecomputation() {
+        Random random = new Random(17);
+        int n = 60;
+        int initial = 150;
+
+        List<int[]> edges = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        int[] us = new int[initial];
+        int[] vs = new int[initial];
+        double[] ws = new double[initial];
+        for (int e = 0; e < initial; e++) {
+            us[e] = random.nextInt(n);
+            vs[e] = random.nextInt(n);
+            ws[e] = random.nextInt(20);
+            edges.add(new int[]{us[e], vs[e]});
+            weights.add(ws[e]);
+        }
+
+        DynamicSpanningForest forest = DynamicSpanningForest.build(n, us, vs, ws);
+        boolean[] alive = new boolean[initial + 2000];
+        Arrays.fill(alive, 0, initial, true);
+        assertEquals(expectedWeight(n, edges, weights, alive), forest.totalWeight(), DELTA);
+
+        for (int step = 0; step < 1500; step++) {
+            if (random.nextBoolean()) {
+                int u = random.nextInt(n);
+                int v = random.nextInt(n);
+                double w = random.nextInt(20);
+                int id = forest.addEdge(u, v, w);
+                assertEquals(edges.size(), id);
+                edges.add(new int[]{u, v});
+                weights.add(w);
+                alive[id] = true;
+            } else {
+                int id = random.nextInt(edges.size());
+                if (!alive[id]) continue;
+                forest.removeEdge(id);
+                alive[id] = false;
+            }
+            assertEquals(expectedWeight(n, edges, weights, alive), forest.totalWeight(), DELTA);
+        }
+
+        UnionFind sets = new UnionFind(n);
+        for (int id : forest.treeEdgeIds()) {
+            assertTrue(alive[id]);
+            assertTrue(sets.union(edges.get(id)[0], edges.get(id)[1]));
+        }
+        assertThrows(IllegalArgumentException.class, () -> forest.removeEdge(-1));
+    }
+
+    /**
+     * Test 2 – The shared backbone follows lines added to and removed from the repository
+     */
+    @Test
+    void test2_BackboneFollowsRepository() {
+        NodeEsinfRepository nodeRepo = Repositories.getInstance().getNodeEsinfRepository();
+        EdgeEsinfRepository edgeRepo = Repositories.getInstance().getEdgeEsinfRepository();
+        nodeRepo.clear();
+        edgeRepo.clear();
+
+        for (String key : List.of("1", "2", "3", "4")) {
+            StationEsinf s = new StationEsinf(key, "S" + key, 0, 0);
+            nodeRepo.addNode(new Node<>(s, s.getId()));
+        }
+        Edge<StationEsinf, MetricsStationEdge> ab = line(nodeRepo, "1", "2", 1);
+        Edge<StationEsinf, MetricsStationEdge> bc = line(nodeRepo, "2", "3", 2);
+        Edge<StationEsinf, MetricsStationEdge> cd = line(nodeRepo, "3", "4", 3);
+        Edge<StationEsinf, MetricsStationEdge> da = line(nodeRepo, "4", "1", 10);
+        for (var e : List.of(ab, bc, cd, da)) edgeRepo.addEdge(e);
+
+        DynamicBackbone backbone = BackboneController.getDynamicBackbone();
+        assertEquals(6, backbone.getTotalDistance(), DELTA);
+        assertFalse(backbone.isBackboneLine(da));
+
+        // "what if we close this line?" – the heavy line replaces it
+        edgeRepo.removeEdge(bc);
+        assertEquals(14, backbone.getTotalDistance(), DELTA);
+        assertTrue(backbone.isBackboneLine(da));
+
+        // a new light line swaps out the heaviest line on its cycle
+        Edge<StationEsinf, MetricsStationEdge> ac = line(nodeRepo, "1", "3", 2);
+        edgeRepo.addEdge(ac);
+        assertEquals(6, backbone.getTotalDistance(), DELTA);
+        assertFalse(backbone.isBackboneLine(da));
+
+        Graph<StationEsinf, MetricsStationEdge> recomputed = KruskalAlgorithm.kruskal(new GenerateGlobalGraph().buildGlobalGraph());
+        double expected = 0;
+        for (var e : recomputed.edges()) expected += e.getWeight().getDistance();
+        assertEquals(expected / 2, backbone.getTotalDistance(), DELTA);
+        assertEquals(4, backbone.getStations().size());
+        assertEquals(4, backbone.getBackbone().numVertices());
+    }
+
+    private Edge<StationEsinf, MetricsStationEdge> line(NodeEsinfRepository nodeRepo, String from, String to, double km) {
+        return new Edge<>(nodeRepo.getNodeByKey(from), nodeRepo.getNodeByKey(to), new MetricsStationEdge(km, 0, 0), true);
+    }
+}
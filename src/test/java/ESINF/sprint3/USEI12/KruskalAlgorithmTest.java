@@ -154,6 +154,33 @@ public class KruskalAlgorithmTest {
         );
     }
 
+    /* =========================
+       TESTE 4 – CADEIA LONGA
+       ========================= */
+    @Test
+    void testMSTOnLongChain() {
+
+        Graph<StationEsinf, MetricsStationEdge> g = new Graph<>(false);
+        int n = 20000;
+
+        StationEsinf previous = s("0");
+        g.addVertex(previous);
+        for (int i = 1; i < n; i++) {
+            StationEsinf current = s(String.valueOf(i));
+            g.addVertex(current);
+            g.addEdge(previous, current, w(1));
+            previous = current;
+        }
+        // Atalho pesado que fecha um ciclo com toda a cadeia
+        g.addEdge(g.vertex(0), previous, w(100));
+
+        Graph<StationEsinf, MetricsStationEdge> mst =
+                KruskalAlgorithm.kruskal(g);
+
+        assertEquals(n - 1, countUndirectedEdges(mst));
+        assertNull(mst.edge(g.vertex(0), previous));
+    }
+
     /* =========================
        MÉTODOS AUXILIARES
        ========================= */
@@ -0,0 +1,141 @@
+package ESINF.sprint3.USEI12;
+
+import org.junit.jupiter.api.Test;
+import pt.ipp.isep.dei.controller.algorithms.BoruvkaAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.KruskalAlgorithm;
+import pt.ipp.isep.dei.controller.infrastructurePlanner.BackboneController;
+import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+import pt.ipp.isep.dei.domain.Graph.Graph;
+import pt.ipp.isep.dei.domain.Graph.MetricsStationEdge;
+import pt.ipp.isep.dei.domain.Graph.UnionFind;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the alternative MST algorithms (Filter-Kruskal and parallel Borůvka)
+ * against the sequential union-find Kruskal.
+ */
+class MstAlgorithmsTest {
+
+    private static final double DELTA = 1e-6;
+
+    /**
+     * Random undirected network; integer distances produce many ties.
+     */
+    private Graph<StationEsinf, MetricsStationEdge> randomNetwork(Random random, int n, int m, int maxDistance) {
+        Graph<StationEsinf, MetricsStationEdge> graph = new Graph<>(false);
+        List<StationEsinf> stations = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            StationEsinf s = new StationEsinf(String.valueOf(i), "S" + i, 0, 0);
+            stations.add(s);
+            graph.addVertex(s, s.getId());
+        }
+        for (int i = 0; i < m; i++) {
+            StationEsinf u = stations.get(random.nextInt(n));
+            StationEsinf v = stations.get(random.nextInt(n));
+            graph.addEdge(u, v, new MetricsStationEdge(1 + random.nextInt(maxDistance), 0, 0));
+        }
+        return graph;
+    }
+
+    private double length(CompactGraph<StationEsinf> compact, int[] arcs) {
+        double total = 0;
+        for (int arc : arcs) total += compact.weights(MetricsStationEdge.DISTANCE)[arc];
+        return total;
+    }
+
+    private void assertForest(CompactGraph<StationEsinf> compact, int[] arcs) {
+        UnionFind sets = new UnionFind(compact.numVertices());
+        for (int arc : arcs) {
+            assertTrue(sets.union(compact.source(arc), compact.targets()[arc]), "MST contains a cycle");
+        }
+    }
+
+    /**
+     * Test 1 – All algorithms find spanning forests of the same length
+     */
+    @Test
+    void test1_SameLengthAsKruskal() {
+        Random random = new Random(21);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            for (int round = 0; round < 20; round++) {
+                int n = 50 + random.nextInt(150);
+                // poucas arestas em algumas rondas, para obter florestas
+                int m = round % 4 == 0 ? n / 2 : n * 4;
+                CompactGraph<StationEsinf> compact = MetricsStationEdge.freeze(randomNetwork(random, n, m, 10));
+
+                int[] kruskal = KruskalAlgorithm.kruskal(compact, MetricsStationEdge.DISTANCE);
+                int[] filter = KruskalAlgorithm.filterKruskal(compact, MetricsStationEdge.DISTANCE);
+                int[] boruvka = BoruvkaAlgorithm.boruvka(compact, MetricsStationEdge.DISTANCE, executor, 4);
+
+                assertEquals(kruskal.length, filter.length);
+                assertEquals(kruskal.length, boruvka.length);
+                assertEquals(length(compact, kruskal), length(compact, filter), DELTA);
+                assertEquals(length(compact, kruskal), length(compact, boruvka), DELTA);
+                assertForest(compact, filter);
+                assertForest(compact, boruvka);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test 2 – The controller uses the selected algorithm and returns V-1 edges
+     */
+    @Test
+    void test2_ControllerSelectsAlgorithm() {
+        Graph<StationEsinf, MetricsStationEdge> graph = randomNetwork(new Random(8), 300, 3000, 1000);
+        BackboneController controller = new BackboneController();
+        assertEquals(BackboneController.MstAlgorithm.KRUSKAL, controller.getMstAlgorithm());
+
+        double expected = -1;
+        for (BackboneController.MstAlgorithm algorithm : BackboneController.MstAlgorithm.values()) {
+            controller.setMstAlgorithm(algorithm);
+            Graph<StationEsinf, MetricsStationEdge> mst = controller.calculateMst(graph);
+
+            double total = 0;
+            for (var e : mst.edges()) total += e.getWeight().getDistance();
+            total /= 2;
+
+            assertEquals(graph.numVertices(), mst.numVertices());
+            if (expected < 0) expected = total;
+            assertEquals(expected, total, DELTA);
+        }
+    }
+
+    /**
+     * Test 3 – Benchmark on a synthetic network of 10^5 edges (timings printed, results compared)
+     */
+    @Test
+    void test3_BenchmarkAgainstSequentialKruskal() {
+        CompactGraph<StationEsinf> compact = MetricsStationEdge.freeze(randomNetwork(new Random(1), 10_000, 100_000, 1_000_000));
+
+        long start = System.nanoTime();
+        int[] kruskal = KruskalAlgorithm.kruskal(compact, MetricsStationEdge.DISTANCE);
+        long kruskalTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int[] filter = KruskalAlgorithm.filterKruskal(compact, MetricsStationEdge.DISTANCE);
+        long filterTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int[] boruvka = BoruvkaAlgorithm.boruvka(compact, MetricsStationEdge.DISTANCE);
+        long boruvkaTime = System.nanoTime() - start;
+
+        System.out.printf("MST 10^5 edges: Kruskal %.1f ms, Filter-Kruskal %.1f ms, parallel Boruvka %.1f ms%n",
+                kruskalTime / 1e6, filterTime / 1e6, boruvkaTime / 1e6);
+
+        assertEquals(length(compact, kruskal), length(compact, filter), DELTA);
+        assertEquals(length(compact, kruskal), length(compact, boruvka), DELTA);
+    }
+}
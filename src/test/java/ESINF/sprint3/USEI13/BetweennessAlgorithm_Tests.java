@@ -4,16 +4,21 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import pt.ipp.isep.dei.controller.algorithms.CalculateBetweennessAlgorithm;
 import pt.ipp.isep.dei.controller.algorithms.GraphGenerator;
+import pt.ipp.isep.dei.controller.maintenancePlanner.MaintenancePlannerHubAnalysisController;
 import pt.ipp.isep.dei.data.repository.Repositories;
 import pt.ipp.isep.dei.data.repository.sprint3.RailwayLineEsinfRepository;
 import pt.ipp.isep.dei.data.repository.sprint3.StationEsinf3Repository;
 import pt.ipp.isep.dei.domain.ESINF.RailwayLineEsinf;
 import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
 import pt.ipp.isep.dei.domain.Graph.Graph;
 
 import java.util.Map;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class BetweennessAlgorithm_Tests {
 
@@ -93,4 +98,92 @@ public class BetweennessAlgorithm_Tests {
 
     }
 
+    @Test
+    void approximateBetweennessWithAllSourcesIsExact() {
+
+        Graph<StationEsinf, Double> graph = new GraphGenerator().createGraph();
+        CompactGraph<StationEsinf> compact = graph.freeze(Double::doubleValue);
+
+        CalculateBetweennessAlgorithm.ApproximationResult<StationEsinf> result =
+                CalculateBetweennessAlgorithm.calculateApproximateBetweenness(compact, 0, compact.numVertices(), 0.05, new Random(1));
+
+        assertEquals(4, result.getSamples());
+        assertEquals(0.0, result.getEpsilon());
+        assertEquals((double) 2 / 3, result.getBetweenness().get(C), 1e-9);
+        assertEquals(0.0, result.getBetweenness().get(A), 1e-9);
+    }
+
+    @Test
+    void approximateBetweennessStaysWithinReportedError() {
+
+        // grelha 12x12 de estações ligadas aos vizinhos horizontais e verticais
+        int side = 12;
+        Graph<StationEsinf, Double> grid = new Graph<>(false);
+        StationEsinf[][] stations = new StationEsinf[side][side];
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                stations[i][j] = new StationEsinf("G" + i + "_" + j, "Grid " + i + "," + j, i, j);
+                grid.addVertex(stations[i][j], stations[i][j].getId());
+            }
+        }
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                if (i + 1 < side) grid.addEdge(stations[i][j], stations[i + 1][j], 1.0 + (i * 7 + j) % 3);
+                if (j + 1 < side) grid.addEdge(stations[i][j], stations[i][j + 1], 1.0 + (i + j * 5) % 3);
+            }
+        }
+
+        CompactGraph<StationEsinf> compact = grid.freeze(Double::doubleValue);
+        Map<StationEsinf, Double> exact = CalculateBetweennessAlgorithm.calculateBetweenness(compact, 0);
+
+        CalculateBetweennessAlgorithm.ApproximationResult<StationEsinf> result =
+                CalculateBetweennessAlgorithm.calculateApproximateBetweenness(compact, 0, 40, 0.05, new Random(7));
+
+        assertEquals(40, result.getSamples());
+        assertEquals(0.95, result.getConfidence(), 1e-12);
+        assertTrue(result.getEpsilon() > 0.0);
+
+        for (StationEsinf s : compact.vertices()) {
+            assertTrue(Math.abs(exact.get(s) - result.getBetweenness().get(s)) <= result.getEpsilon());
+        }
+    }
+
+    @Test
+    void hubAnalysisSizesSampleFromRequestedError() {
+
+        // grelha 20x20 nos repositórios
+        int side = 20;
+        StationEsinf[][] stations = new StationEsinf[side][side];
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                stations[i][j] = new StationEsinf("H" + i + "_" + j, "Hub " + i + "," + j, i, j);
+                stationRepository.add(stations[i][j]);
+            }
+        }
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                if (i + 1 < side) lineRepository.add(new RailwayLineEsinf(stations[i][j], stations[i + 1][j], 1.0 + (i + j) % 4, 5, 1.0));
+                if (j + 1 < side) lineRepository.add(new RailwayLineEsinf(stations[i][j], stations[i][j + 1], 1.0 + (i * j) % 3, 5, 1.0));
+            }
+        }
+
+        MaintenancePlannerHubAnalysisController exact = new MaintenancePlannerHubAnalysisController();
+        assertEquals(0.0, exact.getBetweennessErrorBound());
+
+        MaintenancePlannerHubAnalysisController sampled = new MaintenancePlannerHubAnalysisController(0.3, 0.9);
+        assertEquals(0.9, sampled.getBetweennessConfidence(), 1e-12);
+        assertTrue(sampled.getBetweennessErrorBound() > 0.0);
+        assertTrue(sampled.getBetweennessErrorBound() <= 0.3);
+        for (StationEsinf station : sampled.getStations()) {
+            assertTrue(Math.abs(exact.findBetweenness(station) - sampled.findBetweenness(station))
+                    <= sampled.getBetweennessErrorBound());
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> new MaintenancePlannerHubAnalysisController(0.0, 0.9));
+        assertThrows(IllegalArgumentException.class, () -> new MaintenancePlannerHubAnalysisController(0.1, 1.0));
+
+        stationRepository.clear();
+        lineRepository.clear();
+    }
+
 }
@@ -0,0 +1,106 @@
+package ESINF.sprint3.USEI13;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pt.ipp.isep.dei.controller.algorithms.CalculateBetweennessAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.CalculateHarmonicClosenessAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.GraphGenerator;
+import pt.ipp.isep.dei.controller.algorithms.HubCentralityAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.StrengthCalculatorAlgorithm;
+import pt.ipp.isep.dei.data.repository.Repositories;
+import pt.ipp.isep.dei.data.repository.sprint3.RailwayLineEsinfRepository;
+import pt.ipp.isep.dei.data.repository.sprint3.StationEsinf3Repository;
+import pt.ipp.isep.dei.domain.ESINF.RailwayLineEsinf;
+import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+import pt.ipp.isep.dei.domain.Graph.Graph;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class HubCentralityAlgorithm_Tests {
+
+    private static final double DELTA = 1e-9; // Corrigir erros de Double
+
+    private StationEsinf A;
+    private StationEsinf B;
+    private StationEsinf C;
+    private StationEsinf D;
+    private StationEsinf E;
+
+    private CompactGraph<StationEsinf> compactGraph;
+    private Graph<StationEsinf, Double> graph;
+    private double[] strength;
+
+    @BeforeEach
+    void setUp() {
+
+        StationEsinf3Repository stationRepository = Repositories.getInstance().getStationEsinf3Repository();
+        RailwayLineEsinfRepository lineRepository = Repositories.getInstance().getRailwayLineEsinfRepository();
+        lineRepository.clear();
+        stationRepository.clear();
+
+        A = new StationEsinf("A", "Station A", 0.0, 0.0);
+        B = new StationEsinf("B", "Station B", 1.0, 1.0);
+        C = new StationEsinf("C", "Station C", 2.0, 2.0);
+        D = new StationEsinf("D", "Station D", 3.0, 3.0);
+        E = new StationEsinf("E", "Station E", 4.0, 4.0);
+
+        for (StationEsinf s : List.of(A, B, C, D, E)) {
+            stationRepository.add(s);
+        }
+
+        lineRepository.add(new RailwayLineEsinf(A, E, 3, 10, 1.0));
+        lineRepository.add(new RailwayLineEsinf(A, D, 12, 4, 1.0));
+        lineRepository.add(new RailwayLineEsinf(D, E, 5, 8, 1.0));
+        lineRepository.add(new RailwayLineEsinf(E, B, 10, 6, 1.0));
+        lineRepository.add(new RailwayLineEsinf(D, C, 10, 2, 1.0));
+
+        graph = new GraphGenerator().createGraph();
+        compactGraph = graph.freeze(Double::doubleValue);
+        strength = new StrengthCalculatorAlgorithm().calculateStrengths(compactGraph);
+    }
+
+    @Test
+    void fusedEngineMatchesSeparateAlgorithms() {
+
+        HubCentralityAlgorithm.CentralityResult<StationEsinf> result =
+                HubCentralityAlgorithm.calculate(compactGraph, 0, strength);
+
+        Map<StationEsinf, Double> betweenness = new CalculateBetweennessAlgorithm(graph).calculateBetweenness();
+        Map<StationEsinf, Double> closeness = CalculateHarmonicClosenessAlgorithm.calculateHarmonicCloseness(graph);
+        StrengthCalculatorAlgorithm strengthAlgorithm = new StrengthCalculatorAlgorithm();
+        double maxStrength = strengthAlgorithm.calculateStrength(E); // 10 + 8 + 6
+
+        for (StationEsinf s : List.of(A, B, C, D, E)) {
+            double expectedStrength = strengthAlgorithm.calculateStrength(s) / maxStrength;
+            double expectedHub = betweenness.get(s) * 0.35 + closeness.get(s) * 0.35 + expectedStrength * 0.3;
+
+            assertEquals(betweenness.get(s), result.getBetweenness().get(s), DELTA);
+            assertEquals(closeness.get(s), result.getHarmonicCloseness().get(s), DELTA);
+            assertEquals(expectedStrength, result.getStrength().get(s), DELTA);
+            assertEquals(expectedHub, result.getHubScore().get(s), DELTA);
+        }
+
+        assertEquals(0.0, result.getEpsilon(), DELTA);
+    }
+
+    @Test
+    void approximateEngineWithAllSourcesIsExact() {
+
+        HubCentralityAlgorithm.CentralityResult<StationEsinf> exact =
+                HubCentralityAlgorithm.calculate(compactGraph, 0, strength);
+        HubCentralityAlgorithm.CentralityResult<StationEsinf> approximate =
+                HubCentralityAlgorithm.calculateApproximate(compactGraph, 0, strength, 5, 0.05, new Random(7));
+
+        assertEquals(5, approximate.getSamples());
+        for (StationEsinf s : List.of(A, B, C, D, E)) {
+            assertEquals(exact.getBetweenness().get(s), approximate.getBetweenness().get(s), DELTA);
+            assertEquals(exact.getHarmonicCloseness().get(s), approximate.getHarmonicCloseness().get(s), DELTA);
+            assertEquals(exact.getHubScore().get(s), approximate.getHubScore().get(s), DELTA);
+        }
+    }
+}
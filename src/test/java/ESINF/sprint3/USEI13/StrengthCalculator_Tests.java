@@ -7,6 +7,8 @@ import pt.ipp.isep.dei.data.repository.Repositories;
 import pt.ipp.isep.dei.data.repository.sprint3.RailwayLineEsinfRepository;
 import pt.ipp.isep.dei.domain.ESINF.RailwayLineEsinf;
 import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+import pt.ipp.isep.dei.domain.Graph.Graph;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -66,4 +68,23 @@ class StrengthCalculator_Tests {
         assertEquals(5, algorithm.calculateStrength(A));
         assertEquals(5, algorithm.calculateStrength(B));
     }
+
+    @Test
+    void shouldComputeAllStrengthsInOnePass() {
+        lineRepository.add(new RailwayLineEsinf(A, B, 100.0, 10, 1.0));
+        lineRepository.add(new RailwayLineEsinf(A, C, 120.0, 8, 1.2));
+        lineRepository.add(new RailwayLineEsinf(B, C, 90.0, 6, 0.9));
+
+        Graph<StationEsinf, Double> graph = new Graph<>(false);
+        graph.addVertex(A);
+        graph.addVertex(B);
+        graph.addVertex(C);
+        CompactGraph<StationEsinf> compact = graph.freeze(Double::doubleValue);
+
+        double[] strength = algorithm.calculateStrengths(compact);
+
+        for (StationEsinf s : new StationEsinf[]{A, B, C}) {
+            assertEquals(algorithm.calculateStrength(s), strength[compact.key(s)]);
+        }
+    }
 }
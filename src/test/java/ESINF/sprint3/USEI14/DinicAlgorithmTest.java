@@ -0,0 +1,114 @@
+package ESINF.sprint3.USEI14;
+
+import org.junit.jupiter.api.Test;
+import pt.ipp.isep.dei.controller.algorithms.DinicAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.EdmondsKarpAlgorithm;
+import pt.ipp.isep.dei.controller.operationsAnalyst.OperationsAnalystController;
+import pt.ipp.isep.dei.data.repository.Repositories;
+import pt.ipp.isep.dei.data.repository.sprint3.EdgeEsinfRepository;
+import pt.ipp.isep.dei.data.repository.sprint3.NodeEsinfRepository;
+import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.Edge;
+import pt.ipp.isep.dei.domain.Graph.MetricsStationEdge;
+import pt.ipp.isep.dei.domain.Graph.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the sparse Dinic max-flow and its use by the operations analyst controller.
+ */
+class DinicAlgorithmTest {
+
+    /**
+     * Test 1 – Random networks give the same flow as Edmonds-Karp, and the min cut separates source and sink
+     */
+    @Test
+    void test1_SameFlowAsEdmondsKarp() {
+        Random random = new Random(5);
+
+        for (int round = 0; round < 50; round++) {
+            int n = 2 + random.nextInt(40);
+            int m = random.nextInt(n * 4);
+            int[][] matrix = new int[n][n];
+            int[] from = new int[m];
+            int[] to = new int[m];
+            int[] capacities = new int[m];
+            for (int k = 0; k < m; k++) {
+                from[k] = random.nextInt(n);
+                to[k] = random.nextInt(n);
+                capacities[k] = random.nextInt(30);
+                if (from[k] != to[k]) matrix[from[k]][to[k]] += capacities[k];
+            }
+
+            DinicAlgorithm network = new DinicAlgorithm(n, from, to, capacities);
+            int source = random.nextInt(n);
+            int sink = (source + 1 + random.nextInt(n - 1)) % n;
+
+            int flow = network.maxFlow(source, sink);
+            assertEquals(EdmondsKarpAlgorithm.edmondsKarp(matrix, source, sink), flow);
+
+            int cut = 0;
+            for (int k = 0; k < m; k++) {
+                if (network.isOnSourceSide(from[k]) && !network.isOnSourceSide(to[k])) cut += capacities[k];
+            }
+            assertTrue(network.isOnSourceSide(source));
+            assertFalse(network.isOnSourceSide(sink));
+            assertEquals(flow, cut);
+
+            // a segunda consulta parte das capacidades originais
+            assertEquals(flow, network.maxFlow(source, sink));
+        }
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new DinicAlgorithm(2, new int[]{0}, new int[]{1}, new int[]{-1}));
+    }
+
+    /**
+     * Test 2 – The controller computes the flow on a large network from the repositories
+     * without a V×V matrix, and picks up repository changes
+     */
+    @Test
+    void test2_ControllerUsesSparseNetwork() {
+        NodeEsinfRepository nodeRepo = Repositories.getInstance().getNodeEsinfRepository();
+        EdgeEsinfRepository edgeRepo = Repositories.getInstance().getEdgeEsinfRepository();
+        nodeRepo.clear();
+        edgeRepo.clear();
+
+        // 50 000 estações (a matriz antiga ocuparia 10 GB): duas vias paralelas entre os extremos
+        int n = 50_000;
+        List<Node<StationEsinf>> nodes = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            StationEsinf s = new StationEsinf(String.valueOf(i), "S" + i, 0, 0);
+            nodes.add(new Node<>(s, s.getId()));
+            nodeRepo.addNode(nodes.get(i));
+        }
+        for (int i = 0; i + 3 < n; i += 2) {
+            edgeRepo.addEdge(line(nodes, i, i + 2, 7));
+            edgeRepo.addEdge(line(nodes, i + 1, i + 3, 5));
+        }
+        edgeRepo.addEdge(line(nodes, 0, 1, 100));
+
+        OperationsAnalystController controller = new OperationsAnalystController();
+        StationEsinf first = nodes.get(0).getValue();
+        StationEsinf last = nodes.get(n - 2).getValue();
+
+        long start = System.nanoTime();
+        assertEquals(7, controller.calculateMaxFlow(first, last));
+        System.out.printf("Max flow on %d stations: %.1f ms%n", n, (System.nanoTime() - start) / 1e6);
+
+        edgeRepo.addEdge(line(nodes, n - 1, n - 2, 20));
+        assertEquals(12, controller.calculateMaxFlow(first, last));
+
+        nodeRepo.clear();
+        edgeRepo.clear();
+    }
+
+    private Edge<StationEsinf, MetricsStationEdge> line(List<Node<StationEsinf>> nodes, int from, int to, int capacity) {
+        return new Edge<>(nodes.get(from), nodes.get(to),
+                new MetricsStationEdge(1, capacity, 0), true);
+    }
+}
@@ -0,0 +1,174 @@
+package ESINF.sprint3.USEI14;
+
+import org.junit.jupiter.api.Test;
+import pt.ipp.isep.dei.controller.algorithms.DinicAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.GomoryHuTree;
+import pt.ipp.isep.dei.controller.operationsAnalyst.OperationsAnalystController;
+import pt.ipp.isep.dei.data.repository.Repositories;
+import pt.ipp.isep.dei.data.repository.sprint3.EdgeEsinfRepository;
+import pt.ipp.isep.dei.data.repository.sprint3.NodeEsinfRepository;
+import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.Edge;
+import pt.ipp.isep.dei.domain.Graph.MetricsStationEdge;
+import pt.ipp.isep.dei.domain.Graph.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Gomory-Hu tree and the cached max-flow queries of the controller.
+ */
+class GomoryHuTreeTest {
+
+    /**
+     * Test 1 – Every pair lookup in the tree matches a direct max-flow on the undirected network
+     */
+    @Test
+    void test1_AllPairsMatchDirectMaxFlow() {
+        Random random = new Random(9);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            for (int round = 0; round < 15; round++) {
+                int n = 2 + random.nextInt(25);
+                int m = random.nextInt(n * 3);
+                int[] us = new int[m];
+                int[] vs = new int[m];
+                int[] capacities = new int[m];
+                for (int k = 0; k < m; k++) {
+                    us[k] = random.nextInt(n);
+                    vs[k] = random.nextInt(n);
+                    capacities[k] = random.nextInt(20);
+                }
+
+                int[] from = new int[2 * m];
+                int[] to = new int[2 * m];
+                int[] both = new int[2 * m];
+                for (int k = 0; k < m; k++) {
+                    from[2 * k] = us[k];
+                    to[2 * k] = vs[k];
+                    from[2 * k + 1] = vs[k];
+                    to[2 * k + 1] = us[k];
+                    both[2 * k] = capacities[k];
+                    both[2 * k + 1] = capacities[k];
+                }
+                DinicAlgorithm network = new DinicAlgorithm(n, from, to, both);
+
+                // lotes de 4 (com recálculo especulativo) e sequencial devem dar o mesmo
+                GomoryHuTree parallel = GomoryHuTree.build(n, us, vs, capacities, executor, 4);
+                GomoryHuTree sequential = GomoryHuTree.build(n, us, vs, capacities, executor, 1);
+
+                for (int s = 0; s < n; s++) {
+                    for (int t = s + 1; t < n; t++) {
+                        int expected = network.maxFlow(s, t);
+                        assertEquals(expected, parallel.maxFlow(s, t), "pair " + s + "-" + t);
+                        assertEquals(expected, parallel.maxFlow(t, s));
+                        assertEquals(expected, sequential.maxFlow(s, t));
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test 2 – Directed queries follow the line direction, undirected ones use the cached tree
+     */
+    @Test
+    void test2_ControllerInvalidatesTreeOnEdgeChange() {
+        NodeEsinfRepository nodeRepo = Repositories.getInstance().getNodeEsinfRepository();
+        EdgeEsinfRepository edgeRepo = Repositories.getInstance().getEdgeEsinfRepository();
+        nodeRepo.clear();
+        edgeRepo.clear();
+
+        List<Node<StationEsinf>> nodes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            StationEsinf s = new StationEsinf("GH" + i, "Station " + i, 0, 0);
+            nodes.add(new Node<>(s, s.getId()));
+            nodeRepo.addNode(nodes.get(i));
+        }
+        edgeRepo.addEdge(line(nodes, 0, 1, 10));
+        edgeRepo.addEdge(line(nodes, 1, 2, 4));
+        edgeRepo.addEdge(line(nodes, 3, 2, 6));
+
+        OperationsAnalystController controller = new OperationsAnalystController();
+        // a linha 3 -> 2 não serve 2 -> 3 no grafo dirigido
+        assertEquals(0, controller.calculateMaxFlowFromInputs("GH0", "GH3", null, null));
+        assertEquals(6, controller.calculateMaxFlowFromInputs("GH3", "GH2", null, null));
+        assertEquals(4, controller.calculateUndirectedMaxFlow(nodes.get(0).getValue(), nodes.get(3).getValue()));
+
+        edgeRepo.addEdge(line(nodes, 0, 3, 5));
+        assertEquals(5, controller.calculateMaxFlowFromInputs("GH0", "GH3", null, null));
+        assertEquals(9, new OperationsAnalystController().calculateUndirectedMaxFlow(
+                nodes.get(3).getValue(), nodes.get(0).getValue()));
+
+        nodeRepo.clear();
+        edgeRepo.clear();
+    }
+
+    /**
+     * Test 3 – Directed queries match Dinic on symmetric (tree) and one-way (Dinic) networks
+     */
+    @Test
+    void test3_DirectedQueriesMatchDinic() {
+        NodeEsinfRepository nodeRepo = Repositories.getInstance().getNodeEsinfRepository();
+        EdgeEsinfRepository edgeRepo = Repositories.getInstance().getEdgeEsinfRepository();
+        Random random = new Random(14);
+
+        for (int round = 0; round < 10; round++) {
+            nodeRepo.clear();
+            edgeRepo.clear();
+            boolean symmetric = round % 2 == 0;
+
+            int n = 2 + random.nextInt(12);
+            List<Node<StationEsinf>> nodes = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                StationEsinf s = new StationEsinf("D" + i, "Station " + i, 0, 0);
+                nodes.add(new Node<>(s, s.getId()));
+                nodeRepo.addNode(nodes.get(i));
+            }
+
+            List<int[]> arcs = new ArrayList<>();
+            for (int k = random.nextInt(3 * n); k > 0; k--) {
+                int u = random.nextInt(n);
+                int v = random.nextInt(n);
+                int capacity = 1 + random.nextInt(9);
+                arcs.add(new int[]{u, v, capacity});
+                if (symmetric) arcs.add(new int[]{v, u, capacity});
+            }
+            int[] from = new int[arcs.size()];
+            int[] to = new int[arcs.size()];
+            int[] capacities = new int[arcs.size()];
+            for (int k = 0; k < arcs.size(); k++) {
+                from[k] = arcs.get(k)[0];
+                to[k] = arcs.get(k)[1];
+                capacities[k] = arcs.get(k)[2];
+                edgeRepo.addEdge(line(nodes, from[k], to[k], capacities[k]));
+            }
+            DinicAlgorithm network = new DinicAlgorithm(n, from, to, capacities);
+
+            OperationsAnalystController controller = new OperationsAnalystController();
+            for (int s = 0; s < n; s++) {
+                for (int t = 0; t < n; t++) {
+                    if (s == t) continue;
+                    assertEquals(network.maxFlow(s, t),
+                            controller.calculateMaxFlow(nodes.get(s).getValue(), nodes.get(t).getValue()),
+                            "pair " + s + "-" + t);
+                }
+            }
+        }
+
+        nodeRepo.clear();
+        edgeRepo.clear();
+    }
+
+    private Edge<StationEsinf, MetricsStationEdge> line(List<Node<StationEsinf>> nodes, int from, int to, int capacity) {
+        return new Edge<>(nodes.get(from), nodes.get(to), new MetricsStationEdge(1, capacity, 0), true);
+    }
+}
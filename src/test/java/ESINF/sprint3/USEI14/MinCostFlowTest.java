@@ -0,0 +1,208 @@
+package ESINF.sprint3.USEI14;
+
+import org.junit.jupiter.api.Test;
+import pt.ipp.isep.dei.controller.algorithms.DinicAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.MinCostFlowAlgorithm;
+import pt.ipp.isep.dei.controller.operationsAnalyst.OperationsAnalystController;
+import pt.ipp.isep.dei.controller.operationsAnalyst.OperationsAnalystController.FreightDemand;
+import pt.ipp.isep.dei.controller.operationsAnalyst.OperationsAnalystController.FreightPlan;
+import pt.ipp.isep.dei.data.repository.Repositories;
+import pt.ipp.isep.dei.data.repository.sprint3.EdgeEsinfRepository;
+import pt.ipp.isep.dei.data.repository.sprint3.NodeEsinfRepository;
+import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.Edge;
+import pt.ipp.isep.dei.domain.Graph.MetricsStationEdge;
+import pt.ipp.isep.dei.domain.Graph.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the min-cost flow engine and the freight planning of the operations analyst controller.
+ */
+class MinCostFlowTest {
+
+    private static final double DELTA = 1e-6;
+
+    /**
+     * Reference min-cost flow: successive shortest paths with plain Bellman-Ford.
+     *
+     * @return {routed, cost}
+     */
+    private double[] reference(int n, int[] from, int[] to, int[] capacities, double[] costs, int s, int t, int amount) {
+        int m = from.length;
+        int[] residual = new int[2 * m];
+        for (int k = 0; k < m; k++) residual[2 * k] = capacities[k];
+
+        int routed = 0;
+        double total = 0;
+        while (routed < amount) {
+            double[] dist = new double[n];
+            int[] parent = new int[n];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            dist[s] = 0;
+            for (int round = 0; round < n; round++) {
+                for (int e = 0; e < 2 * m; e++) {
+                    int k = e / 2;
+                    int u = e % 2 == 0 ? from[k] : to[k];
+                    int v = e % 2 == 0 ? to[k] : from[k];
+                    double c = e % 2 == 0 ? costs[k] : -costs[k];
+                    if (residual[e] > 0 && dist[u] + c < dist[v] - 1e-9) {
+                        dist[v] = dist[u] + c;
+                        parent[v] = e;
+                    }
+                }
+            }
+            if (Double.isInfinite(dist[t])) break;
+
+            int bottleneck = amount - routed;
+            for (int v = t; v != s; ) {
+                int e = parent[v];
+                bottleneck = Math.min(bottleneck, residual[e]);
+                v = e % 2 == 0 ? from[e / 2] : to[e / 2];
+            }
+            for (int v = t; v != s; ) {
+                int e = parent[v];
+                residual[e] -= bottleneck;
+                residual[e ^ 1] += bottleneck;
+                v = e % 2 == 0 ? from[e / 2] : to[e / 2];
+            }
+            routed += bottleneck;
+            total += bottleneck * dist[t];
+        }
+        return new double[]{routed, total};
+    }
+
+    /**
+     * Test 1 – Single demands match the reference and route the full max flow when asked to
+     */
+    @Test
+    void test1_SingleDemandMatchesReference() {
+        Random random = new Random(13);
+
+        for (int round = 0; round < 60; round++) {
+            int n = 2 + random.nextInt(15);
+            int m = random.nextInt(n * 4);
+            int[] from = new int[m];
+            int[] to = new int[m];
+            int[] capacities = new int[m];
+            double[] costs = new double[m];
+            for (int k = 0; k < m; k++) {
+                from[k] = random.nextInt(n);
+                to[k] = random.nextInt(n);
+                capacities[k] = random.nextInt(10);
+                costs[k] = random.nextInt(20);
+            }
+            int s = random.nextInt(n);
+            int t = (s + 1 + random.nextInt(n - 1)) % n;
+            int amount = random.nextInt(40);
+
+            MinCostFlowAlgorithm network = new MinCostFlowAlgorithm(n, from, to, capacities, costs);
+            MinCostFlowAlgorithm.Routing routing = network.route(s, t, amount);
+            double[] expected = reference(n, from, to, capacities, costs, s, t, amount);
+
+            assertEquals((int) expected[0], routing.getRouted());
+            assertEquals(expected[1], routing.getCost(), DELTA);
+            assertEquals(Math.min(amount, new DinicAlgorithm(n, from, to, capacities).maxFlow(s, t)), routing.getRouted());
+
+            // a quantidade em cada arco respeita a capacidade e o custo bate certo
+            double cost = 0;
+            for (int i = 0; i < routing.getArcs().length; i++) {
+                int k = routing.getArcs()[i];
+                assertTrue(routing.getFlows()[i] <= capacities[k]);
+                assertEquals(routing.getFlows()[i], network.load(k));
+                cost += routing.getFlows()[i] * costs[k];
+            }
+            assertEquals(routing.getCost(), cost, DELTA);
+        }
+    }
+
+    /**
+     * Test 2 – Demands streamed one after another share the line capacities
+     */
+    @Test
+    void test2_StreamedDemandsShareCapacity() {
+        // 0 -> 1 -> 3 barato (capacidade 5), 0 -> 2 -> 3 caro (capacidade 10), 4 -> 1 com custo negativo
+        int[] from = {0, 1, 0, 2, 4};
+        int[] to = {1, 3, 2, 3, 1};
+        int[] capacities = {5, 5, 10, 10, 3};
+        double[] costs = {1, 1, 5, 5, -2};
+        MinCostFlowAlgorithm network = new MinCostFlowAlgorithm(5, from, to, capacities, costs);
+
+        MinCostFlowAlgorithm.Routing first = network.route(0, 3, 4);
+        assertEquals(4, first.getRouted());
+        assertEquals(8, first.getCost(), DELTA);
+
+        MinCostFlowAlgorithm.Routing second = network.route(0, 3, 4);
+        assertEquals(4, second.getRouted());
+        assertEquals(2 + 30, second.getCost(), DELTA);
+        assertEquals(0, network.remainingCapacity(1));
+
+        // a linha 1 -> 3 já está cheia
+        MinCostFlowAlgorithm.Routing third = network.route(4, 3, 3);
+        assertEquals(0, third.getRouted());
+        assertFalse(third.isFullyRouted());
+
+        int[][] demand = new int[5][5];
+        demand[0][3] = 30;
+        demand[4][3] = 3;
+        network.reset();
+        MinCostFlowAlgorithm.Routing[] all = network.routeAll(demand);
+        assertEquals(2, all.length);
+        assertEquals(15, all[0].getRouted());
+        assertEquals(5 * 2 + 10 * 10, all[0].getCost(), DELTA);
+        assertEquals(15, network.totalRouted());
+
+        assertThrows(IllegalStateException.class, () -> new MinCostFlowAlgorithm(2,
+                new int[]{0, 1}, new int[]{1, 0}, new int[]{1, 1}, new double[]{-3, 1}).route(0, 1, 1));
+    }
+
+    /**
+     * Test 3 – The controller plans freight over the repository lines
+     */
+    @Test
+    void test3_ControllerPlansFreight() {
+        NodeEsinfRepository nodeRepo = Repositories.getInstance().getNodeEsinfRepository();
+        EdgeEsinfRepository edgeRepo = Repositories.getInstance().getEdgeEsinfRepository();
+        nodeRepo.clear();
+        edgeRepo.clear();
+
+        List<Node<StationEsinf>> nodes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            StationEsinf s = new StationEsinf("MC" + i, "Station " + i, 0, 0);
+            nodes.add(new Node<>(s, s.getId()));
+            nodeRepo.addNode(nodes.get(i));
+        }
+        Edge<StationEsinf, MetricsStationEdge> cheap = line(nodes, 0, 1, 6, 2);
+        Edge<StationEsinf, MetricsStationEdge> expensive = line(nodes, 0, 2, 20, 7);
+        edgeRepo.addEdge(cheap);
+        edgeRepo.addEdge(expensive);
+        edgeRepo.addEdge(line(nodes, 1, 3, 20, 1));
+        edgeRepo.addEdge(line(nodes, 2, 3, 20, 1));
+
+        FreightPlan plan = new OperationsAnalystController().planFreight(List.of(
+                new FreightDemand(nodes.get(0).getValue(), nodes.get(3).getValue(), 10),
+                new FreightDemand(nodes.get(0).getValue(), nodes.get(1).getValue(), 4)));
+
+        assertEquals(2, plan.getEntries().size());
+        assertEquals(6 * 3 + 4 * 8, plan.getEntries().get(0).getCost(), DELTA);
+        assertTrue(plan.getEntries().get(0).isFullyRouted());
+        // a linha barata ficou cheia com a primeira procura
+        assertEquals(0, plan.getEntries().get(1).getRouted());
+        assertEquals(6, plan.getLineLoads().get(cheap));
+        assertEquals(4, plan.getLineLoads().get(expensive));
+        assertEquals(50, plan.getTotalCost(), DELTA);
+
+        nodeRepo.clear();
+        edgeRepo.clear();
+    }
+
+    private Edge<StationEsinf, MetricsStationEdge> line(List<Node<StationEsinf>> nodes, int from, int to,
+                                                        int capacity, double cost) {
+        return new Edge<>(nodes.get(from), nodes.get(to), new MetricsStationEdge(1, capacity, cost), true);
+    }
+}
@@ -0,0 +1,198 @@
+package ESINF.sprint3.USEI15;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pt.ipp.isep.dei.controller.algorithms.BellmanFordAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.ContractionHierarchy;
+import pt.ipp.isep.dei.controller.algorithms.PointToPointShortestPathAlgorithm.PathResult;
+import pt.ipp.isep.dei.controller.algorithms.StationNetworkIndex;
+import pt.ipp.isep.dei.controller.routePlanner.ShortestPathController;
+import pt.ipp.isep.dei.data.repository.Repositories;
+import pt.ipp.isep.dei.data.repository.sprint3.EdgeEsinfRepository;
+import pt.ipp.isep.dei.data.repository.sprint3.NodeEsinfRepository;
+import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+import pt.ipp.isep.dei.domain.Graph.Edge;
+import pt.ipp.isep.dei.domain.Graph.Graph;
+import pt.ipp.isep.dei.domain.Graph.MetricsStationEdge;
+import pt.ipp.isep.dei.domain.Graph.Node;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTest {
+
+    private static final double DELTA = 1e-6;
+
+    /**
+     * Random directed network with non-negative distances and costs that can be
+     * negative but never form a negative cycle: cost(u,v) = base + p[u] - p[v].
+     */
+    private Graph<StationEsinf, MetricsStationEdge> randomNetwork(Random random, int n, int m) {
+        Graph<StationEsinf, MetricsStationEdge> graph = new Graph<>(true);
+        List<StationEsinf> stations = new ArrayList<>();
+        int[] p = new int[n];
+        for (int i = 0; i < n; i++) {
+            StationEsinf s = new StationEsinf(String.valueOf(i), "S" + i, 0, 0);
+            stations.add(s);
+            graph.addVertex(s, s.getId());
+            p[i] = random.nextInt(20);
+        }
+        for (int i = 0; i < m; i++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            if (u == v) continue;
+            graph.addEdge(stations.get(u), stations.get(v),
+                    new MetricsStationEdge(1 + random.nextInt(50), 0, random.nextInt(10) + p[u] - p[v]));
+        }
+        return graph;
+    }
+
+    private double pathWeight(CompactGraph<StationEsinf> compact, int profile, int[] path) {
+        double total = 0;
+        for (int i = 0; i < path.length - 1; i++) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int arc = compact.offsets()[path[i]]; arc < compact.offsets()[path[i] + 1]; arc++) {
+                if (compact.targets()[arc] == path[i + 1]) best = Math.min(best, compact.weights(profile)[arc]);
+            }
+            assertNotEquals(Double.POSITIVE_INFINITY, best, "path uses a missing edge");
+            total += best;
+        }
+        return total;
+    }
+
+    /**
+     * Test 1 – Both profiles give the same distances as SPFA and paths made of original edges
+     */
+    @Test
+    void test1_RoutesMatchSpfa() {
+        Graph<StationEsinf, MetricsStationEdge> graph = randomNetwork(new Random(11), 80, 320);
+        CompactGraph<StationEsinf> compact = MetricsStationEdge.freeze(graph);
+        StationNetworkIndex index = StationNetworkIndex.build(compact);
+        int n = compact.numVertices();
+
+        for (int profile : new int[]{MetricsStationEdge.DISTANCE, MetricsStationEdge.COST}) {
+            assertTrue(index.hasProfile(profile));
+            for (int s = 0; s < n; s += 3) {
+                double[] expected = new double[n];
+                assertNull(BellmanFordAlgorithm.spfa(compact, profile, s, new int[n], expected));
+
+                for (int t = 0; t < n; t++) {
+                    PathResult result = index.route(s, t, profile);
+                    if (expected[t] == Double.POSITIVE_INFINITY) {
+                        assertFalse(result.isFound());
+                        continue;
+                    }
+                    assertEquals(expected[t], result.getDistance(), DELTA);
+                    assertEquals(s, result.getVertices()[0]);
+                    assertEquals(t, result.getVertices()[result.getVertices().length - 1]);
+                    assertEquals(expected[t], pathWeight(compact, profile, result.getVertices()), DELTA);
+                }
+            }
+        }
+        assertFalse(index.hasProfile(MetricsStationEdge.CAPACITY));
+    }
+
+    /**
+     * Test 2 – The index survives a round trip to disk and detects network changes
+     */
+    @Test
+    void test2_SerializationAndFingerprint(@TempDir Path dir) throws IOException {
+        Graph<StationEsinf, MetricsStationEdge> graph = randomNetwork(new Random(5), 40, 160);
+        CompactGraph<StationEsinf> compact = MetricsStationEdge.freeze(graph);
+        StationNetworkIndex index = StationNetworkIndex.build(compact);
+
+        Path file = dir.resolve("index/station-network.ch");
+        index.save(file);
+        StationNetworkIndex loaded = StationNetworkIndex.load(file);
+
+        assertTrue(loaded.matches(compact));
+        assertEquals(index.indexOf("7"), loaded.indexOf("7"));
+        for (int t = 0; t < compact.numVertices(); t++) {
+            assertEquals(index.route(0, t, MetricsStationEdge.COST).getDistance(),
+                    loaded.route(0, t, MetricsStationEdge.COST).getDistance(), DELTA);
+        }
+
+        graph.addEdge(graph.vertex(0), graph.vertex(1), new MetricsStationEdge(1, 0, -100));
+        assertFalse(loaded.matches(MetricsStationEdge.freeze(graph)));
+
+        // ficheiros com outras classes são rejeitados antes de serem instanciados
+        Path foreign = dir.resolve("index/foreign.ch");
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(foreign))) {
+            out.writeObject(new ArrayList<>(List.of("7")));
+        }
+        assertThrows(IOException.class, () -> StationNetworkIndex.load(foreign));
+    }
+
+    /**
+     * Test 3 – A negative cost cycle leaves only the distance profile indexed
+     */
+    @Test
+    void test3_NegativeCycleDisablesCostProfile() {
+        Graph<StationEsinf, MetricsStationEdge> graph = new Graph<>(true);
+        StationEsinf a = new StationEsinf("1", "A", 0, 0);
+        StationEsinf b = new StationEsinf("2", "B", 0, 0);
+        graph.addVertex(a, a.getId());
+        graph.addVertex(b, b.getId());
+        graph.addEdge(a, b, new MetricsStationEdge(3, 0, 1));
+        graph.addEdge(b, a, new MetricsStationEdge(4, 0, -2));
+
+        StationNetworkIndex index = StationNetworkIndex.build(MetricsStationEdge.freeze(graph));
+
+        assertTrue(index.hasProfile(MetricsStationEdge.DISTANCE));
+        assertFalse(index.hasProfile(MetricsStationEdge.COST));
+        assertEquals(3, index.route(0, 1, MetricsStationEdge.DISTANCE).getDistance(), DELTA);
+        assertThrows(IllegalStateException.class, () -> index.route(0, 1, MetricsStationEdge.COST));
+        assertThrows(IllegalArgumentException.class,
+                () -> ContractionHierarchy.build(1, new int[]{0, 1}, new int[]{0}, new double[]{-1}));
+    }
+
+    /**
+     * Test 4 – The controller answers through the index built for the loaded network
+     */
+    @Test
+    void test4_ControllerUsesIndex() {
+        NodeEsinfRepository nodeRepo = Repositories.getInstance().getNodeEsinfRepository();
+        EdgeEsinfRepository edgeRepo = Repositories.getInstance().getEdgeEsinfRepository();
+        nodeRepo.clear();
+        edgeRepo.clear();
+
+        for (String key : List.of("1", "2", "3", "4")) {
+            StationEsinf s = new StationEsinf(key, "S" + key, 0, 0);
+            nodeRepo.addNode(new Node<>(s, s.getId()));
+        }
+        edgeRepo.addEdge(new Edge<>(nodeRepo.getNodeByKey("1"), nodeRepo.getNodeByKey("2"), new MetricsStationEdge(1, 0, 4), true));
+        edgeRepo.addEdge(new Edge<>(nodeRepo.getNodeByKey("2"), nodeRepo.getNodeByKey("4"), new MetricsStationEdge(1, 0, -3), true));
+        edgeRepo.addEdge(new Edge<>(nodeRepo.getNodeByKey("1"), nodeRepo.getNodeByKey("3"), new MetricsStationEdge(1, 0, 1), true));
+        edgeRepo.addEdge(new Edge<>(nodeRepo.getNodeByKey("3"), nodeRepo.getNodeByKey("4"), new MetricsStationEdge(1, 0, 1), true));
+
+        Graph<StationEsinf, MetricsStationEdge> graph = new Graph<>(true);
+        for (Node<StationEsinf> node : nodeRepo.getAllNodes()) graph.addVertex(node.getValue(), node.getKey());
+        for (Edge<StationEsinf, MetricsStationEdge> edge : edgeRepo.getAllEdges()) {
+            graph.addEdge(edge.getVOrig(), edge.getVDest(), edge.getWeight());
+        }
+        Repositories.getInstance().getStationNetworkIndexRepository()
+                .setIndex(StationNetworkIndex.build(MetricsStationEdge.freeze(graph)));
+
+        try {
+            ShortestPathController controller = new ShortestPathController();
+            controller.setUseAllPairsCache(false);
+            controller.setvOrigKey("1");
+            controller.setvDestKey("4");
+            controller.setSubgraphResult();
+
+            assertEquals(1, controller.getTotalCostOfSubgraph(), DELTA);
+            assertEquals(2, controller.getEdgesOfSubgraph().size());
+            assertTrue(controller.getEdgesOfNegativeCycle().isEmpty());
+        } finally {
+            Repositories.getInstance().getStationNetworkIndexRepository().clear();
+        }
+    }
+}
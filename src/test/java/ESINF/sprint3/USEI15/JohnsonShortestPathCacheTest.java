@@ -0,0 +1,152 @@
+package ESINF.sprint3.USEI15;
+
+import org.junit.jupiter.api.Test;
+import pt.ipp.isep.dei.controller.algorithms.BellmanFordAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.JohnsonShortestPathCache;
+import pt.ipp.isep.dei.controller.routePlanner.ShortestPathController;
+import pt.ipp.isep.dei.data.repository.Repositories;
+import pt.ipp.isep.dei.data.repository.sprint3.EdgeEsinfRepository;
+import pt.ipp.isep.dei.data.repository.sprint3.NodeEsinfRepository;
+import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+import pt.ipp.isep.dei.domain.Graph.Edge;
+import pt.ipp.isep.dei.domain.Graph.Graph;
+import pt.ipp.isep.dei.domain.Graph.MetricsStationEdge;
+import pt.ipp.isep.dei.domain.Graph.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JohnsonShortestPathCacheTest {
+
+    /**
+     * Random directed graph with negative costs but no negative cycle:
+     * cost(u,v) = base + p[u] - p[v] with base >= 0.
+     */
+    private Graph<StationEsinf, MetricsStationEdge> randomGraph(Random random, int n, int m) {
+        Graph<StationEsinf, MetricsStationEdge> graph = new Graph<>(true);
+        List<StationEsinf> stations = new ArrayList<>();
+        int[] p = new int[n];
+        for (int i = 0; i < n; i++) {
+            StationEsinf s = new StationEsinf(String.valueOf(i), "S" + i, 0, 0);
+            stations.add(s);
+            graph.addVertex(s, s.getId());
+            p[i] = random.nextInt(30);
+        }
+        for (int i = 0; i < m; i++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            if (u == v) continue;
+            graph.addEdge(stations.get(u), stations.get(v), new MetricsStationEdge(0, 0, random.nextInt(10) + p[u] - p[v]));
+        }
+        return graph;
+    }
+
+    /**
+     * Test 1 – Distances from every source match SPFA
+     */
+    @Test
+    void test1_DistancesMatchSpfa() {
+        Graph<StationEsinf, MetricsStationEdge> graph = randomGraph(new Random(9), 60, 240);
+        CompactGraph<StationEsinf> compact = MetricsStationEdge.freeze(graph);
+        int n = compact.numVertices();
+
+        JohnsonShortestPathCache<StationEsinf> cache = new JohnsonShortestPathCache<>(compact, MetricsStationEdge.COST, 8);
+        assertFalse(cache.hasNegativeCycle());
+
+        for (int s = 0; s < n; s++) {
+            double[] expected = new double[n];
+            assertNull(BellmanFordAlgorithm.spfa(compact, MetricsStationEdge.COST, s, new int[n], expected));
+
+            int[] path = new int[n];
+            double[] dist = new double[n];
+            cache.shortestPaths(s, path, dist);
+
+            assertArrayEquals(expected, dist, 1e-9);
+            for (int t = 0; t < n; t++) {
+                assertEquals(expected[t], cache.distance(s, t), 1e-9);
+            }
+        }
+
+        assertEquals(8, cache.cachedSources());
+    }
+
+    /**
+     * Test 2 – Returned paths are made of existing edges and add up to the distance
+     */
+    @Test
+    void test2_PathsAreConsistent() {
+        Graph<StationEsinf, MetricsStationEdge> graph = randomGraph(new Random(4), 30, 120);
+        CompactGraph<StationEsinf> compact = MetricsStationEdge.freeze(graph);
+        JohnsonShortestPathCache<StationEsinf> cache = new JohnsonShortestPathCache<>(compact, MetricsStationEdge.COST, 4);
+
+        for (int t = 0; t < compact.numVertices(); t++) {
+            List<StationEsinf> path = cache.path(0, t);
+            if (cache.distance(0, t) == Double.POSITIVE_INFINITY) {
+                assertTrue(path.isEmpty());
+                continue;
+            }
+
+            double cost = 0;
+            for (int i = 0; i < path.size() - 1; i++) {
+                cost += graph.edge(path.get(i), path.get(i + 1)).getWeight().getCost();
+            }
+            assertSame(compact.vertex(0), path.getFirst());
+            assertSame(compact.vertex(t), path.getLast());
+            assertEquals(cache.distance(0, t), cost, 1e-9);
+        }
+    }
+
+    /**
+     * Test 3 – A negative cycle is reported and queries are refused
+     */
+    @Test
+    void test3_NegativeCycle() {
+        Graph<StationEsinf, MetricsStationEdge> graph = new Graph<>(true);
+        StationEsinf a = new StationEsinf("1", "A", 0, 0);
+        StationEsinf b = new StationEsinf("2", "B", 0, 0);
+        graph.addVertex(a, a.getId());
+        graph.addVertex(b, b.getId());
+        graph.addEdge(a, b, new MetricsStationEdge(0, 0, 1));
+        graph.addEdge(b, a, new MetricsStationEdge(0, 0, -2));
+
+        JohnsonShortestPathCache<StationEsinf> cache =
+                new JohnsonShortestPathCache<>(MetricsStationEdge.freeze(graph), MetricsStationEdge.COST, 4);
+
+        assertTrue(cache.hasNegativeCycle());
+        assertEquals(3, cache.getNegativeCycle().size());
+        assertThrows(IllegalStateException.class, () -> cache.distance(0, 1));
+    }
+
+    /**
+     * Test 4 – The controller sees edges added to the repository after the graph was built
+     */
+    @Test
+    void test4_ControllerRefreshesOnRepositoryChange() {
+        NodeEsinfRepository nodeRepo = Repositories.getInstance().getNodeEsinfRepository();
+        EdgeEsinfRepository edgeRepo = Repositories.getInstance().getEdgeEsinfRepository();
+        nodeRepo.clear();
+        edgeRepo.clear();
+
+        for (String key : List.of("1", "2", "3")) {
+            StationEsinf s = new StationEsinf(key, "S" + key, 0, 0);
+            nodeRepo.addNode(new Node<>(s, s.getId()));
+        }
+        edgeRepo.addEdge(new Edge<>(nodeRepo.getNodeByKey("1"), nodeRepo.getNodeByKey("2"), new MetricsStationEdge(0, 0, 5), true));
+        edgeRepo.addEdge(new Edge<>(nodeRepo.getNodeByKey("2"), nodeRepo.getNodeByKey("3"), new MetricsStationEdge(0, 0, 5), true));
+
+        ShortestPathController controller = new ShortestPathController();
+        controller.setvOrigKey("1");
+        controller.setvDestKey("3");
+        controller.setSubgraphResult();
+        assertEquals(10, controller.getTotalCostOfSubgraph());
+
+        edgeRepo.addEdge(new Edge<>(nodeRepo.getNodeByKey("1"), nodeRepo.getNodeByKey("3"), new MetricsStationEdge(0, 0, -1), true));
+        controller.setSubgraphResult();
+        assertEquals(-1, controller.getTotalCostOfSubgraph());
+        assertEquals(1, controller.getEdgesOfSubgraph().size());
+    }
+}
@@ -0,0 +1,196 @@
+package ESINF.sprint3.USEI15;
+
+import org.junit.jupiter.api.Test;
+import pt.ipp.isep.dei.controller.algorithms.KShortestPathsAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.PointToPointShortestPathAlgorithm;
+import pt.ipp.isep.dei.controller.routePlanner.ShortestPathController;
+import pt.ipp.isep.dei.data.repository.Repositories;
+import pt.ipp.isep.dei.data.repository.sprint3.EdgeEsinfRepository;
+import pt.ipp.isep.dei.data.repository.sprint3.NodeEsinfRepository;
+import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+import pt.ipp.isep.dei.domain.Graph.Edge;
+import pt.ipp.isep.dei.domain.Graph.Graph;
+import pt.ipp.isep.dei.domain.Graph.MetricsStationEdge;
+import pt.ipp.isep.dei.domain.Graph.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the k-shortest loopless paths engine.
+ */
+class KShortestPathsTest {
+
+    private static final double DELTA = 1e-6;
+
+    /**
+     * Lengths of all loopless paths from s to t, by depth-first enumeration,
+     * using the cheapest arc between consecutive vertices.
+     */
+    private List<Double> allPathLengths(double[][] cheapest, int s, int t) {
+        List<Double> lengths = new ArrayList<>();
+        enumerate(cheapest, s, t, new boolean[cheapest.length], 0, lengths);
+        lengths.sort(Double::compare);
+        return lengths;
+    }
+
+    private void enumerate(double[][] cheapest, int u, int t, boolean[] onPath, double length, List<Double> lengths) {
+        if (u == t) {
+            lengths.add(length);
+            return;
+        }
+        onPath[u] = true;
+        for (int v = 0; v < cheapest.length; v++) {
+            if (!onPath[v] && cheapest[u][v] != Double.POSITIVE_INFINITY) {
+                enumerate(cheapest, v, t, onPath, length + cheapest[u][v], lengths);
+            }
+        }
+        onPath[u] = false;
+    }
+
+    /**
+     * Test 1 – The k paths match a brute-force enumeration, with parallel arcs, self-loops and zero weights
+     */
+    @Test
+    void test1_PathsMatchBruteForce() {
+        Random random = new Random(20);
+
+        for (int round = 0; round < 200; round++) {
+            int n = 2 + random.nextInt(8);
+            int m = random.nextInt(n * 4);
+            int[] from = new int[m];
+            int[] to = new int[m];
+            double[] weights = new double[m];
+            double[][] cheapest = new double[n][n];
+            for (double[] row : cheapest) Arrays.fill(row, Double.POSITIVE_INFINITY);
+            for (int a = 0; a < m; a++) {
+                from[a] = random.nextInt(n);
+                to[a] = random.nextInt(n);
+                weights[a] = random.nextInt(10);
+                cheapest[from[a]][to[a]] = Math.min(cheapest[from[a]][to[a]], weights[a]);
+            }
+            int s = random.nextInt(n);
+            int t = (s + 1 + random.nextInt(n - 1)) % n;
+            int k = 1 + random.nextInt(12);
+
+            PointToPointShortestPathAlgorithm.Network network = PointToPointShortestPathAlgorithm.Network.of(n, from, to, weights);
+            KShortestPathsAlgorithm.Alternatives alternatives = KShortestPathsAlgorithm.yen(network, s, t, k, Integer.MAX_VALUE);
+            List<Double> expected = allPathLengths(cheapest, s, t);
+
+            List<PointToPointShortestPathAlgorithm.PathResult> paths = alternatives.getPaths();
+            assertFalse(alternatives.isBudgetExceeded());
+            assertEquals(Math.min(k, expected.size()), paths.size());
+
+            Set<String> distinct = new HashSet<>();
+            for (int i = 0; i < paths.size(); i++) {
+                int[] vertices = paths.get(i).getVertices();
+                assertEquals(expected.get(i), paths.get(i).getDistance(), DELTA);
+                assertEquals(s, vertices[0]);
+                assertEquals(t, vertices[vertices.length - 1]);
+                assertTrue(distinct.add(Arrays.toString(vertices)));
+
+                boolean[] visited = new boolean[n];
+                double length = 0;
+                for (int j = 0; j < vertices.length; j++) {
+                    assertFalse(visited[vertices[j]]);
+                    visited[vertices[j]] = true;
+                    if (j > 0) length += cheapest[vertices[j - 1]][vertices[j]];
+                }
+                assertEquals(paths.get(i).getDistance(), length, DELTA);
+            }
+        }
+    }
+
+    /**
+     * Test 2 – Negative costs, the work budget on a large network and the controller alternatives
+     */
+    @Test
+    void test2_NegativeCostsBudgetAndController() {
+        // 0 -> 1 -> 3 custa 2, 0 -> 2 -> 3 custa 3, 0 -> 3 custa 4 e 0 -> 2 -> 1 -> 3 custa 5
+        Graph<StationEsinf, MetricsStationEdge> small = new Graph<>(true);
+        List<StationEsinf> stations = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            StationEsinf s = new StationEsinf("K" + i, "S" + i, 0, 0);
+            stations.add(s);
+            small.addVertex(s, s.getId());
+        }
+        small.addEdge(stations.get(0), stations.get(1), new MetricsStationEdge(1, 1, 4));
+        small.addEdge(stations.get(1), stations.get(3), new MetricsStationEdge(1, 1, -2));
+        small.addEdge(stations.get(0), stations.get(2), new MetricsStationEdge(1, 1, 1));
+        small.addEdge(stations.get(2), stations.get(3), new MetricsStationEdge(1, 1, 2));
+        small.addEdge(stations.get(2), stations.get(1), new MetricsStationEdge(1, 1, 6));
+        small.addEdge(stations.get(0), stations.get(3), new MetricsStationEdge(1, 1, 4));
+        CompactGraph<StationEsinf> g = MetricsStationEdge.freeze(small);
+
+        List<PointToPointShortestPathAlgorithm.PathResult> costs = KShortestPathsAlgorithm.yen(g, MetricsStationEdge.COST,
+                g.key(stations.get(0)), g.key(stations.get(3)), 10).getPaths();
+        assertEquals(4, costs.size());
+        double[] expected = {2, 3, 4, 5};
+        for (int i = 0; i < expected.length; i++) assertEquals(expected[i], costs.get(i).getDistance(), DELTA);
+
+        // rede grande: as 5 melhores alternativas custam poucas vezes uma pesquisa
+        Random random = new Random(21);
+        int n = 20_000;
+        int[] from = new int[4 * n];
+        int[] to = new int[4 * n];
+        double[] weights = new double[4 * n];
+        for (int a = 0; a < 4 * n; a++) {
+            from[a] = random.nextInt(n);
+            to[a] = a % 4 == 0 ? (from[a] + 1) % n : random.nextInt(n);
+            weights[a] = 1 + random.nextInt(100);
+        }
+        PointToPointShortestPathAlgorithm.Network network = PointToPointShortestPathAlgorithm.Network.of(n, from, to, weights);
+
+        long start = System.nanoTime();
+        KShortestPathsAlgorithm.Alternatives top5 = KShortestPathsAlgorithm.yen(network, 0, n / 2, 5);
+        System.out.printf("Top 5 paths: %.1f ms, %d settled%n", (System.nanoTime() - start) / 1e6, top5.getSettled());
+
+        int single = top5.getPaths().get(0).getSettled();
+        assertEquals(5, top5.getPaths().size());
+        assertTrue(top5.getSettled() <= Math.max(5 * single, 1_000 + single));
+        assertEquals(PointToPointShortestPathAlgorithm.bidirectionalDijkstra(network, 0, n / 2).getDistance(),
+                top5.getPaths().get(0).getDistance(), DELTA);
+        for (int i = 1; i < 5; i++) {
+            assertTrue(top5.getPaths().get(i).getDistance() >= top5.getPaths().get(i - 1).getDistance());
+        }
+
+        KShortestPathsAlgorithm.Alternatives capped = KShortestPathsAlgorithm.yen(network, 0, n / 2, 50, 10);
+        assertTrue(capped.isBudgetExceeded());
+        assertEquals(top5.getPaths().get(0).getDistance(), capped.getPaths().get(0).getDistance(), DELTA);
+
+        // controller sobre os repositórios
+        NodeEsinfRepository nodeRepo = Repositories.getInstance().getNodeEsinfRepository();
+        EdgeEsinfRepository edgeRepo = Repositories.getInstance().getEdgeEsinfRepository();
+        nodeRepo.clear();
+        edgeRepo.clear();
+        List<Node<StationEsinf>> nodes = new ArrayList<>();
+        for (StationEsinf s : stations) {
+            nodes.add(new Node<>(s, s.getId()));
+            nodeRepo.addNode(nodes.get(nodes.size() - 1));
+        }
+        for (Edge<StationEsinf, MetricsStationEdge> e : small.edges()) {
+            edgeRepo.addEdge(new Edge<>(nodes.get(stations.indexOf(e.getVOrig())),
+                    nodes.get(stations.indexOf(e.getVDest())), e.getWeight(), true));
+        }
+
+        ShortestPathController controller = new ShortestPathController();
+        controller.setvOrigKey("K0");
+        controller.setvDestKey("K3");
+        List<Graph<StationEsinf, MetricsStationEdge>> alternatives = controller.computeAlternativePaths(3);
+        assertEquals(3, alternatives.size());
+        assertEquals(3, alternatives.get(0).numVertices());
+        assertTrue(alternatives.get(0).existVertexByKey("K1"));
+        assertTrue(alternatives.get(1).existVertexByKey("K2"));
+        assertEquals(2, alternatives.get(2).numVertices());
+
+        nodeRepo.clear();
+        edgeRepo.clear();
+    }
+}
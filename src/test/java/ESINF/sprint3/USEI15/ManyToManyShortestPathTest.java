@@ -0,0 +1,132 @@
+package ESINF.sprint3.USEI15;
+
+import org.junit.jupiter.api.Test;
+import pt.ipp.isep.dei.controller.algorithms.BellmanFordAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.ManyToManyShortestPathAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.PointToPointShortestPathAlgorithm;
+import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+import pt.ipp.isep.dei.domain.Graph.Graph;
+import pt.ipp.isep.dei.domain.Graph.MetricsStationEdge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the batched many-to-many distance tables.
+ */
+class ManyToManyShortestPathTest {
+
+    private static final double DELTA = 1e-6;
+
+    /**
+     * Random directed network. Costs are negative only from a lower to a higher
+     * station index, so there are negative edges but no negative cycles.
+     */
+    private CompactGraph<StationEsinf> randomNetwork(Random random, int n, int m) {
+        Graph<StationEsinf, MetricsStationEdge> graph = new Graph<>(true);
+        List<StationEsinf> stations = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            StationEsinf s = new StationEsinf(String.valueOf(i), "S" + i, 0, 0);
+            stations.add(s);
+            graph.addVertex(s, s.getId());
+        }
+        for (int i = 0; i < m; i++) {
+            int u = random.nextInt(n);
+            int v = random.nextInt(n);
+            double cost = u < v ? random.nextInt(20) - 5 : 5 + random.nextInt(20);
+            graph.addEdge(stations.get(u), stations.get(v), new MetricsStationEdge(1 + random.nextInt(50), 1, cost));
+        }
+        return MetricsStationEdge.freeze(graph);
+    }
+
+    private void assertSameDistance(double expected, double actual) {
+        if (Double.isInfinite(expected)) assertTrue(Double.isInfinite(actual));
+        else assertEquals(expected, actual, DELTA);
+    }
+
+    /**
+     * Test 1 – Tables match single-source searches, with repeated sources and targets and negative costs
+     */
+    @Test
+    void test1_TableMatchesSingleSourceSearches() {
+        Random random = new Random(4);
+
+        for (int round = 0; round < 10; round++) {
+            int n = 20 + random.nextInt(60);
+            CompactGraph<StationEsinf> g = randomNetwork(random, n, n * 3);
+
+            int[] sources = new int[15];
+            int[] targets = new int[12];
+            for (int i = 0; i < sources.length; i++) sources[i] = random.nextInt(n);
+            for (int j = 0; j < targets.length; j++) targets[j] = random.nextInt(n);
+            sources[1] = sources[0];
+            targets[2] = targets[0];
+
+            double[][] distances = ManyToManyShortestPathAlgorithm.distances(g, MetricsStationEdge.DISTANCE, sources, targets);
+            double[][] costs = ManyToManyShortestPathAlgorithm.distances(g, MetricsStationEdge.COST, sources, targets);
+            assertNotSame(distances[0], distances[1]);
+
+            PointToPointShortestPathAlgorithm.Network network = PointToPointShortestPathAlgorithm.Network.of(g, MetricsStationEdge.DISTANCE);
+            for (int i = 0; i < sources.length; i++) {
+                double[] dist = new double[n];
+                assertNull(BellmanFordAlgorithm.bellmanFord(g, MetricsStationEdge.COST, sources[i], new int[n], dist));
+
+                for (int j = 0; j < targets.length; j++) {
+                    double expected = PointToPointShortestPathAlgorithm.bidirectionalDijkstra(network, sources[i], targets[j]).getDistance();
+                    assertSameDistance(expected, distances[i][j]);
+                    assertSameDistance(dist[targets[j]], costs[i][j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test 2 – Streaming rows on a fixed pool, and a 500×500 table in one bulk call
+     */
+    @Test
+    void test2_StreamingAndBulkTable() {
+        Random random = new Random(6);
+        CompactGraph<StationEsinf> g = randomNetwork(random, 5_000, 20_000);
+        PointToPointShortestPathAlgorithm.Network network = PointToPointShortestPathAlgorithm.Network.of(g, MetricsStationEdge.DISTANCE);
+
+        int[] sources = new int[500];
+        int[] targets = new int[500];
+        for (int i = 0; i < 500; i++) {
+            sources[i] = random.nextInt(5_000);
+            targets[i] = random.nextInt(5_000);
+        }
+
+        long start = System.nanoTime();
+        double[][] table = ManyToManyShortestPathAlgorithm.distances(network, sources, targets);
+        System.out.printf("500x500 distance table: %.1f ms%n", (System.nanoTime() - start) / 1e6);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        boolean[] delivered = new boolean[sources.length];
+        try {
+            ManyToManyShortestPathAlgorithm.distances(network, sources, targets, (row, i) -> {
+                assertFalse(delivered[i]);
+                delivered[i] = true;
+                assertArrayEquals(table[i], row, DELTA);
+            }, executor, 3);
+        } finally {
+            executor.shutdown();
+        }
+        for (boolean d : delivered) assertTrue(d);
+
+        for (int k = 0; k < 50; k++) {
+            int i = random.nextInt(500);
+            int j = random.nextInt(500);
+            double expected = PointToPointShortestPathAlgorithm.bidirectionalDijkstra(network, sources[i], targets[j]).getDistance();
+            assertSameDistance(expected, table[i][j]);
+        }
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ManyToManyShortestPathAlgorithm.distances(network, new int[]{-1}, targets));
+    }
+}
@@ -0,0 +1,159 @@
+package ESINF.sprint3.USEI15;
+
+import org.junit.jupiter.api.Test;
+import pt.ipp.isep.dei.controller.algorithms.BellmanFordAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.PointToPointShortestPathAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.PointToPointShortestPathAlgorithm.GreatCircleBound;
+import pt.ipp.isep.dei.controller.algorithms.PointToPointShortestPathAlgorithm.Network;
+import pt.ipp.isep.dei.controller.algorithms.PointToPointShortestPathAlgorithm.PathResult;
+import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+import pt.ipp.isep.dei.domain.Graph.Graph;
+import pt.ipp.isep.dei.domain.Graph.MetricsStationEdge;
+import pt.ipp.isep.dei.domain.Tree.KDTree.KD2TreeStation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PointToPointShortestPathTest {
+
+    private static final double DELTA = 1e-9;
+
+    /**
+     * Grid of stations around the Iberian peninsula, each linked to its right and
+     * lower neighbours by a line at least as long as the straight-line distance.
+     */
+    private Graph<StationEsinf, MetricsStationEdge> gridNetwork(int side, boolean directed, Random random) {
+        KD2TreeStation.HaversineDistanceComparator haversine = new KD2TreeStation.HaversineDistanceComparator(0, 0);
+        Graph<StationEsinf, MetricsStationEdge> graph = new Graph<>(directed);
+        List<StationEsinf> stations = new ArrayList<>();
+
+        for (int i = 0; i < side * side; i++) {
+            double lat = 37.0 + (i / side) * 0.1;
+            double lon = -9.0 + (i % side) * 0.1;
+            StationEsinf s = new StationEsinf(String.valueOf(i), "S" + i, lat, lon);
+            stations.add(s);
+            graph.addVertex(s, s.getId());
+        }
+
+        for (int i = 0; i < side * side; i++) {
+            for (int j : new int[]{i + 1, i + side}) {
+                if (j >= side * side || (j == i + 1 && j % side == 0)) continue;
+                StationEsinf u = stations.get(i);
+                StationEsinf v = stations.get(j);
+                double km = haversine.haversine(u.getLatitude(), u.getLongitude(), v.getLatitude(), v.getLongitude())
+                        * (1.0 + random.nextDouble());
+                graph.addEdge(u, v, new MetricsStationEdge(km, 0, 0));
+                if (directed && random.nextBoolean()) {
+                    graph.addEdge(v, u, new MetricsStationEdge(km, 0, 0));
+                }
+            }
+        }
+        return graph;
+    }
+
+    private double[] distancesFrom(CompactGraph<StationEsinf> compact, int source) {
+        int n = compact.numVertices();
+        double[] dist = new double[n];
+        assertNull(BellmanFordAlgorithm.spfa(compact, MetricsStationEdge.DISTANCE, source, new int[n], dist));
+        return dist;
+    }
+
+    private double pathLength(CompactGraph<StationEsinf> compact, Graph<StationEsinf, MetricsStationEdge> graph, int[] path) {
+        double length = 0;
+        for (int i = 0; i < path.length - 1; i++) {
+            length += graph.weight(path[i], path[i + 1]).getDistance();
+        }
+        return length;
+    }
+
+    /**
+     * Test 1 – A* with the great-circle bound finds the same distance as a full search
+     */
+    @Test
+    void test1_AStarMatchesFullSearch() {
+        Graph<StationEsinf, MetricsStationEdge> graph = gridNetwork(15, false, new Random(1));
+        CompactGraph<StationEsinf> compact = MetricsStationEdge.freeze(graph);
+        Network network = Network.of(compact, MetricsStationEdge.DISTANCE);
+        GreatCircleBound bound = new GreatCircleBound(compact, MetricsStationEdge.DISTANCE);
+
+        assertEquals(1.0, bound.getScale(), DELTA);
+
+        double[] expected = distancesFrom(compact, 0);
+        for (int t = 0; t < compact.numVertices(); t += 7) {
+            PathResult result = PointToPointShortestPathAlgorithm.aStar(network, 0, t, bound.towards(t));
+
+            assertEquals(expected[t], result.getDistance(), DELTA);
+            assertEquals(result.getDistance(), pathLength(compact, graph, result.getVertices()), DELTA);
+            assertEquals(0, result.getVertices()[0]);
+            assertEquals(t, result.getVertices()[result.getVertices().length - 1]);
+        }
+    }
+
+    /**
+     * Test 2 – A* settles only part of the network for a nearby target
+     */
+    @Test
+    void test2_AStarSettlesFewVertices() {
+        Graph<StationEsinf, MetricsStationEdge> graph = gridNetwork(20, false, new Random(2));
+        CompactGraph<StationEsinf> compact = MetricsStationEdge.freeze(graph);
+        Network network = Network.of(compact, MetricsStationEdge.DISTANCE);
+        GreatCircleBound bound = new GreatCircleBound(compact, MetricsStationEdge.DISTANCE);
+
+        int source = 210;
+        int target = 214;
+        PathResult aStar = PointToPointShortestPathAlgorithm.aStar(network, source, target, bound.towards(target));
+        PathResult dijkstra = PointToPointShortestPathAlgorithm.aStar(network, source, target, v -> 0.0);
+
+        assertEquals(dijkstra.getDistance(), aStar.getDistance(), DELTA);
+        assertTrue(aStar.getSettled() < dijkstra.getSettled());
+        assertTrue(dijkstra.getSettled() < compact.numVertices());
+    }
+
+    /**
+     * Test 3 – Bidirectional Dijkstra on a directed network matches a full search
+     */
+    @Test
+    void test3_BidirectionalMatchesFullSearch() {
+        Graph<StationEsinf, MetricsStationEdge> graph = gridNetwork(12, true, new Random(3));
+        CompactGraph<StationEsinf> compact = MetricsStationEdge.freeze(graph);
+        Network network = Network.of(compact, MetricsStationEdge.DISTANCE);
+
+        for (int s = 0; s < compact.numVertices(); s += 13) {
+            double[] expected = distancesFrom(compact, s);
+            for (int t = 0; t < compact.numVertices(); t += 5) {
+                PathResult result = PointToPointShortestPathAlgorithm.bidirectionalDijkstra(network, s, t);
+
+                if (expected[t] == Double.POSITIVE_INFINITY) {
+                    assertFalse(result.isFound());
+                    continue;
+                }
+                assertEquals(expected[t], result.getDistance(), DELTA);
+                assertEquals(expected[t], pathLength(compact, graph, result.getVertices()), DELTA);
+            }
+        }
+    }
+
+    /**
+     * Test 4 – A line shorter than the straight-line distance scales the bound down
+     */
+    @Test
+    void test4_BoundIsScaledForShortLines() {
+        Graph<StationEsinf, MetricsStationEdge> graph = new Graph<>(false);
+        StationEsinf a = new StationEsinf("1", "A", 41.0, -8.0);
+        StationEsinf b = new StationEsinf("2", "B", 41.0, -7.0);
+        graph.addVertex(a, a.getId());
+        graph.addVertex(b, b.getId());
+        graph.addEdge(a, b, new MetricsStationEdge(42.0, 0, 0));
+
+        CompactGraph<StationEsinf> compact = MetricsStationEdge.freeze(graph);
+        GreatCircleBound bound = new GreatCircleBound(compact, MetricsStationEdge.DISTANCE);
+
+        assertTrue(bound.getScale() < 1.0);
+        assertEquals(42.0, bound.towards(compact.key(b)).applyAsDouble(compact.key(a)), 1e-6);
+        assertThrows(IllegalArgumentException.class, () -> Network.of(compact, new double[]{-1.0, 1.0}));
+    }
+}
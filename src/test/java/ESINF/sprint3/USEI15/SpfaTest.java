@@ -0,0 +1,128 @@
+package ESINF.sprint3.USEI15;
+
+import org.junit.jupiter.api.Test;
+import pt.ipp.isep.dei.controller.algorithms.BellmanFordAlgorithm;
+import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+import pt.ipp.isep.dei.domain.Graph.Edge;
+import pt.ipp.isep.dei.domain.Graph.Graph;
+import pt.ipp.isep.dei.domain.Graph.MetricsStationEdge;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpfaTest {
+
+    private Graph<StationEsinf, MetricsStationEdge> randomGraph(Random random, int n, int m, int minCost) {
+        Graph<StationEsinf, MetricsStationEdge> graph = new Graph<>(true);
+        List<StationEsinf> stations = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            StationEsinf s = new StationEsinf(String.valueOf(i), "S" + i, 0, 0);
+            stations.add(s);
+            graph.addVertex(s, s.getId());
+        }
+        for (int i = 0; i < m; i++) {
+            StationEsinf u = stations.get(random.nextInt(n));
+            StationEsinf v = stations.get(random.nextInt(n));
+            if (u == v) continue;
+            graph.addEdge(u, v, new MetricsStationEdge(0, 0, minCost + random.nextInt(20)));
+        }
+        return graph;
+    }
+
+    /**
+     * Test 1 – Without negative cycles SPFA finds the same distances as Bellman-Ford
+     */
+    @Test
+    void test1_SameDistancesAsBellmanFord() {
+        Random random = new Random(3);
+
+        for (int round = 0; round < 20; round++) {
+            Graph<StationEsinf, MetricsStationEdge> graph = randomGraph(random, 40, 160, 0);
+            StationEsinf origin = graph.vertex(0);
+            int n = graph.numVertices();
+
+            int[] expectedPath = new int[n];
+            double[] expectedDist = new double[n];
+            assertNull(BellmanFordAlgorithm.bellmanFord(graph, origin, expectedPath, expectedDist));
+
+            int[] path = new int[n];
+            double[] dist = new double[n];
+            assertNull(BellmanFordAlgorithm.spfa(graph, origin, path, dist));
+
+            assertArrayEquals(expectedDist, dist, 1e-9);
+            for (int v = 0; v < n; v++) {
+                if (path[v] != -1) {
+                    assertEquals(dist[v], dist[path[v]] + graph.weight(path[v], v).getCost(), 1e-9);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test 2 – Whenever Bellman-Ford finds a negative cycle, SPFA returns a closed walk of negative cost
+     */
+    @Test
+    void test2_NegativeCyclesAreDetected() {
+        Random random = new Random(5);
+        int detected = 0;
+
+        for (int round = 0; round < 50; round++) {
+            Graph<StationEsinf, MetricsStationEdge> graph = randomGraph(random, 30, 90, -4);
+            StationEsinf origin = graph.vertex(0);
+            int n = graph.numVertices();
+
+            boolean expected = BellmanFordAlgorithm.bellmanFord(graph, origin, new int[n], new double[n]) != null;
+            List<Edge<StationEsinf, MetricsStationEdge>> cycle = BellmanFordAlgorithm.spfa(graph, origin, new int[n], new double[n]);
+
+            assertEquals(expected, cycle != null);
+            if (cycle == null) continue;
+            detected++;
+
+            double cost = 0;
+            for (int i = 0; i < cycle.size(); i++) {
+                Edge<StationEsinf, MetricsStationEdge> edge = cycle.get(i);
+                assertNotNull(edge);
+                assertSame(edge.getVDest(), cycle.get((i + 1) % cycle.size()).getVOrig());
+                cost += edge.getWeight().getCost();
+            }
+            assertTrue(cost < 0);
+        }
+
+        assertTrue(detected > 0);
+    }
+
+    /**
+     * Test 3 – The compact graph overload returns the cycle vertices in order
+     */
+    @Test
+    void test3_CompactGraphCycle() {
+        Graph<StationEsinf, MetricsStationEdge> graph = new Graph<>(true);
+        StationEsinf s = new StationEsinf("0", "S", 0, 0);
+        StationEsinf a = new StationEsinf("1", "A", 0, 0);
+        StationEsinf b = new StationEsinf("2", "B", 0, 0);
+        StationEsinf c = new StationEsinf("3", "C", 0, 0);
+        for (StationEsinf st : List.of(s, a, b, c)) graph.addVertex(st, st.getId());
+
+        graph.addEdge(s, a, new MetricsStationEdge(0, 0, 4));
+        graph.addEdge(a, b, new MetricsStationEdge(0, 0, 2));
+        graph.addEdge(b, c, new MetricsStationEdge(0, 0, -6));
+        graph.addEdge(c, a, new MetricsStationEdge(0, 0, 3));
+
+        CompactGraph<StationEsinf> compact = MetricsStationEdge.freeze(graph);
+        int[] path = new int[4];
+        double[] dist = new double[4];
+
+        List<StationEsinf> cycle = BellmanFordAlgorithm.spfa(compact, MetricsStationEdge.COST, compact.key(s), path, dist);
+
+        assertNotNull(cycle);
+        assertEquals(4, cycle.size());
+        assertSame(cycle.getFirst(), cycle.getLast());
+        for (int i = 0; i < cycle.size() - 1; i++) {
+            assertNotNull(graph.edge(cycle.get(i), cycle.get(i + 1)));
+        }
+    }
+}
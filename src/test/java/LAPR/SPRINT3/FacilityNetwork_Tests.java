@@ -0,0 +1,85 @@
+package LAPR.SPRINT3;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pt.ipp.isep.dei.controller.trafficDispatcher.EstimatedTravelController;
+import pt.ipp.isep.dei.data.memory.FacilityStoreInMemory;
+import pt.ipp.isep.dei.data.memory.RailwayLineSegmentStoreInMemory;
+import pt.ipp.isep.dei.data.memory.RailwayLineStoreInMemory;
+import pt.ipp.isep.dei.domain.Facility;
+import pt.ipp.isep.dei.domain.trackRelated.FacilityNetwork;
+import pt.ipp.isep.dei.domain.trackRelated.RailwayLine;
+import pt.ipp.isep.dei.domain.trackRelated.RailwayLineSegment;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FacilityNetwork_Tests {
+
+    private final FacilityStoreInMemory facilityStore = new FacilityStoreInMemory();
+    private final RailwayLineStoreInMemory lineStore = new RailwayLineStoreInMemory();
+    private final RailwayLineSegmentStoreInMemory segmentStore = new RailwayLineSegmentStoreInMemory();
+
+    @BeforeEach
+    void setUp() {
+        facilityStore.clear();
+        lineStore.clear();
+        segmentStore.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        setUp();
+    }
+
+    private RailwayLine line(int id, int start, int end, int... lengths) {
+        RailwayLine line = new RailwayLine(id, "L" + id, start, end, "VAT");
+        lineStore.save(null, line);
+        // segmentos adicionados por ordem inversa do identificador
+        for (int k = 0; k < lengths.length; k++) {
+            RailwayLineSegment segment = new RailwayLineSegment(id * 100 - k, false, 100, lengths[k], 1, 100, 1);
+            line.addSegment(segment, k + 1);
+            segmentStore.save(null, segment);
+            segment.addRailwayLine(line);
+        }
+        return line;
+    }
+
+    @Test
+    void verifySharedNetworkAndTravelPath() {
+        System.out.println("\n[Test] verifySharedNetworkAndTravelPath");
+
+        for (int i = 1; i <= 4; i++) facilityStore.save(null, new Facility(i, "F" + i, true, null));
+        RailwayLine l12 = line(1, 1, 2, 3_000, 2_000);
+        line(2, 2, 3, 4_000);
+        line(3, 1, 3, 10_000);
+        line(4, 3, 4, 1_000, 1_000, 500);
+
+        FacilityNetwork network = FacilityNetwork.getInstance();
+        assertSame(network, FacilityNetwork.getInstance());
+        assertEquals(4, network.numFacilities());
+        assertEquals(5_000, network.lineLength(1));
+        assertEquals(2_500, network.lineLength(4));
+        assertEquals(l12.getSegments(), network.segmentsOfLine(1));
+
+        int f3 = network.indexOfFacility(3);
+        assertEquals(3, network.endArc(f3) - network.firstArc(f3));
+        assertEquals(-1, network.indexOfFacility(99));
+
+        EstimatedTravelController controller = new EstimatedTravelController();
+        controller.setStartFacilityId(1);
+        controller.setEndFacilityId(4);
+        assertTrue(controller.createPath());
+        assertEquals(11.5, controller.getTotalDistanceKm(), 1e-9);
+        assertEquals(List.of(1, 2, 4), controller.getPath().stream().map(t -> t.getLine().getId()).toList());
+
+        // mudar um segmento invalida a rede partilhada
+        l12.getSegments().get(0).setLength(9_000);
+        assertNotSame(network, FacilityNetwork.getInstance());
+        assertTrue(controller.createPath());
+        assertEquals(List.of(3, 4), controller.getPath().stream().map(t -> t.getLine().getId()).toList());
+        assertEquals(12.5, controller.getTotalDistanceKm(), 1e-9);
+    }
+}
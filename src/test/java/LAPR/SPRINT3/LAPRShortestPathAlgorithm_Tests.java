@@ -7,8 +7,12 @@ import pt.ipp.isep.dei.domain.Facility;
 import pt.ipp.isep.dei.domain.trackRelated.RailwayLine;
 import pt.ipp.isep.dei.domain.trackRelated.RailwayLineSegment;
 import pt.ipp.isep.dei.domain.trackRelated.Siding;
+import pt.ipp.isep.dei.domain.transportationRelated.Freight;
+import pt.ipp.isep.dei.domain.transportationRelated.Route;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -342,4 +346,158 @@ class LAPRShortestPathAlgorithm_Tests {
 
         assertEquals(List.of(a, c, d, f, g), path);
     }
+
+    @Test
+    void verifyDistanceTableMatchesSingleSearches() {
+        System.out.println("\n[Test] verifyDistanceTableMatchesSingleSearches");
+
+        Facility a = new Facility(1, "A", true, null);
+        Facility b = new Facility(2, "B", true, null);
+        Facility c = new Facility(3, "C", true, null);
+        Facility d = new Facility(4, "D", true, null);
+        Facility e = new Facility(5, "E", true, null);
+
+        RailwayLine lineAB = new RailwayLine(1, "A-B", 1, 2, "VAT");
+        lineAB.addSegment(new RailwayLineSegment(1, false, 100, 20, 1, 100, 1), 1);
+        RailwayLine lineBC = new RailwayLine(2, "B-C", 2, 3, "VAT");
+        lineBC.addSegment(new RailwayLineSegment(2, false, 100, 15, 2, 100, 1), 1);
+        RailwayLine lineAC = new RailwayLine(3, "A-C", 1, 3, "VAT");
+        lineAC.addSegment(new RailwayLineSegment(3, false, 100, 40, 1, 100, 1), 1);
+        RailwayLine lineCD = new RailwayLine(4, "C-D", 3, 4, "VAT");
+        lineCD.addSegment(new RailwayLineSegment(4, false, 100, 10, 1, 100, 1, new Siding(1, 2, 3)), 1);
+
+        List<Facility> facilities = List.of(a, b, c, d, e);
+        List<RailwayLine> lines = List.of(lineAB, lineBC, lineAC, lineCD);
+
+        LAPRShortestPathAlgorithm alg = new LAPRShortestPathAlgorithm();
+        double[][] table = alg.distanceTable(facilities, facilities, facilities, lines);
+
+        for (int i = 0; i < facilities.size(); i++) {
+            for (int j = 0; j < facilities.size(); j++) {
+                List<Facility> path = alg.shortestPath(facilities.get(i), facilities.get(j), facilities, lines);
+                if (path.isEmpty()) {
+                    assertTrue(Double.isInfinite(table[i][j]));
+                } else {
+                    assertEquals(alg.totalPathCost(path, lines), table[i][j], 1e-9);
+                }
+            }
+        }
+
+        System.out.println("A -> D: " + table[0][3]);
+        assertEquals(20 + 12 + 9, table[0][3], 1e-9);
+    }
+
+    @Test
+    void verifyAlternativePathsInCostOrder() {
+        System.out.println("\n[Test] verifyAlternativePathsInCostOrder");
+
+        Facility a = new Facility(1, "A", true, null);
+        Facility b = new Facility(2, "B", true, null);
+        Facility c = new Facility(3, "C", true, null);
+        Facility d = new Facility(4, "D", true, null);
+
+        RailwayLine lineAB = new RailwayLine(1, "A-B", 1, 2, "VAT");
+        lineAB.addSegment(new RailwayLineSegment(1, false, 100, 20, 1, 100, 1), 1);
+        RailwayLine lineBC = new RailwayLine(2, "B-C", 2, 3, "VAT");
+        lineBC.addSegment(new RailwayLineSegment(2, false, 100, 15, 2, 100, 1), 1);
+        RailwayLine lineAC = new RailwayLine(3, "A-C", 1, 3, "VAT");
+        lineAC.addSegment(new RailwayLineSegment(3, false, 100, 40, 1, 100, 1), 1);
+        RailwayLine lineCD = new RailwayLine(4, "C-D", 3, 4, "VAT");
+        lineCD.addSegment(new RailwayLineSegment(4, false, 100, 10, 1, 100, 1, new Siding(1, 2, 3)), 1);
+
+        List<Facility> facilities = List.of(a, b, c, d);
+        List<RailwayLine> lines = List.of(lineAB, lineBC, lineAC, lineCD);
+
+        LAPRShortestPathAlgorithm alg = new LAPRShortestPathAlgorithm();
+        List<List<Facility>> paths = alg.kShortestPaths(a, d, 5, facilities, lines);
+
+        System.out.println("Paths found: " + paths);
+
+        assertEquals(2, paths.size());
+        assertEquals(alg.shortestPath(a, d, facilities, lines), paths.get(0));
+        assertEquals(List.of(a, c, d), paths.get(1));
+        assertEquals(41, alg.totalPathCost(paths.get(0), lines));
+        assertEquals(49, alg.totalPathCost(paths.get(1), lines));
+    }
+
+    @Test
+    void verifyRoutePathOnLargeNetwork() {
+        System.out.println("\n[Test] verifyRoutePathOnLargeNetwork");
+
+        int side = 80;
+        Random random = new Random(21);
+        List<Facility> facilities = new ArrayList<>();
+        for (int i = 0; i < side * side; i++) {
+            facilities.add(new Facility(i + 1, "F" + i, true, null));
+        }
+
+        List<RailwayLine> lines = new ArrayList<>();
+        for (int i = 0; i < side * side; i++) {
+            for (int j : new int[]{i + 1, i + side}) {
+                if (j >= side * side || (j == i + 1 && j % side == 0)) continue;
+                RailwayLine line = new RailwayLine(lines.size() + 1, "L" + lines.size(), i + 1, j + 1, "VAT");
+                line.addSegment(new RailwayLineSegment(lines.size() + 1, false, 100, 10 + random.nextInt(90),
+                        1 + random.nextInt(2), 100, 1), 1);
+                lines.add(line);
+            }
+        }
+
+        List<Facility> stops = List.of(facilities.get(0), facilities.get(side * side - 1),
+                facilities.get(side - 1), facilities.get(side * (side - 1)));
+        List<Freight> freights = new ArrayList<>();
+        for (int i = 1; i < stops.size(); i++) {
+            freights.add(new Freight(i, List.of(), stops.get(i - 1), stops.get(i), null));
+        }
+        Route route = new Route(freights, null, 1);
+
+        LAPRShortestPathAlgorithm alg = new LAPRShortestPathAlgorithm();
+        long start = System.nanoTime();
+        List<Facility> path = alg.findGeneralShortestPath(route, facilities, lines);
+        System.out.printf("Route over %d facilities: %.1f ms%n", facilities.size(), (System.nanoTime() - start) / 1e6);
+
+        double[][] table = alg.distanceTable(stops, stops, facilities, lines);
+        int expected = 0;
+        for (int i = 1; i < stops.size(); i++) expected += (int) table[i - 1][i];
+
+        assertEquals(stops.get(0), path.get(0));
+        assertEquals(stops.get(stops.size() - 1), path.get(path.size() - 1));
+        assertEquals(expected, alg.totalPathCost(path, lines));
+    }
+
+    @Test
+    void verifyCachedLineCostFollowsSegmentChanges() {
+        System.out.println("\n[Test] verifyCachedLineCostFollowsSegmentChanges");
+
+        Facility a = new Facility(1, "A", true, null);
+        Facility b = new Facility(2, "B", true, null);
+        Facility c = new Facility(3, "C", true, null);
+
+        RailwayLineSegment direct = new RailwayLineSegment(1, false, 100, 100, 1, 100, 1);
+        RailwayLine lineAB = new RailwayLine(1, "A-B", 1, 2, "VAT");
+        lineAB.addSegment(direct, 1);
+        RailwayLine lineAC = new RailwayLine(2, "A-C", 1, 3, "VAT");
+        lineAC.addSegment(new RailwayLineSegment(2, false, 100, 45, 1, 100, 1), 1);
+        RailwayLine lineCB = new RailwayLine(3, "C-B", 3, 2, "VAT");
+        lineCB.addSegment(new RailwayLineSegment(3, false, 100, 45, 1, 100, 1), 1);
+
+        List<Facility> facilities = List.of(a, b, c);
+        List<RailwayLine> lines = List.of(lineAB, lineAC, lineCB);
+        LAPRShortestPathAlgorithm alg = new LAPRShortestPathAlgorithm();
+
+        assertEquals(100, lineAB.getRoutingCost(1, 2));
+        assertEquals(100, lineAB.getRoutingCost(2, 1));
+        assertEquals(Integer.MAX_VALUE, lineAB.getRoutingCost(1, 3));
+        assertEquals(List.of(a, c, b), alg.shortestPath(a, b, facilities, lines));
+
+        direct.setNumberTracks(2);
+        assertEquals(80, lineAB.getRoutingCost(2, 1));
+        assertEquals(List.of(a, b), alg.shortestPath(a, b, facilities, lines));
+
+        direct.setLength(200);
+        assertEquals(160, alg.totalPathCost(List.of(a, b), lines));
+
+        lineAB.addSegment(new RailwayLineSegment(4, false, 100, 10, 1, 100, 1, new Siding(1, 2, 3)), 2);
+        assertEquals(169, lineAB.getRoutingCost(1, 2));
+        assertEquals(List.of(a, c, b), alg.shortestPath(a, b, facilities, lines));
+    }
 }
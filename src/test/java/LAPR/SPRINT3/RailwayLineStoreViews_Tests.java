@@ -0,0 +1,103 @@
+package LAPR.SPRINT3;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pt.ipp.isep.dei.data.memory.RailwayLineSegmentStoreInMemory;
+import pt.ipp.isep.dei.data.memory.RailwayLineStoreInMemory;
+import pt.ipp.isep.dei.data.memory.TrackGaugeStoreInMemory;
+import pt.ipp.isep.dei.domain.trackRelated.RailwayLine;
+import pt.ipp.isep.dei.domain.trackRelated.RailwayLineSegment;
+import pt.ipp.isep.dei.domain.trackRelated.RailwaySegmentType;
+import pt.ipp.isep.dei.domain.trackRelated.TrackGauge;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RailwayLineStoreViews_Tests {
+
+    private final RailwayLineStoreInMemory lineStore = new RailwayLineStoreInMemory();
+    private final TrackGaugeStoreInMemory gaugeStore = new TrackGaugeStoreInMemory();
+
+    @BeforeEach
+    void setUp() {
+        lineStore.clear();
+        gaugeStore.clear();
+        new RailwayLineSegmentStoreInMemory().clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        setUp();
+    }
+
+    /**
+     * Reference filter: a line is kept unless one of its segments has another
+     * gauge or, for non-electric trains, is electrified.
+     */
+    private List<RailwayLine> scan(TrackGauge trackGauge, RailwaySegmentType type) {
+        List<RailwayLine> kept = new ArrayList<>();
+        for (RailwayLine line : lineStore.findAll()) {
+            boolean ok = true;
+            for (RailwayLineSegment segment : line.getSegments()) {
+                TrackGauge gauge = gaugeStore.findById(null, segment.getTrackGaugeId() + "");
+                if (trackGauge != gauge || (type == RailwaySegmentType.NOT_ELECTRIC
+                        && segment.getElectrifiedLine() == RailwaySegmentType.ELECTRIC)) {
+                    ok = false;
+                    break;
+                }
+            }
+            if (ok) kept.add(line);
+        }
+        kept.sort(Comparator.comparingInt(RailwayLine::getId));
+        return kept;
+    }
+
+    @Test
+    void verifyViewsMatchFullScan() {
+        System.out.println("\n[Test] verifyViewsMatchFullScan");
+
+        Random random = new Random(23);
+        List<TrackGauge> gauges = new ArrayList<>();
+        for (int g = 1; g <= 3; g++) {
+            gauges.add(new TrackGauge(g, 1000 + g));
+            gaugeStore.save(null, gauges.get(g - 1));
+        }
+
+        for (int id = 1; id <= 300; id++) {
+            RailwayLine line = new RailwayLine(id, "L" + id, id, id + 1, "VAT");
+            int gauge = 1 + random.nextInt(3);
+            int segments = random.nextInt(4);
+            for (int k = 0; k < segments; k++) {
+                int segmentGauge = random.nextInt(10) == 0 ? 1 + random.nextInt(3) : gauge;
+                line.addSegment(new RailwayLineSegment(id * 10 + k, random.nextInt(4) == 0, 100, 10, 1, 100,
+                        segmentGauge), k + 1);
+            }
+            lineStore.save(null, line);
+        }
+
+        for (TrackGauge gauge : gauges) {
+            for (RailwaySegmentType type : RailwaySegmentType.values()) {
+                assertEquals(scan(gauge, type), lineStore.findCompatible(gaugeStore, gauge, type));
+            }
+        }
+
+        // alterar um segmento, uma linha ou a store invalida as vistas
+        RailwayLine line = lineStore.findById(null, "7");
+        for (RailwayLineSegment segment : line.getSegments()) segment.setElectrifiedLine(true);
+        line.addSegment(new RailwayLineSegment(9_999, false, 100, 10, 1, 100, 2), -1);
+        lineStore.delete(null, lineStore.findById(null, "8"));
+        lineStore.save(null, new RailwayLine(301, "Empty", 1, 2, "VAT"));
+
+        for (TrackGauge gauge : gauges) {
+            for (RailwaySegmentType type : RailwaySegmentType.values()) {
+                assertEquals(scan(gauge, type), lineStore.findCompatible(gaugeStore, gauge, type));
+            }
+        }
+        assertTrue(lineStore.findCompatibleIds(gaugeStore, gauges.get(0), RailwaySegmentType.ELECTRIC).get(301));
+    }
+}
@@ -0,0 +1,123 @@
+package LAPR.SPRINT3;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pt.ipp.isep.dei.data.memory.DimensionsStoreInMemory;
+import pt.ipp.isep.dei.data.memory.RouteStoreInMemory;
+import pt.ipp.isep.dei.data.memory.TrainStoreInMemory;
+import pt.ipp.isep.dei.domain.*;
+import pt.ipp.isep.dei.domain.trackRelated.RailwayLineSegment;
+import pt.ipp.isep.dei.domain.trainRelated.ConsistProfile;
+import pt.ipp.isep.dei.domain.trainRelated.Train;
+import pt.ipp.isep.dei.domain.trainRelated.TrainPhysics;
+import pt.ipp.isep.dei.domain.transportationRelated.Freight;
+import pt.ipp.isep.dei.domain.transportationRelated.Route;
+import pt.ipp.isep.dei.domain.wagonRelated.Wagon;
+import pt.ipp.isep.dei.domain.wagonRelated.WagonModel;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrainPhysics_Tests {
+
+    private static final double DELTA = 1e-9;
+
+    @BeforeEach
+    void setUp() {
+        new DimensionsStoreInMemory().clear();
+        new RouteStoreInMemory().clear();
+        new TrainStoreInMemory().clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        setUp();
+    }
+
+    private LocomotiveModel model(int power, int weight, double acceleration, int maxSpeed) {
+        return new LocomotiveModel(1, "M", power, weight, acceleration, 8, maxSpeed, 80.0, 2,
+                null, null, null, List.of(), 0, 0, 0);
+    }
+
+    /**
+     * Reference travel time, recomputing the consist on every call as before the cache.
+     */
+    private Duration expectedTime(Train train, RailwayLineSegment segment) {
+        double weight = 0, power = 0, maxSpeed = 0, accel = 0;
+        for (Locomotive l : train.getLocomotives()) {
+            weight += l.getLocomotiveModel().getMaximumWeight();
+            power += l.getLocomotiveModel().getPower();
+            maxSpeed = Math.max(maxSpeed, l.getLocomotiveModel().getMaxSpeed());
+            accel = Math.max(accel, l.getLocomotiveModel().getAcceleration());
+        }
+        for (Freight f : train.getRoute().getFreights()) {
+            for (Wagon w : f.getWagons()) weight += w.getWagonModel().getDimensions().getWeightTare();
+        }
+        double physics = weight <= 0 ? maxSpeed : power / (weight * 0.0035);
+        double vMaxMS = Math.min(segment.getSpeedLimit(), Math.min(maxSpeed, physics)) * 1000 / 3600;
+        double sToMax = 0.5 * vMaxMS * vMaxMS / accel;
+        if (sToMax >= segment.getLength()) return Duration.ofMillis((long) (Math.sqrt(2 * segment.getLength() / accel) * 1000));
+        return Duration.ofMillis((long) ((vMaxMS / accel + (segment.getLength() - sToMax) / vMaxMS) * 1000));
+    }
+
+    @Test
+    void verifyCachedConsistFollowsCompositionChanges() {
+        System.out.println("\n[Test] verifyCachedConsistFollowsCompositionChanges");
+
+        new DimensionsStoreInMemory().save(null, new Dimensions(7, 10, 3, 4, 1_000));
+        WagonModel wagonModel = new WagonModel(1, "W", 50, 80, 4, 100, 1, 7, 7);
+        Operator operator = new Operator("OP1", "JOAO", "JOTA");
+
+        Freight freight = new Freight(1, List.of(new Wagon(1, wagonModel, "OP1", null),
+                new Wagon(2, wagonModel, "OP1", null)), null, null, null);
+        Route route = new Route(List.of(freight), null, 1);
+        Locomotive slow = new Locomotive(1, "L1", 2020, model(1_500, 20_000, 1.0, 120), operator);
+        Train train = new Train(operator, null, route, List.of(slow));
+
+        RailwayLineSegment segment = new RailwayLineSegment(1, false, 100, 5_000, 1, 160, 1);
+
+        ConsistProfile profile = train.getConsistProfile();
+        assertSame(profile, train.getConsistProfile());
+        assertEquals(22_000, train.getTotalWeigh(), DELTA);
+        assertEquals(1_500 / (22_000 * 0.0035), profile.getMassSpeedLimit(), DELTA);
+        assertEquals(expectedTime(train, segment), TrainPhysics.computeTravelTime(train, segment));
+
+        // novo vagão no frete
+        freight.addWagon(new Wagon(3, wagonModel, "OP1", null));
+        assertNotSame(profile, train.getConsistProfile());
+        assertEquals(23_000, train.getTotalWeigh(), DELTA);
+        assertEquals(expectedTime(train, segment), TrainPhysics.computeTravelTime(train, segment));
+
+        // vagão substituído por um mais pesado e troca de modelo de um vagão
+        new DimensionsStoreInMemory().save(null, new Dimensions(8, 10, 3, 4, 5_000));
+        WagonModel heavyModel = new WagonModel(2, "H", 50, 80, 4, 100, 1, 8, 8);
+        freight.setWagon(0, new Wagon(4, heavyModel, "OP1", null));
+        assertEquals(27_000, train.getTotalWeigh(), DELTA);
+        freight.getWagons().get(1).setWagonModel(heavyModel);
+        assertEquals(31_000, train.getTotalWeigh(), DELTA);
+        assertEquals(1_500 / (31_000 * 0.0035), train.getConsistProfile().getMassSpeedLimit(), DELTA);
+        assertThrows(UnsupportedOperationException.class, () -> freight.getWagons().clear());
+
+        // nova locomotiva
+        Locomotive fast = new Locomotive(2, "L2", 2021, model(6_000, 30_000, 2.5, 200), operator);
+        train.setLocomotives(List.of(slow, fast));
+        assertEquals(7_500, train.getTotalPower(), DELTA);
+        assertEquals(200, train.getMaxAllowedSpeed(), DELTA);
+        assertEquals(2.5, train.getConsistProfile().getMaxAcceleration(), DELTA);
+        assertEquals(expectedTime(train, segment), TrainPhysics.computeTravelTime(train, segment));
+
+        // frete substituído na rota
+        route.removeFreight(freight);
+        route.addFreight(new Freight(2, List.of(), null, null, null));
+        assertEquals(50_000, train.getTotalWeigh(), DELTA);
+
+        train.setLocomotives(List.of(slow));
+        assertEquals(20_000, train.getTotalWeigh(), DELTA);
+        assertEquals(expectedTime(train, segment), TrainPhysics.computeTravelTime(train, segment));
+        assertEquals(expectedTime(train, segment).multipliedBy(3),
+                TrainPhysics.computeTotalTravelTime(train, List.of(segment, segment, segment)));
+    }
+}
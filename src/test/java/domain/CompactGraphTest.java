@@ -0,0 +1,153 @@
+package domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pt.ipp.isep.dei.controller.algorithms.BellmanFordAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.CalculateBetweennessAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.CalculateHarmonicClosenessAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.EdmondsKarpAlgorithm;
+import pt.ipp.isep.dei.controller.algorithms.KruskalAlgorithm;
+import pt.ipp.isep.dei.domain.ESINF.StationEsinf;
+import pt.ipp.isep.dei.domain.Graph.CompactGraph;
+import pt.ipp.isep.dei.domain.Graph.Graph;
+import pt.ipp.isep.dei.domain.Graph.MetricsStationEdge;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link CompactGraph} and the algorithm overloads that run on it.
+ * <p>
+ * Each overload is checked against the result of the equivalent
+ * algorithm on the original {@link Graph}.
+ * </p>
+ */
+class CompactGraphTest {
+
+    private StationEsinf a;
+    private StationEsinf b;
+    private StationEsinf c;
+    private StationEsinf d;
+
+    private Graph<StationEsinf, MetricsStationEdge> metricsGraph;
+    private Graph<StationEsinf, Double> distanceGraph;
+
+    /** Builds the same small network as a metrics graph and as a distance graph. */
+    @BeforeEach
+    void setUp() {
+        a = new StationEsinf("1", "Station A", 0.0, 0.0);
+        b = new StationEsinf("2", "Station B", 1.0, 1.0);
+        c = new StationEsinf("3", "Station C", 2.0, 2.0);
+        d = new StationEsinf("4", "Station D", 3.0, 3.0);
+
+        metricsGraph = new Graph<>(false);
+        distanceGraph = new Graph<>(false);
+        for (StationEsinf s : List.of(a, b, c, d)) {
+            metricsGraph.addVertex(s, s.getId());
+            distanceGraph.addVertex(s, s.getId());
+        }
+
+        addLine(a, b, 20, 5, 3.0);
+        addLine(a, c, 10, 7, 1.0);
+        addLine(b, c, 20, 4, 2.0);
+        addLine(c, d, 20, 6, 4.0);
+    }
+
+    private void addLine(StationEsinf u, StationEsinf v, double distance, int capacity, double cost) {
+        metricsGraph.addEdge(u, v, new MetricsStationEdge(distance, capacity, cost));
+        distanceGraph.addEdge(u, v, distance);
+    }
+
+    /** Verifies the CSR layout keeps vertex ids and stores one arc per direction. */
+    @Test
+    void testFreezeLayout() {
+        CompactGraph<StationEsinf> compact = MetricsStationEdge.freeze(metricsGraph);
+
+        assertEquals(4, compact.numVertices());
+        assertEquals(8, compact.numEdges());
+        assertEquals(3, compact.numWeightProfiles());
+        assertEquals(compact.numEdges(), compact.offsets()[compact.numVertices()]);
+
+        for (int u = 0; u < compact.numVertices(); u++) {
+            assertSame(metricsGraph.vertex(u), compact.vertex(u));
+            assertEquals(metricsGraph.outDegree(compact.vertex(u)), compact.outDegree(u));
+
+            for (int arc = compact.offsets()[u]; arc < compact.offsets()[u + 1]; arc++) {
+                int v = compact.targets()[arc];
+                MetricsStationEdge w = metricsGraph.weight(u, v);
+                assertEquals(u, compact.source(arc));
+                assertEquals(w.getDistance(), compact.weights(MetricsStationEdge.DISTANCE)[arc]);
+                assertEquals(w.getCapacity(), compact.weights(MetricsStationEdge.CAPACITY)[arc]);
+                assertEquals(w.getCost(), compact.weights(MetricsStationEdge.COST)[arc]);
+            }
+        }
+    }
+
+    /** Verifies betweenness and harmonic closeness match the Graph-based versions. */
+    @Test
+    void testCentralityMatchesGraphVersion() {
+        CompactGraph<StationEsinf> compact = distanceGraph.freeze(Double::doubleValue);
+
+        Map<StationEsinf, Double> expectedBetweenness = new CalculateBetweennessAlgorithm(distanceGraph).calculateBetweenness();
+        Map<StationEsinf, Double> expectedCloseness = CalculateHarmonicClosenessAlgorithm.calculateHarmonicCloseness(distanceGraph);
+
+        Map<StationEsinf, Double> betweenness = CalculateBetweennessAlgorithm.calculateBetweenness(compact, 0);
+        Map<StationEsinf, Double> parallelBetweenness = CalculateBetweennessAlgorithm.calculateBetweennessParallel(compact, 0);
+        Map<StationEsinf, Double> closeness = CalculateHarmonicClosenessAlgorithm.calculateHarmonicCloseness(compact, 0);
+
+        for (StationEsinf s : List.of(a, b, c, d)) {
+            assertEquals(expectedBetweenness.get(s), betweenness.get(s), 1e-9);
+            assertEquals(expectedBetweenness.get(s), parallelBetweenness.get(s), 1e-9);
+            assertEquals(expectedCloseness.get(s), closeness.get(s), 1e-9);
+        }
+        assertEquals(2.0 / 3.0, betweenness.get(c), 1e-9);
+    }
+
+    /** Verifies Bellman-Ford on the cost profile finds the same distances. */
+    @Test
+    void testBellmanFordMatchesGraphVersion() {
+        CompactGraph<StationEsinf> compact = MetricsStationEdge.freeze(metricsGraph);
+        int n = compact.numVertices();
+
+        int[] expectedPath = new int[n];
+        double[] expectedDist = new double[n];
+        assertNull(BellmanFordAlgorithm.bellmanFord(metricsGraph, a, expectedPath, expectedDist));
+
+        int[] path = new int[n];
+        double[] dist = new double[n];
+        assertNull(BellmanFordAlgorithm.bellmanFord(compact, MetricsStationEdge.COST, compact.key(a), path, dist));
+
+        assertArrayEquals(expectedDist, dist, 1e-9);
+        assertArrayEquals(expectedPath, path);
+    }
+
+    /** Verifies Kruskal on the distance profile selects a spanning tree of minimum length. */
+    @Test
+    void testKruskalMatchesGraphVersion() {
+        CompactGraph<StationEsinf> compact = MetricsStationEdge.freeze(metricsGraph);
+
+        Graph<StationEsinf, MetricsStationEdge> expected = KruskalAlgorithm.kruskal(metricsGraph);
+        double expectedLength = 0;
+        for (var e : expected.edges()) expectedLength += e.getWeight().getDistance();
+        expectedLength /= 2;
+
+        int[] arcs = KruskalAlgorithm.kruskal(compact, MetricsStationEdge.DISTANCE);
+        double length = 0;
+        for (int arc : arcs) length += compact.weights(MetricsStationEdge.DISTANCE)[arc];
+
+        assertEquals(compact.numVertices() - 1, arcs.length);
+        assertEquals(expectedLength, length, 1e-9);
+    }
+
+    /** Verifies Edmonds-Karp on the capacity profile without a V×V matrix. */
+    @Test
+    void testEdmondsKarpOnCapacityProfile() {
+        CompactGraph<StationEsinf> compact = MetricsStationEdge.freeze(metricsGraph);
+
+        int flow = EdmondsKarpAlgorithm.edmondsKarp(compact, MetricsStationEdge.CAPACITY, compact.key(a), compact.key(d));
+
+        assertEquals(6, flow);
+    }
+}
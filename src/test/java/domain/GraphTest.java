@@ -0,0 +1,103 @@
+package domain;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pt.ipp.isep.dei.domain.Graph.Edge;
+import pt.ipp.isep.dei.domain.Graph.Graph;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@link Graph} class.
+ * <p>
+ * Ensures the vertex indexes, the integer ids and the incoming
+ * adjacency stay consistent with edge and vertex updates.
+ * </p>
+ */
+class GraphTest {
+
+    private Graph<String, Double> directed;
+    private Graph<String, Double> undirected;
+
+    /** Base setup: A -> B, A -> C, B -> C, C -> D in both graph kinds. */
+    @BeforeEach
+    void setUp() {
+        directed = new Graph<>(true);
+        undirected = new Graph<>(false);
+        for (Graph<String, Double> g : List.of(directed, undirected)) {
+            for (String v : List.of("A", "B", "C", "D")) g.addVertex(v);
+            g.addEdge("A", "B", 1.0);
+            g.addEdge("A", "C", 2.0);
+            g.addEdge("B", "C", 3.0);
+            g.addEdge("C", "D", 4.0);
+        }
+    }
+
+    /** Verifies ids follow insertion order and id-based accessors agree with value-based ones. */
+    @Test
+    void testIdsAndIdBasedAccessors() {
+        assertEquals(0, directed.key("A"));
+        assertEquals(3, directed.key("D"));
+        assertEquals(-1, directed.key("Z"));
+        assertEquals("C", directed.vertexByKey("C"));
+        assertTrue(directed.existVertexByKey("B"));
+
+        int a = directed.key("A");
+        Set<String> adjacent = new HashSet<>();
+        for (int id : directed.outgoingEdgeIds(a)) adjacent.add(directed.vertex(id));
+
+        assertEquals(Set.of("B", "C"), adjacent);
+        assertEquals(2.0, directed.weight(a, directed.key("C")));
+        assertNull(directed.weight(directed.key("C"), a));
+        assertEquals(2.0, undirected.weight(undirected.key("C"), a));
+    }
+
+    /** Verifies in-degree and incoming edges for directed and undirected graphs. */
+    @Test
+    void testInDegreeAndIncomingEdges() {
+        assertEquals(0, directed.inDegree("A"));
+        assertEquals(2, directed.inDegree("C"));
+        assertEquals(3, undirected.inDegree("C"));
+
+        Set<String> origins = new HashSet<>();
+        for (Edge<String, Double> e : directed.incomingEdges("C")) {
+            assertEquals("C", e.getVDest());
+            origins.add(e.getVOrig());
+        }
+        assertEquals(Set.of("A", "B"), origins);
+
+        for (Edge<String, Double> e : undirected.incomingEdges("C")) {
+            assertEquals("C", e.getVDest());
+        }
+        assertEquals(3, undirected.incomingEdges("C").size());
+
+        directed.removeEdge("A", "C");
+        assertEquals(1, directed.inDegree("C"));
+    }
+
+    /** Verifies that removing a vertex clears its edges and keeps ids dense. */
+    @Test
+    void testRemoveVertexKeepsIdsDense() {
+        for (Graph<String, Double> g : List.of(directed, undirected)) {
+            assertTrue(g.removeVertex("B"));
+
+            assertEquals(3, g.numVertices());
+            assertEquals(-1, g.key("B"));
+            assertFalse(g.existVertexByKey("B"));
+            for (int id = 0; id < g.numVertices(); id++) {
+                assertEquals(id, g.key(g.vertex(id)));
+            }
+            assertFalse(g.adjVertices("A").contains("B"));
+            assertTrue(Arrays.stream(g.outgoingEdgeIds(g.key("A"))).noneMatch(id -> id >= g.numVertices()));
+        }
+
+        assertEquals(1, directed.inDegree("C"));
+        assertEquals(2, directed.numEdges());
+        assertEquals(4, undirected.numEdges());
+    }
+}
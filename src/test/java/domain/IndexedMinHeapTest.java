@@ -0,0 +1,98 @@
+package domain;
+
+import org.junit.jupiter.api.Test;
+import pt.ipp.isep.dei.domain.Graph.IndexedMinHeap;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link IndexedMinHeap}.
+ */
+class IndexedMinHeapTest {
+
+    /** Verifies vertices come out by priority, ties broken by the lower index. */
+    @Test
+    void testPollOrderWithTies() {
+        IndexedMinHeap heap = new IndexedMinHeap(5);
+        heap.insert(3, 2.0);
+        heap.insert(1, 2.0);
+        heap.insert(4, 0.5);
+        heap.insert(0, 7.0);
+
+        assertEquals(4, heap.size());
+        assertEquals(4, heap.poll());
+        assertEquals(1, heap.poll());
+        assertEquals(3, heap.poll());
+        assertEquals(0, heap.poll());
+        assertTrue(heap.isEmpty());
+    }
+
+    /** Verifies decrease-key moves a vertex up without creating a second entry. */
+    @Test
+    void testDecreaseKey() {
+        IndexedMinHeap heap = new IndexedMinHeap(4);
+        heap.insert(0, 10.0);
+        heap.insert(1, 20.0);
+        heap.insert(2, 30.0);
+
+        heap.insertOrDecrease(2, 5.0);
+
+        assertEquals(3, heap.size());
+        assertEquals(5.0, heap.priority(2));
+        assertEquals(2, heap.peek());
+        assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(0, 15.0));
+        assertThrows(NoSuchElementException.class, () -> heap.decreaseKey(3, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> heap.insert(1, 1.0));
+    }
+
+    /** Verifies clear empties the heap so it can be reused. */
+    @Test
+    void testClearAndReuse() {
+        IndexedMinHeap heap = new IndexedMinHeap(3);
+        heap.insert(0, 1.0);
+        heap.insert(2, 3.0);
+
+        heap.clear();
+
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.contains(0));
+        assertFalse(heap.contains(2));
+        heap.insert(2, 1.0);
+        assertEquals(2, heap.poll());
+        assertThrows(NoSuchElementException.class, heap::poll);
+    }
+
+    /** Verifies random inserts and decreases always yield non-decreasing priorities. */
+    @Test
+    void testRandomOperationsKeepHeapOrder() {
+        int n = 500;
+        Random random = new Random(11);
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+        double[] priority = new double[n];
+
+        for (int v = 0; v < n; v++) {
+            priority[v] = random.nextInt(50);
+            heap.insert(v, priority[v]);
+        }
+        for (int i = 0; i < 2 * n; i++) {
+            int v = random.nextInt(n);
+            priority[v] = Math.max(0, priority[v] - random.nextInt(10));
+            heap.decreaseKey(v, priority[v]);
+        }
+
+        double last = Double.NEGATIVE_INFINITY;
+        int lastVertex = -1;
+        int polled = 0;
+        while (!heap.isEmpty()) {
+            int v = heap.poll();
+            assertTrue(priority[v] > last || (priority[v] == last && v > lastVertex));
+            last = priority[v];
+            lastVertex = v;
+            polled++;
+        }
+        assertEquals(n, polled);
+    }
+}
@@ -0,0 +1,47 @@
+package domain;
+
+import org.junit.jupiter.api.Test;
+import pt.ipp.isep.dei.domain.Graph.UnionFind;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for {@link UnionFind}.
+ */
+class UnionFindTest {
+
+    /** Verifies unions merge sets and report whether they changed anything. */
+    @Test
+    void testUnionAndConnected() {
+        UnionFind sets = new UnionFind(6);
+        assertEquals(6, sets.components());
+
+        assertTrue(sets.union(0, 1));
+        assertTrue(sets.union(2, 3));
+        assertTrue(sets.union(1, 3));
+        assertFalse(sets.union(0, 2));
+
+        assertTrue(sets.connected(0, 3));
+        assertFalse(sets.connected(0, 4));
+        assertEquals(3, sets.components());
+        assertEquals(sets.find(0), sets.find(2));
+    }
+
+    /** Verifies a long chain of unions does not recurse and ends in a single set. */
+    @Test
+    void testLongChain() {
+        int n = 1_000_000;
+        UnionFind sets = new UnionFind(n);
+        for (int i = 1; i < n; i++) {
+            assertTrue(sets.union(i - 1, i));
+        }
+        assertEquals(1, sets.components());
+        assertTrue(sets.connected(0, n - 1));
+    }
+
+    /** Verifies a negative size is rejected. */
+    @Test
+    void testInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new UnionFind(-1));
+    }
+}